@@ -0,0 +1,35 @@
+package com.rajasharan.curvepaths;
+
+import android.view.animation.Interpolator;
+
+import com.rajasharan.bezier.TimingCurve;
+
+/**
+ * An {@link Interpolator} for a CSS {@code cubic-bezier(x1, y1, x2, y2)} timing curve,
+ * for animators and view animations that take one. {@code PathInterpolator} needs
+ * API 21; this works down to the app's minimum and shares the curve's table through
+ * {@link TimingCurve#of}.
+ */
+public class CubicBezierInterpolator implements Interpolator {
+    private final TimingCurve mCurve;
+
+    public CubicBezierInterpolator(float x1, float y1, float x2, float y2) {
+        this(TimingCurve.of(x1, y1, x2, y2));
+    }
+
+    public CubicBezierInterpolator(TimingCurve curve) {
+        if (curve == null) {
+            throw new IllegalArgumentException("curve must not be null");
+        }
+        mCurve = curve;
+    }
+
+    public TimingCurve getCurve() {
+        return mCurve;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return mCurve.getValue(input);
+    }
+}
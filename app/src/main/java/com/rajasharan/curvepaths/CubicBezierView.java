@@ -1,40 +1,87 @@
 package com.rajasharan.curvepaths;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
-import android.animation.PropertyValuesHolder;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
-import android.util.SparseArray;
 import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.animation.DecelerateInterpolator;
+
+import com.rajasharan.bezier.ArcLengthTable;
+import com.rajasharan.bezier.BezierSpline;
+import com.rajasharan.bezier.ControlPointStore;
+import com.rajasharan.bezier.CubicTouchModel;
+import com.rajasharan.bezier.CurveFitter;
+import com.rajasharan.bezier.CurveQueries;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.FrameMetrics;
+import com.rajasharan.bezier.StrokeOutliner;
+import com.rajasharan.bezier.TessellationPipeline;
+import com.rajasharan.bezier.TimingCurve;
+import com.rajasharan.bezier.TouchRecorder;
+import com.rajasharan.bezier.TouchSampleBuffer;
+import com.rajasharan.bezier.Tween;
 
 /**
  * Created by rajasharan on 7/26/15.
  */
-public class CubicBezierView extends View implements Animator.AnimatorListener {
+public class CubicBezierView extends View implements Tween.Listener, CubicTouchModel.Listener {
     private static final String TAG = "CubicBezierView";
-    private static final int MAX_COUNT = 4;
+    private static final long RIPPLE_MILLIS = 500;
+    /* easeOutQuart, the 1 - (1 - t)^4 of DecelerateInterpolator(2f) */
+    private static final TimingCurve RIPPLE_TIMING = TimingCurve.of(0.25f, 1f, 0.5f, 1f);
+    private static final int SAMPLE_CAPACITY = 256;
 
-    private SparseArray<Point> mTouches;
-    private int mCurrentTouchIndex;
+    private CubicTouchModel mModel;
+    private ControlPointStore mTouches;
+    private TouchSampleBuffer mSamples;
+    private TouchRecorder mRecorder;
     private float mRadius;
+    private float mHitRadius;
     private float[] mAnimatedRadius;
-    private Path mPath;
+    private BezierSpline mSpline;
+    private int mSegmentCount;
+    private long mFlattenedCount;
+    private TessellationPipeline mTessellator;
+    private ArcLengthTable mArcLengths;
+    private CurveQueries mQueries;
+    private float[] mSnapPoint;
+    private boolean mArcLengthsStale;
+    private float[] mBounds;
+    private RectF mDirty;
+    private Rect mDirtyRect;
     private Paint mFillPaint;
     private Paint mCurvePaint;
+    private Paint mLinePaint;
     private ViewConfiguration mViewConfigs;
-    private ObjectAnimator mAnim;
-    private boolean mMultiTouchMode;
+    private Tween mAnim;
+    private boolean mCacheStatic;
+    private Bitmap mStaticLayer;
+    private Canvas mStaticCanvas;
+    private int mContentVersion;
+    private int mDrawnVersion;
+    private int mCachedVersion;
+    private FrameMetrics mMetrics;
+    private long mInputTime;
+    private boolean mTapered;
+    private float mTaperStart;
+    private float mTaperEnd;
+    private StrokeOutliner mOutliner;
+    private float[] mWidths;
+    private Path mOutlinePath;
+    private Paint mOutlinePaint;
+    private int mOutlineVersion;
 
     public CubicBezierView(Context context) {
         this(context, null);
@@ -50,14 +97,33 @@ public class CubicBezierView extends View implements Animator.AnimatorListener {
     }
 
     private void initialize(Context context) {
-        mTouches = new SparseArray<>(MAX_COUNT);
+        mSamples = new TouchSampleBuffer(SAMPLE_CAPACITY);
         mRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 10, context.getResources().getDisplayMetrics());
-        mAnimatedRadius = new float[] {0f, 0f, 0f, 0f};
-        mCurrentTouchIndex = -1;
+        mHitRadius = mRadius * 2;
+        mModel = new CubicTouchModel(mHitRadius);
+        mModel.setListener(this);
+        mTouches = mModel.getTouches();
+        mSpline = mModel.getSpline();
+        mAnimatedRadius = new float[mModel.getMaxCount()];
         mViewConfigs = ViewConfiguration.get(context);
-        mMultiTouchMode = false;
+        mCachedVersion = -1;
 
-        mPath = new Path();
+        mArcLengths = new ArcLengthTable();
+        mQueries = new CurveQueries();
+        mSnapPoint = new float[2];
+        mTessellator = new TessellationPipeline();
+        mTessellator.setListener(new TessellationPipeline.Listener() {
+            @Override
+            public void onGeometryReady(float left, float top, float right, float bottom) {
+                float pad = mLinePaint.getStrokeWidth();
+                postInvalidateOnAnimation((int) Math.floor(left - pad), (int) Math.floor(top - pad),
+                        (int) Math.ceil(right + pad), (int) Math.ceil(bottom + pad));
+                countInvalidation();
+            }
+        });
+        mBounds = new float[4];
+        mDirty = new RectF();
+        mDirtyRect = new Rect();
         mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mFillPaint.setStyle(Paint.Style.FILL);
         mFillPaint.setColor(Color.GRAY);
@@ -67,19 +133,214 @@ public class CubicBezierView extends View implements Animator.AnimatorListener {
         mCurvePaint.setStrokeWidth(5.0f);
         mCurvePaint.setColor(Color.GRAY);
 
-        PropertyValuesHolder pvhAlpha = PropertyValuesHolder.ofInt("paintAlpha", 255, 0);
-        PropertyValuesHolder pvhRadius = PropertyValuesHolder.ofFloat("radius", 0f, 4f);
-        mAnim = ObjectAnimator.ofPropertyValuesHolder(this, pvhAlpha, pvhRadius);
-        mAnim.setDuration(500);
-        mAnim.setInterpolator(new DecelerateInterpolator(2f));
-        mAnim.addListener(this);
+        /* the curve is drawn as separate lines, round caps hide the seams between them */
+        mLinePaint = new Paint(mCurvePaint);
+        mLinePaint.setStrokeCap(Paint.Cap.ROUND);
+
+        mOutliner = new StrokeOutliner();
+        mWidths = new float[mModel.getMaxCount()];
+        mOutlinePath = new Path();
+        mOutlinePaint = new Paint(mCurvePaint);
+        mOutlinePaint.setStyle(Paint.Style.FILL);
+        mOutlineVersion = -1;
+
+        mAnim = new Tween(RIPPLE_MILLIS, RIPPLE_TIMING, this);
     }
 
     public void setMultiTouchMode(boolean enable) {
-        mMultiTouchMode = enable;
-        mTouches.clear();
         mAnim.cancel();
-        mCurrentTouchIndex = -1;
+        mModel.setMultiTouchMode(enable);
+        if (mRecorder != null) {
+            mRecorder.setMultiTouchMode(enable);
+        }
+        submitCurve();
+    }
+
+    /**
+     * Lets a drag draw the curve: the stroke is fitted with a chain of cubics as it
+     * comes in, instead of placing the control points one tap at a time.
+     */
+    public void setFreehandMode(boolean enable) {
+        mAnim.cancel();
+        mModel.setFreehandMode(enable);
+        submitCurve();
+        invalidate();
+    }
+
+    /** Largest distance in pixels between a freehand sample and the fitted curve. */
+    public void setFreehandTolerance(float tolerance) {
+        mModel.getFitter().setTolerance(tolerance);
+    }
+
+    /**
+     * Maximum distance in pixels between the drawn polyline and the true curve,
+     * and the most line segments a curve may be split into.
+     */
+    public void setCurveQuality(float tolerance, int maxSegments) {
+        mTessellator.setCurveQuality(tolerance, maxSegments);
+        submitCurve();
+    }
+
+    /** How the curve is split into lines, see {@link Flattener.Mode}. */
+    public void setCurveMode(Flattener.Mode mode) {
+        mTessellator.setCurveMode(mode);
+        submitCurve();
+    }
+
+    /**
+     * Easing of the ripple under a touched point, as a CSS {@code cubic-bezier} timing
+     * curve, e.g. {@code TimingCurve.of(0.34f, 1.56f, 0.64f, 1f)} to overshoot. Null
+     * goes back to the default ease out.
+     */
+    public void setRippleTiming(TimingCurve curve) {
+        mAnim.cancel();
+        mAnim = new Tween(RIPPLE_MILLIS, curve != null ? curve : RIPPLE_TIMING, this);
+    }
+
+    /**
+     * Draws the curve as a filled outline whose width runs from {@code startWidth}
+     * to {@code endWidth} pixels along its length, instead of a constant stroke.
+     */
+    public void setStrokeTaper(float startWidth, float endWidth) {
+        if (!(startWidth >= 0f) || !(endWidth >= 0f)) {
+            throw new IllegalArgumentException("widths must not be negative: " + startWidth + ", " + endWidth);
+        }
+        mTapered = true;
+        mTaperStart = startWidth;
+        mTaperEnd = endWidth;
+        mOutlineVersion = -1;
+        invalidate();
+    }
+
+    /** Goes back to drawing the curve with a constant stroke. */
+    public void clearStrokeTaper() {
+        mTapered = false;
+        invalidate();
+    }
+
+    /** Line segments used for the curve in the last frame. */
+    public int getCurveSegmentCount() {
+        return mSegmentCount;
+    }
+
+    /**
+     * Number of taps before the curve starts over. The default of 4 draws a single
+     * cubic; every 3 more chain another cubic onto the end.
+     */
+    public void setMaxControlPoints(int count) {
+        mAnim.cancel();
+        mModel.setMaxCount(count);
+        mTouches = mModel.getTouches();
+        mAnimatedRadius = new float[count];
+        submitCurve();
+        invalidate();
+    }
+
+    /**
+     * Continuity kept at the joins of a chained curve while dragging, one of
+     * {@link BezierSpline#C0}, {@link BezierSpline#G1} or {@link BezierSpline#C1}.
+     */
+    public void setContinuity(int continuity) {
+        mSpline.setContinuity(continuity);
+    }
+
+    /**
+     * Starts recording draw times, input latency, invalidations, flattened segments and
+     * dropped touch samples into {@code metrics}, or stops recording if it is null.
+     * Recording does not allocate.
+     */
+    public void setMetrics(FrameMetrics metrics) {
+        mMetrics = metrics;
+        mInputTime = 0;
+    }
+
+    public FrameMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Starts recording every touch event, with the touch mode and view size, into
+     * {@code recorder}, for replaying the session later with
+     * {@link com.rajasharan.bezier.TouchReplayer} through a {@link CubicTouchModel}.
+     * The log does not hold freehand mode or the continuity, so set those on the
+     * model before replaying.
+     */
+    public void startRecording(TouchRecorder recorder) {
+        recorder.start(SystemClock.uptimeMillis(), getWidth(), getHeight(), mModel.isMultiTouchMode());
+        mRecorder = recorder;
+    }
+
+    public void stopRecording() {
+        if (mRecorder != null) {
+            mRecorder.stop();
+            mRecorder = null;
+        }
+    }
+
+    /**
+     * Keeps the curve and the control point crosses in an offscreen layer once they
+     * stop changing, so frames where only the touch ripple animates draw the layer
+     * and the ripple instead of every cross and line. Costs a view-sized bitmap.
+     */
+    public void setStaticLayerCaching(boolean enable) {
+        mCacheStatic = enable;
+        if (!enable) {
+            releaseStaticLayer();
+        }
+        invalidate();
+    }
+
+    /** Length of the drawn curve in pixels. */
+    public float getCurveLength() {
+        updateArcLengths();
+        return mArcLengths.getLength();
+    }
+
+    /**
+     * Point {@code distance} pixels along the curve from its first end point, clamped
+     * to the curve, for placing markers, dashes or glyphs along it.
+     *
+     * @return false if there is no curve yet
+     */
+    public boolean getPointAtDistance(float distance, float[] out) {
+        updateArcLengths();
+        return mArcLengths.pointAtDistance(distance, out) != -1;
+    }
+
+    /** Unit tangent at {@code distance}; see {@link #getPointAtDistance}. */
+    public boolean getTangentAtDistance(float distance, float[] out) {
+        updateArcLengths();
+        return mArcLengths.tangentAtDistance(distance, out) != -1;
+    }
+
+    /**
+     * Distance in pixels from (x, y) to the closest point of the curve, e.g. to decide
+     * whether a touch landed on the curve itself rather than on a control point.
+     *
+     * @return infinity if there is no curve yet
+     */
+    public float distanceToCurve(float x, float y) {
+        return snapToCurve(x, y, mSnapPoint);
+    }
+
+    /**
+     * Closest point of the curve to (x, y), written to {@code out[0]}, {@code out[1]}.
+     *
+     * @return the distance to it, or infinity if there is no curve yet
+     */
+    public float snapToCurve(float x, float y, float[] out) {
+        mModel.buildSpline();
+        return mQueries.projectChain(3, mSpline.getCoords(), mSpline.getSegmentCount(), x, y, out);
+    }
+
+    /* measures again after the curve changed, and then only the segments that moved */
+    private void updateArcLengths() {
+        if (!mArcLengthsStale) {
+            return;
+        }
+        mModel.buildSpline();
+        mArcLengths.update(3, mSpline.getCoords(), mSpline.getSegmentCount());
+        mArcLengthsStale = false;
     }
 
     private void setPaintAlpha(int a) {
@@ -89,60 +350,296 @@ public class CubicBezierView extends View implements Animator.AnimatorListener {
     }
 
     private void setRadius(float r) {
-        if (mCurrentTouchIndex != -1) {
-            mAnimatedRadius[mCurrentTouchIndex] = mRadius * r;
+        int index = mModel.getCurrentTouchIndex();
+        if (index != -1) {
+            mAnimatedRadius[index] = mRadius * r;
             invalidateTouchRipple();
         }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
         super.onDraw(canvas);
-        drawAnimatedTouches(canvas);
-        drawPath(canvas);
+        if (mTessellator.update()) {
+            mContentVersion++;
+            recordFlattened();
+        }
+        mSegmentCount = mTessellator.getGeometry().getLineCount();
+        drawRipples(canvas);
+        if (mCacheStatic && prepareStaticLayer()) {
+            canvas.drawBitmap(mStaticLayer, 0, 0, null);
+        }
+        else {
+            drawCrosses(canvas);
+            drawPath(canvas);
+        }
+        mDrawnVersion = mContentVersion;
+        if (mMetrics != null) {
+            recordFrame(start);
+        }
     }
 
-    private void drawAnimatedTouches(Canvas canvas) {
-        for (int i = 0; i < MAX_COUNT; i++) {
-            Point p = mTouches.get(i);
-            if (p != null) {
-                canvas.drawCircle(p.x, p.y, mAnimatedRadius[i], mFillPaint);
-                drawCross(p, canvas);
+    private void recordFrame(long start) {
+        mMetrics.recordDraw(System.nanoTime() - start);
+        if (mInputTime != 0) {
+            mMetrics.recordInputLatency((SystemClock.uptimeMillis() - mInputTime) * 1000000L);
+            mInputTime = 0;
+        }
+    }
+
+    /* counts the segments the worker re-flattened for the geometry just picked up, skipped snapshots included */
+    private void recordFlattened() {
+        long flattened = mTessellator.getGeometry().getFlattenedCount();
+        if (mMetrics != null) {
+            mMetrics.recordSegments((int) (flattened - mFlattenedCount));
+        }
+        mFlattenedCount = flattened;
+    }
+
+    /*
+     * Records the crosses and the curve into the static layer the second frame in a row
+     * they are the same, so a drag keeps drawing directly instead of re-recording the
+     * layer on every move.
+     *
+     * @return false if they should be drawn directly this frame
+     */
+    private boolean prepareStaticLayer() {
+        if (mCachedVersion == mContentVersion) {
+            return true;
+        }
+        if (mDrawnVersion != mContentVersion || getWidth() == 0 || getHeight() == 0) {
+            return false;
+        }
+        if (mStaticLayer == null) {
+            mStaticLayer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+            mStaticCanvas = new Canvas(mStaticLayer);
+        }
+        mStaticLayer.eraseColor(Color.TRANSPARENT);
+        drawCrosses(mStaticCanvas);
+        drawPath(mStaticCanvas);
+        mCachedVersion = mContentVersion;
+        return true;
+    }
+
+    private void releaseStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+            mStaticCanvas = null;
+        }
+        mCachedVersion = -1;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        releaseStaticLayer();
+    }
+
+    private void drawRipples(Canvas canvas) {
+        for (int i = 0; i < mAnimatedRadius.length; i++) {
+            if (mTouches.contains(i) && mAnimatedRadius[i] > 0f) {
+                canvas.drawCircle(mTouches.getX(i), mTouches.getY(i), mAnimatedRadius[i], mFillPaint);
             }
         }
     }
 
-    private void drawCross(Point p, Canvas canvas) {
+    private void drawCrosses(Canvas canvas) {
+        for (int i = 0; i < mAnimatedRadius.length; i++) {
+            if (mTouches.contains(i)) {
+                drawCross(mTouches.getX(i), mTouches.getY(i), canvas);
+            }
+        }
+    }
+
+    private void drawCross(float x, float y, Canvas canvas) {
         int r = (int) mRadius/2;
-        canvas.drawLine(p.x-r, p.y-r, p.x+r, p.y+r, mCurvePaint);
-        canvas.drawLine(p.x+r, p.y-r, p.x-r, p.y+r, mCurvePaint);
+        canvas.drawLine(x-r, y-r, x+r, y+r, mCurvePaint);
+        canvas.drawLine(x+r, y-r, x-r, y+r, mCurvePaint);
     }
 
+    /* draws the newest geometry the tessellation worker has finished */
     private void drawPath(Canvas canvas) {
-        Point p0, p1, p2, p3;
-        p0 = mTouches.get(0);
-        p1 = mTouches.get(1);
-        p2 = mTouches.get(2);
-        p3 = mTouches.get(3);
+        if (mTapered) {
+            drawOutline(canvas);
+            return;
+        }
+        TessellationPipeline.Geometry g = mTessellator.getGeometry();
+        if (g.getLineCount() == 0) {
+            return;
+        }
+        canvas.drawLines(g.getLines(), 0, g.getLineCount() * 4, mLinePaint);
+    }
 
-        if (p3 != null && p2 != null && p1 != null && p0 != null) {
-            mPath.rewind();
-            mPath.moveTo(p0.x, p0.y);
-            mPath.cubicTo(p2.x, p2.y, p3.x, p3.y, p1.x, p1.y);
-            canvas.drawPath(mPath, mCurvePaint);
+    /* fills the tapered outline of the curve, rebuilt only after the curve changed */
+    private void drawOutline(Canvas canvas) {
+        if (mOutlineVersion != mContentVersion) {
+            buildOutline();
+            mOutlineVersion = mContentVersion;
         }
-        else if (p2 != null && p1 != null && p0 != null) {
-            mPath.rewind();
-            mPath.moveTo(p0.x, p0.y);
-            mPath.quadTo(p2.x, p2.y, p1.x, p1.y);
-            canvas.drawPath(mPath, mCurvePaint);
+        canvas.drawPath(mOutlinePath, mOutlinePaint);
+    }
+
+    private void buildOutline() {
+        mOutlinePath.rewind();
+        mModel.buildSpline();
+        int segments = mSpline.getSegmentCount();
+        if (segments == 0) {
+            return;
+        }
+        /* widths at the knots, spread over the curve by arc length */
+        updateArcLengths();
+        if (mWidths.length < segments + 1) {
+            mWidths = new float[Math.max(segments + 1, mWidths.length * 2)];
+        }
+        float length = mArcLengths.getLength();
+        float distance = 0f;
+        for (int s = 0; s <= segments; s++) {
+            float f = length > 0f ? distance / length : (float) s / segments;
+            mWidths[s] = mTaperStart + (mTaperEnd - mTaperStart) * f;
+            if (s < segments) {
+                distance += mArcLengths.getSegmentLength(s);
+            }
+        }
+        int cubics = mOutliner.outline(3, mSpline.getCoords(), segments, mWidths, 0);
+        float[] c = mOutliner.getCoords();
+        mOutlinePath.moveTo(c[0], c[1]);
+        for (int i = 0; i < cubics; i++) {
+            int k = i * 6;
+            mOutlinePath.cubicTo(c[k + 2], c[k + 3], c[k + 4], c[k + 5], c[k + 6], c[k + 7]);
         }
-        else if (p1 != null && p0 != null) {
-            mPath.rewind();
-            mPath.moveTo(p0.x, p0.y);
-            mPath.lineTo(p1.x, p1.y);
-            canvas.drawPath(mPath, mCurvePaint);
+        mOutlinePath.close();
+    }
+
+    /* hands the current control points to the tessellation worker */
+    private void submitCurve() {
+        mModel.buildSpline();
+        publishSpline();
+    }
+
+    private void publishSpline() {
+        mTessellator.submit(mSpline);
+        mArcLengthsStale = true;
+        mContentVersion++;
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        CurveFitter fitter = mModel.getFitter();
+        state.mMaxCount = mModel.getMaxCount();
+        state.mMultiTouchMode = mModel.isMultiTouchMode();
+        state.mFreehandMode = mModel.isFreehandMode();
+        state.mContinuity = mSpline.getContinuity();
+        state.mPresent = new boolean[state.mMaxCount];
+        for (int i = 0; i < state.mMaxCount; i++) {
+            state.mPresent[i] = mTouches.contains(i);
         }
+        state.mTouches = mTouches.getCoords().clone();
+        /* a stroke still being drawn is saved as its committed segments and pending samples, untouched */
+        state.mStrokeSegments = fitter.getCommittedCount();
+        state.mStroke = new float[(state.mStrokeSegments * 3 + 1) * 2];
+        System.arraycopy(fitter.getCoords(), 0, state.mStroke, 0, state.mStrokeSegments > 0 ? state.mStroke.length : 0);
+        state.mStrokeTail = new float[fitter.getTailCount() * 2];
+        System.arraycopy(fitter.getTail(), 0, state.mStrokeTail, 0, state.mStrokeTail.length);
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState s = (SavedState) state;
+        super.onRestoreInstanceState(s.getSuperState());
+        if (s.mMaxCount != mModel.getMaxCount()) {
+            setMaxControlPoints(s.mMaxCount);
+        }
+        mModel.setFreehandMode(s.mFreehandMode);
+        mModel.setMultiTouchMode(s.mMultiTouchMode);
+        mSpline.setContinuity(s.mContinuity);
+        for (int i = 0; i < s.mMaxCount; i++) {
+            if (s.mPresent[i]) {
+                mTouches.set(i, s.mTouches[i * 2], s.mTouches[i * 2 + 1]);
+            }
+        }
+        mModel.getFitter().restore(s.mStroke, s.mStrokeSegments, s.mStrokeTail, s.mStrokeTail.length / 2);
+        mModel.resetCurrentTouch();
+        submitCurve();
+        invalidate();
+    }
+
+    /** Control points, the freehand stroke and the modes, kept across configuration changes. */
+    static class SavedState extends BaseSavedState {
+        int mMaxCount;
+        boolean mMultiTouchMode;
+        boolean mFreehandMode;
+        int mContinuity;
+        boolean[] mPresent;
+        float[] mTouches;
+        int mStrokeSegments;
+        float[] mStroke;
+        float[] mStrokeTail;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mMaxCount = in.readInt();
+            mMultiTouchMode = in.readInt() != 0;
+            mFreehandMode = in.readInt() != 0;
+            mContinuity = in.readInt();
+            mPresent = in.createBooleanArray();
+            mTouches = in.createFloatArray();
+            mStrokeSegments = in.readInt();
+            mStroke = in.createFloatArray();
+            mStrokeTail = in.createFloatArray();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(mMaxCount);
+            out.writeInt(mMultiTouchMode ? 1 : 0);
+            out.writeInt(mFreehandMode ? 1 : 0);
+            out.writeInt(mContinuity);
+            out.writeBooleanArray(mPresent);
+            out.writeFloatArray(mTouches);
+            out.writeInt(mStrokeSegments);
+            out.writeFloatArray(mStroke);
+            out.writeFloatArray(mStrokeTail);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mTessellator.start();
+        submitCurve();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mTessellator.stop();
+        mAnim.cancel();
+        releaseStaticLayer();
+        super.onDetachedFromWindow();
     }
 
     @Override
@@ -151,108 +648,235 @@ public class CubicBezierView extends View implements Animator.AnimatorListener {
         int pointerIndex = event.getActionIndex();
         int pointerId = event.getPointerId(pointerIndex);
 
-        int xp = (int) event.getX(pointerIndex);
-        int yp = (int) event.getY(pointerIndex);
+        float xp = event.getX(pointerIndex);
+        float yp = event.getY(pointerIndex);
+        if (mRecorder != null) {
+            recordEvent(event, action, pointerId);
+        }
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
-                registerTouch(xp, yp, pointerId);
+                markInput(event);
+                if (mModel.isFreehandMode()) {
+                    beginStroke(xp, yp, pointerId);
+                    return true;
+                }
+                mModel.registerTouch(xp, yp, pointerId);
+                submitCurve();
                 invalidate();
+                countInvalidation();
                 //invalidateTouch(x, y);
                 return true;
             }
             case MotionEvent.ACTION_MOVE: {
-                for (int i=0; i<event.getPointerCount(); i++) {
-                    pointerIndex = i;
-                    pointerId = event.getPointerId(pointerIndex);
-                    xp = (int) event.getX(pointerIndex);
-                    yp = (int) event.getY(pointerIndex);
-                    updateTouch(xp, yp, pointerId);
-                    invalidate();
+                markInput(event);
+                drainSamples(event);
+                if (mModel.isFreehandMode()) {
+                    applyStrokeSamples();
+                }
+                else {
+                    applySamples();
                 }
                 return true;
             }
             case MotionEvent.ACTION_POINTER_DOWN: {
+                if (mModel.isFreehandMode()) {
+                    return true;
+                }
                 //Log.d(TAG, String.format("pointerId, pointerIndex: %d,%d: (%d,%d)", pointerId, pointerIndex, xp, yp));
-                registerTouch(xp, yp, pointerId);
+                markInput(event);
+                mModel.registerTouch(xp, yp, pointerId);
+                submitCurve();
                 invalidate();
+                countInvalidation();
                 return true;
             }
             case MotionEvent.ACTION_POINTER_UP: {
             }
             case MotionEvent.ACTION_UP: {
+                mModel.release(pointerId);
+                return true;
             }
             case MotionEvent.ACTION_CANCEL: {
+                mModel.cancel();
+                return true;
             }
         }
         return true;
         //return super.onTouchEvent(event);
     }
 
-    private void registerTouch(int x, int y, int pointerId) {
-        if (!mMultiTouchMode) {
-            registerTouch(x, y);
+    /* remembers the oldest input not drawn yet, for the input-to-draw latency */
+    private void markInput(MotionEvent event) {
+        if (mMetrics == null || mInputTime != 0) {
+            return;
+        }
+        mInputTime = event.getHistorySize() > 0 ? event.getHistoricalEventTime(0) : event.getEventTime();
+    }
+
+    /* queues every coalesced sample of a move event, oldest first */
+    private void drainSamples(MotionEvent event) {
+        int pointers = event.getPointerCount();
+        int history = event.getHistorySize();
+        for (int h = 0; h < history; h++) {
+            long time = event.getHistoricalEventTime(h);
+            for (int i = 0; i < pointers; i++) {
+                mSamples.add(event.getPointerId(i), event.getHistoricalX(i, h), event.getHistoricalY(i, h), time);
+            }
+        }
+        long time = event.getEventTime();
+        for (int i = 0; i < pointers; i++) {
+            mSamples.add(event.getPointerId(i), event.getX(i), event.getY(i), time);
+        }
+    }
+
+    /* logs one event; a move with every sample drainSamples queues */
+    private void recordEvent(MotionEvent event, int action, int pointerId) {
+        int pointerIndex = event.getActionIndex();
+        mRecorder.beginEvent(action, pointerId);
+        if (action != MotionEvent.ACTION_MOVE) {
+            mRecorder.addSample(pointerId, event.getX(pointerIndex), event.getY(pointerIndex), event.getEventTime());
             return;
         }
-        if (pointerId < MAX_COUNT) {
-            mTouches.put(pointerId, new Point(x, y));
-            mCurrentTouchIndex = pointerId;
-            //startTouchAnimation();
+        int pointers = event.getPointerCount();
+        int history = event.getHistorySize();
+        for (int h = 0; h < history; h++) {
+            long time = event.getHistoricalEventTime(h);
+            for (int i = 0; i < pointers; i++) {
+                mRecorder.addSample(event.getPointerId(i), event.getHistoricalX(i, h), event.getHistoricalY(i, h), time);
+            }
+        }
+        long time = event.getEventTime();
+        for (int i = 0; i < pointers; i++) {
+            mRecorder.addSample(event.getPointerId(i), event.getX(i), event.getY(i), time);
         }
     }
 
-    private void registerTouch(int x, int y) {
-        mCurrentTouchIndex++;
-        mCurrentTouchIndex = mCurrentTouchIndex % MAX_COUNT;
-        if (mCurrentTouchIndex == 0) {
-            mTouches.clear();
+    private void beginStroke(float x, float y, int pointerId) {
+        mDirty.setEmpty();
+        includeCurve(mDirty);
+        mModel.registerTouch(x, y, pointerId);
+        invalidateDirty(mDirty);
+        submitCurve();
+    }
+
+    /* feeds the queued samples of the stroke's pointer to the fitter, redrawing what changed */
+    private void applyStrokeSamples() {
+        mDirty.setEmpty();
+        includeCurve(mDirty);
+        mModel.applySamples(mSamples);
+        clearSamples();
+        includeCurve(mDirty);
+        invalidateDirty(mDirty);
+        publishSpline();
+    }
+
+    /* applies the queued samples in one batch and schedules a single redraw of what changed */
+    private void applySamples() {
+        int size = mSamples.size();
+        mDirty.setEmpty();
+        includeCurve(mDirty);
+        for (int i = 0; i < size; i++) {
+            includeTouch(mModel.touchIndex(mSamples.getPointerId(i)), mDirty);
+        }
+        mModel.applySamples(mSamples);
+        for (int i = 0; i < size; i++) {
+            includeTouch(mModel.touchIndex(mSamples.getPointerId(i)), mDirty);
         }
-        mTouches.put(mCurrentTouchIndex, new Point(x, y));
-        startTouchAnimation();
+        clearSamples();
+        includeCurve(mDirty);
+        invalidateDirty(mDirty);
+        publishSpline();
     }
 
-    private void updateTouch(int x, int y, int pointerId) {
-        if (!mMultiTouchMode) {
-            updateTouch(x, y);
+    /* empties the sample queue, counting the samples it had to overwrite since the last batch */
+    private void clearSamples() {
+        int dropped = mSamples.getDroppedCount();
+        if (dropped > 0 && mMetrics != null) {
+            mMetrics.recordDroppedSamples(dropped);
+        }
+        mSamples.clear();
+    }
+
+    /* grows dirty by the tight bounds of the curve plus the stroke */
+    private void includeCurve(RectF dirty) {
+        mModel.buildSpline();
+        if (mSpline.isEmpty()) {
             return;
         }
-        mTouches.put(pointerId, new Point(x, y));
+        mSpline.bounds(mBounds);
+        float pad = mCurvePaint.getStrokeWidth();
+        if (mTapered) {
+            pad = Math.max(pad, Math.max(mTaperStart, mTaperEnd) * 0.5f + 1f);
+        }
+        dirty.union(mBounds[0] - pad, mBounds[1] - pad, mBounds[2] + pad, mBounds[3] + pad);
     }
 
-    private void updateTouch(int x, int y) {
-        mTouches.put(mCurrentTouchIndex, new Point(x, y));
+    /* grows dirty by the ripple and cross drawn around a control point */
+    private void includeTouch(int index, RectF dirty) {
+        if (!mTouches.contains(index)) {
+            return;
+        }
+        float x = mTouches.getX(index);
+        float y = mTouches.getY(index);
+        float pad = mRadius * 4 + mCurvePaint.getStrokeWidth();
+        dirty.union(x - pad, y - pad, x + pad, y + pad);
+    }
+
+    private void invalidateDirty(RectF dirty) {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        dirty.roundOut(mDirtyRect);
+        postInvalidateOnAnimation(mDirtyRect.left, mDirtyRect.top, mDirtyRect.right, mDirtyRect.bottom);
+        countInvalidation();
     }
 
     private void invalidateTouchRipple() {
         int radius = (int) mRadius * 4;
-        Point p = mTouches.get(mCurrentTouchIndex);
-        if (p == null) {
+        int index = mModel.getCurrentTouchIndex();
+        if (!mTouches.contains(index)) {
             return;
         }
-        invalidate(p.x - radius, p.y - radius, p.x + radius, p.y + radius);
+        int x = (int) mTouches.getX(index);
+        int y = (int) mTouches.getY(index);
+        invalidate(x - radius, y - radius, x + radius, y + radius);
+        countInvalidation();
     }
 
-    private void startTouchAnimation() {
-        if (mAnim.isStarted() || mAnim.isRunning()) {
-            mAnim.cancel();
+    private void countInvalidation() {
+        if (mMetrics != null) {
+            mMetrics.recordInvalidation();
         }
-        mAnim.start();
     }
 
+    /* the ripple follows single taps; multi-touch grabs go without one */
     @Override
-    public void onAnimationStart(Animator animation) {
-    }
-    @Override
-    public void onAnimationEnd(Animator animation) {
-        for (int i=0; i<mAnimatedRadius.length; i++) {
-            mAnimatedRadius[i] = 0f;
+    public void onTouchRegistered(int index) {
+        if (!mModel.isMultiTouchMode()) {
+            mAnim.start(FrameScheduler.get());
         }
     }
+
     @Override
-    public void onAnimationRepeat(Animator animation) {
+    public void onTouchFollowed(int index) {
+        includeTouch(index, mDirty);
     }
+
     @Override
-    public void onAnimationCancel(Animator animation) {
+    public void onStrokeFinished() {
+        submitCurve();
+    }
 
+    @Override
+    public void onTweenUpdate(Tween tween, float value) {
+        setPaintAlpha((int) (255 * (1f - value)));
+        setRadius(4f * value);
+    }
+    @Override
+    public void onTweenEnd(Tween tween) {
+        for (int i=0; i<mAnimatedRadius.length; i++) {
+            mAnimatedRadius[i] = 0f;
+        }
     }
 }
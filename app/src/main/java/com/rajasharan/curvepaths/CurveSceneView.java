@@ -0,0 +1,246 @@
+package com.rajasharan.curvepaths;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.rajasharan.bezier.CurveScene;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.FrameMetrics;
+import com.rajasharan.bezier.LineBatch;
+
+/**
+ * Draws every curve of a {@link CurveScene} in one view, and pans it with a drag.
+ *
+ * Each frame only the curves whose bounds overlap the clip are drawn. They are drawn
+ * style by style: the paint for a style is picked once and the style's curves are
+ * flattened into one shared {@link LineBatch}, which goes out in a single drawLines
+ * call every {@link #BATCH_LINES} lines. Curves of one style therefore draw in scene
+ * order, and styles in index order.
+ *
+ * Call {@link #invalidate()} after changing the scene. Only the pan offset is saved
+ * with the view's state; the scene belongs to whoever fills it, and can be kept in a
+ * {@link com.rajasharan.bezier.CurveDocument}.
+ */
+public class CurveSceneView extends View {
+    private static final int BATCH_LINES = 4096;
+
+    private CurveScene mScene;
+    private Paint[] mStylePaints;
+    private float mMaxStrokeWidth;
+    private Flattener mFlattener;
+    private LineBatch mBatch;
+    private int[] mVisible;
+    private int mVisibleCount;
+    private Rect mClip;
+    private float mOffsetX;
+    private float mOffsetY;
+    private float mLastX;
+    private float mLastY;
+    private FrameMetrics mMetrics;
+
+    public CurveSceneView(Context context) {
+        this(context, null, 0);
+    }
+
+    public CurveSceneView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public CurveSceneView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        mScene = new CurveScene();
+        mStylePaints = new Paint[0];
+        mFlattener = new Flattener();
+        mBatch = new LineBatch(BATCH_LINES);
+        mVisible = new int[0];
+        mClip = new Rect();
+        setStyle(0, Color.GRAY, 5.0f);
+    }
+
+    public CurveScene getScene() {
+        return mScene;
+    }
+
+    /** Paint used for the curves of {@code style}. */
+    public void setStyle(int style, int color, float strokeWidth) {
+        if (style >= mStylePaints.length) {
+            Paint[] paints = new Paint[style + 1];
+            System.arraycopy(mStylePaints, 0, paints, 0, mStylePaints.length);
+            mStylePaints = paints;
+        }
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.STROKE);
+        /* the curves are drawn as separate lines, round caps hide the seams between them */
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setStrokeWidth(strokeWidth);
+        paint.setColor(color);
+        mStylePaints[style] = paint;
+        mMaxStrokeWidth = 0f;
+        for (Paint p : mStylePaints) {
+            if (p != null) {
+                mMaxStrokeWidth = Math.max(mMaxStrokeWidth, p.getStrokeWidth());
+            }
+        }
+        invalidate();
+    }
+
+    /** Maximum distance in pixels between the drawn lines and the true curves. */
+    public void setCurveTolerance(float tolerance) {
+        mFlattener.setTolerance(tolerance);
+        invalidate();
+    }
+
+    /** Curves that overlapped the clip in the last frame. */
+    public int getVisibleCurveCount() {
+        return mVisibleCount;
+    }
+
+    /** Records draw times and the curves flattened per frame, or stops if {@code metrics} is null. */
+    public void setMetrics(FrameMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    public FrameMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        super.onDraw(canvas);
+        canvas.save();
+        canvas.translate(mOffsetX, mOffsetY);
+        canvas.getClipBounds(mClip);
+        float pad = mMaxStrokeWidth / 2f;
+        if (mVisible.length < mScene.size()) {
+            mVisible = new int[mScene.size()];
+        }
+        mVisibleCount = mScene.query(mClip.left - pad, mClip.top - pad, mClip.right + pad, mClip.bottom + pad, mVisible);
+        int flattened = 0;
+        for (int style = 0; style < mStylePaints.length; style++) {
+            flattened += drawStyle(canvas, style);
+        }
+        canvas.restore();
+        if (mMetrics != null) {
+            mMetrics.recordDraw(System.nanoTime() - start);
+            mMetrics.recordSegments(flattened);
+        }
+    }
+
+    /* draws the visible curves of one style, a batch at a time; returns the curves flattened */
+    private int drawStyle(Canvas canvas, int style) {
+        Paint paint = mStylePaints[style];
+        if (paint == null) {
+            return 0;
+        }
+        int flattened = 0;
+        mBatch.clear();
+        for (int i = 0; i < mVisibleCount; i++) {
+            int curve = mVisible[i];
+            if (mScene.getStyle(curve) != style) {
+                continue;
+            }
+            mBatch.append(mFlattener, mScene, curve);
+            flattened++;
+            if (mBatch.getLineCount() >= BATCH_LINES) {
+                flush(canvas, paint);
+            }
+        }
+        flush(canvas, paint);
+        return flattened;
+    }
+
+    private void flush(Canvas canvas, Paint paint) {
+        int lines = mBatch.getLineCount();
+        if (lines > 0) {
+            canvas.drawLines(mBatch.getLines(), 0, lines * 4, paint);
+            mBatch.clear();
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        state.mOffsetX = mOffsetX;
+        state.mOffsetY = mOffsetY;
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState s = (SavedState) state;
+        super.onRestoreInstanceState(s.getSuperState());
+        mOffsetX = s.mOffsetX;
+        mOffsetY = s.mOffsetY;
+        invalidate();
+    }
+
+    static class SavedState extends BaseSavedState {
+        float mOffsetX;
+        float mOffsetY;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mOffsetX = in.readFloat();
+            mOffsetY = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeFloat(mOffsetX);
+            out.writeFloat(mOffsetY);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                mLastX = event.getX();
+                mLastY = event.getY();
+                return true;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                mOffsetX += event.getX() - mLastX;
+                mOffsetY += event.getY() - mLastY;
+                mLastX = event.getX();
+                mLastY = event.getY();
+                invalidate();
+                if (mMetrics != null) {
+                    mMetrics.recordInvalidation();
+                }
+                return true;
+            }
+        }
+        return true;
+    }
+}
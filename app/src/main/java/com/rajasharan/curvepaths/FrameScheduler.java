@@ -0,0 +1,38 @@
+package com.rajasharan.curvepaths;
+
+import android.view.Choreographer;
+
+import com.rajasharan.bezier.AnimationScheduler;
+
+/**
+ * Drives the one {@link AnimationScheduler} shared by every view from
+ * {@link Choreographer}: a single frame callback is posted while anything animates,
+ * and none once everything has finished. UI thread only.
+ */
+final class FrameScheduler implements Choreographer.FrameCallback, AnimationScheduler.FrameRequester {
+    private static AnimationScheduler sScheduler;
+
+    private AnimationScheduler mScheduler;
+
+    private FrameScheduler() {
+    }
+
+    static AnimationScheduler get() {
+        if (sScheduler == null) {
+            FrameScheduler frames = new FrameScheduler();
+            sScheduler = new AnimationScheduler(frames);
+            frames.mScheduler = sScheduler;
+        }
+        return sScheduler;
+    }
+
+    @Override
+    public void requestFrame() {
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mScheduler.doFrame(frameTimeNanos);
+    }
+}
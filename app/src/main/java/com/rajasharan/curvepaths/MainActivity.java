@@ -9,18 +9,34 @@ import android.view.MenuItem;
 public class MainActivity extends ActionBarActivity {
     public static final String CUBIC = "Cubic Bezier Example";
     public static final String QUAD = "Quad Bezier Example";
+    public static final String SCENE = "Curve Scene Example";
+    private static final String KEY_TITLE = "title";
 
     private Fragment mCubicBezier;
     private Fragment mQuadBezier;
+    private Fragment mScene;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
-        setTitle(CUBIC);
         mCubicBezier = MainActivityFragment.newInstance(CUBIC);
         mQuadBezier = MainActivityFragment.newInstance(QUAD);
-        getSupportFragmentManager().beginTransaction().replace(R.id.root, mCubicBezier).commit();
+        mScene = MainActivityFragment.newInstance(SCENE);
+        if (savedInstanceState == null) {
+            setTitle(CUBIC);
+            getSupportFragmentManager().beginTransaction().replace(R.id.root, mCubicBezier).commit();
+        }
+        else {
+            /* the fragment manager brings back the fragment that was showing, and its views their state */
+            setTitle(savedInstanceState.getCharSequence(KEY_TITLE));
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putCharSequence(KEY_TITLE, getTitle());
     }
 
 
@@ -42,6 +58,10 @@ public class MainActivity extends ActionBarActivity {
             setTitle(QUAD);
             getSupportFragmentManager().beginTransaction().replace(R.id.root, mQuadBezier).commit();
             return true;
+        } else if (id == R.id.scene) {
+            setTitle(SCENE);
+            getSupportFragmentManager().beginTransaction().replace(R.id.root, mScene).commit();
+            return true;
         }
 
         return super.onOptionsItemSelected(item);
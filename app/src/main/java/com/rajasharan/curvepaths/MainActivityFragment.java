@@ -1,15 +1,25 @@
 package com.rajasharan.curvepaths;
 
+import android.graphics.Color;
 import android.support.v4.app.Fragment;
 import android.os.Bundle;
+import android.util.DisplayMetrics;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
+import com.rajasharan.bezier.CurveScene;
+
+import java.util.Random;
+
 /**
  * A placeholder fragment containing a simple view.
  */
 public class MainActivityFragment extends Fragment {
+    private static final int SCENE_CURVES = 5000;
+    /* the scene spans this many screens each way, so most of it is culled */
+    private static final int SCENE_SCREENS = 4;
+    private static final int[] SCENE_COLORS = {Color.GRAY, Color.DKGRAY, Color.RED, Color.BLUE};
 
     public static Fragment newInstance(String title) {
         Fragment f = new MainActivityFragment();
@@ -25,11 +35,34 @@ public class MainActivityFragment extends Fragment {
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
-        if (getArguments().getString("title").equalsIgnoreCase(MainActivity.CUBIC)) {
+        String title = getArguments().getString("title");
+        if (title.equalsIgnoreCase(MainActivity.CUBIC)) {
             return inflater.inflate(R.layout.fragment_cubic, container, false);
         }
+        else if (title.equalsIgnoreCase(MainActivity.SCENE)) {
+            CurveSceneView view = (CurveSceneView) inflater.inflate(R.layout.fragment_scene, container, false);
+            for (int i = 0; i < SCENE_COLORS.length; i++) {
+                view.setStyle(i, SCENE_COLORS[i], 3.0f);
+            }
+            DisplayMetrics dm = getResources().getDisplayMetrics();
+            populateScene(view.getScene(), dm.widthPixels * SCENE_SCREENS, dm.heightPixels * SCENE_SCREENS);
+            return view;
+        }
         else {
             return inflater.inflate(R.layout.fragment_quad, container, false);
         }
     }
+
+    /* short random cubics spread over width x height */
+    private static void populateScene(CurveScene scene, float width, float height) {
+        Random r = new Random(1);
+        for (int i = 0; i < SCENE_CURVES; i++) {
+            float x = r.nextFloat() * width, y = r.nextFloat() * height;
+            scene.addCubic(x, y,
+                    x + r.nextFloat() * 200f - 100f, y + r.nextFloat() * 200f - 100f,
+                    x + r.nextFloat() * 200f - 100f, y + r.nextFloat() * 200f - 100f,
+                    x + r.nextFloat() * 200f - 100f, y + r.nextFloat() * 200f - 100f,
+                    i % SCENE_COLORS.length);
+        }
+    }
 }
@@ -1,43 +1,68 @@
 package com.rajasharan.curvepaths;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
-import android.animation.PropertyValuesHolder;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
-import android.util.Log;
-import android.util.SparseArray;
 import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.OvershootInterpolator;
+
+import com.rajasharan.bezier.AnimationScheduler;
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.BezierSegment;
+import com.rajasharan.bezier.ControlPointStore;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.FrameMetrics;
+import com.rajasharan.bezier.SpringTouchModel;
+import com.rajasharan.bezier.TimingCurve;
+import com.rajasharan.bezier.TouchRecorder;
+import com.rajasharan.bezier.TouchSampleBuffer;
+import com.rajasharan.bezier.Tween;
 
 /**
  * Created by rajasharan on 7/26/15.
  */
-public class SpringView extends View implements Animator.AnimatorListener {
-    private static final String TAG = "QuadBezierView";
-    private static final int MAX_COUNT = 3;
-
-    private SparseArray<Point> mTouches;
-    private int mCurrentTouchIndex;
+public class SpringView extends View implements Tween.Listener, AnimationScheduler.Animation,
+        SpringTouchModel.Listener {
+    private static final long RIPPLE_MILLIS = 500;
+    /* easeOutQuart, the 1 - (1 - t)^4 of DecelerateInterpolator(2f) */
+    private static final TimingCurve RIPPLE_TIMING = TimingCurve.of(0.25f, 1f, 0.5f, 1f);
+    private static final int SAMPLE_CAPACITY = 256;
+    private static final int MAX_COUNT = SpringTouchModel.MAX_COUNT;
+    private static final int SPRING_INDEX = SpringTouchModel.SPRING_INDEX;
+
+    private SpringTouchModel mModel;
+    private ControlPointStore mTouches;
+    private TouchSampleBuffer mSamples;
     private float mRadius;
+    private float mHitRadius;
     private float[] mAnimatedRadius;
     private Path mPath;
+    private BezierSegment mSegment;
+    private BezierSegment mPathSegment;
+    private boolean mPathStale;
+    private Flattener mFlattener;
+    private float[] mPolyline;
+    private float[] mBounds;
+    private RectF mDirty;
+    private Rect mDirtyRect;
     private Paint mFillPaint;
     private Paint mCurvePaint;
     private ViewConfiguration mViewConfigs;
-    private ObjectAnimator mRippleAnimator;
-    private ObjectAnimator mSpringAnimator;
-    private boolean mResetSpringAnim;
-    private boolean mMultiTouchMode;
+    private Tween mRippleAnimator;
+    private long mLastFrameNanos;
+    private FrameMetrics mMetrics;
+    private long mInputTime;
+    private TouchRecorder mRecorder;
 
     public SpringView(Context context) {
         this(context, null);
@@ -53,15 +78,24 @@ public class SpringView extends View implements Animator.AnimatorListener {
     }
 
     private void initialize(Context context) {
-        mTouches = new SparseArray<>(MAX_COUNT);
+        mSamples = new TouchSampleBuffer(SAMPLE_CAPACITY);
         mRadius = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 10, context.getResources().getDisplayMetrics());
+        mHitRadius = mRadius * 2;
+        mModel = new SpringTouchModel(mHitRadius);
+        mModel.setListener(this);
+        mTouches = mModel.getTouches();
         mAnimatedRadius = new float[] {0f, 0f, 0f, 0f};
-        mCurrentTouchIndex = -1;
         mViewConfigs = ViewConfiguration.get(context);
-        mResetSpringAnim = true;
-        mMultiTouchMode = false;
 
         mPath = new Path();
+        mSegment = new BezierSegment();
+        mPathSegment = new BezierSegment();
+        mPathStale = true;
+        mFlattener = new Flattener();
+        mPolyline = new float[mFlattener.requiredCapacity()];
+        mBounds = new float[4];
+        mDirty = new RectF();
+        mDirtyRect = new Rect();
         mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         mFillPaint.setStyle(Paint.Style.FILL);
         mFillPaint.setColor(Color.GRAY);
@@ -71,105 +105,192 @@ public class SpringView extends View implements Animator.AnimatorListener {
         mCurvePaint.setStrokeWidth(5.0f);
         mCurvePaint.setColor(Color.GRAY);
 
-        PropertyValuesHolder pvhAlpha = PropertyValuesHolder.ofInt("paintAlpha", 255, 0);
-        PropertyValuesHolder pvhRadius = PropertyValuesHolder.ofFloat("radius", 0f, 4f);
-        mRippleAnimator = ObjectAnimator.ofPropertyValuesHolder(this, pvhAlpha, pvhRadius);
-        mRippleAnimator.setDuration(500);
-        mRippleAnimator.setInterpolator(new DecelerateInterpolator(2f));
-        mRippleAnimator.addListener(this);
-
-        mSpringAnimator = ObjectAnimator.ofFloat(this, "spring", 0f, 1f);
-        mSpringAnimator.setDuration(300);
-        mSpringAnimator.setInterpolator(new OvershootInterpolator(10f));
+        mRippleAnimator = new Tween(RIPPLE_MILLIS, RIPPLE_TIMING, this);
     }
 
     public void setMultiTouchMode(boolean enable) {
-        mMultiTouchMode = enable;
-        mTouches.clear();
         mRippleAnimator.cancel();
-        mCurrentTouchIndex = -1;
+        mModel.setMultiTouchMode(enable);
+        if (mRecorder != null) {
+            mRecorder.setMultiTouchMode(enable);
+        }
     }
 
-    private void setPaintAlpha(int a) {
-        mFillPaint.setAlpha(a);
-        /* invalidate not needed because alpha is running simultaneously with radius */
-        //invalidateTouch();
+    /**
+     * Mass, stiffness and damping of the spring pulling a control point back to the
+     * middle of the chord. Only the last control point springs back.
+     */
+    public void setSpringParameters(int index, float mass, float stiffness, float damping) {
+        mModel.getSprings().configure(index, mass, stiffness, damping);
     }
 
-    private void setRadius(float r) {
-        if (mCurrentTouchIndex != -1) {
-            mAnimatedRadius[mCurrentTouchIndex] = mRadius * r;
-            invalidateTouchRipple();
+    /**
+     * Maximum distance in pixels between the drawn polyline and the true curve,
+     * and the most line segments a curve may be split into.
+     */
+    public void setCurveQuality(float tolerance, int maxSegments) {
+        mFlattener.setTolerance(tolerance);
+        mFlattener.setMaxSegments(maxSegments);
+        if (mPolyline.length < mFlattener.requiredCapacity()) {
+            mPolyline = new float[mFlattener.requiredCapacity()];
         }
+        mPathStale = true;
+        invalidate();
+    }
+
+    /** How the curve is split into lines, see {@link Flattener.Mode}. */
+    public void setCurveMode(Flattener.Mode mode) {
+        mFlattener.setMode(mode);
+        mPathStale = true;
+        invalidate();
+    }
+
+    /**
+     * Easing of the ripple under a touched point, as a CSS {@code cubic-bezier} timing
+     * curve, e.g. {@code TimingCurve.of(0.34f, 1.56f, 0.64f, 1f)} to overshoot. Null
+     * goes back to the default ease out.
+     */
+    public void setRippleTiming(TimingCurve curve) {
+        mRippleAnimator.cancel();
+        mRippleAnimator = new Tween(RIPPLE_MILLIS, curve != null ? curve : RIPPLE_TIMING, this);
+    }
+
+    /** Line segments used for the curve in the last frame. */
+    public int getCurveSegmentCount() {
+        return mFlattener.getLastSegmentCount();
+    }
+
+    /**
+     * Starts recording draw times, input latency, invalidations, flattened segments and
+     * dropped touch samples into {@code metrics}, or stops recording if it is null.
+     * Recording does not allocate.
+     */
+    public void setMetrics(FrameMetrics metrics) {
+        mMetrics = metrics;
+        mInputTime = 0;
+    }
+
+    public FrameMetrics getMetrics() {
+        return mMetrics;
     }
 
-    private void setSpring(float t) {
-        Log.d(TAG, String.format("Overshoot tension: %f", t));
-        Point cp = mTouches.get(2);
-        Point start = mTouches.get(0);
-        Point end = mTouches.get(1);
-        if (cp != null) {
-            int x = (start.x + end.x) / 2;
-            int y = (start.y + end.y) / 2;
+    /**
+     * Starts recording every touch event, with the touch mode and view size, into
+     * {@code recorder}, for replaying the session later with
+     * {@link com.rajasharan.bezier.TouchReplayer}.
+     */
+    public void startRecording(TouchRecorder recorder) {
+        recorder.start(SystemClock.uptimeMillis(), getWidth(), getHeight(), mModel.isMultiTouchMode());
+        mRecorder = recorder;
+    }
 
-            if (cp.x > x) cp.x -= (cp.x - x)*t;
-            else cp.x += (x - cp.x)*t;
+    public void stopRecording() {
+        if (mRecorder != null) {
+            mRecorder.stop();
+            mRecorder = null;
+        }
+    }
 
-            if (cp.y > y) cp.y -= (cp.y - y)*t;
-            else cp.y += (y - cp.y)*t;
+    private void setPaintAlpha(int a) {
+        mFillPaint.setAlpha(a);
+        /* invalidate not needed because alpha is running simultaneously with radius */
+        //invalidateTouch();
+    }
 
-            mTouches.put(2, cp);
-            invalidate();
+    private void setRadius(float r) {
+        int index = mModel.getCurrentTouchIndex();
+        if (index != -1) {
+            mAnimatedRadius[index] = mRadius * r;
+            invalidateTouchRipple();
         }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        long start = mMetrics != null ? System.nanoTime() : 0;
         super.onDraw(canvas);
         drawAnimatedTouches(canvas);
         drawPath(canvas);
+        if (mMetrics != null) {
+            recordFrame(start);
+        }
+    }
+
+    private void recordFrame(long start) {
+        mMetrics.recordDraw(System.nanoTime() - start);
+        if (mInputTime != 0) {
+            mMetrics.recordInputLatency((SystemClock.uptimeMillis() - mInputTime) * 1000000L);
+            mInputTime = 0;
+        }
     }
 
     private void drawAnimatedTouches(Canvas canvas) {
         for (int i = 0; i < MAX_COUNT; i++) {
-            Point p = mTouches.get(i);
-            if (p != null) {
-                canvas.drawCircle(p.x, p.y, mAnimatedRadius[i], mFillPaint);
-                drawCross(p, canvas);
+            if (mTouches.contains(i)) {
+                float x = mTouches.getX(i);
+                float y = mTouches.getY(i);
+                canvas.drawCircle(x, y, mAnimatedRadius[i], mFillPaint);
+                drawCross(x, y, canvas);
             }
         }
     }
 
-    private void drawCross(Point p, Canvas canvas) {
+    private void drawCross(float x, float y, Canvas canvas) {
         int r = (int) mRadius/2;
-        canvas.drawLine(p.x-r, p.y-r, p.x+r, p.y+r, mCurvePaint);
-        canvas.drawLine(p.x+r, p.y-r, p.x-r, p.y+r, mCurvePaint);
+        canvas.drawLine(x-r, y-r, x+r, y+r, mCurvePaint);
+        canvas.drawLine(x+r, y-r, x-r, y+r, mCurvePaint);
     }
 
+    /* re-flattens the curve only when it moved, so ripple frames redraw the same path */
     private void drawPath(Canvas canvas) {
-        Point p0, p1, p2, p3;
-        p0 = mTouches.get(0);
-        p1 = mTouches.get(1);
-        p2 = mTouches.get(2);
-        p3 = mTouches.get(3);
-
-        if (p3 != null && p2 != null && p1 != null && p0 != null) {
-            mPath.rewind();
-            mPath.moveTo(p0.x, p0.y);
-            mPath.cubicTo(p2.x, p2.y, p3.x, p3.y, p1.x, p1.y);
-            canvas.drawPath(mPath, mCurvePaint);
+        buildSegment();
+        if (mSegment.isEmpty()) {
+            return;
         }
-        else if (p2 != null && p1 != null && p0 != null) {
+        if (mPathStale || !isSameSegment(mSegment, mPathSegment)) {
+            int count = mFlattener.flatten(mSegment.getDegree(), mSegment.getCoords(), 0, mPolyline, 0);
             mPath.rewind();
-            mPath.moveTo(p0.x, p0.y);
-            mPath.quadTo(p2.x, p2.y, p1.x, p1.y);
-            canvas.drawPath(mPath, mCurvePaint);
+            mPath.moveTo(mPolyline[0], mPolyline[1]);
+            for (int i = 1; i < count; i++) {
+                mPath.lineTo(mPolyline[i*2], mPolyline[i*2 + 1]);
+            }
+            mPathSegment.set(mSegment);
+            mPathStale = false;
+            if (mMetrics != null) {
+                mMetrics.recordSegments(1);
+            }
         }
-        else if (p1 != null && p0 != null) {
-            mPath.rewind();
-            mPath.moveTo(p0.x, p0.y);
-            mPath.lineTo(p1.x, p1.y);
-            canvas.drawPath(mPath, mCurvePaint);
+        canvas.drawPath(mPath, mCurvePaint);
+    }
+
+    private static boolean isSameSegment(BezierSegment a, BezierSegment b) {
+        if (a.getDegree() != b.getDegree()) {
+            return false;
+        }
+        float[] ca = a.getCoords();
+        float[] cb = b.getCoords();
+        for (int i = Bezier.coordCount(a.getDegree()) - 1; i >= 0; i--) {
+            if (ca[i] != cb[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* touches 0 and 1 are the end points, 2 and 3 the control points */
+    private void buildSegment() {
+        ControlPointStore t = mTouches;
+        if (t.containsRange(0, 4)) {
+            mSegment.setCubic(t.getX(0), t.getY(0), t.getX(2), t.getY(2), t.getX(3), t.getY(3), t.getX(1), t.getY(1));
+        }
+        else if (t.containsRange(0, 3)) {
+            mSegment.setQuad(t.getX(0), t.getY(0), t.getX(2), t.getY(2), t.getX(1), t.getY(1));
+        }
+        else if (t.containsRange(0, 2)) {
+            mSegment.setLine(t.getX(0), t.getY(0), t.getX(1), t.getY(1));
+        }
+        else {
+            mSegment.reset();
         }
     }
 
@@ -179,131 +300,315 @@ public class SpringView extends View implements Animator.AnimatorListener {
         int pointerIndex = event.getActionIndex();
         int pointerId = event.getPointerId(pointerIndex);
 
-        int xp = (int) event.getX(pointerIndex);
-        int yp = (int) event.getY(pointerIndex);
+        float xp = event.getX(pointerIndex);
+        float yp = event.getY(pointerIndex);
+        if (mRecorder != null) {
+            recordEvent(event, action, pointerId);
+        }
 
         switch (action) {
             case MotionEvent.ACTION_DOWN: {
-                registerTouch(xp, yp, pointerId);
+                markInput(event);
+                mModel.registerTouch(xp, yp, pointerId);
                 invalidate();
+                countInvalidation();
                 //invalidateTouch(x, y);
                 return true;
             }
             case MotionEvent.ACTION_MOVE: {
-                for (int i=0; i<event.getPointerCount() && mResetSpringAnim; i++) {
-                    pointerIndex = i;
-                    pointerId = event.getPointerId(pointerIndex);
-                    xp = (int) event.getX(pointerIndex);
-                    yp = (int) event.getY(pointerIndex);
-                    updateTouch(xp, yp, pointerId);
-                    invalidate();
-
-                    if (mCurrentTouchIndex == 2) {
-                        Point sp = mTouches.get(0);
-                        Point ep = mTouches.get(1);
-                        int cx = (sp.x + ep.x)/2;
-                        int cy = (sp.y + ep.y)/2;
-                        int threshold = Math.min(getHeight()/2, getWidth()/2);
-                        if (Math.abs(cx - xp) > threshold || Math.abs(cy - yp) > threshold) {
-                            startSpringAnimation(pointerId);
-                            mResetSpringAnim = false;
-                        }
-                    }
-                }
+                markInput(event);
+                drainSamples(event);
+                applySamples();
                 return true;
             }
             case MotionEvent.ACTION_POINTER_DOWN: {
                 //Log.d(TAG, String.format("pointerId, pointerIndex: %d,%d: (%d,%d)", pointerId, pointerIndex, xp, yp));
-                registerTouch(xp, yp, pointerId);
+                markInput(event);
+                mModel.registerTouch(xp, yp, pointerId);
                 invalidate();
+                countInvalidation();
                 return true;
             }
             case MotionEvent.ACTION_POINTER_UP: {
             }
             case MotionEvent.ACTION_UP: {
-                startSpringAnimation(pointerId);
+                mModel.release(pointerId);
                 return true;
             }
             case MotionEvent.ACTION_CANCEL: {
+                mModel.cancel();
+                return true;
             }
         }
         return true;
         //return super.onTouchEvent(event);
     }
 
-    private void registerTouch(int x, int y, int pointerId) {
-        if (!mMultiTouchMode) {
-            registerTouch(x, y);
+    /* remembers the oldest input not drawn yet, for the input-to-draw latency */
+    private void markInput(MotionEvent event) {
+        if (mMetrics == null || mInputTime != 0) {
+            return;
+        }
+        mInputTime = event.getHistorySize() > 0 ? event.getHistoricalEventTime(0) : event.getEventTime();
+    }
+
+    /* queues every coalesced sample of a move event, oldest first */
+    private void drainSamples(MotionEvent event) {
+        int pointers = event.getPointerCount();
+        int history = event.getHistorySize();
+        for (int h = 0; h < history; h++) {
+            long time = event.getHistoricalEventTime(h);
+            for (int i = 0; i < pointers; i++) {
+                mSamples.add(event.getPointerId(i), event.getHistoricalX(i, h), event.getHistoricalY(i, h), time);
+            }
+        }
+        long time = event.getEventTime();
+        for (int i = 0; i < pointers; i++) {
+            mSamples.add(event.getPointerId(i), event.getX(i), event.getY(i), time);
+        }
+    }
+
+    /* logs one event; a move with every sample drainSamples queues */
+    private void recordEvent(MotionEvent event, int action, int pointerId) {
+        int pointerIndex = event.getActionIndex();
+        mRecorder.beginEvent(action, pointerId);
+        if (action != MotionEvent.ACTION_MOVE) {
+            mRecorder.addSample(pointerId, event.getX(pointerIndex), event.getY(pointerIndex), event.getEventTime());
             return;
         }
-        if (pointerId < MAX_COUNT) {
-            mTouches.put(pointerId, new Point(x, y));
-            mCurrentTouchIndex = pointerId;
-            startTouchAnimation();
+        int pointers = event.getPointerCount();
+        int history = event.getHistorySize();
+        for (int h = 0; h < history; h++) {
+            long time = event.getHistoricalEventTime(h);
+            for (int i = 0; i < pointers; i++) {
+                mRecorder.addSample(event.getPointerId(i), event.getHistoricalX(i, h), event.getHistoricalY(i, h), time);
+            }
+        }
+        long time = event.getEventTime();
+        for (int i = 0; i < pointers; i++) {
+            mRecorder.addSample(event.getPointerId(i), event.getX(i), event.getY(i), time);
+        }
+    }
+
+    /* applies the queued samples in one batch and schedules a single redraw of what changed */
+    private void applySamples() {
+        int size = mSamples.size();
+        mDirty.setEmpty();
+        includeCurve(mDirty);
+        for (int i = 0; i < size; i++) {
+            includeTouch(touchIndex(mSamples.getPointerId(i)), mDirty);
+        }
+        mModel.applySamples(mSamples);
+        for (int i = 0; i < size; i++) {
+            includeTouch(touchIndex(mSamples.getPointerId(i)), mDirty);
+        }
+        clearSamples();
+        includeCurve(mDirty);
+        invalidateDirty(mDirty);
+    }
+
+    /* empties the sample queue, counting the samples it had to overwrite since the last batch */
+    private void clearSamples() {
+        int dropped = mSamples.getDroppedCount();
+        if (dropped > 0 && mMetrics != null) {
+            mMetrics.recordDroppedSamples(dropped);
+        }
+        mSamples.clear();
+    }
+
+    private int touchIndex(int pointerId) {
+        return mModel.touchIndex(pointerId);
+    }
+
+    /* grows dirty by the tight bounds of the curve plus the stroke */
+    private void includeCurve(RectF dirty) {
+        buildSegment();
+        if (mSegment.isEmpty()) {
+            return;
         }
+        mSegment.bounds(mBounds);
+        float pad = mCurvePaint.getStrokeWidth();
+        dirty.union(mBounds[0] - pad, mBounds[1] - pad, mBounds[2] + pad, mBounds[3] + pad);
     }
 
-    private void registerTouch(int x, int y) {
-        mCurrentTouchIndex++;
-        mCurrentTouchIndex = mCurrentTouchIndex % MAX_COUNT;
-        if (mCurrentTouchIndex == 0) {
-            mTouches.clear();
+    /* grows dirty by the ripple and cross drawn around a control point */
+    private void includeTouch(int index, RectF dirty) {
+        if (!mTouches.contains(index)) {
+            return;
         }
-        mResetSpringAnim = true;
-        mTouches.put(mCurrentTouchIndex, new Point(x, y));
-        startTouchAnimation();
+        float x = mTouches.getX(index);
+        float y = mTouches.getY(index);
+        float pad = mRadius * 4 + mCurvePaint.getStrokeWidth();
+        dirty.union(x - pad, y - pad, x + pad, y + pad);
     }
 
-    private void updateTouch(int x, int y, int pointerId) {
-        if (!mMultiTouchMode) {
-            updateTouch(x, y);
+    private void invalidateDirty(RectF dirty) {
+        if (dirty.isEmpty()) {
             return;
         }
-        mTouches.put(pointerId, new Point(x, y));
+        dirty.roundOut(mDirtyRect);
+        postInvalidateOnAnimation(mDirtyRect.left, mDirtyRect.top, mDirtyRect.right, mDirtyRect.bottom);
+        countInvalidation();
     }
 
-    private void updateTouch(int x, int y) {
-        mTouches.put(mCurrentTouchIndex, new Point(x, y));
+    /* inside a frame callback the traversal for this frame is still to come */
+    private void invalidateDirtyNow(RectF dirty) {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        dirty.roundOut(mDirtyRect);
+        invalidate(mDirtyRect);
+        countInvalidation();
     }
 
     private void invalidateTouchRipple() {
         int radius = (int) mRadius * 4;
-        Point p = mTouches.get(mCurrentTouchIndex);
-        if (p == null) {
+        int index = mModel.getCurrentTouchIndex();
+        if (!mTouches.contains(index)) {
             return;
         }
-        invalidate(p.x - radius, p.y - radius, p.x + radius, p.y + radius);
+        int x = (int) mTouches.getX(index);
+        int y = (int) mTouches.getY(index);
+        invalidate(x - radius, y - radius, x + radius, y + radius);
+        countInvalidation();
     }
 
-    private void startTouchAnimation() {
-        if (mRippleAnimator.isStarted() || mRippleAnimator.isRunning()) {
-            mRippleAnimator.cancel();
+    private void countInvalidation() {
+        if (mMetrics != null) {
+            mMetrics.recordInvalidation();
         }
-        mRippleAnimator.start();
     }
 
-    private void startSpringAnimation(int pointerId) {
-        if (mSpringAnimator.isStarted() || mSpringAnimator.isRunning()) {
-            mSpringAnimator.cancel();
-        }
-        if (mCurrentTouchIndex == 2) {
-            mSpringAnimator.start();
+    @Override
+    public void onTouchRegistered(int index) {
+        mRippleAnimator.start(FrameScheduler.get());
+    }
+
+    @Override
+    public void onSpringStart() {
+        AnimationScheduler scheduler = FrameScheduler.get();
+        if (!scheduler.isRunning(this)) {
+            mLastFrameNanos = 0;
+            scheduler.start(this);
         }
     }
 
     @Override
-    public void onAnimationStart(Animator animation) {
+    public void onSpringStop() {
+        FrameScheduler.get().cancel(this);
     }
+
+    /* steps the spring once per vsync and leaves the scheduler once it settles */
     @Override
-    public void onAnimationEnd(Animator animation) {
-        for (int i=0; i<mAnimatedRadius.length; i++) {
-            mAnimatedRadius[i] = 0f;
+    public boolean doAnimationFrame(long frameTimeNanos) {
+        float seconds = mLastFrameNanos == 0 ? 0f : (frameTimeNanos - mLastFrameNanos) / 1e9f;
+        mLastFrameNanos = frameTimeNanos;
+
+        mDirty.setEmpty();
+        includeCurve(mDirty);
+        includeTouch(SPRING_INDEX, mDirty);
+        boolean moving = mModel.stepSpring(seconds);
+        includeTouch(SPRING_INDEX, mDirty);
+        includeCurve(mDirty);
+        invalidateDirtyNow(mDirty);
+        return moving;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mModel.setSize(w, h);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mModel.stopSpring();
+        mRippleAnimator.cancel();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        state.mMultiTouchMode = mModel.isMultiTouchMode();
+        state.mPresent = new boolean[MAX_COUNT];
+        for (int i = 0; i < MAX_COUNT; i++) {
+            state.mPresent[i] = mTouches.contains(i);
         }
+        state.mTouches = mTouches.getCoords().clone();
+        if (mModel.isSpringActive() && mTouches.containsRange(0, MAX_COUNT)) {
+            /* save a spring in flight where it would come to rest */
+            state.mTouches[SPRING_INDEX * 2] = (mTouches.getX(0) + mTouches.getX(1)) / 2;
+            state.mTouches[SPRING_INDEX * 2 + 1] = (mTouches.getY(0) + mTouches.getY(1)) / 2;
+        }
+        return state;
     }
+
     @Override
-    public void onAnimationRepeat(Animator animation) {
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState s = (SavedState) state;
+        super.onRestoreInstanceState(s.getSuperState());
+        /* also stops the spring and forgets the grabbed point */
+        mModel.setMultiTouchMode(s.mMultiTouchMode);
+        for (int i = 0; i < MAX_COUNT; i++) {
+            if (s.mPresent[i]) {
+                mTouches.set(i, s.mTouches[i * 2], s.mTouches[i * 2 + 1]);
+            }
+        }
+        invalidate();
+    }
+
+    /** Control points and the touch mode, kept across configuration changes. */
+    static class SavedState extends BaseSavedState {
+        boolean mMultiTouchMode;
+        boolean[] mPresent;
+        float[] mTouches;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            mMultiTouchMode = in.readInt() != 0;
+            mPresent = in.createBooleanArray();
+            mTouches = in.createFloatArray();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(mMultiTouchMode ? 1 : 0);
+            out.writeBooleanArray(mPresent);
+            out.writeFloatArray(mTouches);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
+    @Override
+    public void onTweenUpdate(Tween tween, float value) {
+        setPaintAlpha((int) (255 * (1f - value)));
+        setRadius(4f * value);
     }
     @Override
-    public void onAnimationCancel(Animator animation) {
+    public void onTweenEnd(Tween tween) {
+        for (int i=0; i<mAnimatedRadius.length; i++) {
+            mAnimatedRadius[i] = 0f;
+        }
     }
 }
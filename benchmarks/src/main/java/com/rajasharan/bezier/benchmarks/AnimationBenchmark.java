@@ -0,0 +1,117 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.AnimationScheduler;
+import com.rajasharan.bezier.Tween;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of {@code animations} touch ripples, each setting a paint alpha and a
+ * radius: ticked through {@link AnimationScheduler} and {@link Tween}, against the
+ * old per-view {@code ObjectAnimator}s, modelled as one animator per ripple calling
+ * the private setters through cached {@link Method}s with boxed values. A ripple
+ * starts over when it ends, so every frame has all of them running.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimationBenchmark {
+    static final long DURATION_MILLIS = 500;
+    static final long FRAME_NANOS = 16666667L;
+
+    @Param({"1", "16", "256"})
+    public int animations;
+
+    private AnimationScheduler mScheduler;
+    private Ripple[] mRipples;
+    private Method mSetPaintAlpha;
+    private Method mSetRadius;
+    private long[] mStartNanos;
+    private long mFrameNanos;
+
+    @Setup
+    public void setup() throws Exception {
+        mScheduler = new AnimationScheduler(new AnimationScheduler.FrameRequester() {
+            @Override
+            public void requestFrame() {
+            }
+        });
+        mRipples = new Ripple[animations];
+        mStartNanos = new long[animations];
+        for (int i = 0; i < animations; i++) {
+            mRipples[i] = new Ripple(mScheduler);
+            new Tween(DURATION_MILLIS, 2f, mRipples[i]).start(mScheduler);
+        }
+        mSetPaintAlpha = Ripple.class.getDeclaredMethod("setPaintAlpha", int.class);
+        mSetPaintAlpha.setAccessible(true);
+        mSetRadius = Ripple.class.getDeclaredMethod("setRadius", float.class);
+        mSetRadius.setAccessible(true);
+    }
+
+    @Benchmark
+    public float schedulerFrame() {
+        mFrameNanos += FRAME_NANOS;
+        mScheduler.doFrame(mFrameNanos);
+        return mRipples[0].mRadius;
+    }
+
+    @Benchmark
+    public float reflectiveFrame() throws Exception {
+        mFrameNanos += FRAME_NANOS;
+        for (int i = 0; i < animations; i++) {
+            float t = Math.min(1f, (mFrameNanos - mStartNanos[i]) / (DURATION_MILLIS * 1e6f));
+            float v = 1f - (float) Math.pow(1f - t, 4f);
+            mSetPaintAlpha.invoke(mRipples[i], Integer.valueOf((int) (255 + (0 - 255) * v)));
+            mSetRadius.invoke(mRipples[i], Float.valueOf(4f * v));
+            if (t >= 1f) {
+                mStartNanos[i] = mFrameNanos;
+            }
+        }
+        return mRipples[0].mRadius;
+    }
+
+    static class Ripple implements Tween.Listener {
+        private final AnimationScheduler mScheduler;
+        int mAlpha;
+        float mRadius;
+
+        Ripple(AnimationScheduler scheduler) {
+            mScheduler = scheduler;
+        }
+
+        private void setPaintAlpha(int a) {
+            mAlpha = a;
+        }
+
+        private void setRadius(float r) {
+            mRadius = r;
+        }
+
+        @Override
+        public void onTweenUpdate(Tween tween, float value) {
+            setPaintAlpha((int) (255 * (1f - value)));
+            setRadius(4f * value);
+        }
+
+        @Override
+        public void onTweenEnd(Tween tween) {
+            tween.start(mScheduler);
+        }
+    }
+}
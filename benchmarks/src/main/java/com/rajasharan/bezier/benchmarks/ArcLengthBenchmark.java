@@ -0,0 +1,94 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.ArcLengthTable;
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.Flattener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placing a point at a distance along a chain of {@code segments} cubics: through
+ * {@link ArcLengthTable} against flattening the chain and walking the polyline. Also
+ * the cost of updating the table after one knot moved, against measuring everything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArcLengthBenchmark {
+    @Param({"1", "10", "100"})
+    public int segments;
+
+    private float[] mPts;
+    private ArcLengthTable mTable;
+    private Flattener mFlattener;
+    private float[] mPolyline;
+    private float[] mOut;
+    private float mLength;
+    private float mDistance;
+    private float mNudge;
+
+    @Setup
+    public void setup() {
+        mPts = Fixtures.segments(1, segments * 3 + 1, 13L);
+        mTable = new ArcLengthTable();
+        mTable.update(Bezier.CUBIC, mPts, segments);
+        mLength = mTable.getLength();
+        mFlattener = new Flattener();
+        mPolyline = new float[mFlattener.requiredCapacity()];
+        mOut = new float[2];
+    }
+
+    @Benchmark
+    public float tablePointAtDistance() {
+        mDistance = (mDistance + 97.3f) % mLength;
+        mTable.pointAtDistance(mDistance, mOut);
+        return mOut[0];
+    }
+
+    @Benchmark
+    public float brutePointAtDistance() {
+        mDistance = (mDistance + 97.3f) % mLength;
+        float left = mDistance;
+        for (int s = 0; s < segments; s++) {
+            int count = mFlattener.flatten(Bezier.CUBIC, mPts, s * 6, mPolyline, 0);
+            for (int i = 1; i < count; i++) {
+                float dx = mPolyline[i * 2] - mPolyline[i * 2 - 2];
+                float dy = mPolyline[i * 2 + 1] - mPolyline[i * 2 - 1];
+                float d = (float) Math.sqrt(dx * dx + dy * dy);
+                if (d >= left) {
+                    return mPolyline[i * 2 - 2] + dx * left / d;
+                }
+                left -= d;
+            }
+        }
+        return mPolyline[0];
+    }
+
+    /* the knot in the middle of the chain moves, so at most two segments change */
+    @Benchmark
+    public int updateAfterKnotMove() {
+        mNudge = mNudge > 0 ? -1f : 1f;
+        mPts[(segments / 2) * 6] += mNudge;
+        return mTable.update(Bezier.CUBIC, mPts, segments);
+    }
+
+    @Benchmark
+    public int rebuildAll() {
+        return new ArcLengthTable().update(Bezier.CUBIC, mPts, segments);
+    }
+}
@@ -0,0 +1,123 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.BatchEvaluator;
+import com.rajasharan.bezier.Bezier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating {@code curves} particle paths, with {@code Bezier.point} one
+ * point at a time against {@link BatchEvaluator}: a trail of {@link #SAMPLES} points
+ * along every path ({@code grid}), and one particle per path at its own parameter
+ * ({@code each}). Every variant writes the points into x and y arrays. Scores are
+ * invocations per second, i.e. {@code curves * SAMPLES} grid points or {@code curves}
+ * particles each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchEvaluationBenchmark {
+    static final int SAMPLES = 32;
+
+    @Param({"100", "1000"})
+    public int curves;
+
+    private float[] mQuads;
+    private float[] mCubics;
+    private BatchEvaluator mQuadBatch;
+    private BatchEvaluator mCubicBatch;
+    private float[] mTrail;
+    private float[] mParticles;
+    private float[] mOutX;
+    private float[] mOutY;
+    private float[] mPoint;
+
+    @Setup
+    public void setup() {
+        mQuads = Fixtures.segments(Bezier.QUADRATIC, curves, 51L);
+        mCubics = Fixtures.segments(Bezier.CUBIC, curves, 52L);
+        mQuadBatch = new BatchEvaluator();
+        mQuadBatch.setCurves(Bezier.QUADRATIC, mQuads, 0, curves, Bezier.coordCount(Bezier.QUADRATIC));
+        mCubicBatch = new BatchEvaluator();
+        mCubicBatch.setCurves(Bezier.CUBIC, mCubics, 0, curves, Bezier.coordCount(Bezier.CUBIC));
+        mTrail = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            mTrail[i] = i / (float) (SAMPLES - 1);
+        }
+        Random random = new Random(53L);
+        mParticles = new float[curves];
+        for (int c = 0; c < curves; c++) {
+            mParticles[c] = random.nextFloat();
+        }
+        mOutX = new float[curves * SAMPLES];
+        mOutY = new float[curves * SAMPLES];
+        mPoint = new float[2];
+    }
+
+    @Benchmark
+    public float[] scalarQuadGrid() {
+        return scalarGrid(Bezier.QUADRATIC, mQuads);
+    }
+
+    @Benchmark
+    public float[] batchQuadGrid() {
+        mQuadBatch.evaluate(mTrail, SAMPLES, mOutX, mOutY);
+        return mOutX;
+    }
+
+    @Benchmark
+    public float[] scalarCubicGrid() {
+        return scalarGrid(Bezier.CUBIC, mCubics);
+    }
+
+    @Benchmark
+    public float[] batchCubicGrid() {
+        mCubicBatch.evaluate(mTrail, SAMPLES, mOutX, mOutY);
+        return mOutX;
+    }
+
+    @Benchmark
+    public float[] scalarCubicEach() {
+        int stride = Bezier.coordCount(Bezier.CUBIC);
+        for (int c = 0; c < curves; c++) {
+            Bezier.point(Bezier.CUBIC, mCubics, c * stride, mParticles[c], mPoint, 0);
+            mOutX[c] = mPoint[0];
+            mOutY[c] = mPoint[1];
+        }
+        return mOutX;
+    }
+
+    @Benchmark
+    public float[] batchCubicEach() {
+        mCubicBatch.evaluateEach(mParticles, mOutX, mOutY);
+        return mOutX;
+    }
+
+    private float[] scalarGrid(int degree, float[] pts) {
+        int stride = Bezier.coordCount(degree);
+        for (int c = 0, base = 0; c < curves; c++, base += SAMPLES) {
+            for (int m = 0; m < SAMPLES; m++) {
+                Bezier.point(degree, pts, c * stride, mTrail[m], mPoint, 0);
+                mOutX[base + m] = mPoint[0];
+                mOutY[base + m] = mPoint[1];
+            }
+        }
+        return mOutX;
+    }
+}
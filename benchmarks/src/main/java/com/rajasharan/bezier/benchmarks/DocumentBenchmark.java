@@ -0,0 +1,145 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.CurveDocument;
+import com.rajasharan.bezier.CurveDocumentReader;
+import com.rajasharan.bezier.CurveScene;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A document of 10000 chains of 1-5 cubics: encoding it, decoding one curve of the
+ * mapped file, and mapping and loading all of it into a {@link CurveScene}, per point
+ * encoding. The baseline reads the same points from a {@link DataInputStream} into
+ * one object per point.
+ *
+ * Opening alone is not measured: it maps the file and reads the header, and mapping
+ * in a tight loop runs out of mappings long before the garbage collector unmaps them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark {
+    private static final int CURVES = 10000;
+
+    @Param({"0", "1"})
+    public int encoding;
+
+    private CurveScene mScene;
+    private File mFile;
+    private File mStreamFile;
+    private CurveDocumentReader mReader;
+    private float[] mPoints;
+    private int mCurve;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random r = new Random(41L);
+        mScene = new CurveScene(CURVES);
+        float[] pts = new float[32];
+        for (int c = 0; c < CURVES; c++) {
+            int segments = 1 + r.nextInt(5);
+            float x = r.nextFloat() * Fixtures.WIDTH * 4, y = r.nextFloat() * Fixtures.HEIGHT * 4;
+            for (int i = 0; i <= segments * 3; i++) {
+                x += r.nextFloat() * 200f - 100f;
+                y += r.nextFloat() * 200f - 100f;
+                pts[i * 2] = x;
+                pts[i * 2 + 1] = y;
+            }
+            mScene.add(pts, 0, segments, c & 3);
+        }
+        mFile = File.createTempFile("scene", ".crv");
+        CurveDocument.write(mScene, encoding, CurveDocument.DEFAULT_QUANTUM, mFile);
+        mReader = CurveDocumentReader.open(mFile);
+        mStreamFile = File.createTempFile("scene", ".bin");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mStreamFile)));
+        try {
+            out.writeInt(CURVES);
+            for (int c = 0; c < CURVES; c++) {
+                int floats = (mScene.getSegmentCount(c) * 3 + 1) * 2;
+                out.writeInt(floats / 2);
+                for (int i = 0; i < floats; i++) {
+                    out.writeFloat(mScene.getPoints()[mScene.getOffset(c) + i]);
+                }
+            }
+        }
+        finally {
+            out.close();
+        }
+        mPoints = new float[32];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mFile.delete();
+        mStreamFile.delete();
+    }
+
+    @Benchmark
+    public int encode() {
+        return CurveDocument.encode(mScene, encoding, CurveDocument.DEFAULT_QUANTUM).limit();
+    }
+
+    @Benchmark
+    public float readOneCurve() {
+        mCurve = (mCurve + 7919) % CURVES;
+        mReader.readCurve(mCurve, mPoints, 0);
+        return mPoints[0];
+    }
+
+    @Benchmark
+    public int openAndLoad() throws IOException {
+        CurveScene scene = new CurveScene(CURVES);
+        CurveDocumentReader.open(mFile).loadInto(scene);
+        return scene.size();
+    }
+
+    /* one float[] per point, the way a naive loader would inflate the document */
+    @Benchmark
+    public int streamLoadObjects() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(mStreamFile)));
+        try {
+            int curves = in.readInt();
+            List<List<float[]>> scene = new ArrayList<List<float[]>>(curves);
+            for (int c = 0; c < curves; c++) {
+                int points = in.readInt();
+                List<float[]> curve = new ArrayList<float[]>(points);
+                for (int i = 0; i < points; i++) {
+                    curve.add(new float[] {in.readFloat(), in.readFloat()});
+                }
+                scene.add(curve);
+            }
+            return scene.size();
+        }
+        finally {
+            in.close();
+        }
+    }
+}
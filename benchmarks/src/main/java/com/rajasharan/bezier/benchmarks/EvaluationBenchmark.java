@@ -0,0 +1,91 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.Bezier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Points per second for the per-sample math done by {@code drawPath}.
+ * Each invocation evaluates {@link #SAMPLES} parameters on each of {@link #SEGMENTS} segments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+    static final int SEGMENTS = 64;
+    static final int SAMPLES = 32;
+
+    private float[] mQuads;
+    private float[] mCubics;
+    private float[] mOut;
+
+    @Setup
+    public void setup() {
+        mQuads = Fixtures.segments(Bezier.QUADRATIC, SEGMENTS, 1L);
+        mCubics = Fixtures.segments(Bezier.CUBIC, SEGMENTS, 2L);
+        mOut = new float[2];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS * SAMPLES)
+    public void quadPoint(Blackhole bh) {
+        evaluatePoints(Bezier.QUADRATIC, mQuads, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS * SAMPLES)
+    public void cubicPoint(Blackhole bh) {
+        evaluatePoints(Bezier.CUBIC, mCubics, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS * SAMPLES)
+    public void cubicTangent(Blackhole bh) {
+        int stride = Bezier.coordCount(Bezier.CUBIC);
+        for (int s = 0; s < SEGMENTS; s++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                Bezier.tangent(Bezier.CUBIC, mCubics, s * stride, i / (float) (SAMPLES - 1), mOut, 0);
+                bh.consume(mOut[0]);
+                bh.consume(mOut[1]);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS * SAMPLES)
+    public void cubicCurvature(Blackhole bh) {
+        int stride = Bezier.coordCount(Bezier.CUBIC);
+        for (int s = 0; s < SEGMENTS; s++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                bh.consume(Bezier.curvature(Bezier.CUBIC, mCubics, s * stride, i / (float) (SAMPLES - 1)));
+            }
+        }
+    }
+
+    private void evaluatePoints(int degree, float[] pts, Blackhole bh) {
+        int stride = Bezier.coordCount(degree);
+        for (int s = 0; s < SEGMENTS; s++) {
+            for (int i = 0; i < SAMPLES; i++) {
+                Bezier.point(degree, pts, s * stride, i / (float) (SAMPLES - 1), mOut, 0);
+                bh.consume(mOut[0]);
+                bh.consume(mOut[1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.CurveFitter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fitting a freehand stroke of {@code samples} samples with {@link CurveFitter}:
+ * sample by sample as a drag delivers them, against fitting the whole stroke once on
+ * release and against refitting the whole stroke on every move event of 8 samples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitBenchmark {
+    private static final int SAMPLES_PER_MOVE = 8;
+
+    @Param({"128", "1024"})
+    public int samples;
+
+    private float[] mStroke;
+    private CurveFitter mFitter;
+
+    @Setup
+    public void setup() {
+        mStroke = Fixtures.stroke(samples, 31L);
+        mFitter = new CurveFitter();
+    }
+
+    @Benchmark
+    public int incremental() {
+        mFitter.begin(mStroke[0], mStroke[1]);
+        for (int i = 1; i < samples; i++) {
+            mFitter.add(mStroke[i * 2], mStroke[i * 2 + 1]);
+        }
+        mFitter.finish();
+        return mFitter.getSegmentCount();
+    }
+
+    @Benchmark
+    public int fitOnRelease() {
+        mFitter.fit(mStroke, samples);
+        return mFitter.getSegmentCount();
+    }
+
+    @Benchmark
+    public int refitEveryMove() {
+        int segments = 0;
+        for (int n = SAMPLES_PER_MOVE; n <= samples; n += SAMPLES_PER_MOVE) {
+            mFitter.fit(mStroke, n);
+            segments += mFitter.getSegmentCount();
+        }
+        return segments;
+    }
+}
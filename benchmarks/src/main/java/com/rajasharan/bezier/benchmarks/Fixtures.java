@@ -0,0 +1,57 @@
+package com.rajasharan.bezier.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks, sized like a phone screen.
+ */
+final class Fixtures {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+
+    private Fixtures() {
+    }
+
+    /** {@code count} segments of the given degree packed back to back. */
+    static float[] segments(int degree, int count, long seed) {
+        Random r = new Random(seed);
+        int stride = (degree + 1) * 2;
+        float[] pts = new float[stride * count];
+        for (int i = 0; i < pts.length; i += 2) {
+            pts[i] = r.nextFloat() * WIDTH;
+            pts[i + 1] = r.nextFloat() * HEIGHT;
+        }
+        return pts;
+    }
+
+    /** A drag path of {@code count} samples per pointer, interleaved x,y. */
+    static float[] drag(int count, long seed) {
+        Random r = new Random(seed);
+        float[] samples = new float[count * 2];
+        float x = WIDTH / 2f, y = HEIGHT / 2f;
+        for (int i = 0; i < samples.length; i += 2) {
+            x = Math.max(0f, Math.min(WIDTH, x + r.nextFloat() * 16f - 8f));
+            y = Math.max(0f, Math.min(HEIGHT, y + r.nextFloat() * 16f - 8f));
+            samples[i] = x;
+            samples[i + 1] = y;
+        }
+        return samples;
+    }
+
+    /** A smooth freehand stroke of {@code count} samples 4px apart with 1px of jitter, interleaved x,y. */
+    static float[] stroke(int count, long seed) {
+        Random r = new Random(seed);
+        float[] samples = new float[count * 2];
+        float x = WIDTH / 2f, y = HEIGHT / 2f;
+        float heading = 0f, turn = 0f;
+        for (int i = 0; i < samples.length; i += 2) {
+            turn = Math.max(-0.08f, Math.min(0.08f, turn + (r.nextFloat() - 0.5f) * 0.02f));
+            heading += turn;
+            x += (float) Math.cos(heading) * 4f;
+            y += (float) Math.sin(heading) * 4f;
+            samples[i] = x + r.nextFloat() - 0.5f;
+            samples[i + 1] = y + r.nextFloat() - 0.5f;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,163 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.Flattener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Segments flattened per second at a range of pixel tolerances.
+ *
+ * {@code uniform*} is the baseline: a fixed-step walk whose step count comes from
+ * the control polygon's distance to the chord, roughly what the platform does for
+ * {@code Path.quadTo/cubicTo}. The other benchmarks run {@link Flattener} in each of
+ * its modes; they return the number of points emitted so segment counts can be
+ * compared at the same tolerance.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlattenBenchmark {
+    static final int SEGMENTS = 64;
+    static final int MAX_STEPS = 1024;
+
+    @Param({"0.1", "0.25", "0.5", "1.0"})
+    public float tolerance;
+
+    float[] mQuads;
+    float[] mCubics;
+    float[] mPolyline;
+    Flattener mCurvature;
+    Flattener mParabola;
+    Flattener mForward;
+    Flattener mFixed;
+
+    @Setup
+    public void setup() {
+        mQuads = Fixtures.segments(Bezier.QUADRATIC, SEGMENTS, 3L);
+        mCubics = Fixtures.segments(Bezier.CUBIC, SEGMENTS, 4L);
+        mPolyline = new float[(MAX_STEPS + 1) * 2];
+        mCurvature = new Flattener(tolerance, Flattener.Mode.CURVATURE);
+        mCurvature.setMaxSegments(MAX_STEPS);
+        mParabola = new Flattener(tolerance, Flattener.Mode.PARABOLA);
+        mParabola.setMaxSegments(MAX_STEPS);
+        mForward = new Flattener(tolerance, Flattener.Mode.FORWARD_DIFFERENCE);
+        mForward.setMaxSegments(MAX_STEPS);
+        mFixed = new Flattener(tolerance, Flattener.Mode.FIXED_POINT);
+        mFixed.setMaxSegments(MAX_STEPS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int uniformQuad() {
+        return uniformAll(Bezier.QUADRATIC, mQuads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int uniformCubic() {
+        return uniformAll(Bezier.CUBIC, mCubics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int curvatureQuad() {
+        return flattenAll(mCurvature, Bezier.QUADRATIC, mQuads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int curvatureCubic() {
+        return flattenAll(mCurvature, Bezier.CUBIC, mCubics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int parabolaQuad() {
+        return flattenAll(mParabola, Bezier.QUADRATIC, mQuads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int parabolaCubic() {
+        return flattenAll(mParabola, Bezier.CUBIC, mCubics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int forwardQuad() {
+        return flattenAll(mForward, Bezier.QUADRATIC, mQuads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int forwardCubic() {
+        return flattenAll(mForward, Bezier.CUBIC, mCubics);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int fixedQuad() {
+        return flattenAll(mFixed, Bezier.QUADRATIC, mQuads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public int fixedCubic() {
+        return flattenAll(mFixed, Bezier.CUBIC, mCubics);
+    }
+
+    private int flattenAll(Flattener flattener, int degree, float[] pts) {
+        int stride = Bezier.coordCount(degree);
+        int points = 0;
+        for (int s = 0; s < SEGMENTS; s++) {
+            points += flattener.flatten(degree, pts, s * stride, mPolyline, 0);
+        }
+        return points;
+    }
+
+    private int uniformAll(int degree, float[] pts) {
+        int stride = Bezier.coordCount(degree);
+        int points = 0;
+        for (int s = 0; s < SEGMENTS; s++) {
+            points += uniform(degree, pts, s * stride, tolerance, mPolyline);
+        }
+        return points;
+    }
+
+    /** Returns the number of points written to {@code out}. */
+    static int uniform(int degree, float[] pts, int off, float tolerance, float[] out) {
+        int last = off + degree * 2;
+        float cx = pts[last] - pts[off];
+        float cy = pts[last + 1] - pts[off + 1];
+        float chord = (float) Math.sqrt(cx * cx + cy * cy);
+        float deviation = 0f;
+        for (int i = off + 2; i < last; i += 2) {
+            float d = chord > 0f
+                    ? Math.abs((pts[i] - pts[off]) * cy - (pts[i + 1] - pts[off + 1]) * cx) / chord
+                    : (float) Math.hypot(pts[i] - pts[off], pts[i + 1] - pts[off + 1]);
+            deviation = Math.max(deviation, d);
+        }
+        int steps = Math.max(1, Math.min(MAX_STEPS, (int) Math.ceil(Math.sqrt(deviation / tolerance))));
+        for (int i = 0; i <= steps; i++) {
+            Bezier.point(degree, pts, off, i / (float) steps, out, i * 2);
+        }
+        return steps + 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.ControlPointStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code ACTION_DOWN} hit test against {@code points} control points spread over
+ * the screen: a linear scan against the {@link com.rajasharan.bezier.PointGrid}, and
+ * the cost of moving a point with the grid kept up to date.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmark {
+    static final int PROBES = 1024;
+    static final float HIT_RADIUS = 40f;
+
+    @Param({"16", "256", "1024"})
+    public int points;
+
+    private ControlPointStore mScan;
+    private ControlPointStore mGrid;
+    private float[] mProbes;
+    private float[] mDrag;
+    private int mCursor;
+
+    @Setup
+    public void setup() {
+        float[] pts = Fixtures.segments(1, points / 2, 7L);
+        mScan = new ControlPointStore(points);
+        mGrid = new ControlPointStore(points);
+        mGrid.enableHitTesting(HIT_RADIUS);
+        for (int i = 0; i < points; i++) {
+            mScan.set(i, pts[i * 2], pts[i * 2 + 1]);
+            mGrid.set(i, pts[i * 2], pts[i * 2 + 1]);
+        }
+        mProbes = Fixtures.segments(1, PROBES / 2, 8L);
+        mDrag = Fixtures.drag(PROBES, 9L);
+    }
+
+    @Benchmark
+    public int scanHitTest() {
+        int i = mCursor;
+        mCursor = (mCursor + 2) % (PROBES * 2);
+        return mScan.hitTest(mProbes[i], mProbes[i + 1], HIT_RADIUS);
+    }
+
+    @Benchmark
+    public int gridHitTest() {
+        int i = mCursor;
+        mCursor = (mCursor + 2) % (PROBES * 2);
+        return mGrid.hitTest(mProbes[i], mProbes[i + 1], HIT_RADIUS);
+    }
+
+    @Benchmark
+    public ControlPointStore gridMove() {
+        int i = mCursor;
+        mCursor = (mCursor + 2) % (PROBES * 2);
+        mGrid.set(0, mDrag[i], mDrag[i + 1]);
+        return mGrid;
+    }
+}
@@ -0,0 +1,102 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.BezierSegment;
+
+/**
+ * JVM port of the touch state machine in {@code CubicBezierView}/{@code SpringView}:
+ * one boxed point per control point, replaced on every update.
+ */
+class LegacyTouchModel {
+    static final class Point {
+        int x;
+        int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    private final int mMaxCount;
+    private final Point[] mTouches;
+    private final BezierSegment mSegment;
+    private int mCurrentTouchIndex;
+    private boolean mMultiTouchMode;
+
+    LegacyTouchModel(int maxCount) {
+        mMaxCount = maxCount;
+        mTouches = new Point[4];
+        mSegment = new BezierSegment();
+        mCurrentTouchIndex = -1;
+    }
+
+    void setMultiTouchMode(boolean enable) {
+        mMultiTouchMode = enable;
+        clear();
+        mCurrentTouchIndex = -1;
+    }
+
+    void registerTouch(int x, int y, int pointerId) {
+        if (!mMultiTouchMode) {
+            mCurrentTouchIndex++;
+            mCurrentTouchIndex = mCurrentTouchIndex % mMaxCount;
+            if (mCurrentTouchIndex == 0) {
+                clear();
+            }
+            mTouches[mCurrentTouchIndex] = new Point(x, y);
+            return;
+        }
+        if (pointerId < mMaxCount) {
+            mTouches[pointerId] = new Point(x, y);
+            mCurrentTouchIndex = pointerId;
+        }
+    }
+
+    void updateTouch(int x, int y, int pointerId) {
+        int index = mMultiTouchMode ? pointerId : mCurrentTouchIndex;
+        mTouches[index] = new Point(x, y);
+    }
+
+    /** Equivalent of {@code SpringView.setSpring}, including its per-tick log formatting. */
+    String setSpring(float t) {
+        String log = String.format("Overshoot tension: %f", t);
+        Point cp = mTouches[2];
+        Point start = mTouches[0];
+        Point end = mTouches[1];
+        if (cp != null) {
+            int x = (start.x + end.x) / 2;
+            int y = (start.y + end.y) / 2;
+
+            if (cp.x > x) cp.x -= (cp.x - x)*t;
+            else cp.x += (x - cp.x)*t;
+
+            if (cp.y > y) cp.y -= (cp.y - y)*t;
+            else cp.y += (y - cp.y)*t;
+        }
+        return log;
+    }
+
+    /** The segment building half of {@code drawPath}. */
+    BezierSegment buildSegment() {
+        Point p0 = mTouches[0], p1 = mTouches[1], p2 = mTouches[2], p3 = mTouches[3];
+        if (p3 != null && p2 != null && p1 != null && p0 != null) {
+            mSegment.setCubic(p0.x, p0.y, p2.x, p2.y, p3.x, p3.y, p1.x, p1.y);
+        }
+        else if (p2 != null && p1 != null && p0 != null) {
+            mSegment.setQuad(p0.x, p0.y, p2.x, p2.y, p1.x, p1.y);
+        }
+        else if (p1 != null && p0 != null) {
+            mSegment.setLine(p0.x, p0.y, p1.x, p1.y);
+        }
+        else {
+            mSegment.reset();
+        }
+        return mSegment;
+    }
+
+    private void clear() {
+        for (int i = 0; i < mTouches.length; i++) {
+            mTouches[i] = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.FrameMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead {@link FrameMetrics} adds to every frame: one draw, latency, invalidation
+ * and segment record, from one thread and from two threads sharing a recorder.
+ * {@code gc.alloc.rate.norm} should stay at 0.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private FrameMetrics mMetrics;
+    private long mDuration;
+
+    @Setup
+    public void setup() {
+        mMetrics = new FrameMetrics();
+    }
+
+    @Benchmark
+    public FrameMetrics recordFrame() {
+        long d = mDuration = (mDuration + 7919) % 40000000L;
+        mMetrics.recordDraw(d);
+        mMetrics.recordInputLatency(d * 2);
+        mMetrics.recordInvalidation();
+        mMetrics.recordSegments(40);
+        return mMetrics;
+    }
+
+    @Benchmark
+    @Threads(2)
+    public FrameMetrics recordFrameShared() {
+        return recordFrame();
+    }
+}
@@ -0,0 +1,76 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.BezierSpline;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.TessellationPipeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UI-thread cost of one frame of a chain of {@code segments} cubics: flattening it in
+ * place against handing it to {@link TessellationPipeline} and picking up the latest
+ * finished geometry. The pipelined cost should stay flat as {@code segments} grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+    @Param({"1", "10", "100"})
+    public int segments;
+
+    private BezierSpline mSpline;
+    private Flattener mFlattener;
+    private float[] mPolyline;
+    private TessellationPipeline mPipeline;
+
+    @Setup
+    public void setup() {
+        float[] pts = Fixtures.segments(1, segments * 3 + 1, 11L);
+        mSpline = new BezierSpline(segments);
+        mSpline.moveTo(pts[0], pts[1]);
+        for (int i = 2; i + 5 < pts.length; i += 6) {
+            mSpline.cubicTo(pts[i], pts[i + 1], pts[i + 2], pts[i + 3], pts[i + 4], pts[i + 5]);
+        }
+        mFlattener = new Flattener();
+        mPolyline = new float[mFlattener.requiredCapacity()];
+        mPipeline = new TessellationPipeline();
+        mPipeline.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mPipeline.stop();
+    }
+
+    @Benchmark
+    public int flattenOnUiThread() {
+        int total = 0;
+        for (int s = 0; s < mSpline.getSegmentCount(); s++) {
+            total += mSpline.flattenSegment(mFlattener, s, mPolyline, 0);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int submitAndBlit() {
+        mPipeline.submit(3, mSpline.getCoords(), mSpline.getSegmentCount());
+        mPipeline.update();
+        return mPipeline.getGeometry().getLineCount();
+    }
+}
@@ -0,0 +1,106 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.ControlPointStore;
+import com.rajasharan.bezier.PointerTracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code pointers} fingers editing a chain of ten cubics in multi-touch mode: one move
+ * event dispatched through {@link PointerTracker}, against looking each pointer up in
+ * a {@code HashMap<Integer, Integer>}, and one finger going down and up again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointerBenchmark {
+    static final int POINTS = 31;
+    static final float HIT_RADIUS = 40f;
+
+    @Param({"1", "4", "10", "16"})
+    public int pointers;
+
+    private ControlPointStore mTouches;
+    private PointerTracker mTracker;
+    private Map<Integer, Integer> mMap;
+    private int[] mIds;
+    private float[] mDrag;
+    private int mSample;
+
+    @Setup
+    public void setup() {
+        mTouches = new ControlPointStore(POINTS);
+        mTouches.enableHitTesting(HIT_RADIUS);
+        float[] pts = Fixtures.segments(1, POINTS, 41L);
+        for (int i = 0; i < POINTS; i++) {
+            mTouches.set(i, pts[i * 2], pts[i * 2 + 1]);
+        }
+        mTracker = new PointerTracker(POINTS);
+        mMap = new HashMap<Integer, Integer>();
+        mIds = new int[pointers];
+        for (int p = 0; p < pointers; p++) {
+            /* ids handed out out of order, as after some fingers lifted */
+            mIds[p] = (p * 7) % 31;
+            int point = mTracker.choosePoint(mTouches, mTouches.getX(p * 2), mTouches.getY(p * 2), HIT_RADIUS);
+            mTracker.assign(mIds[p], point);
+            mMap.put(mIds[p], point);
+        }
+        mDrag = Fixtures.drag(1024, 43L);
+    }
+
+    @Benchmark
+    public int trackedMove() {
+        float x = mDrag[mSample * 2], y = mDrag[mSample * 2 + 1];
+        mSample = (mSample + 1) & 1023;
+        int moved = 0;
+        for (int p = 0; p < pointers; p++) {
+            int point = mTracker.pointFor(mIds[p]);
+            if (point != -1) {
+                mTouches.set(point, x + p, y);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    @Benchmark
+    public int mapMove() {
+        float x = mDrag[mSample * 2], y = mDrag[mSample * 2 + 1];
+        mSample = (mSample + 1) & 1023;
+        int moved = 0;
+        for (int p = 0; p < pointers; p++) {
+            Integer point = mMap.get(mIds[p]);
+            if (point != null) {
+                mTouches.set(point, x + p, y);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /* a finger lands on a free point and lifts again, reusing a lifted id */
+    @Benchmark
+    public int downUp() {
+        int id = 31;
+        int point = mTracker.choosePoint(mTouches, mTouches.getX(POINTS - 1), mTouches.getY(POINTS - 1), HIT_RADIUS);
+        mTracker.assign(id, point);
+        return mTracker.release(id);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.CurveQueries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CurveQueries}: the closest point on a quad, a cubic and a chain of 100
+ * cubics to points spread over the screen, and the intersections of two random cubics.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+    private static final int COUNT = 1024;
+    private static final int CHAIN = 100;
+
+    private float[] mQuads;
+    private float[] mCubics;
+    private float[] mChain;
+    private float[] mProbes;
+    private CurveQueries mQueries;
+    private float[] mOut;
+    private int mIndex;
+
+    @Setup
+    public void setup() {
+        mQuads = Fixtures.segments(Bezier.QUADRATIC, COUNT, 17L);
+        mCubics = Fixtures.segments(Bezier.CUBIC, COUNT, 19L);
+        mChain = Fixtures.segments(1, CHAIN * 3 + 1, 23L);
+        mProbes = Fixtures.segments(0, COUNT, 29L);
+        mQueries = new CurveQueries();
+        mOut = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+    }
+
+    @Benchmark
+    public float projectQuad() {
+        int i = next();
+        return mQueries.project(Bezier.QUADRATIC, mQuads, i * 6, mProbes[i * 2], mProbes[i * 2 + 1], mOut);
+    }
+
+    @Benchmark
+    public float projectCubic() {
+        int i = next();
+        return mQueries.project(Bezier.CUBIC, mCubics, i * 8, mProbes[i * 2], mProbes[i * 2 + 1], mOut);
+    }
+
+    @Benchmark
+    public float projectChain() {
+        int i = next();
+        return mQueries.projectChain(Bezier.CUBIC, mChain, CHAIN, mProbes[i * 2], mProbes[i * 2 + 1], mOut);
+    }
+
+    @Benchmark
+    public int intersectCubics() {
+        int i = next();
+        int j = (i + 1) & (COUNT - 1);
+        return mQueries.intersect(Bezier.CUBIC, mCubics, i * 8, Bezier.CUBIC, mCubics, j * 8, mOut);
+    }
+
+    private int next() {
+        mIndex = (mIndex + 1) & (COUNT - 1);
+        return mIndex;
+    }
+}
@@ -0,0 +1,110 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.SpringTouchModel;
+import com.rajasharan.bezier.TouchLog;
+import com.rajasharan.bezier.TouchLogReader;
+import com.rajasharan.bezier.TouchRecorder;
+import com.rajasharan.bezier.TouchReplayer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event cost of a recorded {@code SpringView} session: recording it with
+ * {@link TouchRecorder}, and replaying it through {@link SpringTouchModel} with
+ * {@link TouchReplayer}, spring frames included. Each of the {@link #SESSIONS}
+ * sessions taps the three points, waits for the control point to spring back, then
+ * grabs it and drags it past the spring threshold in {@link #MOVES} move events of
+ * four samples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+    static final int SESSIONS = 10;
+    static final int MOVES = 100;
+    static final int SAMPLES_PER_MOVE = 4;
+    /* three taps, a down on the control point, the moves and the up */
+    static final int EVENTS = SESSIONS * (8 + MOVES);
+
+    private TouchRecorder mRecorder;
+    private TouchLogReader mLog;
+    private TouchReplayer mReplayer;
+    private SpringTouchModel mModel;
+
+    @Setup
+    public void setup() throws IOException {
+        mRecorder = new TouchRecorder();
+        recordSessions(mRecorder);
+        mLog = new TouchLogReader(mRecorder.toByteBuffer());
+        mReplayer = new TouchReplayer(256);
+        mModel = new SpringTouchModel(40f);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int record() {
+        recordSessions(mRecorder);
+        return mRecorder.getEventCount();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public int replay() throws IOException {
+        return mReplayer.replay(mLog, mModel);
+    }
+
+    static void recordSessions(TouchRecorder recorder) {
+        long time = 0;
+        recorder.start(time, Fixtures.WIDTH, Fixtures.HEIGHT, false);
+        for (int s = 0; s < SESSIONS; s++) {
+            /* a row lower each time, so the first tap misses the last session's points */
+            float row = 500f + s * 100f;
+            time = tap(recorder, time, 300f, row);
+            time = tap(recorder, time, 800f, row);
+            time = tap(recorder, time, 550f, row - 100f);
+            /* the control point springs back onto the chord once let go; grab it there */
+            time += 1000;
+            float x = 550f, y = row;
+            recorder.beginEvent(TouchLog.ACTION_DOWN, 0);
+            recorder.addSample(0, x, y, time);
+            for (int m = 0; m < MOVES; m++) {
+                recorder.beginEvent(TouchLog.ACTION_MOVE, 0);
+                for (int i = 0; i < SAMPLES_PER_MOVE; i++) {
+                    time += 2;
+                    x += 0.5f;
+                    y += 2f;
+                    recorder.addSample(0, x, y, time);
+                }
+            }
+            recorder.beginEvent(TouchLog.ACTION_UP, 0);
+            recorder.addSample(0, x, y, time);
+            /* let the spring settle before the next session */
+            time += 1000;
+        }
+    }
+
+    private static long tap(TouchRecorder recorder, long time, float x, float y) {
+        recorder.beginEvent(TouchLog.ACTION_DOWN, 0);
+        recorder.addSample(0, x, y, time);
+        time += 80;
+        recorder.beginEvent(TouchLog.ACTION_UP, 0);
+        recorder.addSample(0, x, y, time);
+        return time + 200;
+    }
+}
@@ -0,0 +1,85 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.CurveScene;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.LineBatch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU side of one frame of a {@link CurveScene} spread over 4x4 screens: culling it
+ * against one screen and flattening the visible curves into a {@link LineBatch},
+ * against flattening every curve, and the cull alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneBenchmark {
+    private static final int SCREENS = 4;
+
+    @Param({"1000", "10000"})
+    public int curves;
+
+    private CurveScene mScene;
+    private Flattener mFlattener;
+    private LineBatch mBatch;
+    private int[] mVisible;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(37L);
+        float width = Fixtures.WIDTH * SCREENS, height = Fixtures.HEIGHT * SCREENS;
+        mScene = new CurveScene(curves);
+        for (int i = 0; i < curves; i++) {
+            float x = r.nextFloat() * width, y = r.nextFloat() * height;
+            mScene.addCubic(x, y,
+                    x + r.nextFloat() * 200f - 100f, y + r.nextFloat() * 200f - 100f,
+                    x + r.nextFloat() * 200f - 100f, y + r.nextFloat() * 200f - 100f,
+                    x + r.nextFloat() * 200f - 100f, y + r.nextFloat() * 200f - 100f,
+                    i & 3);
+        }
+        mFlattener = new Flattener();
+        mBatch = new LineBatch();
+        mVisible = new int[curves];
+    }
+
+    @Benchmark
+    public int query() {
+        return mScene.query(Fixtures.WIDTH, Fixtures.HEIGHT, Fixtures.WIDTH * 2, Fixtures.HEIGHT * 2, mVisible);
+    }
+
+    @Benchmark
+    public int culledFrame() {
+        int visible = query();
+        mBatch.clear();
+        for (int i = 0; i < visible; i++) {
+            mBatch.append(mFlattener, mScene, mVisible[i]);
+        }
+        return mBatch.getLineCount();
+    }
+
+    @Benchmark
+    public int unculledFrame() {
+        mBatch.clear();
+        for (int i = 0; i < curves; i++) {
+            mBatch.append(mFlattener, mScene, i);
+        }
+        return mBatch.getLineCount();
+    }
+}
@@ -0,0 +1,107 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.BezierSpline;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.SegmentCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One drag step on a chain of {@code segments} cubics: the middle knot moves, then
+ * the chain is bounded and its lines gathered into one array for drawing. Flattening
+ * and bounding every segment again, as before, against {@link SegmentCache} and the
+ * spline's own bounds, which only redo the two segments sharing the knot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentCacheBenchmark {
+    @Param({"10", "100", "500"})
+    public int segments;
+
+    private BezierSpline mSpline;
+    private Flattener mFlattener;
+    private SegmentCache mCache;
+    private long[] mStamps;
+    private float[] mPolyline;
+    private float[] mLines;
+    private final float[] mBox = new float[4];
+    private int mKnot;
+    private float mKnotX;
+    private float mKnotY;
+    private int mStep;
+
+    @Setup
+    public void setup() {
+        float[] pts = Fixtures.segments(1, segments * 3 + 1, 11L);
+        mSpline = new BezierSpline(segments);
+        mSpline.moveTo(pts[0], pts[1]);
+        for (int i = 2; i + 5 < pts.length; i += 6) {
+            mSpline.cubicTo(pts[i], pts[i + 1], pts[i + 2], pts[i + 3], pts[i + 4], pts[i + 5]);
+        }
+        mFlattener = new Flattener();
+        mCache = new SegmentCache();
+        mStamps = new long[segments];
+        mPolyline = new float[mFlattener.requiredCapacity()];
+        mLines = new float[segments * mFlattener.getMaxSegments() * 4];
+        mKnot = segments / 2 * 3;
+        mKnotX = mSpline.getX(mKnot);
+        mKnotY = mSpline.getY(mKnot);
+        cachedDrag();
+    }
+
+    @Benchmark
+    public int reflattenAll() {
+        moveKnot();
+        float l = Float.POSITIVE_INFINITY, r = Float.NEGATIVE_INFINITY;
+        int lines = 0;
+        for (int s = 0; s < segments; s++) {
+            Bezier.bounds(Bezier.CUBIC, mSpline.getCoords(), BezierSpline.segmentOffset(s), mBox, 0);
+            l = Math.min(l, mBox[0]);
+            r = Math.max(r, mBox[2]);
+            int count = mSpline.flattenSegment(mFlattener, s, mPolyline, 0);
+            for (int i = 1; i < count; i++, lines++) {
+                System.arraycopy(mPolyline, i * 2 - 2, mLines, lines * 4, 4);
+            }
+        }
+        return lines + (int) (r - l);
+    }
+
+    @Benchmark
+    public int cachedDrag() {
+        moveKnot();
+        mSpline.bounds(mBox);
+        for (int s = 0; s < segments; s++) {
+            mStamps[s] = mSpline.getSegmentStamp(s);
+        }
+        mCache.update(mFlattener, 3, mSpline.getCoords(), segments, mStamps);
+        int lines = 0;
+        for (int s = 0; s < segments; s++) {
+            int count = mCache.getLineCount(s);
+            System.arraycopy(mCache.getLines(s), 0, mLines, lines * 4, count * 4);
+            lines += count;
+        }
+        return lines + (int) (mBox[2] - mBox[0]);
+    }
+
+    private void moveKnot() {
+        mStep = (mStep + 1) % 16;
+        mSpline.setPoint(mKnot, mKnotX + mStep, mKnotY - mStep);
+    }
+}
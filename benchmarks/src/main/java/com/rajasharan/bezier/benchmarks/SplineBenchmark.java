@@ -0,0 +1,69 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.BezierCurve;
+import com.rajasharan.bezier.BezierSpline;
+import com.rajasharan.bezier.Flattener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of flattening a whole chain of cubics, and of a single curve of the same
+ * number of control points. Both should grow linearly with {@code points}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplineBenchmark {
+    @Param({"4", "31", "301"})
+    public int points;
+
+    private BezierSpline mSpline;
+    private BezierCurve mCurve;
+    private Flattener mFlattener;
+    private float[] mPolyline;
+
+    @Setup
+    public void setup() {
+        float[] pts = Fixtures.segments(1, points, 7L);
+        mSpline = new BezierSpline();
+        mSpline.moveTo(pts[0], pts[1]);
+        for (int i = 2; i + 5 < points * 2; i += 6) {
+            mSpline.cubicTo(pts[i], pts[i + 1], pts[i + 2], pts[i + 3], pts[i + 4], pts[i + 5]);
+        }
+        mCurve = new BezierCurve(points - 1);
+        mCurve.set(pts, 0, points - 1);
+        mFlattener = new Flattener();
+        mPolyline = new float[Math.max(mFlattener.requiredCapacity(), 4098 * 2)];
+    }
+
+    @Benchmark
+    public int flattenSpline() {
+        int total = 0;
+        int segments = mSpline.getSegmentCount();
+        for (int s = 0; s < segments; s++) {
+            total += mSpline.flattenSegment(mFlattener, s, mPolyline, 0);
+        }
+        return total;
+    }
+
+    /* fixed sample count so the per-sample cost against degree is visible */
+    @Benchmark
+    public int flattenHighDegree() {
+        return mCurve.flatten(Float.MIN_VALUE, 64, mPolyline, 0);
+    }
+}
@@ -0,0 +1,68 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.BezierSegment;
+import com.rajasharan.bezier.ControlPointStore;
+
+/**
+ * JVM port of the views' touch state machine on top of {@link ControlPointStore}.
+ */
+class StoreTouchModel {
+    private final int mMaxCount;
+    private final ControlPointStore mTouches;
+    private final BezierSegment mSegment;
+    private int mCurrentTouchIndex;
+    private boolean mMultiTouchMode;
+
+    StoreTouchModel(int maxCount) {
+        mMaxCount = maxCount;
+        mTouches = new ControlPointStore(maxCount);
+        mSegment = new BezierSegment();
+        mCurrentTouchIndex = -1;
+    }
+
+    void setMultiTouchMode(boolean enable) {
+        mMultiTouchMode = enable;
+        mTouches.clear();
+        mCurrentTouchIndex = -1;
+    }
+
+    void registerTouch(float x, float y, int pointerId) {
+        if (!mMultiTouchMode) {
+            mCurrentTouchIndex++;
+            mCurrentTouchIndex = mCurrentTouchIndex % mMaxCount;
+            if (mCurrentTouchIndex == 0) {
+                mTouches.clear();
+            }
+            mTouches.set(mCurrentTouchIndex, x, y);
+            return;
+        }
+        if (pointerId < mMaxCount) {
+            mTouches.set(pointerId, x, y);
+            mCurrentTouchIndex = pointerId;
+        }
+    }
+
+    void updateTouch(float x, float y, int pointerId) {
+        int index = mMultiTouchMode ? pointerId : mCurrentTouchIndex;
+        if (index != -1 && index < mMaxCount) {
+            mTouches.set(index, x, y);
+        }
+    }
+
+    BezierSegment buildSegment() {
+        ControlPointStore t = mTouches;
+        if (t.containsRange(0, 4)) {
+            mSegment.setCubic(t.getX(0), t.getY(0), t.getX(2), t.getY(2), t.getX(3), t.getY(3), t.getX(1), t.getY(1));
+        }
+        else if (t.containsRange(0, 3)) {
+            mSegment.setQuad(t.getX(0), t.getY(0), t.getX(2), t.getY(2), t.getX(1), t.getY(1));
+        }
+        else if (t.containsRange(0, 2)) {
+            mSegment.setLine(t.getX(0), t.getY(0), t.getX(1), t.getY(1));
+        }
+        else {
+            mSegment.reset();
+        }
+        return mSegment;
+    }
+}
@@ -0,0 +1,81 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.Flattener;
+import com.rajasharan.bezier.StrokeOutliner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outlining a tapered stroke along a chain of {@code segments} cubics with
+ * {@link StrokeOutliner}, against flattening the chain and pushing every polyline
+ * point out along its normal to both sides.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrokeBenchmark {
+    @Param({"10", "100", "500"})
+    public int segments;
+
+    private float[] mPts;
+    private float[] mWidths;
+    private StrokeOutliner mOutliner;
+    private Flattener mFlattener;
+    private float[] mPolyline;
+    private float[] mPolygon;
+
+    @Setup
+    public void setup() {
+        mPts = Fixtures.segments(1, segments * 3 + 1, 29L);
+        mWidths = new float[segments + 1];
+        for (int k = 0; k <= segments; k++) {
+            mWidths[k] = 2f + 18f * k / segments;
+        }
+        mOutliner = new StrokeOutliner();
+        mFlattener = new Flattener();
+        mPolyline = new float[mFlattener.requiredCapacity()];
+        mPolygon = new float[segments * mFlattener.requiredCapacity() * 2];
+    }
+
+    @Benchmark
+    public int outline() {
+        return mOutliner.outline(Bezier.CUBIC, mPts, segments, mWidths, 0);
+    }
+
+    @Benchmark
+    public int flattenAndOffset() {
+        int left = 0;
+        int right = mPolygon.length;
+        for (int s = 0; s < segments; s++) {
+            int count = mFlattener.flatten(Bezier.CUBIC, mPts, s * 6, mPolyline, 0);
+            for (int i = 0; i < count; i++) {
+                int a = Math.max(i - 1, 0) * 2, b = Math.min(i + 1, count - 1) * 2;
+                float dx = mPolyline[b] - mPolyline[a], dy = mPolyline[b + 1] - mPolyline[a + 1];
+                float len = (float) Math.sqrt(dx * dx + dy * dy);
+                float w = mWidths[s] + (mWidths[s + 1] - mWidths[s]) * i / (count - 1);
+                float nx = len > 0f ? -dy / len * w * 0.5f : 0f, ny = len > 0f ? dx / len * w * 0.5f : 0f;
+                mPolygon[left++] = mPolyline[i * 2] + nx;
+                mPolygon[left++] = mPolyline[i * 2 + 1] + ny;
+                mPolygon[--right] = mPolyline[i * 2 + 1] - ny;
+                mPolygon[--right] = mPolyline[i * 2] - nx;
+            }
+        }
+        return left;
+    }
+}
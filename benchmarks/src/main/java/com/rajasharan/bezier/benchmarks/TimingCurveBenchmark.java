@@ -0,0 +1,102 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.Bezier;
+import com.rajasharan.bezier.TimingCurve;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code getInterpolation} call on a CSS timing curve: {@link TimingCurve} with its
+ * table, against bisecting x(t) from the whole of [0, 1] with {@code Bezier.point}.
+ * {@code ease} is the CSS default, {@code overshoot} leaves [0, 1] like
+ * {@code OvershootInterpolator}. Also building a curve's table, and fetching one of
+ * eight curves from the {@link TimingCurve#of} cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimingCurveBenchmark {
+    static final int BISECTION_STEPS = 24;
+
+    @Param({"ease", "overshoot"})
+    public String curve;
+
+    private float[] mControls;
+    private TimingCurve mCurve;
+    private float[] mPts;
+    private float[] mPoint;
+    private float[] mInputs;
+    private int mInput;
+    private int mCached;
+
+    @Setup
+    public void setup() {
+        mControls = "ease".equals(curve)
+                ? new float[] {0.25f, 0.1f, 0.25f, 1f}
+                : new float[] {0.34f, 1.56f, 0.64f, 1f};
+        mCurve = new TimingCurve(mControls[0], mControls[1], mControls[2], mControls[3]);
+        mPts = new float[] {0f, 0f, mControls[0], mControls[1], mControls[2], mControls[3], 1f, 1f};
+        mPoint = new float[2];
+        Random random = new Random(61L);
+        mInputs = new float[1024];
+        for (int i = 0; i < mInputs.length; i++) {
+            mInputs[i] = random.nextFloat();
+        }
+        for (int i = 0; i < 8; i++) {
+            TimingCurve.of(i / 8f, 0f, 1f, 1f);
+        }
+    }
+
+    @Benchmark
+    public float tableValue() {
+        float x = mInputs[mInput];
+        mInput = (mInput + 1) & 1023;
+        return mCurve.getValue(x);
+    }
+
+    @Benchmark
+    public float bisectValue() {
+        float x = mInputs[mInput];
+        mInput = (mInput + 1) & 1023;
+        float lo = 0f, hi = 1f;
+        for (int k = 0; k < BISECTION_STEPS; k++) {
+            float mid = (lo + hi) * 0.5f;
+            Bezier.point(Bezier.CUBIC, mPts, 0, mid, mPoint, 0);
+            if (mPoint[0] < x) {
+                lo = mid;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        Bezier.point(Bezier.CUBIC, mPts, 0, (lo + hi) * 0.5f, mPoint, 0);
+        return mPoint[1];
+    }
+
+    @Benchmark
+    public TimingCurve build() {
+        return new TimingCurve(mControls[0], mControls[1], mControls[2], mControls[3]);
+    }
+
+    @Benchmark
+    public TimingCurve cachedLookup() {
+        mCached = (mCached + 1) & 7;
+        return TimingCurve.of(mCached / 8f, 0f, 1f, 1f);
+    }
+}
@@ -0,0 +1,106 @@
+package com.rajasharan.bezier.benchmarks;
+
+import com.rajasharan.bezier.SpringSystem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one simulated {@code ACTION_MOVE} batch: every pointer is updated and the
+ * curve is rebuilt once. Run with {@code -prof gc} and read {@code gc.alloc.rate.norm}
+ * for bytes allocated per batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TouchBenchmark {
+    static final int SAMPLES = 1024;
+
+    @Param({"1", "4"})
+    public int pointers;
+
+    private LegacyTouchModel mLegacy;
+    private StoreTouchModel mStore;
+    private LegacyTouchModel mSpring;
+    private SpringSystem mSprings;
+    private float[][] mDrags;
+    private int mCursor;
+    private float mTension;
+
+    @Setup
+    public void setup() {
+        mLegacy = new LegacyTouchModel(4);
+        mLegacy.setMultiTouchMode(pointers > 1);
+        mDrags = new float[pointers][];
+        mStore = new StoreTouchModel(4);
+        mStore.setMultiTouchMode(pointers > 1);
+        for (int p = 0; p < pointers; p++) {
+            mDrags[p] = Fixtures.drag(SAMPLES, 10L + p);
+            mLegacy.registerTouch((int) mDrags[p][0], (int) mDrags[p][1], p);
+            mStore.registerTouch(mDrags[p][0], mDrags[p][1], p);
+        }
+        for (int p = pointers; p < 4; p++) {
+            mLegacy.registerTouch(100 * p, 200 * p, p);
+            mStore.registerTouch(100 * p, 200 * p, p);
+        }
+
+        mSpring = new LegacyTouchModel(3);
+        mSpring.registerTouch(100, 100, 0);
+        mSpring.registerTouch(900, 100, 0);
+        mSpring.registerTouch(500, 1500, 0);
+        mSprings = new SpringSystem(3);
+    }
+
+    @Benchmark
+    public Object legacyMoveBatch() {
+        int i = mCursor;
+        mCursor = (mCursor + 2) % (SAMPLES * 2);
+        for (int p = 0; p < pointers; p++) {
+            mLegacy.updateTouch((int) mDrags[p][i], (int) mDrags[p][i + 1], p);
+        }
+        return mLegacy.buildSegment();
+    }
+
+    @Benchmark
+    public Object storeMoveBatch() {
+        int i = mCursor;
+        mCursor = (mCursor + 2) % (SAMPLES * 2);
+        for (int p = 0; p < pointers; p++) {
+            mStore.updateTouch(mDrags[p][i], mDrags[p][i + 1], p);
+        }
+        return mStore.buildSegment();
+    }
+
+    @Benchmark
+    public void legacySpringTick(Blackhole bh) {
+        mTension = mTension >= 1f ? 0f : mTension + 1f / 18f;
+        bh.consume(mSpring.setSpring(mTension));
+        bh.consume(mSpring.buildSegment());
+    }
+
+    /* one 60 Hz frame of the spring solver, restarted from the fling position once it settles */
+    @Benchmark
+    public void springFrame(Blackhole bh) {
+        if (mSprings.isAtRest()) {
+            mSprings.setPosition(2, 500, 1500);
+            mSprings.setTarget(2, 500, 100);
+        }
+        bh.consume(mSprings.advance(1f / 60f));
+        bh.consume(mSprings.getY(2));
+    }
+}
@@ -0,0 +1,142 @@
+package com.rajasharan.bezier;
+
+/**
+ * Ticks every running {@link Animation} once per frame, in one pass, through a plain
+ * interface call.
+ *
+ * The scheduler does not know where frames come from: it asks its
+ * {@link FrameRequester} for the next frame whenever something is running, and the
+ * requester calls {@link #doFrame} with the frame time, on Android from
+ * {@code Choreographer}. Once the last animation finishes no frame is requested, so
+ * an idle scheduler costs nothing.
+ *
+ * Animations started during a frame are first ticked on the next one; animations
+ * cancelled during a frame are not ticked again. Not thread safe: start, cancel and
+ * tick from one thread.
+ */
+public class AnimationScheduler {
+
+    public interface Animation {
+        /**
+         * Advances to {@code frameTimeNanos}.
+         *
+         * @return false once finished, which removes it from the scheduler
+         */
+        boolean doAnimationFrame(long frameTimeNanos);
+    }
+
+    /** Calls {@link #doFrame} once, on the next frame. */
+    public interface FrameRequester {
+        void requestFrame();
+    }
+
+    private final FrameRequester mRequester;
+    private Animation[] mAnimations;
+    private int mCount;
+    private boolean mFrameRequested;
+    private boolean mInFrame;
+    private boolean mHasHoles;
+
+    public AnimationScheduler(FrameRequester requester) {
+        mRequester = requester;
+        mAnimations = new Animation[8];
+    }
+
+    /** Starts ticking {@code animation} from the next frame; does nothing if it is running. */
+    public void start(Animation animation) {
+        if (indexOf(animation) != -1) {
+            return;
+        }
+        if (mCount == mAnimations.length) {
+            Animation[] grown = new Animation[mCount * 2];
+            System.arraycopy(mAnimations, 0, grown, 0, mCount);
+            mAnimations = grown;
+        }
+        mAnimations[mCount++] = animation;
+        requestFrame();
+    }
+
+    /** Stops ticking {@code animation}. */
+    public void cancel(Animation animation) {
+        int i = indexOf(animation);
+        if (i == -1) {
+            return;
+        }
+        mAnimations[i] = null;
+        mHasHoles = true;
+        if (!mInFrame) {
+            compact();
+        }
+    }
+
+    public boolean isRunning(Animation animation) {
+        return indexOf(animation) != -1;
+    }
+
+    public int getRunningCount() {
+        int count = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (mAnimations[i] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Ticks everything that was running when the frame began. */
+    public void doFrame(long frameTimeNanos) {
+        mFrameRequested = false;
+        mInFrame = true;
+        int count = mCount;
+        try {
+            for (int i = 0; i < count; i++) {
+                Animation animation = mAnimations[i];
+                if (animation != null && !animation.doAnimationFrame(frameTimeNanos) && mAnimations[i] == animation) {
+                    mAnimations[i] = null;
+                    mHasHoles = true;
+                }
+            }
+        }
+        finally {
+            mInFrame = false;
+            compact();
+        }
+        if (mCount > 0) {
+            requestFrame();
+        }
+    }
+
+    private void requestFrame() {
+        if (!mFrameRequested) {
+            mFrameRequested = true;
+            mRequester.requestFrame();
+        }
+    }
+
+    private int indexOf(Animation animation) {
+        for (int i = 0; i < mCount; i++) {
+            if (mAnimations[i] == animation) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /* drops cancelled and finished animations, keeping the order of the rest */
+    private void compact() {
+        if (!mHasHoles) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < mCount; i++) {
+            if (mAnimations[i] != null) {
+                mAnimations[kept++] = mAnimations[i];
+            }
+        }
+        for (int i = kept; i < mCount; i++) {
+            mAnimations[i] = null;
+        }
+        mCount = kept;
+        mHasHoles = false;
+    }
+}
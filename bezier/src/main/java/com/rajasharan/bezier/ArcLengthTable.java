@@ -0,0 +1,207 @@
+package com.rajasharan.bezier;
+
+/**
+ * Arc length of a chain of Bezier segments, for placing things at given distances
+ * along the curve.
+ *
+ * Each segment is split into {@link #INTERVALS} equal steps of t and the length of
+ * each step is integrated with 5-point Gauss-Legendre quadrature, which is exact to
+ * well under a pixel for the smooth speed of a cubic. Lookups binary search the
+ * per-segment running totals, then the segment's own table, interpolate t within the
+ * step and polish it with Newton steps on the exact length, so a query costs
+ * O(log n) with n the number of segments.
+ *
+ * {@link #update} keeps a copy of the points and only re-integrates the segments
+ * whose points changed since the last call.
+ */
+public class ArcLengthTable {
+    public static final int INTERVALS = 16;
+
+    private static final float[] NODES = {
+            -0.9061798459f, -0.5384693101f, 0f, 0.5384693101f, 0.9061798459f
+    };
+    private static final float[] WEIGHTS = {
+            0.2369268851f, 0.4786286705f, 0.5688888889f, 0.4786286705f, 0.2369268851f
+    };
+    private static final int NEWTON_STEPS = 2;
+
+    private float[] mCoords;
+    private int mDegree;
+    private int mSegments;
+    /* INTERVALS + 1 running lengths per segment, each starting at 0 */
+    private float[] mTables;
+    /* mSegments + 1 running lengths of whole segments */
+    private float[] mStarts;
+    private boolean[] mChanged;
+    private final float[] mScratch = new float[2];
+
+    public ArcLengthTable() {
+        mCoords = new float[0];
+        mTables = new float[0];
+        mStarts = new float[1];
+        mChanged = new boolean[0];
+        mDegree = -1;
+    }
+
+    /**
+     * Takes the current points of {@code segments} segments chained end to end, so
+     * segment {@code s} starts at {@code pts[s * degree * 2]}.
+     *
+     * @return the number of segments that had to be re-integrated
+     */
+    public int update(int degree, float[] pts, int segments) {
+        int length = segments > 0 ? (segments * degree + 1) * 2 : 0;
+        boolean all = degree != mDegree;
+        ensureCapacity(length, segments);
+        int stride = degree * 2;
+        int rebuilt = 0;
+        /* compare everything first: neighbouring segments share their end points */
+        for (int s = 0; s < segments; s++) {
+            mChanged[s] = all || s >= mSegments || !sameSegment(pts, s * stride, stride + 2);
+        }
+        System.arraycopy(pts, 0, mCoords, 0, length);
+        mDegree = degree;
+        mSegments = segments;
+        for (int s = 0; s < segments; s++) {
+            if (mChanged[s]) {
+                integrate(s);
+                rebuilt++;
+            }
+        }
+        mStarts[0] = 0f;
+        for (int s = 0; s < segments; s++) {
+            mStarts[s + 1] = mStarts[s] + mTables[s * (INTERVALS + 1) + INTERVALS];
+        }
+        return rebuilt;
+    }
+
+    public int getSegmentCount() {
+        return mSegments;
+    }
+
+    public float getLength() {
+        return mStarts[mSegments];
+    }
+
+    public float getSegmentLength(int segment) {
+        return mStarts[segment + 1] - mStarts[segment];
+    }
+
+    /** Segment containing {@code distance}, which is clamped to the curve. */
+    public int segmentAt(float distance) {
+        int lo = 0, hi = mSegments - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (mStarts[mid] <= distance) {
+                lo = mid;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /** t within {@code segment} at {@code distance} from the start of the curve. */
+    public float parameterAt(int segment, float distance) {
+        float target = Math.max(0f, Math.min(getSegmentLength(segment), distance - mStarts[segment]));
+        int base = segment * (INTERVALS + 1);
+        int lo = 0, hi = INTERVALS - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (mTables[base + mid] <= target) {
+                lo = mid;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        float l0 = mTables[base + lo], l1 = mTables[base + lo + 1];
+        float t0 = lo / (float) INTERVALS;
+        float t = t0 + (l1 > l0 ? (target - l0) / (l1 - l0) : 0f) / INTERVALS;
+        int off = segment * mDegree * 2;
+        for (int i = 0; i < NEWTON_STEPS; i++) {
+            float speed = speed(off, t);
+            if (speed < 1e-6f) {
+                break;
+            }
+            float error = l0 + integral(off, t0, t) - target;
+            t = Math.max(t0, Math.min(t0 + 1f / INTERVALS, t - error / speed));
+        }
+        return t;
+    }
+
+    /**
+     * Point at {@code distance} along the curve, clamped to its ends.
+     *
+     * @return the segment the point is on, or -1 if the table is empty
+     */
+    public int pointAtDistance(float distance, float[] out) {
+        if (mSegments == 0) {
+            return -1;
+        }
+        int segment = segmentAt(distance);
+        Bezier.point(mDegree, mCoords, segment * mDegree * 2, parameterAt(segment, distance), out, 0);
+        return segment;
+    }
+
+    /** Unit tangent at {@code distance}; see {@link #pointAtDistance}. */
+    public int tangentAtDistance(float distance, float[] out) {
+        if (mSegments == 0) {
+            return -1;
+        }
+        int segment = segmentAt(distance);
+        Bezier.tangent(mDegree, mCoords, segment * mDegree * 2, parameterAt(segment, distance), out, 0);
+        return segment;
+    }
+
+    private boolean sameSegment(float[] pts, int off, int count) {
+        for (int i = off; i < off + count; i++) {
+            if (pts[i] != mCoords[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void integrate(int segment) {
+        int off = segment * mDegree * 2;
+        int base = segment * (INTERVALS + 1);
+        float h = 1f / INTERVALS;
+        mTables[base] = 0f;
+        for (int i = 0; i < INTERVALS; i++) {
+            mTables[base + i + 1] = mTables[base + i] + integral(off, i * h, (i + 1) * h);
+        }
+    }
+
+    /* doubles, so a chain that grows a segment at a time is not copied on every update */
+    private void ensureCapacity(int length, int segments) {
+        if (mCoords.length < length) {
+            float[] coords = new float[Math.max(length, mCoords.length * 2)];
+            System.arraycopy(mCoords, 0, coords, 0, mCoords.length);
+            mCoords = coords;
+        }
+        if (mChanged.length < segments) {
+            int capacity = Math.max(segments, mChanged.length * 2);
+            float[] tables = new float[capacity * (INTERVALS + 1)];
+            System.arraycopy(mTables, 0, tables, 0, mTables.length);
+            mTables = tables;
+            mStarts = new float[capacity + 1];
+            mChanged = new boolean[capacity];
+        }
+    }
+
+    private float integral(int off, float a, float b) {
+        float half = (b - a) / 2f, mid = (a + b) / 2f;
+        float sum = 0f;
+        for (int i = 0; i < NODES.length; i++) {
+            sum += WEIGHTS[i] * speed(off, mid + half * NODES[i]);
+        }
+        return sum * half;
+    }
+
+    private float speed(int off, float t) {
+        Bezier.derivative(mDegree, mCoords, off, t, mScratch, 0);
+        return (float) Math.sqrt(mScratch[0] * mScratch[0] + mScratch[1] * mScratch[1]);
+    }
+}
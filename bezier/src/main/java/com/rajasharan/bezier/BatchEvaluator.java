@@ -0,0 +1,163 @@
+package com.rajasharan.bezier;
+
+/**
+ * Evaluates many quads or cubics at once, for moving hundreds of particles along
+ * their paths every frame.
+ *
+ * {@link #setCurves} copies the control points once into structure-of-arrays
+ * buffers, one contiguous array per control point coordinate. {@link #evaluate}
+ * then computes every curve at the same parameters: the Bernstein weights of the
+ * parameters are worked out once per call, and the inner loop for a curve is
+ * {@code out[m] = w0[m] * x0 + w1[m] * x1 + w2[m] * x2 + w3[m] * x3} over m, and
+ * {@link #evaluateEach} computes curve c at its own parameter with the same
+ * shape of loop over c. Neither loop branches or reads anything but consecutive
+ * floats, which is what the JIT needs to turn them into SIMD instructions.
+ *
+ * Results are written as separate x and y arrays. Not thread safe.
+ */
+public class BatchEvaluator {
+    private int mDegree;
+    private int mCount;
+    /* control point k of every curve, x and y */
+    private float[] mX0, mX1, mX2, mX3;
+    private float[] mY0, mY1, mY2, mY3;
+    /* Bernstein weights of the last parameters */
+    private float[] mW0, mW1, mW2, mW3;
+
+    public BatchEvaluator() {
+        mDegree = Bezier.CUBIC;
+        mX0 = mX1 = mX2 = mX3 = new float[0];
+        mY0 = mY1 = mY2 = mY3 = new float[0];
+        mW0 = mW1 = mW2 = mW3 = new float[0];
+    }
+
+    /**
+     * Takes {@code count} curves of the given degree, curve {@code c} starting at
+     * {@code pts[off + c * stride]}: a stride of {@code (degree + 1) * 2} reads curves
+     * packed back to back, {@code degree * 2} the segments of a chain.
+     */
+    public void setCurves(int degree, float[] pts, int off, int count, int stride) {
+        if (degree != Bezier.QUADRATIC && degree != Bezier.CUBIC) {
+            throw new IllegalArgumentException("Unsupported degree: " + degree);
+        }
+        ensureCurves(count);
+        mDegree = degree;
+        mCount = count;
+        for (int c = 0, k = off; c < count; c++, k += stride) {
+            mX0[c] = pts[k];
+            mY0[c] = pts[k + 1];
+            mX1[c] = pts[k + 2];
+            mY1[c] = pts[k + 3];
+            mX2[c] = pts[k + 4];
+            mY2[c] = pts[k + 5];
+            if (degree == Bezier.CUBIC) {
+                mX3[c] = pts[k + 6];
+                mY3[c] = pts[k + 7];
+            }
+        }
+    }
+
+    public int getDegree() {
+        return mDegree;
+    }
+
+    public int getCurveCount() {
+        return mCount;
+    }
+
+    /**
+     * Evaluates every curve at the first {@code params} values of {@code ts}. The
+     * point of curve {@code c} at {@code ts[m]} goes to {@code outX[c * params + m]}
+     * and {@code outY[c * params + m]}.
+     */
+    public void evaluate(float[] ts, int params, float[] outX, float[] outY) {
+        weigh(ts, params);
+        float[] w0 = mW0, w1 = mW1, w2 = mW2, w3 = mW3;
+        if (mDegree == Bezier.QUADRATIC) {
+            for (int c = 0, base = 0; c < mCount; c++, base += params) {
+                float x0 = mX0[c], x1 = mX1[c], x2 = mX2[c];
+                float y0 = mY0[c], y1 = mY1[c], y2 = mY2[c];
+                for (int m = 0; m < params; m++) {
+                    outX[base + m] = w0[m] * x0 + w1[m] * x1 + w2[m] * x2;
+                }
+                for (int m = 0; m < params; m++) {
+                    outY[base + m] = w0[m] * y0 + w1[m] * y1 + w2[m] * y2;
+                }
+            }
+            return;
+        }
+        for (int c = 0, base = 0; c < mCount; c++, base += params) {
+            float x0 = mX0[c], x1 = mX1[c], x2 = mX2[c], x3 = mX3[c];
+            float y0 = mY0[c], y1 = mY1[c], y2 = mY2[c], y3 = mY3[c];
+            for (int m = 0; m < params; m++) {
+                outX[base + m] = w0[m] * x0 + w1[m] * x1 + w2[m] * x2 + w3[m] * x3;
+            }
+            for (int m = 0; m < params; m++) {
+                outY[base + m] = w0[m] * y0 + w1[m] * y1 + w2[m] * y2 + w3[m] * y3;
+            }
+        }
+    }
+
+    /** Evaluates curve {@code c} at {@code ts[c]} into {@code outX[c]}, {@code outY[c]}. */
+    public void evaluateEach(float[] ts, float[] outX, float[] outY) {
+        int n = mCount;
+        float[] x0 = mX0, x1 = mX1, x2 = mX2, x3 = mX3;
+        float[] y0 = mY0, y1 = mY1, y2 = mY2, y3 = mY3;
+        if (mDegree == Bezier.QUADRATIC) {
+            for (int c = 0; c < n; c++) {
+                float t = ts[c], mt = 1f - t;
+                float a = mt * mt, b = 2f * mt * t, d = t * t;
+                outX[c] = a * x0[c] + b * x1[c] + d * x2[c];
+                outY[c] = a * y0[c] + b * y1[c] + d * y2[c];
+            }
+            return;
+        }
+        for (int c = 0; c < n; c++) {
+            float t = ts[c], mt = 1f - t;
+            float a = mt * mt * mt, b = 3f * mt * mt * t, e = 3f * mt * t * t, d = t * t * t;
+            outX[c] = a * x0[c] + b * x1[c] + e * x2[c] + d * x3[c];
+            outY[c] = a * y0[c] + b * y1[c] + e * y2[c] + d * y3[c];
+        }
+    }
+
+    /* the same weights Bezier.point uses, so results match it to the last bit */
+    private void weigh(float[] ts, int params) {
+        if (mW0.length < params) {
+            mW0 = new float[params];
+            mW1 = new float[params];
+            mW2 = new float[params];
+            mW3 = new float[params];
+        }
+        if (mDegree == Bezier.QUADRATIC) {
+            for (int m = 0; m < params; m++) {
+                float t = ts[m], mt = 1f - t;
+                mW0[m] = mt * mt;
+                mW1[m] = 2f * mt * t;
+                mW2[m] = t * t;
+            }
+            return;
+        }
+        for (int m = 0; m < params; m++) {
+            float t = ts[m], mt = 1f - t;
+            mW0[m] = mt * mt * mt;
+            mW1[m] = 3f * mt * mt * t;
+            mW2[m] = 3f * mt * t * t;
+            mW3[m] = t * t * t;
+        }
+    }
+
+    private void ensureCurves(int count) {
+        if (mX0.length >= count) {
+            return;
+        }
+        int capacity = Math.max(count, mX0.length * 2);
+        mX0 = new float[capacity];
+        mX1 = new float[capacity];
+        mX2 = new float[capacity];
+        mX3 = new float[capacity];
+        mY0 = new float[capacity];
+        mY1 = new float[capacity];
+        mY2 = new float[capacity];
+        mY3 = new float[capacity];
+    }
+}
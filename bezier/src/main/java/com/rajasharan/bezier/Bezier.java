@@ -0,0 +1,289 @@
+package com.rajasharan.bezier;
+
+/**
+ * Allocation-free evaluation of linear, quadratic and cubic Bezier segments.
+ *
+ * Control points are read from a flat {@code float[]} of interleaved x,y pairs
+ * in curve order (start, controls..., end) beginning at {@code off}. Results are
+ * written into a caller supplied {@code out} array so nothing is allocated on the
+ * hot path.
+ */
+public final class Bezier {
+    public static final int LINEAR = 1;
+    public static final int QUADRATIC = 2;
+    public static final int CUBIC = 3;
+
+    private Bezier() {
+    }
+
+    /** Number of floats used by a segment of the given degree. */
+    public static int coordCount(int degree) {
+        return (degree + 1) * 2;
+    }
+
+    /** Writes the point at {@code t} into {@code out[outOff]}, {@code out[outOff+1]}. */
+    public static void point(int degree, float[] pts, int off, float t, float[] out, int outOff) {
+        float mt = 1f - t;
+        switch (degree) {
+            case LINEAR: {
+                out[outOff] = mt * pts[off] + t * pts[off + 2];
+                out[outOff + 1] = mt * pts[off + 1] + t * pts[off + 3];
+                return;
+            }
+            case QUADRATIC: {
+                float a = mt * mt, b = 2f * mt * t, c = t * t;
+                out[outOff] = a * pts[off] + b * pts[off + 2] + c * pts[off + 4];
+                out[outOff + 1] = a * pts[off + 1] + b * pts[off + 3] + c * pts[off + 5];
+                return;
+            }
+            case CUBIC: {
+                float a = mt * mt * mt, b = 3f * mt * mt * t, c = 3f * mt * t * t, d = t * t * t;
+                out[outOff] = a * pts[off] + b * pts[off + 2] + c * pts[off + 4] + d * pts[off + 6];
+                out[outOff + 1] = a * pts[off + 1] + b * pts[off + 3] + c * pts[off + 5] + d * pts[off + 7];
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported degree: " + degree);
+    }
+
+    /** Writes the first derivative at {@code t} into {@code out}. */
+    public static void derivative(int degree, float[] pts, int off, float t, float[] out, int outOff) {
+        float mt = 1f - t;
+        switch (degree) {
+            case LINEAR: {
+                out[outOff] = pts[off + 2] - pts[off];
+                out[outOff + 1] = pts[off + 3] - pts[off + 1];
+                return;
+            }
+            case QUADRATIC: {
+                out[outOff] = 2f * (mt * (pts[off + 2] - pts[off]) + t * (pts[off + 4] - pts[off + 2]));
+                out[outOff + 1] = 2f * (mt * (pts[off + 3] - pts[off + 1]) + t * (pts[off + 5] - pts[off + 3]));
+                return;
+            }
+            case CUBIC: {
+                float a = mt * mt, b = 2f * mt * t, c = t * t;
+                out[outOff] = 3f * (a * (pts[off + 2] - pts[off])
+                        + b * (pts[off + 4] - pts[off + 2])
+                        + c * (pts[off + 6] - pts[off + 4]));
+                out[outOff + 1] = 3f * (a * (pts[off + 3] - pts[off + 1])
+                        + b * (pts[off + 5] - pts[off + 3])
+                        + c * (pts[off + 7] - pts[off + 5]));
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported degree: " + degree);
+    }
+
+    /** Writes the second derivative at {@code t} into {@code out}. */
+    public static void secondDerivative(int degree, float[] pts, int off, float t, float[] out, int outOff) {
+        switch (degree) {
+            case LINEAR: {
+                out[outOff] = 0f;
+                out[outOff + 1] = 0f;
+                return;
+            }
+            case QUADRATIC: {
+                out[outOff] = 2f * (pts[off + 4] - 2f * pts[off + 2] + pts[off]);
+                out[outOff + 1] = 2f * (pts[off + 5] - 2f * pts[off + 3] + pts[off + 1]);
+                return;
+            }
+            case CUBIC: {
+                float mt = 1f - t;
+                out[outOff] = 6f * (mt * (pts[off + 4] - 2f * pts[off + 2] + pts[off])
+                        + t * (pts[off + 6] - 2f * pts[off + 4] + pts[off + 2]));
+                out[outOff + 1] = 6f * (mt * (pts[off + 5] - 2f * pts[off + 3] + pts[off + 1])
+                        + t * (pts[off + 7] - 2f * pts[off + 5] + pts[off + 3]));
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported degree: " + degree);
+    }
+
+    /**
+     * Writes the unit tangent at {@code t} into {@code out}. Falls back to the chord
+     * direction when the derivative vanishes (coincident control points).
+     */
+    public static void tangent(int degree, float[] pts, int off, float t, float[] out, int outOff) {
+        derivative(degree, pts, off, t, out, outOff);
+        float dx = out[outOff];
+        float dy = out[outOff + 1];
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        if (len < 1e-6f) {
+            int last = off + degree * 2;
+            dx = pts[last] - pts[off];
+            dy = pts[last + 1] - pts[off + 1];
+            len = (float) Math.sqrt(dx * dx + dy * dy);
+            if (len < 1e-6f) {
+                out[outOff] = 0f;
+                out[outOff + 1] = 0f;
+                return;
+            }
+        }
+        out[outOff] = dx / len;
+        out[outOff + 1] = dy / len;
+    }
+
+    /** Signed curvature at {@code t}; positive when the curve bends counter-clockwise. */
+    public static float curvature(int degree, float[] pts, int off, float t) {
+        if (degree == LINEAR) {
+            return 0f;
+        }
+        float mt = 1f - t;
+        float dx, dy, ddx, ddy;
+        if (degree == QUADRATIC) {
+            dx = 2f * (mt * (pts[off + 2] - pts[off]) + t * (pts[off + 4] - pts[off + 2]));
+            dy = 2f * (mt * (pts[off + 3] - pts[off + 1]) + t * (pts[off + 5] - pts[off + 3]));
+            ddx = 2f * (pts[off + 4] - 2f * pts[off + 2] + pts[off]);
+            ddy = 2f * (pts[off + 5] - 2f * pts[off + 3] + pts[off + 1]);
+        }
+        else if (degree == CUBIC) {
+            float a = mt * mt, b = 2f * mt * t, c = t * t;
+            dx = 3f * (a * (pts[off + 2] - pts[off]) + b * (pts[off + 4] - pts[off + 2]) + c * (pts[off + 6] - pts[off + 4]));
+            dy = 3f * (a * (pts[off + 3] - pts[off + 1]) + b * (pts[off + 5] - pts[off + 3]) + c * (pts[off + 7] - pts[off + 5]));
+            ddx = 6f * (mt * (pts[off + 4] - 2f * pts[off + 2] + pts[off]) + t * (pts[off + 6] - 2f * pts[off + 4] + pts[off + 2]));
+            ddy = 6f * (mt * (pts[off + 5] - 2f * pts[off + 3] + pts[off + 1]) + t * (pts[off + 7] - 2f * pts[off + 5] + pts[off + 3]));
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported degree: " + degree);
+        }
+        float speedSq = dx * dx + dy * dy;
+        if (speedSq < 1e-12f) {
+            return 0f;
+        }
+        float speed = (float) Math.sqrt(speedSq);
+        return (dx * ddy - dy * ddx) / (speedSq * speed);
+    }
+
+    /**
+     * Evaluates the blossom (polar form) of a quadratic or cubic segment. For a cubic
+     * all three parameters are used, for a quadratic {@code u3} is ignored.
+     */
+    public static void blossom(int degree, float[] pts, int off, float u1, float u2, float u3, float[] out, int outOff) {
+        if (degree == LINEAR) {
+            out[outOff] = pts[off] + (pts[off + 2] - pts[off]) * u1;
+            out[outOff + 1] = pts[off + 1] + (pts[off + 3] - pts[off + 1]) * u1;
+            return;
+        }
+        if (degree == QUADRATIC) {
+            float ax = pts[off] + (pts[off + 2] - pts[off]) * u1;
+            float ay = pts[off + 1] + (pts[off + 3] - pts[off + 1]) * u1;
+            float bx = pts[off + 2] + (pts[off + 4] - pts[off + 2]) * u1;
+            float by = pts[off + 3] + (pts[off + 5] - pts[off + 3]) * u1;
+            out[outOff] = ax + (bx - ax) * u2;
+            out[outOff + 1] = ay + (by - ay) * u2;
+            return;
+        }
+        if (degree == CUBIC) {
+            float ax = pts[off] + (pts[off + 2] - pts[off]) * u1;
+            float ay = pts[off + 1] + (pts[off + 3] - pts[off + 1]) * u1;
+            float bx = pts[off + 2] + (pts[off + 4] - pts[off + 2]) * u1;
+            float by = pts[off + 3] + (pts[off + 5] - pts[off + 3]) * u1;
+            float cx = pts[off + 4] + (pts[off + 6] - pts[off + 4]) * u1;
+            float cy = pts[off + 5] + (pts[off + 7] - pts[off + 5]) * u1;
+            float dx = ax + (bx - ax) * u2;
+            float dy = ay + (by - ay) * u2;
+            float ex = bx + (cx - bx) * u2;
+            float ey = by + (cy - by) * u2;
+            out[outOff] = dx + (ex - dx) * u3;
+            out[outOff + 1] = dy + (ey - dy) * u3;
+            return;
+        }
+        throw new IllegalArgumentException("Unsupported degree: " + degree);
+    }
+
+    /** Writes the control points of the part of the segment between {@code t0} and {@code t1}. */
+    public static void subSegment(int degree, float[] pts, int off, float t0, float t1, float[] out, int outOff) {
+        switch (degree) {
+            case LINEAR:
+                blossom(degree, pts, off, t0, 0f, 0f, out, outOff);
+                blossom(degree, pts, off, t1, 0f, 0f, out, outOff + 2);
+                return;
+            case QUADRATIC:
+                blossom(degree, pts, off, t0, t0, 0f, out, outOff);
+                blossom(degree, pts, off, t0, t1, 0f, out, outOff + 2);
+                blossom(degree, pts, off, t1, t1, 0f, out, outOff + 4);
+                return;
+            case CUBIC:
+                blossom(degree, pts, off, t0, t0, t0, out, outOff);
+                blossom(degree, pts, off, t0, t0, t1, out, outOff + 2);
+                blossom(degree, pts, off, t0, t1, t1, out, outOff + 4);
+                blossom(degree, pts, off, t1, t1, t1, out, outOff + 6);
+                return;
+        }
+        throw new IllegalArgumentException("Unsupported degree: " + degree);
+    }
+
+    /**
+     * Writes the tight axis aligned bounds of the segment as left, top, right, bottom.
+     * Interior extrema are found from the roots of the derivative, so the result can be
+     * much smaller than the bounds of the control polygon.
+     */
+    public static void bounds(int degree, float[] pts, int off, float[] out, int outOff) {
+        int last = off + degree * 2;
+        out[outOff] = Math.min(pts[off], pts[last]);
+        out[outOff + 1] = Math.min(pts[off + 1], pts[last + 1]);
+        out[outOff + 2] = Math.max(pts[off], pts[last]);
+        out[outOff + 3] = Math.max(pts[off + 1], pts[last + 1]);
+        if (degree == LINEAR) {
+            return;
+        }
+        for (int axis = 0; axis < 2; axis++) {
+            float p0 = pts[off + axis], p1 = pts[off + 2 + axis], p2 = pts[off + 4 + axis];
+            float lo = out[outOff + axis], hi = out[outOff + 2 + axis];
+            if (degree == QUADRATIC) {
+                if (p1 >= lo && p1 <= hi) {
+                    continue;
+                }
+                float denom = p0 - 2f * p1 + p2;
+                if (denom != 0f) {
+                    float t = (p0 - p1) / denom;
+                    if (t > 0f && t < 1f) {
+                        float mt = 1f - t;
+                        float v = mt * mt * p0 + 2f * mt * t * p1 + t * t * p2;
+                        lo = Math.min(lo, v);
+                        hi = Math.max(hi, v);
+                    }
+                }
+            }
+            else if (degree == CUBIC) {
+                float p3 = pts[off + 6 + axis];
+                if (p1 >= lo && p1 <= hi && p2 >= lo && p2 <= hi) {
+                    continue;
+                }
+                // B'(t)/3 = a t^2 + b t + c
+                float a = -p0 + 3f * p1 - 3f * p2 + p3;
+                float b = 2f * (p0 - 2f * p1 + p2);
+                float c = p1 - p0;
+                float r0 = Float.NaN, r1 = Float.NaN;
+                if (Math.abs(a) < 1e-6f) {
+                    if (b != 0f) {
+                        r0 = -c / b;
+                    }
+                }
+                else {
+                    float disc = b * b - 4f * a * c;
+                    if (disc >= 0f) {
+                        // avoids cancellation between b and the square root
+                        float q = -0.5f * (b + Math.copySign((float) Math.sqrt(disc), b));
+                        r0 = q / a;
+                        r1 = q != 0f ? c / q : Float.NaN;
+                    }
+                }
+                for (int i = 0; i < 2; i++) {
+                    float t = i == 0 ? r0 : r1;
+                    if (t > 0f && t < 1f) {
+                        float mt = 1f - t;
+                        float v = mt * mt * mt * p0 + 3f * mt * mt * t * p1 + 3f * mt * t * t * p2 + t * t * t * p3;
+                        lo = Math.min(lo, v);
+                        hi = Math.max(hi, v);
+                    }
+                }
+            }
+            else {
+                throw new IllegalArgumentException("Unsupported degree: " + degree);
+            }
+            out[outOff + axis] = lo;
+            out[outOff + 2 + axis] = hi;
+        }
+    }
+}
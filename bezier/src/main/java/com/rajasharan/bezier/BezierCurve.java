@@ -0,0 +1,135 @@
+package com.rajasharan.bezier;
+
+/**
+ * A single Bezier curve of arbitrary degree.
+ *
+ * {@link #point} and {@link #derivative} use de Casteljau's algorithm, which only
+ * takes convex combinations and stays accurate at any degree, at O(degree^2) per
+ * call. {@link #flatten} is the rendering path and evaluates each sample with a
+ * Horner scheme in the Bernstein basis instead, at O(degree) per sample, mirrored
+ * about t = 0.5 so the power of t being accumulated never exceeds one half.
+ */
+public class BezierCurve {
+    private float[] mCoords;
+    private float[] mScratch;
+    private int mDegree;
+
+    public BezierCurve(int degreeCapacity) {
+        mCoords = new float[(degreeCapacity + 1) * 2];
+        mScratch = new float[(degreeCapacity + 1) * 2];
+        mDegree = -1;
+    }
+
+    /** Copies {@code degree + 1} points from {@code pts} starting at {@code off}. */
+    public void set(float[] pts, int off, int degree) {
+        if (degree < 1) {
+            throw new IllegalArgumentException("degree must be at least 1: " + degree);
+        }
+        ensureCapacity(degree);
+        System.arraycopy(pts, off, mCoords, 0, (degree + 1) * 2);
+        mDegree = degree;
+    }
+
+    public int getDegree() {
+        return mDegree;
+    }
+
+    public float[] getCoords() {
+        return mCoords;
+    }
+
+    public void setPoint(int index, float x, float y) {
+        if (index < 0 || index > mDegree) {
+            throw new IndexOutOfBoundsException("index " + index + ", degree " + mDegree);
+        }
+        mCoords[index * 2] = x;
+        mCoords[index * 2 + 1] = y;
+    }
+
+    public void point(float t, float[] out) {
+        System.arraycopy(mCoords, 0, mScratch, 0, (mDegree + 1) * 2);
+        deCasteljau(mScratch, mDegree, t, out);
+    }
+
+    public void derivative(float t, float[] out) {
+        // the hodograph: degree * (P[i+1] - P[i]), a curve of one degree less
+        float[] s = mScratch;
+        for (int i = 0; i < mDegree * 2; i++) {
+            s[i] = mDegree * (mCoords[i + 2] - mCoords[i]);
+        }
+        deCasteljau(s, mDegree - 1, t, out);
+    }
+
+    /** Wang's bound on the number of line segments needed for the given tolerance. */
+    public int segmentCount(float tolerance, int maxSegments) {
+        if (mDegree == 1) {
+            return 1;
+        }
+        float m = 0f;
+        for (int i = 0; i + 2 <= mDegree; i++) {
+            int k = i * 2;
+            float dx = mCoords[k] - 2f * mCoords[k + 2] + mCoords[k + 4];
+            float dy = mCoords[k + 1] - 2f * mCoords[k + 3] + mCoords[k + 5];
+            m = Math.max(m, dx * dx + dy * dy);
+        }
+        int n = (int) Math.ceil(Math.sqrt(mDegree * (mDegree - 1) / 8f * Math.sqrt(m) / tolerance));
+        return Math.max(1, Math.min(n, maxSegments));
+    }
+
+    /**
+     * Flattens the curve into {@code out}, start point included.
+     *
+     * @return the number of points written
+     */
+    public int flatten(float tolerance, int maxSegments, float[] out, int outOff) {
+        int n = segmentCount(tolerance, maxSegments);
+        out[outOff] = mCoords[0];
+        out[outOff + 1] = mCoords[1];
+        for (int i = 1; i < n; i++) {
+            horner(i / (float) n, out, outOff + i * 2);
+        }
+        out[outOff + n * 2] = mCoords[mDegree * 2];
+        out[outOff + n * 2 + 1] = mCoords[mDegree * 2 + 1];
+        return n + 1;
+    }
+
+    private void horner(float t, float[] out, int outOff) {
+        int n = mDegree;
+        boolean mirrored = t > 0.5f;
+        double u = mirrored ? 1.0 - t : t;
+        double s = 1.0 - u;
+        double tn = 1.0;
+        double binom = 1.0;
+        int first = mirrored ? n : 0;
+        double x = mCoords[first * 2] * s;
+        double y = mCoords[first * 2 + 1] * s;
+        for (int i = 1; i < n; i++) {
+            int k = mirrored ? n - i : i;
+            tn *= u;
+            binom = binom * (n - i + 1) / i;
+            x = (x + tn * binom * mCoords[k * 2]) * s;
+            y = (y + tn * binom * mCoords[k * 2 + 1]) * s;
+        }
+        int last = mirrored ? 0 : n;
+        tn *= u;
+        out[outOff] = (float) (x + tn * mCoords[last * 2]);
+        out[outOff + 1] = (float) (y + tn * mCoords[last * 2 + 1]);
+    }
+
+    private static void deCasteljau(float[] s, int degree, float t, float[] out) {
+        for (int r = degree; r > 0; r--) {
+            for (int i = 0; i < r * 2; i++) {
+                s[i] += (s[i + 2] - s[i]) * t;
+            }
+        }
+        out[0] = s[0];
+        out[1] = s[1];
+    }
+
+    private void ensureCapacity(int degree) {
+        if ((degree + 1) * 2 > mCoords.length) {
+            mCoords = new float[(degree + 1) * 2];
+            mScratch = new float[(degree + 1) * 2];
+        }
+    }
+}
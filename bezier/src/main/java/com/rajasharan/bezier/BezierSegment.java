@@ -0,0 +1,84 @@
+package com.rajasharan.bezier;
+
+/**
+ * A single linear, quadratic or cubic segment backed by a primitive buffer.
+ * Instances are meant to be reused: the setters overwrite the control points in
+ * place and none of the evaluation methods allocate.
+ */
+public class BezierSegment {
+    private final float[] mCoords;
+    private int mDegree;
+
+    public BezierSegment() {
+        mCoords = new float[Bezier.coordCount(Bezier.CUBIC)];
+        mDegree = 0;
+    }
+
+    public void reset() {
+        mDegree = 0;
+    }
+
+    public boolean isEmpty() {
+        return mDegree == 0;
+    }
+
+    public int getDegree() {
+        return mDegree;
+    }
+
+    /** Control points in curve order; only the first {@code (degree+1)*2} values are valid. */
+    public float[] getCoords() {
+        return mCoords;
+    }
+
+    public void setLine(float x0, float y0, float x1, float y1) {
+        mCoords[0] = x0; mCoords[1] = y0;
+        mCoords[2] = x1; mCoords[3] = y1;
+        mDegree = Bezier.LINEAR;
+    }
+
+    public void setQuad(float x0, float y0, float cx, float cy, float x1, float y1) {
+        mCoords[0] = x0; mCoords[1] = y0;
+        mCoords[2] = cx; mCoords[3] = cy;
+        mCoords[4] = x1; mCoords[5] = y1;
+        mDegree = Bezier.QUADRATIC;
+    }
+
+    public void setCubic(float x0, float y0, float cx0, float cy0, float cx1, float cy1, float x1, float y1) {
+        mCoords[0] = x0; mCoords[1] = y0;
+        mCoords[2] = cx0; mCoords[3] = cy0;
+        mCoords[4] = cx1; mCoords[5] = cy1;
+        mCoords[6] = x1; mCoords[7] = y1;
+        mDegree = Bezier.CUBIC;
+    }
+
+    public void set(BezierSegment other) {
+        System.arraycopy(other.mCoords, 0, mCoords, 0, mCoords.length);
+        mDegree = other.mDegree;
+    }
+
+    public void point(float t, float[] out) {
+        Bezier.point(mDegree, mCoords, 0, t, out, 0);
+    }
+
+    public void derivative(float t, float[] out) {
+        Bezier.derivative(mDegree, mCoords, 0, t, out, 0);
+    }
+
+    public void secondDerivative(float t, float[] out) {
+        Bezier.secondDerivative(mDegree, mCoords, 0, t, out, 0);
+    }
+
+    public void tangent(float t, float[] out) {
+        Bezier.tangent(mDegree, mCoords, 0, t, out, 0);
+    }
+
+    public float curvature(float t) {
+        return Bezier.curvature(mDegree, mCoords, 0, t);
+    }
+
+    /** Tight bounds as left, top, right, bottom. */
+    public void bounds(float[] out) {
+        Bezier.bounds(mDegree, mCoords, 0, out, 0);
+    }
+}
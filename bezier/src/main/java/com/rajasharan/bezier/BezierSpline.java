@@ -0,0 +1,316 @@
+package com.rajasharan.bezier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A chain of cubic segments sharing end points, stored as {@code 3n+1} points in one
+ * {@code float[]}: knot, handle, handle, knot, handle, handle, knot...
+ *
+ * Lines and quads appended to the chain are degree-elevated to cubics, which is exact,
+ * so every segment can be evaluated, bounded and flattened the same way and all the
+ * work scales linearly with the number of segments.
+ *
+ * With {@link #G1} or {@link #C1} continuity, {@link #setPoint} keeps the joins smooth:
+ * moving a handle rotates (G1) or mirrors (C1) the opposite handle of the same knot,
+ * and moving a knot carries both of its handles along.
+ *
+ * Every point carries a stamp that changes whenever its value does, and every
+ * segment the newest stamp of its four points. A point written with the value it
+ * already had keeps its stamp, even across {@link #reset}, so a chain rebuilt point
+ * by point from the same input keeps the stamps of everything that did not move.
+ * Stamps come from one process-wide clock, so equal stamps mean equal segments and
+ * caches such as {@link SegmentCache} can skip the work for them. The spline itself
+ * keeps the bounds of each segment this way.
+ */
+public class BezierSpline {
+    private static final AtomicLong sClock = new AtomicLong();
+
+    public static final int C0 = 0;
+    public static final int G1 = 1;
+    public static final int C1 = 2;
+
+    private float[] mCoords;
+    private long[] mPointStamps;
+    private long[] mSegmentStamps;
+    /* left, top, right, bottom per segment, valid while mBoundsStamps matches */
+    private float[] mSegmentBounds;
+    private long[] mBoundsStamps;
+    private int mPointCount;
+    private int mContinuity;
+
+    public BezierSpline() {
+        this(4);
+    }
+
+    public BezierSpline(int segmentCapacity) {
+        mCoords = new float[(segmentCapacity * 3 + 1) * 2];
+        mPointStamps = new long[segmentCapacity * 3 + 1];
+        mSegmentStamps = new long[segmentCapacity + 1];
+        mSegmentBounds = new float[(segmentCapacity + 1) * 4];
+        mBoundsStamps = new long[segmentCapacity + 1];
+        mContinuity = C0;
+    }
+
+    public void reset() {
+        mPointCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return mPointCount < 4;
+    }
+
+    public int getSegmentCount() {
+        return mPointCount < 4 ? 0 : (mPointCount - 1) / 3;
+    }
+
+    public int getPointCount() {
+        return mPointCount;
+    }
+
+    /** Points in chain order; segment {@code s} starts at {@link #segmentOffset(int)}. */
+    public float[] getCoords() {
+        return mCoords;
+    }
+
+    /** Offset in {@link #getCoords()} of the first point of a segment. */
+    public static int segmentOffset(int segment) {
+        return segment * 6;
+    }
+
+    /** Stamp of the last change to a point. */
+    public long getPointStamp(int index) {
+        return mPointStamps[index];
+    }
+
+    /** Stamp of the last change to any of the four points of a segment. */
+    public long getSegmentStamp(int segment) {
+        return mSegmentStamps[segment];
+    }
+
+    /** A stamp no point has had yet, for marking data that does not come from a spline. */
+    static long nextStamp() {
+        return sClock.incrementAndGet();
+    }
+
+    public void setContinuity(int continuity) {
+        if (continuity < C0 || continuity > C1) {
+            throw new IllegalArgumentException("Unknown continuity: " + continuity);
+        }
+        mContinuity = continuity;
+    }
+
+    public int getContinuity() {
+        return mContinuity;
+    }
+
+    public void moveTo(float x, float y) {
+        mPointCount = 0;
+        ensureCapacity(1);
+        put(x, y);
+    }
+
+    public void lineTo(float x, float y) {
+        float x0 = lastX(), y0 = lastY();
+        cubicTo(x0 + (x - x0) / 3f, y0 + (y - y0) / 3f,
+                x0 + (x - x0) * 2f / 3f, y0 + (y - y0) * 2f / 3f,
+                x, y);
+    }
+
+    public void quadTo(float cx, float cy, float x, float y) {
+        float x0 = lastX(), y0 = lastY();
+        cubicTo(x0 + (cx - x0) * 2f / 3f, y0 + (cy - y0) * 2f / 3f,
+                x + (cx - x) * 2f / 3f, y + (cy - y) * 2f / 3f,
+                x, y);
+    }
+
+    public void cubicTo(float cx0, float cy0, float cx1, float cy1, float x, float y) {
+        if (mPointCount == 0) {
+            throw new IllegalStateException("moveTo must be called first");
+        }
+        ensureCapacity(mPointCount + 3);
+        put(cx0, cy0);
+        put(cx1, cy1);
+        put(x, y);
+    }
+
+    public float getX(int index) {
+        return mCoords[index * 2];
+    }
+
+    public float getY(int index) {
+        return mCoords[index * 2 + 1];
+    }
+
+    /**
+     * Moves a point, then adjusts its neighbours to keep the current continuity.
+     * Knots are at indices divisible by 3, handles everywhere else.
+     */
+    public void setPoint(int index, float x, float y) {
+        if (index < 0 || index >= mPointCount) {
+            throw new IndexOutOfBoundsException("index " + index + ", points " + mPointCount);
+        }
+        float dx = x - mCoords[index * 2];
+        float dy = y - mCoords[index * 2 + 1];
+        write(index, x, y);
+        if (mContinuity == C0) {
+            return;
+        }
+        int role = index % 3;
+        if (role == 0) {
+            translate(index - 1, dx, dy);
+            translate(index + 1, dx, dy);
+        }
+        else if (role == 1) {
+            alignOpposite(index - 1, index, index - 2);
+        }
+        else {
+            alignOpposite(index + 1, index, index + 2);
+        }
+    }
+
+    /** Re-aligns every interior join, keeping the outgoing handles and moving the incoming ones. */
+    public void enforceContinuity() {
+        if (mContinuity == C0) {
+            return;
+        }
+        for (int knot = 3; knot + 1 < mPointCount; knot += 3) {
+            alignOpposite(knot, knot + 1, knot - 1);
+        }
+    }
+
+    /**
+     * Index of the handle whose position depends on {@code index} through the join
+     * at the same knot, or -1 if there is none.
+     */
+    public int oppositeHandle(int index) {
+        int role = index % 3;
+        int opposite = role == 1 ? index - 2 : (role == 2 ? index + 2 : -1);
+        return opposite >= 0 && opposite < mPointCount ? opposite : -1;
+    }
+
+    public void point(int segment, float t, float[] out) {
+        Bezier.point(Bezier.CUBIC, mCoords, segmentOffset(segment), t, out, 0);
+    }
+
+    public void tangent(int segment, float t, float[] out) {
+        Bezier.tangent(Bezier.CUBIC, mCoords, segmentOffset(segment), t, out, 0);
+    }
+
+    /** Tight bounds of the whole chain as left, top, right, bottom. */
+    public void bounds(float[] out) {
+        float l = Float.POSITIVE_INFINITY, t = Float.POSITIVE_INFINITY;
+        float r = Float.NEGATIVE_INFINITY, b = Float.NEGATIVE_INFINITY;
+        int segments = getSegmentCount();
+        for (int s = 0; s < segments; s++) {
+            int k = updateBounds(s);
+            l = Math.min(l, mSegmentBounds[k]);
+            t = Math.min(t, mSegmentBounds[k + 1]);
+            r = Math.max(r, mSegmentBounds[k + 2]);
+            b = Math.max(b, mSegmentBounds[k + 3]);
+        }
+        out[0] = l;
+        out[1] = t;
+        out[2] = r;
+        out[3] = b;
+    }
+
+    /** Tight bounds of one segment as left, top, right, bottom. */
+    public void segmentBounds(int segment, float[] out) {
+        int k = updateBounds(segment);
+        out[0] = mSegmentBounds[k];
+        out[1] = mSegmentBounds[k + 1];
+        out[2] = mSegmentBounds[k + 2];
+        out[3] = mSegmentBounds[k + 3];
+    }
+
+    /* re-bounds a segment if it changed since it was last bounded, returns its offset in mSegmentBounds */
+    private int updateBounds(int segment) {
+        int k = segment * 4;
+        if (mBoundsStamps[segment] != mSegmentStamps[segment]) {
+            Bezier.bounds(Bezier.CUBIC, mCoords, segmentOffset(segment), mSegmentBounds, k);
+            mBoundsStamps[segment] = mSegmentStamps[segment];
+        }
+        return k;
+    }
+
+    /** Flattens one segment; see {@link Flattener#flatten}. */
+    public int flattenSegment(Flattener flattener, int segment, float[] out, int outOff) {
+        return flattener.flatten(Bezier.CUBIC, mCoords, segmentOffset(segment), out, outOff);
+    }
+
+    private void translate(int index, float dx, float dy) {
+        if (index >= 0 && index < mPointCount) {
+            write(index, mCoords[index * 2] + dx, mCoords[index * 2 + 1] + dy);
+        }
+    }
+
+    /* moves handle `opposite` so it lines up with `handle` through `knot` */
+    private void alignOpposite(int knot, int handle, int opposite) {
+        if (knot <= 0 || knot >= mPointCount - 1 || opposite < 0 || opposite >= mPointCount) {
+            return;
+        }
+        float kx = mCoords[knot * 2], ky = mCoords[knot * 2 + 1];
+        float hx = mCoords[handle * 2] - kx, hy = mCoords[handle * 2 + 1] - ky;
+        if (mContinuity == C1) {
+            write(opposite, kx - hx, ky - hy);
+            return;
+        }
+        float len = (float) Math.sqrt(hx * hx + hy * hy);
+        if (len < 1e-6f) {
+            return;
+        }
+        float ox = mCoords[opposite * 2] - kx, oy = mCoords[opposite * 2 + 1] - ky;
+        float keep = (float) Math.sqrt(ox * ox + oy * oy);
+        write(opposite, kx - hx / len * keep, ky - hy / len * keep);
+    }
+
+    private float lastX() {
+        return mCoords[(mPointCount - 1) * 2];
+    }
+
+    private float lastY() {
+        return mCoords[(mPointCount - 1) * 2 + 1];
+    }
+
+    private void put(float x, float y) {
+        write(mPointCount++, x, y);
+    }
+
+    /* stores a point, stamping it and its segments if the value changed */
+    private void write(int index, float x, float y) {
+        int k = index * 2;
+        if (mCoords[k] == x && mCoords[k + 1] == y && mPointStamps[index] != 0) {
+            return;
+        }
+        mCoords[k] = x;
+        mCoords[k + 1] = y;
+        long stamp = sClock.incrementAndGet();
+        mPointStamps[index] = stamp;
+        mSegmentStamps[index / 3] = stamp;
+        if (index % 3 == 0 && index > 0) {
+            mSegmentStamps[index / 3 - 1] = stamp;
+        }
+    }
+
+    /* keeps everything past the current end too: a rebuild may write the same values again */
+    private void ensureCapacity(int points) {
+        if (points * 2 > mCoords.length) {
+            int capacity = Math.max(points, mPointStamps.length * 2);
+            float[] coords = new float[capacity * 2];
+            System.arraycopy(mCoords, 0, coords, 0, mCoords.length);
+            mCoords = coords;
+            long[] stamps = new long[capacity];
+            System.arraycopy(mPointStamps, 0, stamps, 0, mPointStamps.length);
+            mPointStamps = stamps;
+            long[] segments = new long[capacity / 3 + 1];
+            System.arraycopy(mSegmentStamps, 0, segments, 0, mSegmentStamps.length);
+            mSegmentStamps = segments;
+            long[] bounded = new long[capacity / 3 + 1];
+            System.arraycopy(mBoundsStamps, 0, bounded, 0, mBoundsStamps.length);
+            mBoundsStamps = bounded;
+            float[] bounds = new float[(capacity / 3 + 1) * 4];
+            System.arraycopy(mSegmentBounds, 0, bounds, 0, mSegmentBounds.length);
+            mSegmentBounds = bounds;
+        }
+    }
+}
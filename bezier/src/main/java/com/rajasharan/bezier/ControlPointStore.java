@@ -0,0 +1,143 @@
+package com.rajasharan.bezier;
+
+/**
+ * Fixed capacity store of control points keyed by a small integer index.
+ *
+ * Coordinates live in one {@code float[]} of x,y pairs and occupancy in a bitmask,
+ * so updates happen in place and lookups never allocate or box. This replaces the
+ * {@code SparseArray<Point>} the views used to keep.
+ *
+ * With {@link #enableHitTesting} the store also keeps a {@link PointGrid} in step
+ * with every change, so {@link #hitTest} stays O(1) at hundreds of points.
+ */
+public class ControlPointStore {
+    private final float[] mCoords;
+    private final long[] mOccupied;
+    private final int mCapacity;
+    private int mSize;
+    private PointGrid mGrid;
+
+    public ControlPointStore(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        mCapacity = capacity;
+        mCoords = new float[capacity * 2];
+        mOccupied = new long[(capacity + 63) >>> 6];
+    }
+
+    /** Indexes the points in a grid of the given cell size, ideally the hit radius. */
+    public void enableHitTesting(float cellSize) {
+        mGrid = new PointGrid(mCapacity, cellSize);
+        for (int i = 0; i < mCapacity; i++) {
+            if (contains(i)) {
+                mGrid.put(i, getX(i), getY(i));
+            }
+        }
+    }
+
+    /**
+     * Index of the closest point within {@code radius} of (x, y), or -1. Scans every
+     * point unless {@link #enableHitTesting} was called.
+     */
+    public int hitTest(float x, float y, float radius) {
+        if (mGrid != null) {
+            return mGrid.nearest(x, y, radius);
+        }
+        float best = radius * radius;
+        int hit = -1;
+        for (int i = 0; i < mCapacity; i++) {
+            if (!contains(i)) {
+                continue;
+            }
+            float dx = getX(i) - x, dy = getY(i) - y;
+            float d = dx * dx + dy * dy;
+            if (d < best || (d == best && hit == -1)) {
+                best = d;
+                hit = i;
+            }
+        }
+        return hit;
+    }
+
+    public int capacity() {
+        return mCapacity;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /** False for indices outside {@code [0, capacity)} as well as for empty slots. */
+    public boolean contains(int index) {
+        return index >= 0 && index < mCapacity && (mOccupied[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /** True if every index in {@code [from, to)} is occupied. */
+    public boolean containsRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!contains(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public float getX(int index) {
+        return mCoords[index * 2];
+    }
+
+    public float getY(int index) {
+        return mCoords[index * 2 + 1];
+    }
+
+    public void set(int index, float x, float y) {
+        checkIndex(index);
+        long bit = 1L << index;
+        if ((mOccupied[index >>> 6] & bit) == 0) {
+            mOccupied[index >>> 6] |= bit;
+            mSize++;
+        }
+        mCoords[index * 2] = x;
+        mCoords[index * 2 + 1] = y;
+        if (mGrid != null) {
+            mGrid.put(index, x, y);
+        }
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        long bit = 1L << index;
+        if ((mOccupied[index >>> 6] & bit) != 0) {
+            mOccupied[index >>> 6] &= ~bit;
+            mSize--;
+        }
+        if (mGrid != null) {
+            mGrid.remove(index);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < mOccupied.length; i++) {
+            mOccupied[i] = 0L;
+        }
+        mSize = 0;
+        if (mGrid != null) {
+            mGrid.clear();
+        }
+    }
+
+    /**
+     * The backing x,y pairs, indexed by {@code index * 2}. Values of unoccupied slots
+     * are stale; check {@link #contains} first.
+     */
+    public float[] getCoords() {
+        return mCoords;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mCapacity) {
+            throw new IndexOutOfBoundsException("index " + index + ", capacity " + mCapacity);
+        }
+    }
+}
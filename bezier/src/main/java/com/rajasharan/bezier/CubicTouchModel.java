@@ -0,0 +1,386 @@
+package com.rajasharan.bezier;
+
+/**
+ * Touch state machine of a chain of cubics placed one control point per tap, or drawn
+ * freehand.
+ *
+ * Taps place the next control point, or grab the one under the finger, and the chain
+ * starts over after {@link #getMaxCount} of them; in multi-touch mode each pointer gets
+ * its own point from a {@link PointerTracker}. Dragging a point at a join of the chain
+ * drags its neighbours along as the {@link BezierSpline} continuity asks. In freehand
+ * mode the first pointer down draws a stroke that a {@link CurveFitter} fits with
+ * cubics as it comes in. Everything the view draws or schedules is left to the
+ * {@link Listener}, so the same model runs under {@link TouchReplayer} on the JVM.
+ */
+public class CubicTouchModel implements TouchReplayer.Model {
+    public static final int DEFAULT_MAX_COUNT = 4;
+    private static final int[] FIRST_SEGMENT_POINTS = {0, 3, 1, 2};
+    private static final int[] FIRST_SEGMENT_TOUCHES = {0, 2, 3, 1};
+
+    public interface Listener {
+        /** A control point was placed or grabbed; it is now the current one. */
+        void onTouchRegistered(int index);
+
+        /**
+         * A control point is about to follow the join it is part of, and again once it
+         * has, so both places can be redrawn.
+         */
+        void onTouchFollowed(int index);
+
+        /** The freehand stroke was let go and is fitted to its end. */
+        void onStrokeFinished();
+    }
+
+    private final float mHitRadius;
+    private final BezierSpline mSpline;
+    private final CurveFitter mFitter;
+    private Listener mListener;
+    private int mMaxCount;
+    private ControlPointStore mTouches;
+    private PointerTracker mPointers;
+    private int mCurrentTouchIndex;
+    private boolean mMultiTouchMode;
+    private boolean mFreehandMode;
+    private int mStrokePointerId;
+
+    public CubicTouchModel(float hitRadius) {
+        mHitRadius = hitRadius;
+        mSpline = new BezierSpline();
+        mFitter = new CurveFitter();
+        mCurrentTouchIndex = -1;
+        mStrokePointerId = -1;
+        setMaxCount(DEFAULT_MAX_COUNT);
+    }
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Number of taps before the chain starts over. 4 places a single cubic; every 3
+     * more chain another cubic onto the end.
+     */
+    public void setMaxCount(int count) {
+        if (count < 2) {
+            throw new IllegalArgumentException("count must be at least 2: " + count);
+        }
+        mMaxCount = count;
+        mTouches = new ControlPointStore(count);
+        mTouches.enableHitTesting(mHitRadius);
+        mPointers = new PointerTracker(count);
+        mCurrentTouchIndex = -1;
+    }
+
+    public int getMaxCount() {
+        return mMaxCount;
+    }
+
+    /** The curve does not depend on the view size; kept for {@link TouchReplayer}. */
+    @Override
+    public void setSize(int width, int height) {
+    }
+
+    @Override
+    public void setMultiTouchMode(boolean enable) {
+        mMultiTouchMode = enable;
+        mTouches.clear();
+        mPointers.clear();
+        mCurrentTouchIndex = -1;
+    }
+
+    public boolean isMultiTouchMode() {
+        return mMultiTouchMode;
+    }
+
+    public void setFreehandMode(boolean enable) {
+        mFreehandMode = enable;
+        mTouches.clear();
+        mPointers.clear();
+        mCurrentTouchIndex = -1;
+        mFitter.reset();
+        mStrokePointerId = -1;
+    }
+
+    public boolean isFreehandMode() {
+        return mFreehandMode;
+    }
+
+    public ControlPointStore getTouches() {
+        return mTouches;
+    }
+
+    public CurveFitter getFitter() {
+        return mFitter;
+    }
+
+    /** The curve as last built by {@link #buildSpline}; its continuity is kept while dragging. */
+    public BezierSpline getSpline() {
+        return mSpline;
+    }
+
+    public int getCurrentTouchIndex() {
+        return mCurrentTouchIndex;
+    }
+
+    /** Forgets which point is grabbed and lets go of every pointer, e.g. after the points were restored. */
+    public void resetCurrentTouch() {
+        mPointers.clear();
+        mCurrentTouchIndex = -1;
+    }
+
+    /** Control point a pointer is moving, or -1. */
+    public int touchIndex(int pointerId) {
+        return mMultiTouchMode ? mPointers.pointFor(pointerId) : mCurrentTouchIndex;
+    }
+
+    /** True while a pointer is drawing the freehand stroke. */
+    public boolean isStroking() {
+        return mStrokePointerId != -1;
+    }
+
+    /** A pointer went down: grabs or places a control point, or starts a freehand stroke if none is being drawn. */
+    @Override
+    public void registerTouch(float x, float y, int pointerId) {
+        if (mFreehandMode) {
+            if (mStrokePointerId == -1) {
+                mStrokePointerId = pointerId;
+                mFitter.begin(x, y);
+            }
+            return;
+        }
+        if (!mMultiTouchMode) {
+            registerTouch(x, y);
+            return;
+        }
+        int point = mPointers.choosePoint(mTouches, x, y, mHitRadius);
+        if (point == -1 || !mPointers.assign(pointerId, point)) {
+            return;
+        }
+        /* a free point under the finger is grabbed where it is, any other is moved there */
+        if (mTouches.hitTest(x, y, mHitRadius) != point) {
+            mTouches.set(point, x, y);
+        }
+        mCurrentTouchIndex = point;
+        touchRegistered();
+    }
+
+    /* grabs the control point under the finger, or adds the next one */
+    private void registerTouch(float x, float y) {
+        int hit = mTouches.hitTest(x, y, mHitRadius);
+        if (hit != -1) {
+            mCurrentTouchIndex = hit;
+            touchRegistered();
+            return;
+        }
+        mCurrentTouchIndex = mTouches.size() % mMaxCount;
+        if (mCurrentTouchIndex == 0) {
+            mTouches.clear();
+        }
+        mTouches.set(mCurrentTouchIndex, x, y);
+        touchRegistered();
+    }
+
+    public void updateTouch(float x, float y, int pointerId) {
+        if (!mMultiTouchMode) {
+            updateTouch(x, y);
+            return;
+        }
+        int point = mPointers.pointFor(pointerId);
+        if (point != -1) {
+            moveTouch(point, x, y);
+        }
+    }
+
+    private void updateTouch(float x, float y) {
+        if (mCurrentTouchIndex != -1) {
+            moveTouch(mCurrentTouchIndex, x, y);
+        }
+    }
+
+    /**
+     * Applies the queued samples of a move event in order: to the grabbed control
+     * points, or in freehand mode the samples of the stroke's pointer to the fitter.
+     */
+    @Override
+    public void applySamples(TouchSampleBuffer samples) {
+        int size = samples.size();
+        if (mFreehandMode) {
+            for (int i = 0; i < size; i++) {
+                if (samples.getPointerId(i) == mStrokePointerId) {
+                    mFitter.add(samples.getX(i), samples.getY(i));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            updateTouch(samples.getX(i), samples.getY(i), samples.getPointerId(i));
+        }
+    }
+
+    /** A pointer went up, letting go of its control point or finishing the stroke it drew. */
+    @Override
+    public void release(int pointerId) {
+        mPointers.release(pointerId);
+        if (mFreehandMode && pointerId == mStrokePointerId) {
+            finishStroke();
+        }
+    }
+
+    /** Every pointer is gone at once, as on {@code ACTION_CANCEL}. */
+    @Override
+    public void cancel() {
+        mPointers.clear();
+        if (mFreehandMode) {
+            finishStroke();
+        }
+    }
+
+    /** Nothing moves on its own between events. */
+    @Override
+    public boolean isAnimating() {
+        return false;
+    }
+
+    @Override
+    public boolean step(float seconds) {
+        return false;
+    }
+
+    private void finishStroke() {
+        mFitter.finish();
+        mStrokePointerId = -1;
+        if (mListener != null) {
+            mListener.onStrokeFinished();
+        }
+    }
+
+    /* moves a control point, keeping the continuity of the joins it is part of */
+    private void moveTouch(int index, float x, float y) {
+        int point = mSpline.getContinuity() == BezierSpline.C0 ? -1 : splinePoint(index);
+        if (point == -1) {
+            mTouches.set(index, x, y);
+            return;
+        }
+        buildSpline();
+        mSpline.setPoint(point, x, y);
+        syncTouch(point);
+        syncTouch(point - 1);
+        syncTouch(point + 1);
+        syncTouch(mSpline.oppositeHandle(point));
+    }
+
+    /* copies a spline point back to its touch */
+    private void syncTouch(int point) {
+        if (point < 0 || point >= mSpline.getPointCount()) {
+            return;
+        }
+        int index = touchForPoint(point);
+        if (splinePoint(index) != point) {
+            return;
+        }
+        touchFollowed(index);
+        mTouches.set(index, mSpline.getX(point), mSpline.getY(point));
+        touchFollowed(index);
+    }
+
+    /*
+     * Touches 0 and 1 are the end points of the first segment, 2 and 3 its control points.
+     * Every three touches after that chain another segment: its end point, then its
+     * control points. A trailing segment with fewer touches is a line or quad. In
+     * freehand mode the spline is the stroke as fitted so far.
+     */
+    public void buildSpline() {
+        if (mFreehandMode) {
+            buildFittedSpline();
+            return;
+        }
+        ControlPointStore t = mTouches;
+        int n = contiguousTouches();
+        mSpline.reset();
+        if (n < 2) {
+            return;
+        }
+        mSpline.moveTo(t.getX(0), t.getY(0));
+        if (n == 2) {
+            mSpline.lineTo(t.getX(1), t.getY(1));
+        }
+        else if (n == 3) {
+            mSpline.quadTo(t.getX(2), t.getY(2), t.getX(1), t.getY(1));
+        }
+        else {
+            mSpline.cubicTo(t.getX(2), t.getY(2), t.getX(3), t.getY(3), t.getX(1), t.getY(1));
+        }
+        for (int base = 4; base < n; base += 3) {
+            int m = Math.min(3, n - base);
+            if (m == 1) {
+                mSpline.lineTo(t.getX(base), t.getY(base));
+            }
+            else if (m == 2) {
+                mSpline.quadTo(t.getX(base+1), t.getY(base+1), t.getX(base), t.getY(base));
+            }
+            else {
+                mSpline.cubicTo(t.getX(base+1), t.getY(base+1), t.getX(base+2), t.getY(base+2), t.getX(base), t.getY(base));
+            }
+        }
+    }
+
+    private void buildFittedSpline() {
+        mSpline.reset();
+        int segments = mFitter.getSegmentCount();
+        if (segments == 0) {
+            return;
+        }
+        float[] c = mFitter.getCoords();
+        mSpline.moveTo(c[0], c[1]);
+        for (int s = 0; s < segments; s++) {
+            int k = BezierSpline.segmentOffset(s);
+            mSpline.cubicTo(c[k+2], c[k+3], c[k+4], c[k+5], c[k+6], c[k+7]);
+        }
+    }
+
+    private int contiguousTouches() {
+        int n = 0;
+        while (mTouches.contains(n)) {
+            n++;
+        }
+        return n;
+    }
+
+    /* index of a touch in the spline, or -1 if it is not a point of a full cubic */
+    private int splinePoint(int index) {
+        int n = contiguousTouches();
+        if (index < 4) {
+            return n >= 4 ? FIRST_SEGMENT_POINTS[index] : -1;
+        }
+        int segment = (index - 4) / 3 + 1;
+        int base = 4 + (segment - 1) * 3;
+        if (base + 3 > n) {
+            return -1;
+        }
+        int role = index - base;
+        return role == 0 ? 3 * (segment + 1) : 3 * segment + role;
+    }
+
+    /* inverse of splinePoint */
+    private int touchForPoint(int point) {
+        if (point < 4) {
+            return FIRST_SEGMENT_TOUCHES[point];
+        }
+        int segment = (point - 1) / 3;
+        int base = 4 + (segment - 1) * 3;
+        int role = point % 3;
+        return role == 0 ? base : base + role;
+    }
+
+    private void touchRegistered() {
+        if (mListener != null) {
+            mListener.onTouchRegistered(mCurrentTouchIndex);
+        }
+    }
+
+    private void touchFollowed(int index) {
+        if (mListener != null) {
+            mListener.onTouchFollowed(index);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.rajasharan.bezier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary file format for a {@link CurveScene}, written here and read back by
+ * {@link CurveDocumentReader}.
+ *
+ * All values are little endian. A {@link #HEADER_SIZE} byte header holds the magic
+ * number, the format version, the point encoding, the curve count, the quantum and
+ * the size of the point section. Then come the per-curve tables, one array each:
+ * segment counts, styles and byte offsets into the point section (ints), and left,
+ * top, right and bottom bounds (floats), so a reader can cull without touching the
+ * points. The point section follows, per curve either
+ * <ul>
+ *   <li>{@link #ENCODING_FLOAT}: every point as two floats, or</li>
+ *   <li>{@link #ENCODING_QUANTIZED}: the first point as two ints in units of the
+ *   quantum, then every other point as two shorts, its difference in quantum units
+ *   from the previous one. At the default quantum of 1/16 px this is half the size
+ *   and still well below what a screen can show.</li>
+ * </ul>
+ */
+public final class CurveDocument {
+    /* "CRVS" */
+    public static final int MAGIC = 0x53565243;
+    public static final int VERSION = 1;
+    public static final int ENCODING_FLOAT = 0;
+    public static final int ENCODING_QUANTIZED = 1;
+    public static final float DEFAULT_QUANTUM = 1f / 16f;
+    public static final int HEADER_SIZE = 32;
+
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_ENCODING = 6;
+    static final int OFFSET_CURVES = 8;
+    static final int OFFSET_QUANTUM = 12;
+    static final int OFFSET_POINT_BYTES = 16;
+    /* segments, styles, offsets, left, top, right, bottom */
+    static final int TABLES = 7;
+
+    private CurveDocument() {
+    }
+
+    /**
+     * Encodes a scene. {@link #ENCODING_QUANTIZED} falls back to floats when a
+     * difference between neighbouring points does not fit a short at this quantum;
+     * the header says which encoding was used.
+     */
+    public static ByteBuffer encode(CurveScene scene, int encoding, float quantum) {
+        if (encoding != ENCODING_FLOAT && encoding != ENCODING_QUANTIZED) {
+            throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+        if (!(quantum > 0f)) {
+            throw new IllegalArgumentException("quantum must be positive: " + quantum);
+        }
+        if (encoding == ENCODING_QUANTIZED && !fitsQuantized(scene, quantum)) {
+            encoding = ENCODING_FLOAT;
+        }
+        int curves = scene.size();
+        long pointBytes = 0;
+        for (int c = 0; c < curves; c++) {
+            pointBytes += curveBytes(scene.getSegmentCount(c) * 3 + 1, encoding);
+        }
+        long size = HEADER_SIZE + (long) curves * TABLES * 4 + pointBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Scene too large to encode: " + size + " bytes");
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC);
+        buf.putShort((short) VERSION);
+        buf.putShort((short) encoding);
+        buf.putInt(curves);
+        buf.putFloat(quantum);
+        buf.putInt((int) pointBytes);
+        buf.position(HEADER_SIZE);
+        for (int c = 0; c < curves; c++) {
+            buf.putInt(scene.getSegmentCount(c));
+        }
+        for (int c = 0; c < curves; c++) {
+            buf.putInt(scene.getStyle(c));
+        }
+        int offset = 0;
+        for (int c = 0; c < curves; c++) {
+            buf.putInt(offset);
+            offset += curveBytes(scene.getSegmentCount(c) * 3 + 1, encoding);
+        }
+        float[] box = new float[4];
+        for (int side = 0; side < 4; side++) {
+            for (int c = 0; c < curves; c++) {
+                scene.getBounds(c, box);
+                buf.putFloat(box[side]);
+            }
+        }
+        float[] pts = scene.getPoints();
+        for (int c = 0; c < curves; c++) {
+            int off = scene.getOffset(c);
+            int points = scene.getSegmentCount(c) * 3 + 1;
+            if (encoding == ENCODING_FLOAT) {
+                buf.asFloatBuffer().put(pts, off, points * 2);
+                buf.position(buf.position() + points * 8);
+            }
+            else {
+                int px = (int) quantize(pts[off], quantum), py = (int) quantize(pts[off + 1], quantum);
+                buf.putInt(px);
+                buf.putInt(py);
+                for (int i = 1; i < points; i++) {
+                    int x = (int) quantize(pts[off + i * 2], quantum), y = (int) quantize(pts[off + i * 2 + 1], quantum);
+                    buf.putShort((short) (x - px));
+                    buf.putShort((short) (y - py));
+                    px = x;
+                    py = y;
+                }
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    public static void write(CurveScene scene, int encoding, float quantum, File file) throws IOException {
+        ByteBuffer buf = encode(scene, encoding, quantum);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.truncate(0);
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    static int curveBytes(int points, int encoding) {
+        return encoding == ENCODING_FLOAT ? points * 8 : 8 + (points - 1) * 4;
+    }
+
+    static long quantize(float value, float quantum) {
+        return Math.round((double) value / quantum);
+    }
+
+    private static boolean fitsQuantized(CurveScene scene, float quantum) {
+        float[] pts = scene.getPoints();
+        for (int c = 0; c < scene.size(); c++) {
+            int off = scene.getOffset(c);
+            int points = scene.getSegmentCount(c) * 3 + 1;
+            long px = 0, py = 0;
+            for (int i = 0; i < points; i++) {
+                long x = quantize(pts[off + i * 2], quantum), y = quantize(pts[off + i * 2 + 1], quantum);
+                if (x < Integer.MIN_VALUE || x > Integer.MAX_VALUE || y < Integer.MIN_VALUE || y > Integer.MAX_VALUE) {
+                    return false;
+                }
+                if (i > 0 && (x - px < Short.MIN_VALUE || x - px > Short.MAX_VALUE
+                        || y - py < Short.MIN_VALUE || y - py > Short.MAX_VALUE)) {
+                    return false;
+                }
+                px = x;
+                py = y;
+            }
+        }
+        return true;
+    }
+}
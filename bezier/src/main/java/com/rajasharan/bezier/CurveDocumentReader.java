@@ -0,0 +1,176 @@
+package com.rajasharan.bezier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a {@link CurveDocument} in place.
+ *
+ * {@link #open} memory-maps the file and only checks the header, so opening costs
+ * the same for ten curves as for a million. Tables and points are then read straight
+ * out of the mapping when asked for: a curve's segment count, style and bounds with
+ * one absolute read each, its points by decoding just that curve. Nothing is
+ * allocated per curve or per point; {@link #loadInto} copies everything into a
+ * {@link CurveScene} when the whole document is wanted at once.
+ *
+ * Bounds are those of the points before quantizing, so with
+ * {@link CurveDocument#ENCODING_QUANTIZED} they can be off by half a quantum.
+ */
+public class CurveDocumentReader {
+    private final ByteBuffer mBuffer;
+    private final int mVersion;
+    private final int mEncoding;
+    private final int mCurves;
+    private final float mQuantum;
+    private final int mSegmentsTable;
+    private final int mStylesTable;
+    private final int mOffsetsTable;
+    private final int mBoundsTable;
+    private final int mPointsStart;
+
+    /** Reads from {@code buffer}, which must hold a whole document from position 0. */
+    public CurveDocumentReader(ByteBuffer buffer) throws IOException {
+        mBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (mBuffer.limit() < CurveDocument.HEADER_SIZE
+                || mBuffer.getInt(CurveDocument.OFFSET_MAGIC) != CurveDocument.MAGIC) {
+            throw new IOException("Not a curve document");
+        }
+        mVersion = mBuffer.getShort(CurveDocument.OFFSET_VERSION);
+        if (mVersion > CurveDocument.VERSION) {
+            throw new IOException("Unsupported curve document version: " + mVersion);
+        }
+        mEncoding = mBuffer.getShort(CurveDocument.OFFSET_ENCODING);
+        if (mEncoding != CurveDocument.ENCODING_FLOAT && mEncoding != CurveDocument.ENCODING_QUANTIZED) {
+            throw new IOException("Unknown point encoding: " + mEncoding);
+        }
+        mCurves = mBuffer.getInt(CurveDocument.OFFSET_CURVES);
+        mQuantum = mBuffer.getFloat(CurveDocument.OFFSET_QUANTUM);
+        int pointBytes = mBuffer.getInt(CurveDocument.OFFSET_POINT_BYTES);
+        if (mCurves < 0 || pointBytes < 0 || CurveDocument.HEADER_SIZE
+                + (long) mCurves * CurveDocument.TABLES * 4 + pointBytes > mBuffer.limit()) {
+            throw new IOException("Truncated curve document");
+        }
+        mSegmentsTable = CurveDocument.HEADER_SIZE;
+        mStylesTable = mSegmentsTable + mCurves * 4;
+        mOffsetsTable = mStylesTable + mCurves * 4;
+        mBoundsTable = mOffsetsTable + mCurves * 4;
+        mPointsStart = mBoundsTable + mCurves * 16;
+    }
+
+    /** Maps {@code file} read-only; the mapping lives as long as this reader. */
+    public static CurveDocumentReader open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new CurveDocumentReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally {
+            /* the mapping stays valid after the channel is closed */
+            raf.close();
+        }
+    }
+
+    public int getVersion() {
+        return mVersion;
+    }
+
+    public int getEncoding() {
+        return mEncoding;
+    }
+
+    public int getCurveCount() {
+        return mCurves;
+    }
+
+    public int getSegmentCount(int curve) {
+        return mBuffer.getInt(mSegmentsTable + checkIndex(curve) * 4);
+    }
+
+    public int getStyle(int curve) {
+        return mBuffer.getInt(mStylesTable + checkIndex(curve) * 4);
+    }
+
+    /** Bounds of a curve as left, top, right, bottom. */
+    public void getBounds(int curve, float[] out) {
+        int k = mBoundsTable + checkIndex(curve) * 4;
+        int side = mCurves * 4;
+        out[0] = mBuffer.getFloat(k);
+        out[1] = mBuffer.getFloat(k + side);
+        out[2] = mBuffer.getFloat(k + side * 2);
+        out[3] = mBuffer.getFloat(k + side * 3);
+    }
+
+    /**
+     * Decodes the {@code 3 * segments + 1} points of one curve into {@code out}
+     * starting at {@code off}.
+     *
+     * @return the number of floats written
+     */
+    public int readCurve(int curve, float[] out, int off) {
+        int points = getSegmentCount(curve) * 3 + 1;
+        int k = mPointsStart + mBuffer.getInt(mOffsetsTable + curve * 4);
+        if (mEncoding == CurveDocument.ENCODING_FLOAT) {
+            for (int i = 0; i < points * 2; i++, k += 4) {
+                out[off + i] = mBuffer.getFloat(k);
+            }
+            return points * 2;
+        }
+        double q = mQuantum;
+        int x = mBuffer.getInt(k), y = mBuffer.getInt(k + 4);
+        out[off] = (float) (x * q);
+        out[off + 1] = (float) (y * q);
+        k += 8;
+        for (int i = 1; i < points; i++, k += 4) {
+            x += mBuffer.getShort(k);
+            y += mBuffer.getShort(k + 2);
+            out[off + i * 2] = (float) (x * q);
+            out[off + i * 2 + 1] = (float) (y * q);
+        }
+        return points * 2;
+    }
+
+    /**
+     * Writes the indices of the curves whose bounds overlap the rectangle to
+     * {@code out}, in order, reading only the bounds tables.
+     *
+     * @return the number of curves written
+     */
+    public int query(float left, float top, float right, float bottom, int[] out) {
+        int side = mCurves * 4;
+        int count = 0;
+        for (int c = 0, k = mBoundsTable; c < mCurves; c++, k += 4) {
+            if (mBuffer.getFloat(k) <= right && mBuffer.getFloat(k + side * 2) >= left
+                    && mBuffer.getFloat(k + side) <= bottom && mBuffer.getFloat(k + side * 3) >= top) {
+                out[count++] = c;
+            }
+        }
+        return count;
+    }
+
+    /** Appends every curve of the document to {@code scene}, with the stored bounds. */
+    public void loadInto(CurveScene scene) {
+        float[] pts = new float[64];
+        float[] box = new float[4];
+        for (int c = 0; c < mCurves; c++) {
+            int segments = getSegmentCount(c);
+            int floats = (segments * 3 + 1) * 2;
+            if (pts.length < floats) {
+                pts = new float[Math.max(floats, pts.length * 2)];
+            }
+            readCurve(c, pts, 0);
+            getBounds(c, box);
+            scene.add(pts, 0, segments, getStyle(c), box[0], box[1], box[2], box[3]);
+        }
+    }
+
+    private int checkIndex(int curve) {
+        if (curve < 0 || curve >= mCurves) {
+            throw new IndexOutOfBoundsException("curve " + curve + ", curves " + mCurves);
+        }
+        return curve;
+    }
+}
@@ -0,0 +1,430 @@
+package com.rajasharan.bezier;
+
+/**
+ * Fits a chain of cubic segments to a freehand stroke as its samples arrive, after
+ * Schneider, "An Algorithm for Automatically Fitting Digitized Curves" (Graphics
+ * Gems, 1990).
+ *
+ * Only the tail of the stroke since the last committed knot is refitted on each
+ * {@link #add}: a least squares cubic with fixed end tangents, reparameterized with
+ * Newton steps when it is close, and split at the sample of largest error when it is
+ * not. When the tail needs more than one segment, all but the last are committed and
+ * their samples dropped, so the work per sample stays bounded by the tail, not the
+ * stroke. A committed segment is never touched again, and the tail starts with the
+ * committed end tangent, so joins are G1.
+ *
+ * The result is stored like {@link BezierSpline}: {@code 3n+1} points, knot, handle,
+ * handle, knot... and is a few dozen floats where the raw stroke is thousands.
+ */
+public class CurveFitter {
+    public static final float DEFAULT_TOLERANCE = 2f;
+    /* samples in the tail before its segment is committed as it is */
+    public static final int MAX_TAIL = 256;
+    private static final int MAX_ITERATIONS = 4;
+    private static final int TANGENT_REACH = 3;
+
+    private float mTolerance;
+    private float mMinSpacing;
+    /* committed segments, then the provisional ones fitted to the tail */
+    private float[] mCoords;
+    private int mCommitted;
+    private int mSegments;
+    /* tail samples as x,y pairs; sample 0 is the last committed knot */
+    private float[] mTail;
+    private int mTailCount;
+    /* end sample of each provisional segment */
+    private int[] mEnds;
+    private float[] mU;
+    private float[] mUScratch;
+    private final float[] mBezier = new float[8];
+    private final float[] mPoint = new float[2];
+    private final float[] mScratch = new float[2];
+    private int mSampleCount;
+
+    public CurveFitter() {
+        mCoords = new float[(16 * 3 + 1) * 2];
+        mTail = new float[64 * 2];
+        mEnds = new int[64];
+        mU = new float[64];
+        mUScratch = new float[64];
+        setTolerance(DEFAULT_TOLERANCE);
+    }
+
+    /** Largest distance in pixels allowed between a sample and the fitted curve. */
+    public void setTolerance(float tolerance) {
+        if (!(tolerance > 0f)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        mTolerance = tolerance;
+        mMinSpacing = tolerance / 2f;
+    }
+
+    public float getTolerance() {
+        return mTolerance;
+    }
+
+    public void reset() {
+        mCommitted = 0;
+        mSegments = 0;
+        mTailCount = 0;
+        mSampleCount = 0;
+    }
+
+    /** Starts a new stroke at (x, y). */
+    public void begin(float x, float y) {
+        reset();
+        appendSample(x, y);
+    }
+
+    /**
+     * Adds the next sample of the stroke and refits the tail.
+     *
+     * @return false if the sample was dropped for being too close to the previous one
+     */
+    public boolean add(float x, float y) {
+        if (mTailCount == 0) {
+            begin(x, y);
+            return true;
+        }
+        float dx = x - mTail[mTailCount * 2 - 2], dy = y - mTail[mTailCount * 2 - 1];
+        if (dx * dx + dy * dy < mMinSpacing * mMinSpacing) {
+            return false;
+        }
+        appendSample(x, y);
+        fitTail();
+        int provisional = mSegments - mCommitted;
+        if (provisional > 1) {
+            commit(provisional - 1);
+        }
+        else if (mTailCount >= MAX_TAIL) {
+            commit(1);
+        }
+        return true;
+    }
+
+    /** Ends the stroke, committing whatever was fitted to the tail. */
+    public void finish() {
+        mCommitted = mSegments;
+        if (mTailCount > 0) {
+            mTail[0] = mTail[mTailCount * 2 - 2];
+            mTail[1] = mTail[mTailCount * 2 - 1];
+            mTailCount = 1;
+        }
+    }
+
+    /**
+     * Replaces the fit with {@code segments} finished segments whose points start at
+     * {@code pts[0]}, e.g. when restoring saved state.
+     */
+    public void restore(float[] pts, int segments) {
+        reset();
+        if (segments == 0) {
+            return;
+        }
+        ensureCoords(segments);
+        System.arraycopy(pts, 0, mCoords, 0, (segments * 3 + 1) * 2);
+        mSegments = segments;
+        mCommitted = segments;
+        mTail[0] = pts[segments * 6];
+        mTail[1] = pts[segments * 6 + 1];
+        mTailCount = 1;
+    }
+
+    /**
+     * Like {@link #restore(float[], int)} for a stroke still being drawn: {@code segments}
+     * committed segments, then the {@code tailCount} samples not yet committed, as
+     * {@link #getTail} gave them. The tail is refitted and the stroke goes on with
+     * {@link #add}.
+     */
+    public void restore(float[] pts, int segments, float[] tail, int tailCount) {
+        restore(pts, segments);
+        if (tailCount == 0) {
+            return;
+        }
+        mTailCount = 0;
+        for (int i = 0; i < tailCount; i++) {
+            appendSample(tail[i * 2], tail[i * 2 + 1]);
+        }
+        fitTail();
+    }
+
+    /**
+     * Fits a whole stroke of {@code count} x,y samples at once, the way {@link #add}
+     * would if it never committed early.
+     */
+    public void fit(float[] samples, int count) {
+        reset();
+        for (int i = 0; i < count; i++) {
+            float x = samples[i * 2], y = samples[i * 2 + 1];
+            if (mTailCount > 0) {
+                float dx = x - mTail[mTailCount * 2 - 2], dy = y - mTail[mTailCount * 2 - 1];
+                if (dx * dx + dy * dy < mMinSpacing * mMinSpacing) {
+                    continue;
+                }
+            }
+            appendSample(x, y);
+        }
+        fitTail();
+        finish();
+    }
+
+    public int getSegmentCount() {
+        return mSegments;
+    }
+
+    /** Segments that will not change as more samples arrive. */
+    public int getCommittedCount() {
+        return mCommitted;
+    }
+
+    /** Points in chain order; segment {@code s} starts at {@link BezierSpline#segmentOffset(int)}. */
+    public float[] getCoords() {
+        return mCoords;
+    }
+
+    /**
+     * Samples not yet committed as x,y pairs, starting with the end of the committed
+     * chain; together with the committed segments they are the whole stroke so far.
+     */
+    public float[] getTail() {
+        return mTail;
+    }
+
+    public int getTailCount() {
+        return mTailCount;
+    }
+
+    /** Samples taken since {@link #begin}, including dropped ones. */
+    public int getSampleCount() {
+        return mSampleCount;
+    }
+
+    private void appendSample(float x, float y) {
+        mSampleCount++;
+        if (mTail.length < (mTailCount + 1) * 2) {
+            float[] tail = new float[mTail.length * 2];
+            System.arraycopy(mTail, 0, tail, 0, mTailCount * 2);
+            mTail = tail;
+            mU = new float[tail.length / 2];
+            mUScratch = new float[tail.length / 2];
+            mEnds = new int[tail.length / 2];
+        }
+        mTail[mTailCount * 2] = x;
+        mTail[mTailCount * 2 + 1] = y;
+        mTailCount++;
+        if (mSegments == 0) {
+            ensureCoords(1);
+            mCoords[0] = mTail[0];
+            mCoords[1] = mTail[1];
+        }
+    }
+
+    /* replaces the provisional segments with a fresh fit of the tail */
+    private void fitTail() {
+        mSegments = mCommitted;
+        int last = mTailCount - 1;
+        if (last < 1) {
+            return;
+        }
+        float lx, ly;
+        if (mCommitted > 0) {
+            /* continue the direction the committed chain ends in */
+            int k = mCommitted * 6;
+            lx = mCoords[k] - mCoords[k - 2];
+            ly = mCoords[k + 1] - mCoords[k - 1];
+            float len = (float) Math.sqrt(lx * lx + ly * ly);
+            if (len > 1e-6f) {
+                lx /= len;
+                ly /= len;
+            }
+            else {
+                estimateTangent(0, Math.min(last, TANGENT_REACH), mScratch);
+                lx = mScratch[0];
+                ly = mScratch[1];
+            }
+        }
+        else {
+            estimateTangent(0, Math.min(last, TANGENT_REACH), mScratch);
+            lx = mScratch[0];
+            ly = mScratch[1];
+        }
+        estimateTangent(last, Math.max(0, last - TANGENT_REACH), mScratch);
+        fitCubic(0, last, lx, ly, mScratch[0], mScratch[1]);
+    }
+
+    /* commits the first count provisional segments and drops the samples they cover */
+    private void commit(int count) {
+        int end = mEnds[count - 1];
+        for (int i = count; i < mSegments - mCommitted; i++) {
+            mEnds[i - count] = mEnds[i] - end;
+        }
+        mCommitted += count;
+        System.arraycopy(mTail, end * 2, mTail, 0, (mTailCount - end) * 2);
+        mTailCount -= end;
+    }
+
+    /* Schneider's FitCubic: tangents are unit vectors pointing into the curve at each end */
+    private void fitCubic(int first, int last, float t1x, float t1y, float t2x, float t2y) {
+        int n = last - first + 1;
+        float x0 = mTail[first * 2], y0 = mTail[first * 2 + 1];
+        float x3 = mTail[last * 2], y3 = mTail[last * 2 + 1];
+        if (n == 2) {
+            float d = (float) Math.sqrt((x3 - x0) * (x3 - x0) + (y3 - y0) * (y3 - y0)) / 3f;
+            emit(x0 + t1x * d, y0 + t1y * d, x3 + t2x * d, y3 + t2y * d, x3, y3, last);
+            return;
+        }
+        chordLengthParameterize(first, last);
+        generateBezier(first, last, t1x, t1y, t2x, t2y);
+        float errorSq = mTolerance * mTolerance;
+        int split = maxError(first, last);
+        float maxError = mScratch[0];
+        if (maxError < errorSq) {
+            emitBezier(last);
+            return;
+        }
+        if (maxError < errorSq * 4f) {
+            for (int i = 0; i < MAX_ITERATIONS; i++) {
+                reparameterize(first, last);
+                generateBezier(first, last, t1x, t1y, t2x, t2y);
+                split = maxError(first, last);
+                if (mScratch[0] < errorSq) {
+                    emitBezier(last);
+                    return;
+                }
+            }
+        }
+        /* split at the worst sample, with the tangent through its neighbours */
+        float cx = mTail[split * 2 - 2] - mTail[split * 2 + 2];
+        float cy = mTail[split * 2 - 1] - mTail[split * 2 + 3];
+        float len = (float) Math.sqrt(cx * cx + cy * cy);
+        if (len > 1e-6f) {
+            cx /= len;
+            cy /= len;
+        }
+        else {
+            cx = -t1x;
+            cy = -t1y;
+        }
+        fitCubic(first, split, t1x, t1y, cx, cy);
+        fitCubic(split, last, -cx, -cy, t2x, t2y);
+    }
+
+    private void chordLengthParameterize(int first, int last) {
+        mU[first] = 0f;
+        for (int i = first + 1; i <= last; i++) {
+            float dx = mTail[i * 2] - mTail[i * 2 - 2], dy = mTail[i * 2 + 1] - mTail[i * 2 - 1];
+            mU[i] = mU[i - 1] + (float) Math.sqrt(dx * dx + dy * dy);
+        }
+        float total = mU[last];
+        for (int i = first + 1; i <= last; i++) {
+            mU[i] = total > 0f ? mU[i] / total : (i - first) / (float) (last - first);
+        }
+    }
+
+    /* least squares handle lengths along the given end tangents, into mBezier */
+    private void generateBezier(int first, int last, float t1x, float t1y, float t2x, float t2y) {
+        float x0 = mTail[first * 2], y0 = mTail[first * 2 + 1];
+        float x3 = mTail[last * 2], y3 = mTail[last * 2 + 1];
+        float c00 = 0f, c01 = 0f, c11 = 0f, r0 = 0f, r1 = 0f;
+        for (int i = first; i <= last; i++) {
+            float u = mU[i], v = 1f - u;
+            float b0 = v * v * v, b1 = 3f * u * v * v, b2 = 3f * u * u * v, b3 = u * u * u;
+            float a0x = t1x * b1, a0y = t1y * b1;
+            float a1x = t2x * b2, a1y = t2y * b2;
+            c00 += a0x * a0x + a0y * a0y;
+            c01 += a0x * a1x + a0y * a1y;
+            c11 += a1x * a1x + a1y * a1y;
+            float tx = mTail[i * 2] - (x0 * (b0 + b1) + x3 * (b2 + b3));
+            float ty = mTail[i * 2 + 1] - (y0 * (b0 + b1) + y3 * (b2 + b3));
+            r0 += a0x * tx + a0y * ty;
+            r1 += a1x * tx + a1y * ty;
+        }
+        float det = c00 * c11 - c01 * c01;
+        float alpha1 = det != 0f ? (r0 * c11 - r1 * c01) / det : 0f;
+        float alpha2 = det != 0f ? (c00 * r1 - c01 * r0) / det : 0f;
+        float chord = (float) Math.sqrt((x3 - x0) * (x3 - x0) + (y3 - y0) * (y3 - y0));
+        float epsilon = 1e-6f * chord;
+        if (alpha1 < epsilon || alpha2 < epsilon) {
+            /* the fit went backwards: fall back to Wu/Barsky's heuristic */
+            alpha1 = alpha2 = chord / 3f;
+        }
+        mBezier[0] = x0;
+        mBezier[1] = y0;
+        mBezier[2] = x0 + t1x * alpha1;
+        mBezier[3] = y0 + t1y * alpha1;
+        mBezier[4] = x3 + t2x * alpha2;
+        mBezier[5] = y3 + t2y * alpha2;
+        mBezier[6] = x3;
+        mBezier[7] = y3;
+    }
+
+    /* one Newton step per sample towards its closest point on mBezier */
+    private void reparameterize(int first, int last) {
+        float[] b = mBezier;
+        for (int i = first + 1; i < last; i++) {
+            float u = mU[i];
+            Bezier.point(Bezier.CUBIC, b, 0, u, mScratch, 0);
+            float dx = mScratch[0] - mTail[i * 2], dy = mScratch[1] - mTail[i * 2 + 1];
+            Bezier.derivative(Bezier.CUBIC, b, 0, u, mScratch, 0);
+            float d1x = mScratch[0], d1y = mScratch[1];
+            Bezier.secondDerivative(Bezier.CUBIC, b, 0, u, mScratch, 0);
+            float numerator = dx * d1x + dy * d1y;
+            float denominator = d1x * d1x + d1y * d1y + dx * mScratch[0] + dy * mScratch[1];
+            mUScratch[i] = denominator != 0f ? Math.max(0f, Math.min(1f, u - numerator / denominator)) : u;
+        }
+        for (int i = first + 1; i < last; i++) {
+            mU[i] = mUScratch[i];
+        }
+    }
+
+    /* largest squared distance of a sample from mBezier into mScratch[0]; returns its index */
+    private int maxError(int first, int last) {
+        float max = 0f;
+        int split = (first + last + 1) / 2;
+        for (int i = first + 1; i < last; i++) {
+            Bezier.point(Bezier.CUBIC, mBezier, 0, mU[i], mPoint, 0);
+            float dx = mPoint[0] - mTail[i * 2], dy = mPoint[1] - mTail[i * 2 + 1];
+            float d = dx * dx + dy * dy;
+            if (d >= max) {
+                max = d;
+                split = i;
+            }
+        }
+        mScratch[0] = max;
+        return split;
+    }
+
+    /* unit vector from sample "from" towards sample "to" */
+    private void estimateTangent(int from, int to, float[] out) {
+        float dx = mTail[to * 2] - mTail[from * 2], dy = mTail[to * 2 + 1] - mTail[from * 2 + 1];
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        out[0] = len > 1e-6f ? dx / len : 0f;
+        out[1] = len > 1e-6f ? dy / len : 0f;
+    }
+
+    private void emitBezier(int last) {
+        emit(mBezier[2], mBezier[3], mBezier[4], mBezier[5], mBezier[6], mBezier[7], last);
+    }
+
+    private void emit(float cx0, float cy0, float cx1, float cy1, float x, float y, int last) {
+        ensureCoords(mSegments + 1);
+        int k = mSegments * 6 + 2;
+        mCoords[k] = cx0;
+        mCoords[k + 1] = cy0;
+        mCoords[k + 2] = cx1;
+        mCoords[k + 3] = cy1;
+        mCoords[k + 4] = x;
+        mCoords[k + 5] = y;
+        mEnds[mSegments - mCommitted] = last;
+        mSegments++;
+    }
+
+    private void ensureCoords(int segments) {
+        int length = (segments * 3 + 1) * 2;
+        if (mCoords.length < length) {
+            float[] coords = new float[Math.max(length, mCoords.length * 2)];
+            System.arraycopy(mCoords, 0, coords, 0, mCoords.length);
+            mCoords = coords;
+        }
+    }
+}
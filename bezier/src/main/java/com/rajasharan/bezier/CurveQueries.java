@@ -0,0 +1,382 @@
+package com.rajasharan.bezier;
+
+/**
+ * Closest point, distance and intersection queries on linear, quadratic and cubic
+ * segments, with a fixed upper bound on the work each query does.
+ *
+ * Projection samples the segment at {@link #PROJECT_SAMPLES} values of t, then
+ * refines every local minimum of the sampled distance (at most
+ * {@link #MAX_CANDIDATES}) with at most {@link #NEWTON_STEPS} Newton steps on
+ * {@code (B(t) - P) . B'(t) = 0}. A step that leaves the bracket between the
+ * neighbouring samples or does not bring the point closer is replaced by a bisection
+ * step, so the solver cannot diverge on cusps or near-straight stretches.
+ *
+ * Intersection subdivides both segments, dropping pairs whose control point boxes do
+ * not overlap (the curve lies inside its control polygon), until both pieces are
+ * straight to within the tolerance. It then intersects their chords and polishes the
+ * pair of parameters with Newton steps on {@code A(s) - B(t) = 0}. Flatness improves
+ * fourfold per split, so this stops long before the pieces shrink to the tolerance.
+ * It visits at most {@link #MAX_NODES} pairs.
+ *
+ * Instances keep scratch buffers and are not thread safe.
+ */
+public class CurveQueries {
+    public static final int PROJECT_SAMPLES = 16;
+    public static final int MAX_CANDIDATES = 3;
+    public static final int NEWTON_STEPS = 8;
+    public static final int MAX_NODES = 2048;
+    /* two cubics meet at most 9 times */
+    public static final int MAX_INTERSECTIONS = 9;
+    public static final float DEFAULT_TOLERANCE = 0.05f;
+
+    private static final int MAX_DEPTH = 48;
+    private static final int ENTRY = 5;
+
+    private float mTolerance;
+    private final float[] mPoint = new float[2];
+    private final float[] mD1 = new float[2];
+    private final float[] mD2 = new float[2];
+    private final float[] mSampleDist = new float[PROJECT_SAMPLES + 1];
+    private final float[] mPieceA = new float[8];
+    private final float[] mPieceB = new float[8];
+    private final float[] mStack = new float[(MAX_DEPTH + 2) * ENTRY];
+    private int mLastSegment;
+    private float mLastT;
+    private int mLastNodes;
+    private float mChordU;
+    private float mChordV;
+
+    public CurveQueries() {
+        mTolerance = DEFAULT_TOLERANCE;
+    }
+
+    /** Size in pixels below which intersecting pieces count as one point. */
+    public void setTolerance(float tolerance) {
+        if (!(tolerance > 0f)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        mTolerance = tolerance;
+    }
+
+    public float getTolerance() {
+        return mTolerance;
+    }
+
+    /** Segment of the last {@link #projectChain}. */
+    public int getLastSegment() {
+        return mLastSegment;
+    }
+
+    /** Parameter of the closest point found by the last projection. */
+    public float getLastT() {
+        return mLastT;
+    }
+
+    /** Subdivision pairs the last {@link #intersect} visited, at most {@link #MAX_NODES}. */
+    public int getLastNodeCount() {
+        return mLastNodes;
+    }
+
+    /**
+     * Closest point of the segment to (x, y), written to {@code out[0]}, {@code out[1]}.
+     *
+     * @return the distance to it
+     */
+    public float project(int degree, float[] pts, int off, float x, float y, float[] out) {
+        float step = 1f / PROJECT_SAMPLES;
+        for (int i = 0; i <= PROJECT_SAMPLES; i++) {
+            mSampleDist[i] = distanceSq(degree, pts, off, i * step, x, y);
+        }
+        float bestT = 0f, best = mSampleDist[0];
+        if (mSampleDist[PROJECT_SAMPLES] < best) {
+            bestT = 1f;
+            best = mSampleDist[PROJECT_SAMPLES];
+        }
+        int candidates = 0;
+        for (int i = 0; i <= PROJECT_SAMPLES && candidates < MAX_CANDIDATES; i++) {
+            boolean left = i == 0 || mSampleDist[i] <= mSampleDist[i - 1];
+            boolean right = i == PROJECT_SAMPLES || mSampleDist[i] <= mSampleDist[i + 1];
+            if (!left || !right) {
+                continue;
+            }
+            candidates++;
+            float t = refine(degree, pts, off, x, y, i * step,
+                    Math.max(0f, (i - 1) * step), Math.min(1f, (i + 1) * step));
+            float d = distanceSq(degree, pts, off, t, x, y);
+            if (d < best) {
+                best = d;
+                bestT = t;
+            }
+        }
+        Bezier.point(degree, pts, off, bestT, out, 0);
+        mLastT = bestT;
+        return (float) Math.sqrt(best);
+    }
+
+    public float distance(int degree, float[] pts, int off, float x, float y) {
+        return project(degree, pts, off, x, y, mPoint);
+    }
+
+    /**
+     * Closest point of a chain of segments sharing end points, segment {@code s}
+     * starting at {@code pts[s * degree * 2]}. Segments whose control point box is
+     * farther away than the best point so far are skipped. See {@link #getLastSegment}
+     * and {@link #getLastT}.
+     *
+     * @return the distance to the closest point, or infinity for an empty chain
+     */
+    public float projectChain(int degree, float[] pts, int segments, float x, float y, float[] out) {
+        float best = Float.POSITIVE_INFINITY;
+        int bestSegment = -1;
+        float bestT = 0f;
+        int stride = degree * 2;
+        for (int s = 0; s < segments; s++) {
+            int off = s * stride;
+            if (boxDistanceSq(pts, off, degree, x, y) >= best * best) {
+                continue;
+            }
+            float d = project(degree, pts, off, x, y, mPoint);
+            if (d < best) {
+                best = d;
+                bestSegment = s;
+                bestT = mLastT;
+                out[0] = mPoint[0];
+                out[1] = mPoint[1];
+            }
+        }
+        mLastSegment = bestSegment;
+        mLastT = bestT;
+        return best;
+    }
+
+    /**
+     * Intersections of two segments, written to {@code out} as pairs of parameters
+     * {@code (s, t)} with {@code A(s) == B(t)}. Pieces that keep overlapping, as when
+     * the segments coincide, are reported up to {@link #MAX_INTERSECTIONS}.
+     *
+     * @return the number of pairs written
+     */
+    public int intersect(int degreeA, float[] a, int offA, int degreeB, float[] b, int offB, float[] out) {
+        int sp = 0;
+        sp = push(sp, 0f, 1f, 0f, 1f, 0);
+        int found = 0;
+        int nodes = 0;
+        float tol = mTolerance;
+        while (sp > 0 && nodes < MAX_NODES && found < MAX_INTERSECTIONS) {
+            sp -= ENTRY;
+            float s0 = mStack[sp], s1 = mStack[sp + 1];
+            float t0 = mStack[sp + 2], t1 = mStack[sp + 3];
+            int depth = (int) mStack[sp + 4];
+            nodes++;
+            Bezier.subSegment(degreeA, a, offA, s0, s1, mPieceA, 0);
+            Bezier.subSegment(degreeB, b, offB, t0, t1, mPieceB, 0);
+            if (!boxesOverlap(mPieceA, degreeA, mPieceB, degreeB, tol)) {
+                continue;
+            }
+            if ((isFlat(mPieceA, degreeA, tol) && isFlat(mPieceB, degreeB, tol)) || depth >= MAX_DEPTH) {
+                /* both pieces are straight to within tolerance: intersect their chords */
+                if (chordsCross(mPieceA, degreeA, mPieceB, degreeB)) {
+                    found = addIntersection(degreeA, a, offA, degreeB, b, offB,
+                            s0 + mChordU * (s1 - s0), t0 + mChordV * (t1 - t0), out, found);
+                }
+                continue;
+            }
+            float sizeA = boxSize(mPieceA, degreeA), sizeB = boxSize(mPieceB, degreeB);
+            /* split the bigger piece; push the second half first so the first is visited first */
+            if (sizeA >= sizeB) {
+                float mid = (s0 + s1) / 2f;
+                sp = push(sp, mid, s1, t0, t1, depth + 1);
+                sp = push(sp, s0, mid, t0, t1, depth + 1);
+            }
+            else {
+                float mid = (t0 + t1) / 2f;
+                sp = push(sp, s0, s1, mid, t1, depth + 1);
+                sp = push(sp, s0, s1, t0, mid, depth + 1);
+            }
+        }
+        mLastNodes = nodes;
+        return found;
+    }
+
+    /* safeguarded Newton on f(t) = (B(t) - P) . B'(t) inside [lo, hi] */
+    private float refine(int degree, float[] pts, int off, float x, float y, float t, float lo, float hi) {
+        float best = distanceSq(degree, pts, off, t, x, y);
+        for (int i = 0; i < NEWTON_STEPS; i++) {
+            Bezier.point(degree, pts, off, t, mPoint, 0);
+            Bezier.derivative(degree, pts, off, t, mD1, 0);
+            Bezier.secondDerivative(degree, pts, off, t, mD2, 0);
+            float dx = mPoint[0] - x, dy = mPoint[1] - y;
+            float f = dx * mD1[0] + dy * mD1[1];
+            float fp = mD1[0] * mD1[0] + mD1[1] * mD1[1] + dx * mD2[0] + dy * mD2[1];
+            if (f > 0f) {
+                hi = t;
+            }
+            else {
+                lo = t;
+            }
+            float next = fp > 0f ? t - f / fp : Float.NaN;
+            if (!(next > lo && next < hi)) {
+                next = (lo + hi) / 2f;
+            }
+            float d = distanceSq(degree, pts, off, next, x, y);
+            if (d > best) {
+                next = (lo + hi) / 2f;
+                d = distanceSq(degree, pts, off, next, x, y);
+            }
+            boolean done = Math.abs(next - t) < 1e-6f;
+            if (d <= best) {
+                best = d;
+                t = next;
+            }
+            if (done || hi - lo < 1e-6f) {
+                break;
+            }
+        }
+        return t;
+    }
+
+    private int addIntersection(int degreeA, float[] a, int offA, int degreeB, float[] b, int offB,
+                                float s, float t, float[] out, int found) {
+        /* Newton on A(s) - B(t) = 0, kept only if it improves the subdivision estimate */
+        float bestS = s, bestT = t;
+        float best = gapSq(degreeA, a, offA, degreeB, b, offB, s, t);
+        for (int i = 0; i < 4; i++) {
+            Bezier.derivative(degreeA, a, offA, s, mD1, 0);
+            Bezier.derivative(degreeB, b, offB, t, mD2, 0);
+            Bezier.point(degreeA, a, offA, s, mPoint, 0);
+            float gx = mPoint[0], gy = mPoint[1];
+            Bezier.point(degreeB, b, offB, t, mPoint, 0);
+            gx -= mPoint[0];
+            gy -= mPoint[1];
+            /* solve [A' -B'] [ds dt]^T = -g */
+            float det = -mD1[0] * mD2[1] + mD1[1] * mD2[0];
+            if (Math.abs(det) < 1e-12f) {
+                break;
+            }
+            float ds = (gx * mD2[1] - gy * mD2[0]) / det;
+            float dt = (mD1[1] * gx - mD1[0] * gy) / det;
+            s = Math.max(0f, Math.min(1f, s + ds));
+            t = Math.max(0f, Math.min(1f, t + dt));
+            float gap = gapSq(degreeA, a, offA, degreeB, b, offB, s, t);
+            if (gap >= best) {
+                break;
+            }
+            best = gap;
+            bestS = s;
+            bestT = t;
+        }
+        float merge = 1e-3f;
+        for (int i = 0; i < found; i++) {
+            if (Math.abs(out[i * 2] - bestS) < merge && Math.abs(out[i * 2 + 1] - bestT) < merge) {
+                return found;
+            }
+        }
+        out[found * 2] = bestS;
+        out[found * 2 + 1] = bestT;
+        return found + 1;
+    }
+
+    private float gapSq(int degreeA, float[] a, int offA, int degreeB, float[] b, int offB, float s, float t) {
+        Bezier.point(degreeA, a, offA, s, mPoint, 0);
+        float x = mPoint[0], y = mPoint[1];
+        Bezier.point(degreeB, b, offB, t, mPoint, 0);
+        float dx = x - mPoint[0], dy = y - mPoint[1];
+        return dx * dx + dy * dy;
+    }
+
+    private int push(int sp, float s0, float s1, float t0, float t1, int depth) {
+        mStack[sp] = s0;
+        mStack[sp + 1] = s1;
+        mStack[sp + 2] = t0;
+        mStack[sp + 3] = t1;
+        mStack[sp + 4] = depth;
+        return sp + ENTRY;
+    }
+
+    private float distanceSq(int degree, float[] pts, int off, float t, float x, float y) {
+        Bezier.point(degree, pts, off, t, mPoint, 0);
+        float dx = mPoint[0] - x, dy = mPoint[1] - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static float boxDistanceSq(float[] pts, int off, int degree, float x, float y) {
+        float l = pts[off], r = l, t = pts[off + 1], b = t;
+        for (int i = 1; i <= degree; i++) {
+            float px = pts[off + i * 2], py = pts[off + i * 2 + 1];
+            l = Math.min(l, px);
+            r = Math.max(r, px);
+            t = Math.min(t, py);
+            b = Math.max(b, py);
+        }
+        float dx = Math.max(0f, Math.max(l - x, x - r));
+        float dy = Math.max(0f, Math.max(t - y, y - b));
+        return dx * dx + dy * dy;
+    }
+
+    /* every control point within tol of the chord */
+    private static boolean isFlat(float[] pts, int degree, float tol) {
+        float x0 = pts[0], y0 = pts[1];
+        float dx = pts[degree * 2] - x0, dy = pts[degree * 2 + 1] - y0;
+        float len2 = dx * dx + dy * dy;
+        for (int i = 1; i < degree; i++) {
+            float px = pts[i * 2] - x0, py = pts[i * 2 + 1] - y0;
+            float cross = px * dy - py * dx;
+            if (len2 < 1e-12f ? px * px + py * py > tol * tol : cross * cross > tol * tol * len2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* intersects the chords of two flat pieces, leaving the chord parameters in mChordU/V */
+    private boolean chordsCross(float[] a, int degreeA, float[] b, int degreeB) {
+        float ax = a[0], ay = a[1], adx = a[degreeA * 2] - ax, ady = a[degreeA * 2 + 1] - ay;
+        float bx = b[0], by = b[1], bdx = b[degreeB * 2] - bx, bdy = b[degreeB * 2 + 1] - by;
+        float det = adx * bdy - ady * bdx;
+        float slack = 1e-3f;
+        if (Math.abs(det) < 1e-9f) {
+            /* parallel or degenerate: the boxes overlap, so take the middles */
+            mChordU = 0.5f;
+            mChordV = 0.5f;
+            return true;
+        }
+        float ex = bx - ax, ey = by - ay;
+        float u = (ex * bdy - ey * bdx) / det;
+        float v = (ex * ady - ey * adx) / det;
+        if (u < -slack || u > 1f + slack || v < -slack || v > 1f + slack) {
+            return false;
+        }
+        mChordU = Math.max(0f, Math.min(1f, u));
+        mChordV = Math.max(0f, Math.min(1f, v));
+        return true;
+    }
+
+    private static float boxSize(float[] pts, int degree) {
+        float l = pts[0], r = l, t = pts[1], b = t;
+        for (int i = 1; i <= degree; i++) {
+            l = Math.min(l, pts[i * 2]);
+            r = Math.max(r, pts[i * 2]);
+            t = Math.min(t, pts[i * 2 + 1]);
+            b = Math.max(b, pts[i * 2 + 1]);
+        }
+        return Math.max(r - l, b - t);
+    }
+
+    private static boolean boxesOverlap(float[] a, int degreeA, float[] b, int degreeB, float slack) {
+        float al = a[0], ar = al, at = a[1], ab = at;
+        for (int i = 1; i <= degreeA; i++) {
+            al = Math.min(al, a[i * 2]);
+            ar = Math.max(ar, a[i * 2]);
+            at = Math.min(at, a[i * 2 + 1]);
+            ab = Math.max(ab, a[i * 2 + 1]);
+        }
+        float bl = b[0], br = bl, bt = b[1], bb = bt;
+        for (int i = 1; i <= degreeB; i++) {
+            bl = Math.min(bl, b[i * 2]);
+            br = Math.max(br, b[i * 2]);
+            bt = Math.min(bt, b[i * 2 + 1]);
+            bb = Math.max(bb, b[i * 2 + 1]);
+        }
+        return al <= br + slack && bl <= ar + slack && at <= bb + slack && bt <= ab + slack;
+    }
+}
@@ -0,0 +1,254 @@
+package com.rajasharan.bezier;
+
+/**
+ * Thousands of curves in a handful of primitive arrays.
+ *
+ * Every curve is a chain of cubic segments like {@link BezierSpline}, and all of
+ * their points share one pool of x,y pairs. Per curve the scene keeps the offset of
+ * its first point in the pool, its segment count, a style (an index into whatever
+ * paints the renderer keeps) and its tight bounds, each in a parallel array, so
+ * {@link #query} culls the whole scene with one linear pass over four float arrays
+ * and no objects are allocated per curve.
+ *
+ * Curves are numbered in the order they were added; {@link #remove} shifts the later
+ * ones down by one.
+ */
+public class CurveScene {
+    private float[] mPoints;
+    /* floats used in mPoints */
+    private int mPointEnd;
+    private int[] mOffsets;
+    private int[] mSegments;
+    private int[] mStyles;
+    private float[] mLeft;
+    private float[] mTop;
+    private float[] mRight;
+    private float[] mBottom;
+    private int mSize;
+    private final float[] mBox = new float[4];
+
+    public CurveScene() {
+        this(64);
+    }
+
+    public CurveScene(int capacity) {
+        capacity = Math.max(1, capacity);
+        mPoints = new float[capacity * 8];
+        mOffsets = new int[capacity];
+        mSegments = new int[capacity];
+        mStyles = new int[capacity];
+        mLeft = new float[capacity];
+        mTop = new float[capacity];
+        mRight = new float[capacity];
+        mBottom = new float[capacity];
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public void clear() {
+        mSize = 0;
+        mPointEnd = 0;
+    }
+
+    /**
+     * Adds a chain of {@code segments} cubics whose {@code 3 * segments + 1} points
+     * start at {@code pts[off]}. The points are copied.
+     *
+     * @return the index of the new curve
+     */
+    public int add(float[] pts, int off, int segments, int style) {
+        int curve = append(pts, off, segments, style);
+        updateBounds(curve);
+        return curve;
+    }
+
+    /**
+     * Like {@link #add(float[], int, int, int)} with bounds already known, e.g. read
+     * from a {@link CurveDocument}, instead of computing them.
+     */
+    public int add(float[] pts, int off, int segments, int style, float left, float top, float right, float bottom) {
+        int curve = append(pts, off, segments, style);
+        mLeft[curve] = left;
+        mTop[curve] = top;
+        mRight[curve] = right;
+        mBottom[curve] = bottom;
+        return curve;
+    }
+
+    public int addCubic(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3, int style) {
+        ensureCapacity(mSize + 1, mPointEnd + 8);
+        int curve = mSize++;
+        int k = mPointEnd;
+        mOffsets[curve] = k;
+        mSegments[curve] = 1;
+        mStyles[curve] = style;
+        mPoints[k] = x0;
+        mPoints[k + 1] = y0;
+        mPoints[k + 2] = x1;
+        mPoints[k + 3] = y1;
+        mPoints[k + 4] = x2;
+        mPoints[k + 5] = y2;
+        mPoints[k + 6] = x3;
+        mPoints[k + 7] = y3;
+        mPointEnd += 8;
+        updateBounds(curve);
+        return curve;
+    }
+
+    /** Replaces the points of a curve with the same number of points from {@code pts[off]}. */
+    public void setPoints(int curve, float[] pts, int off) {
+        checkIndex(curve);
+        System.arraycopy(pts, off, mPoints, mOffsets[curve], (mSegments[curve] * 3 + 1) * 2);
+        updateBounds(curve);
+    }
+
+    /** Moves one point of a curve, {@code index} counting points along its chain. */
+    public void setPoint(int curve, int index, float x, float y) {
+        checkIndex(curve);
+        if (index < 0 || index > mSegments[curve] * 3) {
+            throw new IndexOutOfBoundsException("index " + index + ", points " + (mSegments[curve] * 3 + 1));
+        }
+        int k = mOffsets[curve] + index * 2;
+        mPoints[k] = x;
+        mPoints[k + 1] = y;
+        updateBounds(curve);
+    }
+
+    public void setStyle(int curve, int style) {
+        checkIndex(curve);
+        mStyles[curve] = style;
+    }
+
+    /** Removes a curve; the curves after it move down by one index. */
+    public void remove(int curve) {
+        checkIndex(curve);
+        int start = mOffsets[curve];
+        int length = (mSegments[curve] * 3 + 1) * 2;
+        System.arraycopy(mPoints, start + length, mPoints, start, mPointEnd - start - length);
+        mPointEnd -= length;
+        int tail = mSize - curve - 1;
+        System.arraycopy(mOffsets, curve + 1, mOffsets, curve, tail);
+        System.arraycopy(mSegments, curve + 1, mSegments, curve, tail);
+        System.arraycopy(mStyles, curve + 1, mStyles, curve, tail);
+        System.arraycopy(mLeft, curve + 1, mLeft, curve, tail);
+        System.arraycopy(mTop, curve + 1, mTop, curve, tail);
+        System.arraycopy(mRight, curve + 1, mRight, curve, tail);
+        System.arraycopy(mBottom, curve + 1, mBottom, curve, tail);
+        mSize--;
+        for (int i = curve; i < mSize; i++) {
+            mOffsets[i] -= length;
+        }
+    }
+
+    /** The shared point pool; curve {@code c} starts at {@link #getOffset(int)}. */
+    public float[] getPoints() {
+        return mPoints;
+    }
+
+    public int getOffset(int curve) {
+        return mOffsets[curve];
+    }
+
+    public int getSegmentCount(int curve) {
+        return mSegments[curve];
+    }
+
+    public int getStyle(int curve) {
+        return mStyles[curve];
+    }
+
+    /** Tight bounds of a curve as left, top, right, bottom. */
+    public void getBounds(int curve, float[] out) {
+        out[0] = mLeft[curve];
+        out[1] = mTop[curve];
+        out[2] = mRight[curve];
+        out[3] = mBottom[curve];
+    }
+
+    /**
+     * Writes the indices of the curves whose bounds overlap the rectangle to
+     * {@code out}, in order, which must have room for {@link #size()} of them.
+     *
+     * @return the number of curves written
+     */
+    public int query(float left, float top, float right, float bottom, int[] out) {
+        int count = 0;
+        float[] l = mLeft, t = mTop, r = mRight, b = mBottom;
+        for (int i = 0; i < mSize; i++) {
+            if (l[i] <= right && r[i] >= left && t[i] <= bottom && b[i] >= top) {
+                out[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    private int append(float[] pts, int off, int segments, int style) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("segments must be at least 1: " + segments);
+        }
+        int length = (segments * 3 + 1) * 2;
+        ensureCapacity(mSize + 1, mPointEnd + length);
+        int curve = mSize++;
+        mOffsets[curve] = mPointEnd;
+        mSegments[curve] = segments;
+        mStyles[curve] = style;
+        System.arraycopy(pts, off, mPoints, mPointEnd, length);
+        mPointEnd += length;
+        return curve;
+    }
+
+    private void updateBounds(int curve) {
+        float l = Float.POSITIVE_INFINITY, t = Float.POSITIVE_INFINITY;
+        float r = Float.NEGATIVE_INFINITY, b = Float.NEGATIVE_INFINITY;
+        int off = mOffsets[curve];
+        for (int s = 0; s < mSegments[curve]; s++) {
+            Bezier.bounds(Bezier.CUBIC, mPoints, off + BezierSpline.segmentOffset(s), mBox, 0);
+            l = Math.min(l, mBox[0]);
+            t = Math.min(t, mBox[1]);
+            r = Math.max(r, mBox[2]);
+            b = Math.max(b, mBox[3]);
+        }
+        mLeft[curve] = l;
+        mTop[curve] = t;
+        mRight[curve] = r;
+        mBottom[curve] = b;
+    }
+
+    private void checkIndex(int curve) {
+        if (curve < 0 || curve >= mSize) {
+            throw new IndexOutOfBoundsException("curve " + curve + ", size " + mSize);
+        }
+    }
+
+    private void ensureCapacity(int curves, int floats) {
+        if (mPoints.length < floats) {
+            float[] points = new float[Math.max(floats, mPoints.length * 2)];
+            System.arraycopy(mPoints, 0, points, 0, mPointEnd);
+            mPoints = points;
+        }
+        if (mOffsets.length < curves) {
+            int capacity = Math.max(curves, mOffsets.length * 2);
+            mOffsets = grow(mOffsets, capacity);
+            mSegments = grow(mSegments, capacity);
+            mStyles = grow(mStyles, capacity);
+            mLeft = grow(mLeft, capacity);
+            mTop = grow(mTop, capacity);
+            mRight = grow(mRight, capacity);
+            mBottom = grow(mBottom, capacity);
+        }
+    }
+
+    private int[] grow(int[] array, int capacity) {
+        int[] grown = new int[capacity];
+        System.arraycopy(array, 0, grown, 0, mSize);
+        return grown;
+    }
+
+    private float[] grow(float[] array, int capacity) {
+        float[] grown = new float[capacity];
+        System.arraycopy(array, 0, grown, 0, mSize);
+        return grown;
+    }
+}
@@ -0,0 +1,310 @@
+package com.rajasharan.bezier;
+
+/**
+ * Turns line, quad and cubic segments into polylines whose maximum distance from
+ * the true curve stays within a pixel tolerance (up to a few percent over it in
+ * {@link Mode#PARABOLA}, whose integral is itself an approximation).
+ *
+ * The number of line segments is chosen per curve rather than with a fixed step:
+ * <ul>
+ *   <li>{@link Mode#CURVATURE} uses Wang's bound on the second differences of the
+ *   control polygon and spaces the samples uniformly in t.</li>
+ *   <li>{@link Mode#PARABOLA} maps each quad onto a parabola and spaces the samples
+ *   evenly along the integral of the square root of its curvature, which needs fewer
+ *   segments for the same tolerance. Cubics are first approximated by quads.</li>
+ *   <li>{@link Mode#FORWARD_DIFFERENCE} steps along the curve with adds only, halving
+ *   the step in bends and doubling it on flat stretches, see {@link ForwardDifferencer}.
+ *   No polynomial is evaluated per point, which suits dense output on slow devices.</li>
+ *   <li>{@link Mode#FIXED_POINT} is the same in 16.16 fixed point, for devices without
+ *   a fast FPU.</li>
+ * </ul>
+ * Output points are written to a caller supplied buffer as interleaved x,y pairs,
+ * start point included. A single instance is not thread safe but never allocates.
+ */
+public class Flattener {
+    public enum Mode {
+        CURVATURE,
+        PARABOLA,
+        FORWARD_DIFFERENCE,
+        FIXED_POINT
+    }
+
+    public static final float DEFAULT_TOLERANCE = 0.25f;
+    public static final int DEFAULT_MAX_SEGMENTS = 256;
+
+    /* share of the tolerance spent on approximating a cubic by quads */
+    private static final float QUAD_SHARE = 0.1f;
+    /* enough for a 0.1 px share on a cubic spanning several screens */
+    private static final int MAX_QUADS = 64;
+
+    private float mTolerance;
+    private Mode mMode;
+    private int mMaxSegments;
+    private int mLastSegmentCount;
+    private int mQuadCount;
+
+    private final float[] mQuads;
+    private final float[] mParams;
+    private final int[] mCounts;
+    private final float[] mScratch;
+    private final ForwardDifferencer mForward;
+
+    public Flattener() {
+        this(DEFAULT_TOLERANCE, Mode.PARABOLA);
+    }
+
+    public Flattener(float tolerance, Mode mode) {
+        setTolerance(tolerance);
+        mMode = mode;
+        mMaxSegments = DEFAULT_MAX_SEGMENTS;
+        mQuads = new float[MAX_QUADS * 6];
+        mParams = new float[MAX_QUADS * 4];
+        mCounts = new int[MAX_QUADS];
+        mScratch = new float[4];
+        mForward = new ForwardDifferencer();
+    }
+
+    public void setTolerance(float tolerance) {
+        if (!(tolerance > 0f)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        mTolerance = tolerance;
+    }
+
+    public float getTolerance() {
+        return mTolerance;
+    }
+
+    public void setMode(Mode mode) {
+        mMode = mode;
+    }
+
+    public Mode getMode() {
+        return mMode;
+    }
+
+    /** Upper bound on line segments emitted for a single curve, to cap vertex load. */
+    public void setMaxSegments(int maxSegments) {
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be at least 1: " + maxSegments);
+        }
+        mMaxSegments = maxSegments;
+    }
+
+    public int getMaxSegments() {
+        return mMaxSegments;
+    }
+
+    /** Number of line segments produced by the last call to {@link #flatten}. */
+    public int getLastSegmentCount() {
+        return mLastSegmentCount;
+    }
+
+    /** Size of a buffer that can hold the output of any single {@link #flatten} call. */
+    public int requiredCapacity() {
+        return (mMaxSegments + 1) * 2;
+    }
+
+    /** Number of line segments {@link #flatten} would emit for this curve. */
+    public int segmentCount(int degree, float[] pts, int off) {
+        if (degree == Bezier.LINEAR) {
+            return 1;
+        }
+        if (mMode == Mode.CURVATURE) {
+            return wangCount(degree, pts, off);
+        }
+        if (mMode == Mode.FORWARD_DIFFERENCE || mMode == Mode.FIXED_POINT) {
+            return mForward.flatten(mMode == Mode.FIXED_POINT, mTolerance, mMaxSegments, degree, pts, off, null, 0);
+        }
+        return degree == Bezier.QUADRATIC ? parabolaQuad(pts, off, 0, mTolerance) : parabolaCubic(pts, off);
+    }
+
+    /**
+     * Flattens the curve into {@code out} starting at {@code outOff}.
+     *
+     * @return the number of points written, which is the segment count plus one
+     */
+    public int flatten(int degree, float[] pts, int off, float[] out, int outOff) {
+        if (degree == Bezier.LINEAR) {
+            out[outOff] = pts[off];
+            out[outOff + 1] = pts[off + 1];
+            out[outOff + 2] = pts[off + 2];
+            out[outOff + 3] = pts[off + 3];
+            mLastSegmentCount = 1;
+            return 2;
+        }
+        out[outOff] = pts[off];
+        out[outOff + 1] = pts[off + 1];
+        int written = 1;
+        if (mMode == Mode.CURVATURE) {
+            int n = wangCount(degree, pts, off);
+            for (int i = 1; i <= n; i++) {
+                Bezier.point(degree, pts, off, i / (float) n, out, outOff + written * 2);
+                written++;
+            }
+        }
+        else if (mMode == Mode.FORWARD_DIFFERENCE || mMode == Mode.FIXED_POINT) {
+            written += mForward.flatten(mMode == Mode.FIXED_POINT, mTolerance, mMaxSegments, degree, pts, off,
+                    out, outOff + 2);
+        }
+        else if (degree == Bezier.QUADRATIC) {
+            parabolaQuad(pts, off, 0, mTolerance);
+            written += emitQuad(pts, off, 0, out, outOff + written * 2);
+        }
+        else {
+            parabolaCubic(pts, off);
+            for (int q = 0; q < mQuadCount; q++) {
+                written += emitQuad(mQuads, q * 6, q, out, outOff + written * 2);
+            }
+        }
+        mLastSegmentCount = written - 1;
+        return written;
+    }
+
+    /* Wang's formula: n = sqrt(d(d-1)/8 * max|second difference| / tolerance) */
+    private int wangCount(int degree, float[] pts, int off) {
+        float m = 0f;
+        for (int i = 0; i + 2 <= degree; i++) {
+            int k = off + i * 2;
+            float dx = pts[k] - 2f * pts[k + 2] + pts[k + 4];
+            float dy = pts[k + 1] - 2f * pts[k + 3] + pts[k + 5];
+            m = Math.max(m, dx * dx + dy * dy);
+        }
+        float n = (float) Math.ceil(Math.sqrt(degree * (degree - 1) / 8f * Math.sqrt(m) / mTolerance));
+        return clamp((int) n, 1, mMaxSegments);
+    }
+
+    /* Splits the cubic into quads in mQuads and returns the total segment count. */
+    private int parabolaCubic(float[] pts, int off) {
+        float dx = pts[off + 6] - 3f * pts[off + 4] + 3f * pts[off + 2] - pts[off];
+        float dy = pts[off + 7] - 3f * pts[off + 5] + 3f * pts[off + 3] - pts[off + 1];
+        float err = (float) Math.sqrt(dx * dx + dy * dy) * 0.048112522f; // sqrt(3)/36
+        int quads = (int) Math.ceil(Math.cbrt(err / (mTolerance * QUAD_SHARE)));
+        quads = clamp(quads, 1, Math.min(MAX_QUADS, mMaxSegments));
+        mQuadCount = quads;
+
+        float[] q = mQuads;
+        /* the parabolas get whatever the quads left, which is more than the share unless capped */
+        float quadError = err / (quads * quads * quads);
+        float quadTolerance = Math.max(mTolerance - quadError, mTolerance * QUAD_SHARE);
+        int total = 0;
+        for (int i = 0; i < quads; i++) {
+            float t0 = i / (float) quads;
+            float t1 = (i + 1) / (float) quads;
+            int k = i * 6;
+            // the quad's control point is the average of the extrapolated cubic tangents
+            Bezier.blossom(Bezier.CUBIC, pts, off, t0, t0, t0, q, k);
+            Bezier.blossom(Bezier.CUBIC, pts, off, t1, t1, t1, q, k + 4);
+            Bezier.blossom(Bezier.CUBIC, pts, off, t0, t0, t1, mScratch, 0);
+            Bezier.blossom(Bezier.CUBIC, pts, off, t0, t1, t1, mScratch, 2);
+            q[k + 2] = (3f * (mScratch[0] + mScratch[2]) - q[k] - q[k + 4]) * 0.25f;
+            q[k + 3] = (3f * (mScratch[1] + mScratch[3]) - q[k + 1] - q[k + 5]) * 0.25f;
+            if (i == quads - 1) {
+                q[k + 4] = pts[off + 6];
+                q[k + 5] = pts[off + 7];
+            }
+            total += parabolaQuad(q, k, i, quadTolerance);
+        }
+        if (total > mMaxSegments) {
+            int scaled = 0;
+            for (int i = 0; i < quads; i++) {
+                mCounts[i] = Math.max(1, mCounts[i] * mMaxSegments / total);
+                scaled += mCounts[i];
+            }
+            for (int i = 0; scaled > mMaxSegments; i = (i + 1) % quads) {
+                if (mCounts[i] > 1) {
+                    mCounts[i]--;
+                    scaled--;
+                }
+            }
+            total = scaled;
+        }
+        return total;
+    }
+
+    /*
+     * Maps the quad onto the parabola y = x^2 and stores the integral bounds used by
+     * emitQuad in mParams[slot]. Returns the segment count, also kept in mCounts[slot].
+     */
+    private int parabolaQuad(float[] pts, int off, int slot, float tolerance) {
+        float x0 = pts[off], y0 = pts[off + 1];
+        float x1 = pts[off + 2], y1 = pts[off + 3];
+        float x2 = pts[off + 4], y2 = pts[off + 5];
+        float ddx = 2f * x1 - x0 - x2;
+        float ddy = 2f * y1 - y0 - y2;
+        float u0 = (x1 - x0) * ddx + (y1 - y0) * ddy;
+        float u2 = (x2 - x1) * ddx + (y2 - y1) * ddy;
+        float cross = (x2 - x0) * ddy - (y2 - y0) * ddx;
+        float px0 = u0 / cross;
+        float px2 = u2 / cross;
+        float scale = Math.abs(cross) / ((float) Math.hypot(ddx, ddy) * Math.abs(px2 - px0));
+
+        int p = slot * 4;
+        int n;
+        if (Float.isInfinite(scale) || Float.isNaN(scale) || Math.abs(cross) < 1e-6f) {
+            // straight or folded back onto itself: fall back to uniform steps
+            n = wangCount(Bezier.QUADRATIC, pts, off);
+            mParams[p] = Float.NaN;
+        }
+        else {
+            float a0 = integral(px0);
+            float a2 = integral(px2);
+            float sqrtTol = (float) Math.sqrt(tolerance);
+            float sqrtScale = (float) Math.sqrt(scale);
+            float val;
+            if (Math.signum(px0) == Math.signum(px2)) {
+                val = Math.abs(a2 - a0) * sqrtScale;
+            }
+            else {
+                // the segment contains the curvature maximum (cusp-like)
+                float xmin = sqrtTol / sqrtScale;
+                val = sqrtTol * Math.abs(a2 - a0) / integral(xmin);
+            }
+            n = clamp((int) Math.ceil(0.5f * val / sqrtTol), 1, mMaxSegments);
+            float iu0 = inverseIntegral(a0);
+            float iu2 = inverseIntegral(a2);
+            mParams[p] = a0;
+            mParams[p + 1] = a2;
+            mParams[p + 2] = iu0;
+            mParams[p + 3] = 1f / (iu2 - iu0);
+        }
+        mCounts[slot] = n;
+        return n;
+    }
+
+    /* Writes mCounts[slot] points of the quad, excluding its start point. */
+    private int emitQuad(float[] pts, int off, int slot, float[] out, int outOff) {
+        int n = mCounts[slot];
+        int p = slot * 4;
+        boolean uniform = Float.isNaN(mParams[p]);
+        float a0 = mParams[p], a2 = mParams[p + 1], iu0 = mParams[p + 2], uscale = mParams[p + 3];
+        for (int i = 1; i < n; i++) {
+            float t;
+            if (uniform) {
+                t = i / (float) n;
+            }
+            else {
+                t = (inverseIntegral(a0 + (a2 - a0) * i / n) - iu0) * uscale;
+            }
+            Bezier.point(Bezier.QUADRATIC, pts, off, t, out, outOff + (i - 1) * 2);
+        }
+        out[outOff + (n - 1) * 2] = pts[off + 4];
+        out[outOff + (n - 1) * 2 + 1] = pts[off + 5];
+        return n;
+    }
+
+    /* approximation of the integral of (1 + 4x^2)^-0.25 */
+    private static float integral(float x) {
+        final float d = 0.67f;
+        return x / (1f - d + (float) Math.sqrt(Math.sqrt(d * d * d * d + 0.25f * x * x)));
+    }
+
+    private static float inverseIntegral(float x) {
+        final float b = 0.39f;
+        return x * (1f - b + (float) Math.sqrt(b * b + 0.25f * x * x));
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return v < min ? min : (v > max ? max : v);
+    }
+}
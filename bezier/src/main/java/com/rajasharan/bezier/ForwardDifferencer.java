@@ -0,0 +1,224 @@
+package com.rajasharan.bezier;
+
+/**
+ * Adaptive forward differencing of quads and cubics, behind
+ * {@link Flattener.Mode#FORWARD_DIFFERENCE} and {@link Flattener.Mode#FIXED_POINT}.
+ *
+ * After setup the curve is stepped with three adds per coordinate: the point, then
+ * its first and second differences, are advanced by the next higher difference. The
+ * step size is a power of two fraction of the curve. Before each step it is halved
+ * while the chord of the step could stray more than the tolerance from the curve,
+ * and doubled while twice the step would still stay within it, so flat stretches take
+ * long steps and bends short ones. Both only scale the differences, which in fixed
+ * point are shifts.
+ *
+ * The fixed point variant keeps everything in 16.16 ints. Rounding errors pile up
+ * with the cube of the steps taken, so every {@link #ANCHOR_STEPS} steps it takes the
+ * point and differences afresh from the polynomial. Curves with a coordinate beyond
+ * {@link #FIXED_LIMIT} px would overflow and are stepped in floats instead.
+ */
+class ForwardDifferencer {
+    static final int FIXED_SHIFT = 16;
+    static final float FIXED_LIMIT = 8192f;
+    static final int ANCHOR_STEPS = 16;
+
+    private static final float FIXED_ONE = 1 << FIXED_SHIFT;
+    /* the whole curve in steps of the finest size is at most 2^MAX_BITS steps */
+    private static final int MAX_BITS = 16;
+
+    /* power basis a t^3 + b t^2 + c t + d of the curve */
+    private double mAx, mBx, mCx, mDx;
+    private double mAy, mBy, mCy, mDy;
+    private float mEndX, mEndY;
+
+    /* fixed point state filled by anchor() */
+    private int mFx, mD1x, mD2x, mD3x;
+    private int mFy, mD1y, mD2y, mD3y;
+
+    /**
+     * Writes the points of the curve after its start point to {@code out} from
+     * {@code outOff}, or only counts them if {@code out} is null.
+     *
+     * @return the number of points, which is also the number of line segments
+     */
+    int flatten(boolean fixed, float tolerance, int maxSegments, int degree, float[] pts, int off,
+                float[] out, int outOff) {
+        setCurve(degree, pts, off);
+        int bits = 0;
+        while (bits < MAX_BITS && 2 << bits <= maxSegments) {
+            bits++;
+        }
+        if (fixed && fitsFixed(degree, pts, off)) {
+            return stepFixed(tolerance, bits, out, outOff);
+        }
+        return stepFloat(tolerance, bits, out, outOff);
+    }
+
+    private void setCurve(int degree, float[] pts, int off) {
+        double x0 = pts[off], y0 = pts[off + 1];
+        double x1 = pts[off + 2], y1 = pts[off + 3];
+        double x2 = pts[off + 4], y2 = pts[off + 5];
+        if (degree == Bezier.QUADRATIC) {
+            mAx = 0;
+            mAy = 0;
+            mBx = x0 - 2 * x1 + x2;
+            mBy = y0 - 2 * y1 + y2;
+        }
+        else {
+            double x3 = pts[off + 6], y3 = pts[off + 7];
+            mAx = x3 - 3 * x2 + 3 * x1 - x0;
+            mAy = y3 - 3 * y2 + 3 * y1 - y0;
+            mBx = 3 * (x0 - 2 * x1 + x2);
+            mBy = 3 * (y0 - 2 * y1 + y2);
+        }
+        mCx = degree * (x1 - x0);
+        mCy = degree * (y1 - y0);
+        mDx = x0;
+        mDy = y0;
+        mEndX = pts[off + degree * 2];
+        mEndY = pts[off + degree * 2 + 1];
+    }
+
+    private int stepFloat(float tolerance, int bits, float[] out, int outOff) {
+        int total = 1 << bits;
+        float limit = 8f * tolerance;
+        float fx = (float) mDx, fy = (float) mDy;
+        float d3x = (float) (6 * mAx), d3y = (float) (6 * mAy);
+        float d2x = (float) (2 * mBx) + d3x, d2y = (float) (2 * mBy) + d3y;
+        float d1x = (float) (mAx + mBx + mCx), d1y = (float) (mAy + mBy + mCy);
+        int step = total;
+        int written = 0;
+        for (int t = 0; t < total; t += step) {
+            /* the chord of a step strays at most max|f''| h^2 / 8, and f'' h^2 runs from d2 - d3 to d2 */
+            while (step < total && (t & (step * 2 - 1)) == 0
+                    && 4f * (Math.abs(d2x) + Math.abs(d3x) + Math.abs(d2y) + Math.abs(d3y)) <= limit) {
+                d1x = 2f * d1x + d2x;
+                d1y = 2f * d1y + d2y;
+                d2x = 4f * (d2x + d3x);
+                d2y = 4f * (d2y + d3y);
+                d3x *= 8f;
+                d3y *= 8f;
+                step <<= 1;
+            }
+            while (step > 1 && Math.max(Math.abs(d2x - d3x), Math.abs(d2x))
+                    + Math.max(Math.abs(d2y - d3y), Math.abs(d2y)) > limit) {
+                d3x *= 0.125f;
+                d3y *= 0.125f;
+                d2x = 0.25f * d2x - d3x;
+                d2y = 0.25f * d2y - d3y;
+                /* d1 / 2 - d2 / 8 + d3 / 16 in terms of the halved differences */
+                d1x = 0.5f * (d1x - d2x);
+                d1y = 0.5f * (d1y - d2y);
+                step >>= 1;
+            }
+            fx += d1x;
+            fy += d1y;
+            d1x += d2x;
+            d1y += d2y;
+            d2x += d3x;
+            d2y += d3y;
+            if (out != null) {
+                int k = outOff + written * 2;
+                out[k] = t + step == total ? mEndX : fx;
+                out[k + 1] = t + step == total ? mEndY : fy;
+            }
+            written++;
+        }
+        return written;
+    }
+
+    private int stepFixed(float tolerance, int bits, float[] out, int outOff) {
+        int total = 1 << bits;
+        int limit = (int) Math.min(8f * tolerance * FIXED_ONE, Integer.MAX_VALUE / 4);
+        int step = total;
+        /* start from the longest step that is flat enough, found in doubles */
+        while (step > 1 && !flatEnough(0, step, total, limit / FIXED_ONE)) {
+            step >>= 1;
+        }
+        anchor(0, step, total);
+        int fx = mFx, d1x = mD1x, d2x = mD2x, d3x = mD3x;
+        int fy = mFy, d1y = mD1y, d2y = mD2y, d3y = mD3y;
+        int written = 0;
+        int sinceAnchor = 0;
+        for (int t = 0; t < total; t += step) {
+            if (sinceAnchor == ANCHOR_STEPS) {
+                anchor(t, step, total);
+                fx = mFx; d1x = mD1x; d2x = mD2x; d3x = mD3x;
+                fy = mFy; d1y = mD1y; d2y = mD2y; d3y = mD3y;
+                sinceAnchor = 0;
+            }
+            while (step < total && (t & (step * 2 - 1)) == 0
+                    && Math.abs(d2x) + Math.abs(d3x) + Math.abs(d2y) + Math.abs(d3y) <= limit >> 2) {
+                d1x = (d1x << 1) + d2x;
+                d1y = (d1y << 1) + d2y;
+                d2x = (d2x + d3x) << 2;
+                d2y = (d2y + d3y) << 2;
+                d3x <<= 3;
+                d3y <<= 3;
+                step <<= 1;
+            }
+            while (step > 1 && Math.max(Math.abs(d2x - d3x), Math.abs(d2x))
+                    + Math.max(Math.abs(d2y - d3y), Math.abs(d2y)) > limit) {
+                d3x >>= 3;
+                d3y >>= 3;
+                d2x = (d2x >> 2) - d3x;
+                d2y = (d2y >> 2) - d3y;
+                d1x = (d1x - d2x) >> 1;
+                d1y = (d1y - d2y) >> 1;
+                step >>= 1;
+            }
+            fx += d1x;
+            fy += d1y;
+            d1x += d2x;
+            d1y += d2y;
+            d2x += d3x;
+            d2y += d3y;
+            sinceAnchor++;
+            if (out != null) {
+                int k = outOff + written * 2;
+                out[k] = t + step == total ? mEndX : fx / FIXED_ONE;
+                out[k + 1] = t + step == total ? mEndY : fy / FIXED_ONE;
+            }
+            written++;
+        }
+        return written;
+    }
+
+    /* same test as the halving loop, on the exact differences at t */
+    private boolean flatEnough(int t, int step, int total, float limit) {
+        double u = t / (double) total, h = step / (double) total;
+        double d3x = 6 * mAx * h * h * h, d3y = 6 * mAy * h * h * h;
+        double d2x = (6 * mAx * u + 2 * mBx) * h * h + d3x;
+        double d2y = (6 * mAy * u + 2 * mBy) * h * h + d3y;
+        return Math.max(Math.abs(d2x - d3x), Math.abs(d2x)) + Math.max(Math.abs(d2y - d3y), Math.abs(d2y)) <= limit;
+    }
+
+    /* sets the fixed point state to the exact point and differences at t for this step */
+    private void anchor(int t, int step, int total) {
+        double u = t / (double) total, h = step / (double) total;
+        double u2 = u * u, h2 = h * h, h3 = h2 * h;
+        mFx = fixed(((mAx * u + mBx) * u + mCx) * u + mDx);
+        mFy = fixed(((mAy * u + mBy) * u + mCy) * u + mDy);
+        double p1 = 3 * u2 * h + 3 * u * h2 + h3, q1 = 2 * u * h + h2;
+        mD1x = fixed(mAx * p1 + mBx * q1 + mCx * h);
+        mD1y = fixed(mAy * p1 + mBy * q1 + mCy * h);
+        double p2 = 6 * u * h2 + 6 * h3;
+        mD2x = fixed(mAx * p2 + 2 * mBx * h2);
+        mD2y = fixed(mAy * p2 + 2 * mBy * h2);
+        mD3x = fixed(6 * mAx * h3);
+        mD3y = fixed(6 * mAy * h3);
+    }
+
+    private static int fixed(double v) {
+        return (int) Math.round(v * FIXED_ONE);
+    }
+
+    private static boolean fitsFixed(int degree, float[] pts, int off) {
+        for (int i = 0; i <= degree * 2 + 1; i++) {
+            if (!(Math.abs(pts[off + i]) < FIXED_LIMIT)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
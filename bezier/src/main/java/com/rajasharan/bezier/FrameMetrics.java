@@ -0,0 +1,256 @@
+package com.rajasharan.bezier;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free recorder of rendering costs: draw durations, input-to-draw latencies,
+ * invalidations, flattened segments and dropped touch samples.
+ *
+ * Durations go into log-linear histograms of microseconds with 8 buckets per power
+ * of two, so every bucket is within 12.5% of the values it holds. Recording is a
+ * couple of atomic increments and never allocates or blocks, so it can run on the
+ * UI thread in release builds; {@link #snapshot} may be taken from any thread.
+ * A snapshot taken while frames are being recorded may be off by the frames in
+ * flight.
+ */
+public class FrameMetrics {
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+    /* covers up to 2^31 us, about 35 minutes */
+    private static final int BUCKETS = (31 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray mDraw = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray mLatency = new AtomicLongArray(BUCKETS);
+    private final AtomicLong mDrawMax = new AtomicLong();
+    private final AtomicLong mLatencyMax = new AtomicLong();
+    private final AtomicLong mFrames = new AtomicLong();
+    private final AtomicLong mInvalidations = new AtomicLong();
+    private final AtomicLong mSegments = new AtomicLong();
+    private final AtomicLong mDroppedSamples = new AtomicLong();
+    private final AtomicLong mStartNanos = new AtomicLong(System.nanoTime());
+
+    public void recordDraw(long durationNanos) {
+        mFrames.incrementAndGet();
+        mDraw.incrementAndGet(bucketOf(durationNanos / 1000));
+        updateMax(mDrawMax, durationNanos);
+    }
+
+    public void recordInputLatency(long latencyNanos) {
+        mLatency.incrementAndGet(bucketOf(latencyNanos / 1000));
+        updateMax(mLatencyMax, latencyNanos);
+    }
+
+    public void recordInvalidation() {
+        mInvalidations.incrementAndGet();
+    }
+
+    /** Curve segments flattened into lines, not the lines drawn from them. */
+    public void recordSegments(int count) {
+        mSegments.addAndGet(count);
+    }
+
+    /** Touch samples overwritten before the model saw them, see {@link TouchSampleBuffer#getDroppedCount}. */
+    public void recordDroppedSamples(int count) {
+        mDroppedSamples.addAndGet(count);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            mDraw.set(i, 0);
+            mLatency.set(i, 0);
+        }
+        mDrawMax.set(0);
+        mLatencyMax.set(0);
+        mFrames.set(0);
+        mInvalidations.set(0);
+        mSegments.set(0);
+        mDroppedSamples.set(0);
+        mStartNanos.set(System.nanoTime());
+    }
+
+    public Snapshot snapshot() {
+        long[] draw = new long[BUCKETS];
+        long[] latency = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            draw[i] = mDraw.get(i);
+            latency[i] = mLatency.get(i);
+        }
+        return new Snapshot(draw, latency, mDrawMax.get(), mLatencyMax.get(), mFrames.get(),
+                mInvalidations.get(), mSegments.get(), mDroppedSamples.get(), System.nanoTime() - mStartNanos.get());
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, (exp - SUB_BITS + 1) * SUB_BUCKETS + sub);
+    }
+
+    /* smallest value, in microseconds, that falls into the bucket */
+    static long bucketFloor(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exp = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exp - SUB_BITS);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /** Immutable copy of the counters at one point in time. */
+    public static class Snapshot {
+        private final long[] mDraw;
+        private final long[] mLatency;
+        private final long mDrawMax;
+        private final long mLatencyMax;
+        private final long mFrames;
+        private final long mInvalidations;
+        private final long mSegments;
+        private final long mDroppedSamples;
+        private final long mElapsedNanos;
+
+        Snapshot(long[] draw, long[] latency, long drawMax, long latencyMax, long frames,
+                 long invalidations, long segments, long droppedSamples, long elapsedNanos) {
+            mDraw = draw;
+            mLatency = latency;
+            mDrawMax = drawMax;
+            mLatencyMax = latencyMax;
+            mFrames = frames;
+            mInvalidations = invalidations;
+            mSegments = segments;
+            mDroppedSamples = droppedSamples;
+            mElapsedNanos = elapsedNanos;
+        }
+
+        public long getFrameCount() {
+            return mFrames;
+        }
+
+        public long getInvalidationCount() {
+            return mInvalidations;
+        }
+
+        public long getSegmentCount() {
+            return mSegments;
+        }
+
+        public long getDroppedSampleCount() {
+            return mDroppedSamples;
+        }
+
+        public long getElapsedNanos() {
+            return mElapsedNanos;
+        }
+
+        public float getInvalidationsPerSecond() {
+            return mElapsedNanos > 0 ? mInvalidations * 1e9f / mElapsedNanos : 0f;
+        }
+
+        public float getSegmentsPerFrame() {
+            return mFrames > 0 ? mSegments / (float) mFrames : 0f;
+        }
+
+        /** Draw duration at quantile {@code q} in [0, 1], to within 12.5%. */
+        public long getDrawNanos(float q) {
+            return quantile(mDraw, q, mDrawMax);
+        }
+
+        public long getInputLatencyNanos(float q) {
+            return quantile(mLatency, q, mLatencyMax);
+        }
+
+        /**
+         * Draws that may have taken longer than {@code budgetNanos}, e.g. 16.7 ms at
+         * 60 Hz. An upper bound: the bucket holding the budget counts in full, so draws
+         * up to 12.5% under the budget can be included, but no draw over it is missed.
+         */
+        public long getFramesOver(long budgetNanos) {
+            if (mDrawMax <= budgetNanos) {
+                return 0;
+            }
+            long count = 0;
+            for (int i = 0; i < mDraw.length; i++) {
+                /* durations are recorded in whole microseconds, so a bucket ends 1 ns before the next floor */
+                if (i == mDraw.length - 1 || bucketFloor(i + 1) * 1000 - 1 > budgetNanos) {
+                    count += mDraw[i];
+                }
+            }
+            return count;
+        }
+
+        /**
+         * The snapshot as a single line of JSON: totals, rates, quantiles in microseconds
+         * and the non-empty buckets as {@code [floorMicros, count]} pairs.
+         */
+        public String export() {
+            StringBuilder sb = new StringBuilder(512);
+            sb.append("{\"elapsedMs\":").append(mElapsedNanos / 1000000)
+                    .append(",\"frames\":").append(mFrames)
+                    .append(",\"invalidations\":").append(mInvalidations)
+                    .append(",\"invalidationsPerSecond\":").append(getInvalidationsPerSecond())
+                    .append(",\"segments\":").append(mSegments)
+                    .append(",\"droppedSamples\":").append(mDroppedSamples)
+                    .append(",\"draw\":");
+            appendHistogram(sb, mDraw, mDrawMax);
+            sb.append(",\"inputLatency\":");
+            appendHistogram(sb, mLatency, mLatencyMax);
+            return sb.append('}').toString();
+        }
+
+        @Override
+        public String toString() {
+            return export();
+        }
+
+        private static void appendHistogram(StringBuilder sb, long[] buckets, long max) {
+            sb.append("{\"p50Us\":").append(quantile(buckets, 0.5f, max) / 1000)
+                    .append(",\"p90Us\":").append(quantile(buckets, 0.9f, max) / 1000)
+                    .append(",\"p99Us\":").append(quantile(buckets, 0.99f, max) / 1000)
+                    .append(",\"maxUs\":").append(max / 1000)
+                    .append(",\"buckets\":[");
+            boolean first = true;
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] == 0) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append('[').append(bucketFloor(i)).append(',').append(buckets[i]).append(']');
+            }
+            sb.append("]}");
+        }
+
+        private static long quantile(long[] buckets, float q, long max) {
+            long total = 0;
+            for (long count : buckets) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.max(0f, Math.min(1f, q)) * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, rank)) {
+                    /* report the middle of the bucket, but never more than the largest value seen */
+                    long floor = bucketFloor(i) * 1000;
+                    long ceiling = (i + 1 < buckets.length ? bucketFloor(i + 1) : bucketFloor(i) * 2) * 1000;
+                    return Math.min(max, (floor + ceiling) / 2);
+                }
+            }
+            return max;
+        }
+    }
+}
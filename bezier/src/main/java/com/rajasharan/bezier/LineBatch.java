@@ -0,0 +1,71 @@
+package com.rajasharan.bezier;
+
+/**
+ * A growing buffer of line segments, x0,y0,x1,y1 quadruples, that many curves are
+ * flattened into so they can be drawn with a single {@code Canvas.drawLines} call.
+ */
+public class LineBatch {
+    private float[] mLines;
+    private int mLineCount;
+    private float[] mPolyline;
+
+    public LineBatch() {
+        this(256);
+    }
+
+    public LineBatch(int lineCapacity) {
+        mLines = new float[Math.max(1, lineCapacity) * 4];
+        mPolyline = new float[0];
+    }
+
+    public void clear() {
+        mLineCount = 0;
+    }
+
+    public float[] getLines() {
+        return mLines;
+    }
+
+    public int getLineCount() {
+        return mLineCount;
+    }
+
+    /** Flattens one segment with {@code flattener} and appends its lines. */
+    public void append(Flattener flattener, int degree, float[] pts, int off) {
+        if (mPolyline.length < flattener.requiredCapacity()) {
+            mPolyline = new float[flattener.requiredCapacity()];
+        }
+        int count = flattener.flatten(degree, pts, off, mPolyline, 0);
+        if (count < 2) {
+            return;
+        }
+        ensureCapacity(mLineCount + count - 1);
+        float[] lines = mLines;
+        int k = mLineCount * 4;
+        for (int i = 1; i < count; i++) {
+            lines[k] = mPolyline[i * 2 - 2];
+            lines[k + 1] = mPolyline[i * 2 - 1];
+            lines[k + 2] = mPolyline[i * 2];
+            lines[k + 3] = mPolyline[i * 2 + 1];
+            k += 4;
+        }
+        mLineCount += count - 1;
+    }
+
+    /** Appends every segment of curve {@code curve} of the scene. */
+    public void append(Flattener flattener, CurveScene scene, int curve) {
+        float[] pts = scene.getPoints();
+        int off = scene.getOffset(curve);
+        for (int s = 0; s < scene.getSegmentCount(curve); s++) {
+            append(flattener, Bezier.CUBIC, pts, off + BezierSpline.segmentOffset(s));
+        }
+    }
+
+    private void ensureCapacity(int lines) {
+        if (mLines.length < lines * 4) {
+            float[] grown = new float[Math.max(lines * 4, mLines.length * 2)];
+            System.arraycopy(mLines, 0, grown, 0, mLineCount * 4);
+            mLines = grown;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.rajasharan.bezier;
+
+/**
+ * Uniform grid over points keyed by a small integer id, for hit testing.
+ *
+ * Each point sits in the square cell containing it, and the points of a cell form
+ * an intrusive doubly linked list through {@code mNext}/{@code mPrev}. Cells are
+ * found through an open addressing table keyed on the packed cell coordinates, so
+ * the plane is unbounded and only occupied cells cost memory. A cell gives its slot
+ * back as soon as its last point leaves, so the table only grows with the number of
+ * occupied cells, and dragging a point across the plane never allocates. Moving a
+ * point within its cell only updates its coordinates; crossing into another cell
+ * unlinks and relinks it, both O(1).
+ *
+ * {@link #nearest} visits the cells overlapping the search circle, which is a 3x3
+ * block when the radius is at most the cell size, so lookups are O(1) for evenly
+ * spread points however many there are.
+ */
+public class PointGrid {
+    private static final int NONE = -1;
+    /* heads of table slots holding no cell */
+    private static final int UNUSED = -2;
+
+    private final float mCellSize;
+    private final float mInvCellSize;
+    private final float[] mXs;
+    private final float[] mYs;
+    private final long[] mCellOf;
+    private final int[] mNext;
+    private final int[] mPrev;
+    private final boolean[] mPresent;
+    private long[] mKeys;
+    private int[] mHeads;
+    private int mUsedSlots;
+    private int mSize;
+
+    public PointGrid(int capacity, float cellSize) {
+        if (!(cellSize > 0f)) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        mCellSize = cellSize;
+        mInvCellSize = 1f / cellSize;
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+        mCellOf = new long[capacity];
+        mNext = new int[capacity];
+        mPrev = new int[capacity];
+        mPresent = new boolean[capacity];
+        allocateTable(16);
+    }
+
+    public float getCellSize() {
+        return mCellSize;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /** Adds a point or moves it if it is already present. */
+    public void put(int id, float x, float y) {
+        long cell = cellKey(cellOf(x), cellOf(y));
+        if (mPresent[id]) {
+            mXs[id] = x;
+            mYs[id] = y;
+            if (mCellOf[id] == cell) {
+                return;
+            }
+            unlink(id);
+        }
+        else {
+            mPresent[id] = true;
+            mSize++;
+            mXs[id] = x;
+            mYs[id] = y;
+        }
+        link(id, cell);
+    }
+
+    public void remove(int id) {
+        if (!mPresent[id]) {
+            return;
+        }
+        unlink(id);
+        mPresent[id] = false;
+        mSize--;
+    }
+
+    public void clear() {
+        for (int i = 0; i < mPresent.length; i++) {
+            mPresent[i] = false;
+        }
+        for (int i = 0; i < mHeads.length; i++) {
+            mHeads[i] = UNUSED;
+        }
+        mUsedSlots = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Closest point within {@code radius} of (x, y), or -1 if there is none. Ties go
+     * to the lower id.
+     */
+    public int nearest(float x, float y, float radius) {
+        int cx0 = cellOf(x - radius), cx1 = cellOf(x + radius);
+        int cy0 = cellOf(y - radius), cy1 = cellOf(y + radius);
+        float best = radius * radius;
+        int hit = NONE;
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                int slot = find(cellKey(cx, cy));
+                if (slot < 0) {
+                    continue;
+                }
+                for (int id = mHeads[slot]; id != NONE; id = mNext[id]) {
+                    float dx = mXs[id] - x, dy = mYs[id] - y;
+                    float d = dx * dx + dy * dy;
+                    if (d < best || (d == best && (hit == NONE || id < hit))) {
+                        best = d;
+                        hit = id;
+                    }
+                }
+            }
+        }
+        return hit;
+    }
+
+    private int cellOf(float v) {
+        return (int) Math.floor(v * mInvCellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private void link(int id, long cell) {
+        int slot = findOrInsert(cell);
+        int head = mHeads[slot];
+        mCellOf[id] = cell;
+        mPrev[id] = NONE;
+        mNext[id] = head;
+        if (head != NONE) {
+            mPrev[head] = id;
+        }
+        mHeads[slot] = id;
+    }
+
+    private void unlink(int id) {
+        int prev = mPrev[id], next = mNext[id];
+        if (prev != NONE) {
+            mNext[prev] = next;
+        }
+        else if (next != NONE) {
+            mHeads[find(mCellOf[id])] = next;
+        }
+        else {
+            removeSlot(find(mCellOf[id]));
+        }
+        if (next != NONE) {
+            mPrev[next] = prev;
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(long key) {
+        int mask = mKeys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (mHeads[slot] == UNUSED) {
+                return -1;
+            }
+            if (mKeys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    private int findOrInsert(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if ((mUsedSlots + 1) * 2 > mKeys.length) {
+            grow();
+        }
+        int mask = mKeys.length - 1;
+        for (slot = hash(key) & mask; mHeads[slot] != UNUSED; slot = (slot + 1) & mask) {
+        }
+        mKeys[slot] = key;
+        mHeads[slot] = NONE;
+        mUsedSlots++;
+        return slot;
+    }
+
+    /*
+     * Backward shift deletion: every cell probed past the freed slot that could live in
+     * it moves up, so lookups never need tombstones and the slot is reusable at once.
+     */
+    private void removeSlot(int slot) {
+        int mask = mKeys.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; mHeads[i] != UNUSED; i = (i + 1) & mask) {
+            int home = hash(mKeys[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                mKeys[hole] = mKeys[i];
+                mHeads[hole] = mHeads[i];
+                hole = i;
+            }
+        }
+        mHeads[hole] = UNUSED;
+        mUsedSlots--;
+    }
+
+    private void grow() {
+        long[] keys = mKeys;
+        int[] heads = mHeads;
+        allocateTable(keys.length * 2);
+        int mask = mKeys.length - 1;
+        for (int i = 0; i < heads.length; i++) {
+            if (heads[i] == UNUSED) {
+                continue;
+            }
+            int slot = hash(keys[i]) & mask;
+            while (mHeads[slot] != UNUSED) {
+                slot = (slot + 1) & mask;
+            }
+            mKeys[slot] = keys[i];
+            mHeads[slot] = heads[i];
+            mUsedSlots++;
+        }
+    }
+
+    private void allocateTable(int size) {
+        mKeys = new long[size];
+        mHeads = new int[size];
+        for (int i = 0; i < size; i++) {
+            mHeads[i] = UNUSED;
+        }
+        mUsedSlots = 0;
+    }
+}
@@ -0,0 +1,193 @@
+package com.rajasharan.bezier;
+
+/**
+ * Which control point each pointer down on the view is moving, for multi-touch editing.
+ *
+ * A pointer gets a point on {@code ACTION_DOWN}/{@code ACTION_POINTER_DOWN} through
+ * {@link #choosePoint} and {@link #assign}, and gives it back on
+ * {@code ACTION_POINTER_UP}/{@code ACTION_UP} through {@link #release}, or with every
+ * other pointer on {@code ACTION_CANCEL} through {@link #clear}. Android reuses the
+ * ids of lifted pointers, so an id is only ever bound to the point it was given last.
+ * A point is held by at most one pointer; pointers that got no point are ignored.
+ *
+ * Looking up the point of a pointer is one array read, and the held pairs are also
+ * kept densely packed, so a move event costs O(pointers) and nothing is allocated
+ * after the first pointer with an id above {@link #INITIAL_POINTER_IDS}.
+ */
+public class PointerTracker {
+    /* MotionEvent ids run from 0 to 31 */
+    public static final int INITIAL_POINTER_IDS = 32;
+
+    private final int mCapacity;
+    /* point held by each pointer id, or -1 */
+    private int[] mPointOf;
+    /* pointer holding each point, or -1 */
+    private final int[] mPointerOf;
+    /* held pairs packed at the front, and where each point sits in them */
+    private final int[] mPointers;
+    private final int[] mPoints;
+    private final int[] mPositionOf;
+    private int mSize;
+
+    public PointerTracker(int pointCapacity) {
+        if (pointCapacity < 1) {
+            throw new IllegalArgumentException("pointCapacity must be at least 1: " + pointCapacity);
+        }
+        mCapacity = pointCapacity;
+        mPointOf = new int[INITIAL_POINTER_IDS];
+        mPointerOf = new int[pointCapacity];
+        mPointers = new int[pointCapacity];
+        mPoints = new int[pointCapacity];
+        mPositionOf = new int[pointCapacity];
+        for (int i = 0; i < mPointOf.length; i++) {
+            mPointOf[i] = -1;
+        }
+        for (int i = 0; i < pointCapacity; i++) {
+            mPointerOf[i] = -1;
+        }
+    }
+
+    public int capacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Point a new pointer at (x, y) should take: the closest point within
+     * {@code radius} that no other pointer holds, else the first empty slot, else the
+     * first point no pointer holds, which is then moved under the finger.
+     *
+     * @return the point, or -1 if every point is held
+     */
+    public int choosePoint(ControlPointStore points, float x, float y, float radius) {
+        int hit = points.hitTest(x, y, radius);
+        if (hit != -1 && hit < mCapacity && mPointerOf[hit] == -1) {
+            return hit;
+        }
+        int limit = Math.min(mCapacity, points.capacity());
+        for (int i = 0; i < limit; i++) {
+            if (!points.contains(i) && mPointerOf[i] == -1) {
+                return i;
+            }
+        }
+        for (int i = 0; i < limit; i++) {
+            if (mPointerOf[i] == -1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Binds a pointer to a point, releasing whatever the pointer held before.
+     *
+     * @return false if another pointer holds the point
+     */
+    public boolean assign(int pointerId, int point) {
+        checkPoint(point);
+        if (pointerId < 0) {
+            throw new IllegalArgumentException("pointerId must not be negative: " + pointerId);
+        }
+        int holder = mPointerOf[point];
+        if (holder == pointerId) {
+            return true;
+        }
+        if (holder != -1) {
+            return false;
+        }
+        release(pointerId);
+        ensurePointerId(pointerId);
+        mPointOf[pointerId] = point;
+        mPointerOf[point] = pointerId;
+        mPointers[mSize] = pointerId;
+        mPoints[mSize] = point;
+        mPositionOf[point] = mSize;
+        mSize++;
+        return true;
+    }
+
+    /**
+     * Lets go of whatever the pointer holds.
+     *
+     * @return the point it held, or -1
+     */
+    public int release(int pointerId) {
+        int point = pointFor(pointerId);
+        if (point == -1) {
+            return -1;
+        }
+        mPointOf[pointerId] = -1;
+        mPointerOf[point] = -1;
+        /* the last pair fills the gap */
+        int position = mPositionOf[point];
+        mSize--;
+        if (position != mSize) {
+            mPointers[position] = mPointers[mSize];
+            mPoints[position] = mPoints[mSize];
+            mPositionOf[mPoints[position]] = position;
+        }
+        return point;
+    }
+
+    /** Releases every pointer, as on {@code ACTION_CANCEL}. */
+    public void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mPointOf[mPointers[i]] = -1;
+            mPointerOf[mPoints[i]] = -1;
+        }
+        mSize = 0;
+    }
+
+    /** Point held by a pointer, or -1. */
+    public int pointFor(int pointerId) {
+        return pointerId >= 0 && pointerId < mPointOf.length ? mPointOf[pointerId] : -1;
+    }
+
+    /** Pointer holding a point, or -1. */
+    public int pointerFor(int point) {
+        return point >= 0 && point < mCapacity ? mPointerOf[point] : -1;
+    }
+
+    public boolean isHeld(int point) {
+        return pointerFor(point) != -1;
+    }
+
+    /** Number of pointers holding a point. */
+    public int size() {
+        return mSize;
+    }
+
+    /** Pointer of the held pair at {@code position}, in no particular order. */
+    public int getPointerId(int position) {
+        checkPosition(position);
+        return mPointers[position];
+    }
+
+    public int getPoint(int position) {
+        checkPosition(position);
+        return mPoints[position];
+    }
+
+    private void ensurePointerId(int pointerId) {
+        if (pointerId < mPointOf.length) {
+            return;
+        }
+        int[] grown = new int[Math.max(pointerId + 1, mPointOf.length * 2)];
+        System.arraycopy(mPointOf, 0, grown, 0, mPointOf.length);
+        for (int i = mPointOf.length; i < grown.length; i++) {
+            grown[i] = -1;
+        }
+        mPointOf = grown;
+    }
+
+    private void checkPoint(int point) {
+        if (point < 0 || point >= mCapacity) {
+            throw new IndexOutOfBoundsException("point " + point + ", capacity " + mCapacity);
+        }
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + mSize);
+        }
+    }
+}
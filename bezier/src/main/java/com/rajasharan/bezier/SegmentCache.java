@@ -0,0 +1,146 @@
+package com.rajasharan.bezier;
+
+/**
+ * Flattened lines and bounds of every segment of a chain, kept between frames.
+ *
+ * {@link #update} is given a stamp per segment, such as
+ * {@link BezierSpline#getSegmentStamp}, and only re-flattens and re-bounds the
+ * segments whose stamp differs from the one their cached result was built from, so
+ * dragging one point of a long chain costs the work of the two or three segments
+ * that share it. Changing the flattener's tolerance, segment limit or mode drops
+ * everything.
+ *
+ * Each segment's lines are kept in their own array, as x0,y0,x1,y1 quadruples ready
+ * for {@code Canvas.drawLines}; the arrays only grow. Not thread safe.
+ */
+public class SegmentCache {
+    private float[][] mLines;
+    private int[] mLineCounts;
+    private long[] mStamps;
+    /* left, top, right, bottom per segment */
+    private float[] mBounds;
+    private int mSegments;
+    private float[] mPolyline;
+
+    private float mTolerance;
+    private int mMaxSegments;
+    private Flattener.Mode mMode;
+
+    public SegmentCache() {
+        mLines = new float[0][];
+        mLineCounts = new int[0];
+        mStamps = new long[0];
+        mBounds = new float[0];
+        mPolyline = new float[0];
+    }
+
+    /** Forgets every cached segment. */
+    public void clear() {
+        for (int s = 0; s < mStamps.length; s++) {
+            mStamps[s] = 0;
+        }
+        mSegments = 0;
+    }
+
+    /**
+     * Brings the cache up to date with {@code segments} curves of the given degree
+     * chained end to end, so segment {@code s} starts at {@code pts[s * degree * 2]},
+     * and {@code stamps[s]} changes whenever segment {@code s} does.
+     *
+     * @return the number of segments that had to be flattened
+     */
+    public int update(Flattener flattener, int degree, float[] pts, int segments, long[] stamps) {
+        if (flattener.getTolerance() != mTolerance || flattener.getMaxSegments() != mMaxSegments
+                || flattener.getMode() != mMode) {
+            clear();
+            mTolerance = flattener.getTolerance();
+            mMaxSegments = flattener.getMaxSegments();
+            mMode = flattener.getMode();
+        }
+        ensureCapacity(segments);
+        if (mPolyline.length < flattener.requiredCapacity()) {
+            mPolyline = new float[flattener.requiredCapacity()];
+        }
+        int stride = degree * 2;
+        int rebuilt = 0;
+        for (int s = 0; s < segments; s++) {
+            if (mStamps[s] != 0 && mStamps[s] == stamps[s]) {
+                continue;
+            }
+            flatten(flattener, degree, pts, s * stride, s);
+            mStamps[s] = stamps[s];
+            rebuilt++;
+        }
+        mSegments = segments;
+        return rebuilt;
+    }
+
+    public int getSegmentCount() {
+        return mSegments;
+    }
+
+    /** Lines of one segment; only the first {@link #getLineCount} quadruples are valid. */
+    public float[] getLines(int segment) {
+        return mLines[segment];
+    }
+
+    public int getLineCount(int segment) {
+        return mLineCounts[segment];
+    }
+
+    /** Bounds of the lines of one segment as left, top, right, bottom. */
+    public void getBounds(int segment, float[] out) {
+        int k = segment * 4;
+        out[0] = mBounds[k];
+        out[1] = mBounds[k + 1];
+        out[2] = mBounds[k + 2];
+        out[3] = mBounds[k + 3];
+    }
+
+    private void flatten(Flattener flattener, int degree, float[] pts, int off, int segment) {
+        int count = flattener.flatten(degree, pts, off, mPolyline, 0);
+        float[] lines = mLines[segment];
+        if (lines == null || lines.length < (count - 1) * 4) {
+            lines = new float[Math.max((count - 1) * 4, lines == null ? 0 : lines.length * 2)];
+            mLines[segment] = lines;
+        }
+        float l = mPolyline[0], t = mPolyline[1], r = l, b = t;
+        for (int i = 1; i < count; i++) {
+            float x = mPolyline[i * 2], y = mPolyline[i * 2 + 1];
+            l = Math.min(l, x);
+            t = Math.min(t, y);
+            r = Math.max(r, x);
+            b = Math.max(b, y);
+            int k = (i - 1) * 4;
+            lines[k] = mPolyline[i * 2 - 2];
+            lines[k + 1] = mPolyline[i * 2 - 1];
+            lines[k + 2] = x;
+            lines[k + 3] = y;
+        }
+        mLineCounts[segment] = count - 1;
+        int k = segment * 4;
+        mBounds[k] = l;
+        mBounds[k + 1] = t;
+        mBounds[k + 2] = r;
+        mBounds[k + 3] = b;
+    }
+
+    private void ensureCapacity(int segments) {
+        if (mStamps.length >= segments) {
+            return;
+        }
+        int capacity = Math.max(segments, mStamps.length * 2);
+        float[][] lines = new float[capacity][];
+        System.arraycopy(mLines, 0, lines, 0, mLines.length);
+        mLines = lines;
+        int[] counts = new int[capacity];
+        System.arraycopy(mLineCounts, 0, counts, 0, mLineCounts.length);
+        mLineCounts = counts;
+        long[] stamps = new long[capacity];
+        System.arraycopy(mStamps, 0, stamps, 0, mStamps.length);
+        mStamps = stamps;
+        float[] bounds = new float[capacity * 4];
+        System.arraycopy(mBounds, 0, bounds, 0, mBounds.length);
+        mBounds = bounds;
+    }
+}
@@ -0,0 +1,192 @@
+package com.rajasharan.bezier;
+
+/**
+ * Damped springs pulling 2D points towards their targets.
+ *
+ * Each point has its own mass, stiffness and damping. {@link #advance} integrates
+ * with semi-implicit Euler at a fixed timestep, carrying the remainder of the frame
+ * over to the next call, so the motion does not depend on the frame rate. A point
+ * comes to rest, snapped onto its target, once its kinetic plus spring energy drops
+ * below the rest threshold; when every point is at rest {@link #advance} returns
+ * false and the caller can stop scheduling frames.
+ *
+ * Changing a target while a point is moving keeps its velocity, so interrupted
+ * springs continue smoothly instead of restarting from rest.
+ */
+public class SpringSystem {
+    public static final float DEFAULT_MASS = 1f;
+    public static final float DEFAULT_STIFFNESS = 400f;
+    public static final float DEFAULT_DAMPING = 14f;
+    public static final float DEFAULT_TIMESTEP = 1f / 240f;
+    public static final float DEFAULT_REST_ENERGY = 0.05f;
+
+    /* longer gaps (paused app, debugger) are clamped rather than simulated */
+    private static final float MAX_FRAME = 0.1f;
+
+    private final int mCount;
+    private final float[] mPosition;
+    private final float[] mVelocity;
+    private final float[] mTarget;
+    private final float[] mMass;
+    private final float[] mStiffness;
+    private final float[] mDamping;
+    private final boolean[] mActive;
+    private float mTimestep;
+    private float mRestEnergy;
+    private float mAccumulator;
+    private int mActiveCount;
+
+    public SpringSystem(int count) {
+        mCount = count;
+        mPosition = new float[count * 2];
+        mVelocity = new float[count * 2];
+        mTarget = new float[count * 2];
+        mMass = new float[count];
+        mStiffness = new float[count];
+        mDamping = new float[count];
+        mActive = new boolean[count];
+        mTimestep = DEFAULT_TIMESTEP;
+        mRestEnergy = DEFAULT_REST_ENERGY;
+        for (int i = 0; i < count; i++) {
+            configure(i, DEFAULT_MASS, DEFAULT_STIFFNESS, DEFAULT_DAMPING);
+        }
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    public void configure(int index, float mass, float stiffness, float damping) {
+        if (!(mass > 0f) || stiffness < 0f || damping < 0f) {
+            throw new IllegalArgumentException("mass must be positive, stiffness and damping not negative");
+        }
+        mMass[index] = mass;
+        mStiffness[index] = stiffness;
+        mDamping[index] = damping;
+    }
+
+    public void setTimestep(float seconds) {
+        if (!(seconds > 0f)) {
+            throw new IllegalArgumentException("timestep must be positive: " + seconds);
+        }
+        mTimestep = seconds;
+    }
+
+    /** Energy below which a point is considered settled, in mass * px^2 / s^2. */
+    public void setRestEnergy(float energy) {
+        mRestEnergy = energy;
+    }
+
+    /** Places a point without moving its target; the spring starts from here. */
+    public void setPosition(int index, float x, float y) {
+        mPosition[index * 2] = x;
+        mPosition[index * 2 + 1] = y;
+        activate(index);
+    }
+
+    public void setVelocity(int index, float vx, float vy) {
+        mVelocity[index * 2] = vx;
+        mVelocity[index * 2 + 1] = vy;
+        activate(index);
+    }
+
+    /** Moves the target; the current velocity is kept. */
+    public void setTarget(int index, float x, float y) {
+        mTarget[index * 2] = x;
+        mTarget[index * 2 + 1] = y;
+        activate(index);
+    }
+
+    /** Stops a point where it is. */
+    public void stop(int index) {
+        mVelocity[index * 2] = 0f;
+        mVelocity[index * 2 + 1] = 0f;
+        if (mActive[index]) {
+            mActive[index] = false;
+            mActiveCount--;
+        }
+    }
+
+    public float getX(int index) {
+        return mPosition[index * 2];
+    }
+
+    public float getY(int index) {
+        return mPosition[index * 2 + 1];
+    }
+
+    public float getVelocityX(int index) {
+        return mVelocity[index * 2];
+    }
+
+    public float getVelocityY(int index) {
+        return mVelocity[index * 2 + 1];
+    }
+
+    public boolean isActive(int index) {
+        return mActive[index];
+    }
+
+    public boolean isAtRest() {
+        return mActiveCount == 0;
+    }
+
+    /**
+     * Advances the simulation by {@code seconds}.
+     *
+     * @return true while any point is still moving
+     */
+    public boolean advance(float seconds) {
+        if (mActiveCount == 0) {
+            mAccumulator = 0f;
+            return false;
+        }
+        mAccumulator += Math.min(seconds, MAX_FRAME);
+        float h = mTimestep;
+        while (mAccumulator >= h) {
+            mAccumulator -= h;
+            for (int i = 0; i < mCount; i++) {
+                if (mActive[i]) {
+                    step(i, h);
+                }
+            }
+        }
+        for (int i = 0; i < mCount; i++) {
+            if (mActive[i] && energy(i) < mRestEnergy) {
+                mPosition[i * 2] = mTarget[i * 2];
+                mPosition[i * 2 + 1] = mTarget[i * 2 + 1];
+                stop(i);
+            }
+        }
+        if (mActiveCount == 0) {
+            mAccumulator = 0f;
+        }
+        return mActiveCount > 0;
+    }
+
+    /* semi-implicit Euler: velocity first, then position with the new velocity */
+    private void step(int i, float h) {
+        float k = mStiffness[i], c = mDamping[i], invMass = 1f / mMass[i];
+        for (int axis = 0; axis < 2; axis++) {
+            int j = i * 2 + axis;
+            float force = -k * (mPosition[j] - mTarget[j]) - c * mVelocity[j];
+            mVelocity[j] += force * invMass * h;
+            mPosition[j] += mVelocity[j] * h;
+        }
+    }
+
+    private float energy(int i) {
+        float dx = mPosition[i * 2] - mTarget[i * 2];
+        float dy = mPosition[i * 2 + 1] - mTarget[i * 2 + 1];
+        float vx = mVelocity[i * 2];
+        float vy = mVelocity[i * 2 + 1];
+        return 0.5f * mMass[i] * (vx * vx + vy * vy) + 0.5f * mStiffness[i] * (dx * dx + dy * dy);
+    }
+
+    private void activate(int index) {
+        if (!mActive[index]) {
+            mActive[index] = true;
+            mActiveCount++;
+        }
+    }
+}
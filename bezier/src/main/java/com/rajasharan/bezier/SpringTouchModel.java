@@ -0,0 +1,295 @@
+package com.rajasharan.bezier;
+
+/**
+ * Touch state machine of a curve with two end points and one control point that
+ * springs back to the middle of the chord once it is dragged far enough or let go.
+ *
+ * Taps place the end points and then the control point, or grab the point under the
+ * finger; in multi-touch mode each pointer gets its own point from a
+ * {@link PointerTracker} and lets go of it when it lifts. Drags
+ * move the grabbed point until it crosses half the smaller view dimension away from
+ * the middle of the chord, and from then on the spring has it. Everything the view
+ * draws or schedules is left to the {@link Listener}, so the same model runs under
+ * {@link TouchReplayer} on the JVM.
+ */
+public class SpringTouchModel implements TouchReplayer.Model {
+    public static final int MAX_COUNT = 3;
+    public static final int SPRING_INDEX = 2;
+
+    public interface Listener {
+        /** A control point was placed or grabbed; it is now the current one. */
+        void onTouchRegistered(int index);
+
+        /** The spring was released or retargeted and wants frames. */
+        void onSpringStart();
+
+        void onSpringStop();
+    }
+
+    private final ControlPointStore mTouches;
+    private final PointerTracker mPointers;
+    private final SpringSystem mSprings;
+    private final float mHitRadius;
+    private Listener mListener;
+    private int mCurrentTouchIndex;
+    private boolean mMultiTouchMode;
+    private boolean mResetSpringAnim;
+    private int mWidth;
+    private int mHeight;
+
+    public SpringTouchModel(float hitRadius) {
+        mHitRadius = hitRadius;
+        mTouches = new ControlPointStore(MAX_COUNT);
+        mTouches.enableHitTesting(hitRadius);
+        mPointers = new PointerTracker(MAX_COUNT);
+        mSprings = new SpringSystem(MAX_COUNT);
+        mCurrentTouchIndex = -1;
+        mResetSpringAnim = true;
+    }
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /** Size of the view, which sets how far the control point may be dragged. */
+    @Override
+    public void setSize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+    }
+
+    @Override
+    public void setMultiTouchMode(boolean enable) {
+        mMultiTouchMode = enable;
+        mTouches.clear();
+        mPointers.clear();
+        stopSpring();
+        mCurrentTouchIndex = -1;
+    }
+
+    public boolean isMultiTouchMode() {
+        return mMultiTouchMode;
+    }
+
+    public ControlPointStore getTouches() {
+        return mTouches;
+    }
+
+    public SpringSystem getSprings() {
+        return mSprings;
+    }
+
+    public int getCurrentTouchIndex() {
+        return mCurrentTouchIndex;
+    }
+
+    /** Forgets which point is grabbed, e.g. after the points were restored. */
+    public void resetCurrentTouch() {
+        mCurrentTouchIndex = -1;
+    }
+
+    /** Control point a pointer is moving, or -1. */
+    public int touchIndex(int pointerId) {
+        return mMultiTouchMode ? mPointers.pointFor(pointerId) : mCurrentTouchIndex;
+    }
+
+    @Override
+    public void registerTouch(float x, float y, int pointerId) {
+        if (!mMultiTouchMode) {
+            registerTouch(x, y);
+            return;
+        }
+        int point = mPointers.choosePoint(mTouches, x, y, mHitRadius);
+        if (point == -1 || !mPointers.assign(pointerId, point)) {
+            return;
+        }
+        if (point == SPRING_INDEX) {
+            stopSpring();
+        }
+        /* a free point under the finger is grabbed where it is, any other is moved there */
+        if (mTouches.hitTest(x, y, mHitRadius) != point) {
+            mTouches.set(point, x, y);
+        }
+        mCurrentTouchIndex = point;
+        touchRegistered();
+    }
+
+    /* grabs the control point under the finger, or adds the next one */
+    private void registerTouch(float x, float y) {
+        mResetSpringAnim = true;
+        int hit = mTouches.hitTest(x, y, mHitRadius);
+        if (hit != -1) {
+            mCurrentTouchIndex = hit;
+            if (hit == SPRING_INDEX) {
+                stopSpring();
+            }
+            touchRegistered();
+            return;
+        }
+        mCurrentTouchIndex = mTouches.size() % MAX_COUNT;
+        if (mCurrentTouchIndex == 0) {
+            mTouches.clear();
+        }
+        if (mCurrentTouchIndex == SPRING_INDEX) {
+            stopSpring();
+        }
+        mTouches.set(mCurrentTouchIndex, x, y);
+        touchRegistered();
+    }
+
+    public void updateTouch(float x, float y, int pointerId) {
+        if (!mMultiTouchMode) {
+            updateTouch(x, y);
+            return;
+        }
+        int point = mPointers.pointFor(pointerId);
+        if (point != -1) {
+            mTouches.set(point, x, y);
+        }
+    }
+
+    private void updateTouch(float x, float y) {
+        if (mCurrentTouchIndex != -1) {
+            mTouches.set(mCurrentTouchIndex, x, y);
+        }
+    }
+
+    /**
+     * Applies the queued samples of a move event in order. The spring threshold is
+     * checked against every sample, so a fast fling triggers it at the sample that
+     * crossed rather than at the end of the batch. From there on the spring has the
+     * control point: in single touch mode the samples after it are dropped, in
+     * multi-touch mode the pointer that dragged it lets go and the others carry on.
+     */
+    @Override
+    public void applySamples(TouchSampleBuffer samples) {
+        int size = samples.size();
+        for (int i = 0; i < size && (mResetSpringAnim || mMultiTouchMode); i++) {
+            int pointerId = samples.getPointerId(i);
+            float xp = samples.getX(i);
+            float yp = samples.getY(i);
+            updateTouch(xp, yp, pointerId);
+
+            if (touchIndex(pointerId) == SPRING_INDEX && mTouches.containsRange(0, 2)) {
+                float cx = (mTouches.getX(0) + mTouches.getX(1))/2;
+                float cy = (mTouches.getY(0) + mTouches.getY(1))/2;
+                int threshold = Math.min(mHeight/2, mWidth/2);
+                if (Math.abs(cx - xp) > threshold || Math.abs(cy - yp) > threshold) {
+                    if (mMultiTouchMode) {
+                        mPointers.release(pointerId);
+                        releaseSpring();
+                    }
+                    else {
+                        startSpring();
+                        mResetSpringAnim = false;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A pointer went up. In single touch mode the current control point is let go, in
+     * multi-touch mode the point the pointer held, and the spring takes over if that
+     * was the control point.
+     */
+    @Override
+    public void release(int pointerId) {
+        if (!mMultiTouchMode) {
+            startSpring();
+            return;
+        }
+        if (mPointers.release(pointerId) == SPRING_INDEX) {
+            releaseSpring();
+        }
+    }
+
+    /** Every pointer is gone at once, as on {@code ACTION_CANCEL}. */
+    @Override
+    public void cancel() {
+        if (mMultiTouchMode && mPointers.pointerFor(SPRING_INDEX) != -1) {
+            releaseSpring();
+        }
+        mPointers.clear();
+    }
+
+    /** Pointers holding a control point in multi-touch mode. */
+    public PointerTracker getPointers() {
+        return mPointers;
+    }
+
+    private void startSpring() {
+        if (mCurrentTouchIndex != SPRING_INDEX) {
+            return;
+        }
+        releaseSpring();
+    }
+
+    /*
+     * Releases the control point towards the middle of the chord. A spring already in
+     * flight keeps its position and velocity and is only retargeted.
+     */
+    private void releaseSpring() {
+        if (!mTouches.containsRange(0, MAX_COUNT)) {
+            return;
+        }
+        if (!mSprings.isActive(SPRING_INDEX)) {
+            mSprings.setPosition(SPRING_INDEX, mTouches.getX(SPRING_INDEX), mTouches.getY(SPRING_INDEX));
+        }
+        retargetSpring();
+        if (mListener != null) {
+            mListener.onSpringStart();
+        }
+    }
+
+    private void retargetSpring() {
+        float x = (mTouches.getX(0) + mTouches.getX(1)) / 2;
+        float y = (mTouches.getY(0) + mTouches.getY(1)) / 2;
+        mSprings.setTarget(SPRING_INDEX, x, y);
+    }
+
+    public void stopSpring() {
+        mSprings.stop(SPRING_INDEX);
+        if (mListener != null) {
+            mListener.onSpringStop();
+        }
+    }
+
+    public boolean isSpringActive() {
+        return mSprings.isActive(SPRING_INDEX);
+    }
+
+    /**
+     * Moves the spring on by {@code seconds} and the control point with it.
+     *
+     * @return true while it is still moving
+     */
+    public boolean stepSpring(float seconds) {
+        if (!mTouches.containsRange(0, MAX_COUNT)) {
+            mSprings.stop(SPRING_INDEX);
+            return false;
+        }
+        /* the end points may still be dragged in multi-touch mode */
+        retargetSpring();
+        boolean moving = mSprings.advance(seconds);
+        mTouches.set(SPRING_INDEX, mSprings.getX(SPRING_INDEX), mSprings.getY(SPRING_INDEX));
+        return moving;
+    }
+
+    /** The spring is the only thing that moves between events. */
+    @Override
+    public boolean isAnimating() {
+        return isSpringActive();
+    }
+
+    @Override
+    public boolean step(float seconds) {
+        return stepSpring(seconds);
+    }
+
+    private void touchRegistered() {
+        if (mListener != null) {
+            mListener.onTouchRegistered(mCurrentTouchIndex);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.rajasharan.bezier;
+
+/**
+ * Outline of a stroke whose width changes along a chain of line, quad or cubic
+ * segments, for tapered and pressure-sensitive strokes that a constant stroke width
+ * cannot draw.
+ *
+ * The width is given at every knot and runs linearly in t along each segment. Each
+ * side of a segment is offset by half the width and approximated by cubics: a cubic
+ * through the offset points and tangents at the ends of a piece, split in halves
+ * while its middle or quarters miss the true offset by more than the tolerance, up to
+ * {@link #MAX_PIECES} pieces. Where neighbouring segments meet at an angle the outer
+ * side gets a bevel or round join and the inner side is run through the knot, and
+ * the ends get butt or round caps.
+ *
+ * {@link #outline} writes the result as one closed chain of cubics, left side
+ * forwards, end cap, right side backwards, start cap, ready to be filled with the
+ * non-zero winding rule in a single draw call. The work is linear in the number of
+ * segments and the buffers are kept between calls. Not thread safe.
+ */
+public class StrokeOutliner {
+    public static final int JOIN_BEVEL = 0;
+    public static final int JOIN_ROUND = 1;
+    public static final int CAP_BUTT = 0;
+    public static final int CAP_ROUND = 1;
+    public static final float DEFAULT_TOLERANCE = 0.25f;
+    /* cubics per side of one segment: pieces are halved at most five times */
+    public static final int MAX_PIECES = 32;
+
+    private static final int MAX_DEPTH = 5;
+    /* ends of pieces closer than this are taken as already joined */
+    private static final float JOIN_EPSILON = 1e-3f;
+
+    private float mTolerance;
+    private int mJoin;
+    private int mCap;
+
+    private final Chain mLeft;
+    private final Chain mRight;
+    private final Chain mOutline;
+    private final float[] mA = new float[4];
+    private final float[] mB = new float[4];
+    private final float[] mM = new float[4];
+    private final float[] mQ = new float[4];
+    private final float[] mScratch = new float[2];
+
+    public StrokeOutliner() {
+        mTolerance = DEFAULT_TOLERANCE;
+        mJoin = JOIN_ROUND;
+        mCap = CAP_ROUND;
+        mLeft = new Chain();
+        mRight = new Chain();
+        mOutline = new Chain();
+    }
+
+    public void setTolerance(float tolerance) {
+        if (!(tolerance > 0f)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        mTolerance = tolerance;
+    }
+
+    public void setJoin(int join) {
+        if (join != JOIN_BEVEL && join != JOIN_ROUND) {
+            throw new IllegalArgumentException("Unknown join: " + join);
+        }
+        mJoin = join;
+    }
+
+    public void setCap(int cap) {
+        if (cap != CAP_BUTT && cap != CAP_ROUND) {
+            throw new IllegalArgumentException("Unknown cap: " + cap);
+        }
+        mCap = cap;
+    }
+
+    /**
+     * Outlines {@code segments} curves of the given degree chained end to end, so
+     * segment {@code s} starts at {@code pts[s * degree * 2]}, with the full stroke
+     * width at knot {@code k} in {@code widths[widthOff + k]}.
+     *
+     * @return the number of cubics in the outline, 0 if there are no segments
+     */
+    public int outline(int degree, float[] pts, int segments, float[] widths, int widthOff) {
+        mOutline.reset();
+        if (segments < 1) {
+            return 0;
+        }
+        mLeft.reset();
+        mRight.reset();
+        int stride = degree * 2;
+        for (int s = 0; s < segments; s++) {
+            float w0 = widths[widthOff + s] * 0.5f, w1 = widths[widthOff + s + 1] * 0.5f;
+            offsetSegment(degree, pts, s * stride, w0, w1, 1f, mLeft, s > 0);
+            offsetSegment(degree, pts, s * stride, w0, w1, -1f, mRight, s > 0);
+        }
+        float[] l = mLeft.mCoords, r = mRight.mCoords;
+        int lastL = (mLeft.mPoints - 1) * 2, lastR = (mRight.mPoints - 1) * 2;
+        int end = segments * stride;
+
+        mOutline.moveTo(l[0], l[1]);
+        mOutline.append(l, 1, mLeft.mPoints - 1, false);
+        cap(pts[end], pts[end + 1], l[lastL], l[lastL + 1], r[lastR], r[lastR + 1]);
+        mOutline.append(r, 0, mRight.mPoints - 1, true);
+        cap(pts[0], pts[1], r[0], r[1], l[0], l[1]);
+        return mOutline.getCubicCount();
+    }
+
+    /** The outline as {@code 3n+1} points of {@code n} chained cubics; the last point is the first. */
+    public float[] getCoords() {
+        return mOutline.mCoords;
+    }
+
+    public int getCubicCount() {
+        return mOutline.getCubicCount();
+    }
+
+    /*
+     * Appends one side of a segment to `side`: sign 1 is the left side (the tangent
+     * turned a quarter towards +y for y up), -1 the right. Joins to the previous
+     * segment first if `join`.
+     */
+    private void offsetSegment(int degree, float[] pts, int off, float w0, float w1, float sign, Chain side,
+                               boolean join) {
+        offset(degree, pts, off, 0f, w0, w1, sign, mA);
+        if (!join) {
+            side.moveTo(mA[0], mA[1]);
+        }
+        else {
+            joinTo(pts[off], pts[off + 1], sign, side);
+        }
+        offset(degree, pts, off, 1f, w0, w1, sign, mB);
+        fitPieces(degree, pts, off, w0, w1, sign, 0f, 1f, mA[0], mA[1], mA[2], mA[3], mB, side, 0);
+    }
+
+    /*
+     * Fits a cubic to the offset over [t0, t1], splitting it while it misses at its
+     * middle or quarters. The middle alone passes fits whose error changes sign there.
+     */
+    private void fitPieces(int degree, float[] pts, int off, float w0, float w1, float sign, float t0, float t1,
+                           float ax, float ay, float adx, float ady, float[] b, Chain side, int depth) {
+        float bx = b[0], by = b[1], bdx = b[2], bdy = b[3];
+        float h = (t1 - t0) / 3f;
+        float c1x = ax + adx * h, c1y = ay + ady * h;
+        float c2x = bx - bdx * h, c2y = by - bdy * h;
+        if (depth < MAX_DEPTH) {
+            float tm = (t0 + t1) * 0.5f;
+            offset(degree, pts, off, tm, w0, w1, sign, mM);
+            float mx = (ax + 3f * (c1x + c2x) + bx) * 0.125f;
+            float my = (ay + 3f * (c1y + c2y) + by) * 0.125f;
+            float ex = mx - mM[0], ey = my - mM[1];
+            float tolerance2 = mTolerance * mTolerance;
+            boolean split = ex * ex + ey * ey > tolerance2;
+            for (int q = 1; q <= 3 && !split; q += 2) {
+                float u = q * 0.25f, mu = 1f - u;
+                float a = mu * mu * mu, b1 = 3f * mu * mu * u, b2 = 3f * mu * u * u, c = u * u * u;
+                offsetPoint(degree, pts, off, t0 + (t1 - t0) * u, w0, w1, sign, mQ);
+                ex = a * ax + b1 * c1x + b2 * c2x + c * bx - mQ[0];
+                ey = a * ay + b1 * c1y + b2 * c2y + c * by - mQ[1];
+                split = ex * ex + ey * ey > tolerance2;
+            }
+            if (split) {
+                float mxo = mM[0], myo = mM[1], mdx = mM[2], mdy = mM[3];
+                fitPieces(degree, pts, off, w0, w1, sign, t0, tm, ax, ay, adx, ady, mM, side, depth + 1);
+                mM[0] = bx;
+                mM[1] = by;
+                mM[2] = bdx;
+                mM[3] = bdy;
+                fitPieces(degree, pts, off, w0, w1, sign, tm, t1, mxo, myo, mdx, mdy, mM, side, depth + 1);
+                return;
+            }
+        }
+        side.cubicTo(c1x, c1y, c2x, c2y, bx, by);
+    }
+
+    /*
+     * Offset point at t and its derivative in t, as x, y, dx, dy. With T the unit
+     * tangent, n = (-Ty, Tx) and w the half width at t, the offset is P + sign n w
+     * and its derivative P' + sign (n' w + n w').
+     */
+    private void offset(int degree, float[] pts, int off, float t, float w0, float w1, float sign, float[] out) {
+        float[] d = mScratch;
+        Bezier.derivative(degree, pts, off, t, d, 0);
+        float dx = d[0], dy = d[1];
+        float speed = (float) Math.sqrt(dx * dx + dy * dy);
+        if (speed < 1e-6f) {
+            /* a handle on its knot: take the direction from just inside the segment */
+            Bezier.derivative(degree, pts, off, t < 0.5f ? t + 1e-3f : t - 1e-3f, d, 0);
+            float len = (float) Math.sqrt(d[0] * d[0] + d[1] * d[1]);
+            float tx = len > 0f ? d[0] / len : 1f, ty = len > 0f ? d[1] / len : 0f;
+            Bezier.point(degree, pts, off, t, out, 0);
+            float w = w0 + (w1 - w0) * t;
+            out[0] += -ty * w * sign;
+            out[1] += tx * w * sign;
+            out[2] = -ty * (w1 - w0) * sign;
+            out[3] = tx * (w1 - w0) * sign;
+            return;
+        }
+        float tx = dx / speed, ty = dy / speed;
+        Bezier.secondDerivative(degree, pts, off, t, d, 0);
+        float along = tx * d[0] + ty * d[1];
+        /* derivative of the unit tangent */
+        float ttx = (d[0] - tx * along) / speed, tty = (d[1] - ty * along) / speed;
+        float w = w0 + (w1 - w0) * t, dw = w1 - w0;
+        Bezier.point(degree, pts, off, t, out, 0);
+        out[0] += -ty * w * sign;
+        out[1] += tx * w * sign;
+        out[2] = dx + (-tty * w - ty * dw) * sign;
+        out[3] = dy + (ttx * w + tx * dw) * sign;
+    }
+
+    /* the offset point alone, for checking a fit */
+    private void offsetPoint(int degree, float[] pts, int off, float t, float w0, float w1, float sign, float[] out) {
+        float[] d = mScratch;
+        Bezier.derivative(degree, pts, off, t, d, 0);
+        float speed = (float) Math.sqrt(d[0] * d[0] + d[1] * d[1]);
+        if (speed < 1e-6f) {
+            offset(degree, pts, off, t, w0, w1, sign, out);
+            return;
+        }
+        float w = (w0 + (w1 - w0) * t) * sign / speed;
+        float nx = -d[1] * w, ny = d[0] * w;
+        Bezier.point(degree, pts, off, t, out, 0);
+        out[0] += nx;
+        out[1] += ny;
+    }
+
+    /*
+     * Joins the side's last point to the start of this segment's offset in mA around
+     * the knot (kx, ky). Both are the knot moved along a normal, and normals turn like
+     * tangents, so their cross product says which way the chain turns.
+     */
+    private void joinTo(float kx, float ky, float sign, Chain side) {
+        float[] c = side.mCoords;
+        int last = (side.mPoints - 1) * 2;
+        float ex = c[last], ey = c[last + 1];
+        if (Math.abs(ex - mA[0]) < JOIN_EPSILON && Math.abs(ey - mA[1]) < JOIN_EPSILON) {
+            return;
+        }
+        float cross = (ex - kx) * (mA[1] - ky) - (ey - ky) * (mA[0] - kx);
+        if (cross * sign > 0f) {
+            /* inner side: through the knot, the fill covers the overlap */
+            side.lineTo(kx, ky);
+            side.lineTo(mA[0], mA[1]);
+        }
+        else if (mJoin == JOIN_ROUND) {
+            arc(side, kx, ky, ex, ey, mA[0], mA[1]);
+        }
+        else {
+            side.lineTo(mA[0], mA[1]);
+        }
+    }
+
+    /* caps the end at (cx, cy) going from (ax, ay) to (bx, by) */
+    private void cap(float cx, float cy, float ax, float ay, float bx, float by) {
+        float r = (float) Math.hypot(ax - cx, ay - cy);
+        if (mCap == CAP_ROUND && r >= JOIN_EPSILON) {
+            /* half a turn from the left side around the end to the right */
+            arcSweep(mOutline, cx, cy, r, (float) Math.atan2(ay - cy, ax - cx), (float) -Math.PI, bx, by);
+        }
+        else {
+            mOutline.lineTo(bx, by);
+        }
+    }
+
+    /* the short way around (cx, cy) from (ax, ay) to (bx, by) */
+    private void arc(Chain chain, float cx, float cy, float ax, float ay, float bx, float by) {
+        float r = (float) Math.hypot(ax - cx, ay - cy);
+        double a0 = Math.atan2(ay - cy, ax - cx);
+        double sweep = Math.atan2(by - cy, bx - cx) - a0;
+        if (sweep > Math.PI) {
+            sweep -= 2 * Math.PI;
+        }
+        else if (sweep < -Math.PI) {
+            sweep += 2 * Math.PI;
+        }
+        arcSweep(chain, cx, cy, r, (float) a0, (float) sweep, bx, by);
+    }
+
+    /* quarter turns at most per cubic, handles 4/3 tan(a/4) of the radius long, ending exactly on (bx, by) */
+    private void arcSweep(Chain chain, float cx, float cy, float r, float a0, float sweep, float bx, float by) {
+        int pieces = Math.max(1, (int) Math.ceil(Math.abs(sweep) / (Math.PI / 2) - 1e-4));
+        float step = sweep / pieces;
+        float k = (float) (4.0 / 3.0 * Math.tan(step / 4f)) * r;
+        float cos0 = (float) Math.cos(a0), sin0 = (float) Math.sin(a0);
+        for (int i = 1; i <= pieces; i++) {
+            float a1 = a0 + step * i;
+            float cos1 = (float) Math.cos(a1), sin1 = (float) Math.sin(a1);
+            float x = i == pieces ? bx : cx + r * cos1, y = i == pieces ? by : cy + r * sin1;
+            chain.cubicTo(cx + r * cos0 - k * sin0, cy + r * sin0 + k * cos0,
+                    cx + r * cos1 + k * sin1, cy + r * sin1 - k * cos1, x, y);
+            cos0 = cos1;
+            sin0 = sin1;
+        }
+    }
+
+    /* chained cubics in a growing float[], lines stored as cubics */
+    private static class Chain {
+        float[] mCoords = new float[64];
+        int mPoints;
+
+        void reset() {
+            mPoints = 0;
+        }
+
+        int getCubicCount() {
+            return mPoints < 4 ? 0 : (mPoints - 1) / 3;
+        }
+
+        void moveTo(float x, float y) {
+            mPoints = 0;
+            put(x, y);
+        }
+
+        void lineTo(float x, float y) {
+            int k = (mPoints - 1) * 2;
+            float x0 = mCoords[k], y0 = mCoords[k + 1];
+            if (x0 == x && y0 == y) {
+                return;
+            }
+            cubicTo(x0 + (x - x0) / 3f, y0 + (y - y0) / 3f, x0 + (x - x0) * 2f / 3f, y0 + (y - y0) * 2f / 3f, x, y);
+        }
+
+        void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            ensureCapacity(mPoints + 3);
+            put(x1, y1);
+            put(x2, y2);
+            put(x3, y3);
+        }
+
+        /* appends `count` points of src from point `from`, or the `count` points before it backwards */
+        void append(float[] src, int from, int count, boolean reverse) {
+            ensureCapacity(mPoints + count);
+            for (int i = 0; i < count; i++) {
+                int p = reverse ? from + count - 1 - i : from + i;
+                put(src[p * 2], src[p * 2 + 1]);
+            }
+        }
+
+        private void put(float x, float y) {
+            mCoords[mPoints * 2] = x;
+            mCoords[mPoints * 2 + 1] = y;
+            mPoints++;
+        }
+
+        private void ensureCapacity(int points) {
+            if (points * 2 > mCoords.length) {
+                float[] coords = new float[Math.max(points * 2, mCoords.length * 2)];
+                System.arraycopy(mCoords, 0, coords, 0, mPoints * 2);
+                mCoords = coords;
+            }
+        }
+    }
+}
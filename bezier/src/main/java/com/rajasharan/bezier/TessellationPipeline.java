@@ -0,0 +1,280 @@
+package com.rajasharan.bezier;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Flattens curves on a background thread.
+ *
+ * The UI thread copies its control points in with {@link #submit} and draws whatever
+ * {@link #update()} last picked up from {@link #getGeometry()}, a list of line
+ * segments ready for {@code Canvas.drawLines}. Both directions go through a
+ * {@link TripleBuffer}, so neither thread ever blocks on the other: when the UI
+ * submits faster than the worker keeps up, intermediate snapshots are skipped, and
+ * the UI keeps drawing the last finished geometry while the next one is built.
+ *
+ * The worker parks when there is nothing to do, and {@link Listener} hears from it
+ * each time new geometry is ready. Segments of a {@link BezierSpline} submitted with
+ * {@link #submit(BezierSpline)} are only re-flattened when their stamp changed; the
+ * worker keeps the rest in a {@link SegmentCache}.
+ */
+public class TessellationPipeline {
+
+    /** Called on the worker thread with the area covered by the old and new geometry. */
+    public interface Listener {
+        void onGeometryReady(float left, float top, float right, float bottom);
+    }
+
+    /** Line segments as x0,y0,x1,y1 quadruples. Owned by the UI thread after {@link #update()}. */
+    public static class Geometry {
+        private float[] mLines = new float[64];
+        private int mLineCount;
+        private long mVersion;
+        private long mFlattened;
+        private final float[] mBounds = new float[4];
+
+        public float[] getLines() {
+            return mLines;
+        }
+
+        public int getLineCount() {
+            return mLineCount;
+        }
+
+        /** Version of the submitted snapshot this was built from. */
+        public long getVersion() {
+            return mVersion;
+        }
+
+        /**
+         * Curve segments the worker has re-flattened since it started, up to and
+         * including the ones this geometry needed. The difference between two
+         * geometries is the work done in between, skipped snapshots included.
+         */
+        public long getFlattenedCount() {
+            return mFlattened;
+        }
+
+        /** Left, top, right, bottom of the lines; left > right when there are none. */
+        public float[] getBounds() {
+            return mBounds;
+        }
+    }
+
+    private static class Job {
+        float[] mCoords = new float[32];
+        long[] mStamps = new long[8];
+        int mDegree;
+        int mSegments;
+        float mTolerance;
+        int mMaxSegments;
+        Flattener.Mode mMode;
+        long mVersion;
+    }
+
+    private final TripleBuffer<Job> mJobs;
+    private final TripleBuffer<Geometry> mGeometry;
+    private final Flattener mFlattener;
+    private final SegmentCache mCache;
+    private final float[] mBox = new float[4];
+    private float mLeft, mTop, mRight, mBottom;
+    private long mFlattened;
+    private float mTolerance;
+    private int mMaxSegments;
+    private Flattener.Mode mMode;
+    private long mVersion;
+    private volatile Thread mWorker;
+    private volatile Listener mListener;
+
+    public TessellationPipeline() {
+        mJobs = new TripleBuffer<Job>(new Job(), new Job(), new Job());
+        mGeometry = new TripleBuffer<Geometry>(new Geometry(), new Geometry(), new Geometry());
+        mFlattener = new Flattener();
+        mCache = new SegmentCache();
+        mTolerance = Flattener.DEFAULT_TOLERANCE;
+        mMaxSegments = Flattener.DEFAULT_MAX_SEGMENTS;
+        mMode = mFlattener.getMode();
+        mLeft = mTop = Float.POSITIVE_INFINITY;
+        mRight = mBottom = Float.NEGATIVE_INFINITY;
+    }
+
+    public void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    /** Applies from the next {@link #submit}. */
+    public void setCurveQuality(float tolerance, int maxSegments) {
+        if (!(tolerance > 0f)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be at least 1: " + maxSegments);
+        }
+        mTolerance = tolerance;
+        mMaxSegments = maxSegments;
+    }
+
+    /** Applies from the next {@link #submit}. */
+    public void setCurveMode(Flattener.Mode mode) {
+        mMode = mode;
+    }
+
+    public synchronized void start() {
+        if (mWorker != null) {
+            return;
+        }
+        mWorker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "TessellationPipeline");
+        mWorker.setDaemon(true);
+        mWorker.start();
+    }
+
+    /** Lets the worker finish its current job and exit; geometry already built stays readable. */
+    public synchronized void stop() {
+        Thread worker = mWorker;
+        if (worker == null) {
+            return;
+        }
+        mWorker = null;
+        LockSupport.unpark(worker);
+        try {
+            worker.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues {@code segments} curves of the given degree chained end to end, so segment
+     * {@code s} starts at {@code pts[s * degree * 2]}. The points are copied.
+     *
+     * @return the version the resulting geometry will carry
+     */
+    public long submit(int degree, float[] pts, int segments) {
+        Job job = prepareJob(degree, pts, segments);
+        for (int s = 0; s < segments; s++) {
+            job.mStamps[s] = BezierSpline.nextStamp();
+        }
+        return publishJob(job);
+    }
+
+    /**
+     * Queues the cubics of {@code spline}, copying its points and segment stamps.
+     *
+     * @return the version the resulting geometry will carry
+     */
+    public long submit(BezierSpline spline) {
+        int segments = spline.getSegmentCount();
+        Job job = prepareJob(3, spline.getCoords(), segments);
+        for (int s = 0; s < segments; s++) {
+            job.mStamps[s] = spline.getSegmentStamp(s);
+        }
+        return publishJob(job);
+    }
+
+    private Job prepareJob(int degree, float[] pts, int segments) {
+        Job job = mJobs.getWriteBuffer();
+        int length = segments > 0 ? (segments * degree + 1) * 2 : 0;
+        if (job.mCoords.length < length) {
+            job.mCoords = new float[length * 2];
+        }
+        if (job.mStamps.length < segments) {
+            job.mStamps = new long[segments * 2];
+        }
+        System.arraycopy(pts, 0, job.mCoords, 0, length);
+        job.mDegree = degree;
+        job.mSegments = segments;
+        job.mTolerance = mTolerance;
+        job.mMaxSegments = mMaxSegments;
+        job.mMode = mMode;
+        return job;
+    }
+
+    private long publishJob(Job job) {
+        job.mVersion = ++mVersion;
+        mJobs.publish();
+        Thread worker = mWorker;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+        return mVersion;
+    }
+
+    /**
+     * UI side: switches to the newest finished geometry.
+     *
+     * @return false if nothing new was finished since the last call
+     */
+    public boolean update() {
+        return mGeometry.update();
+    }
+
+    public Geometry getGeometry() {
+        return mGeometry.getReadBuffer();
+    }
+
+    private void loop() {
+        Thread self = Thread.currentThread();
+        while (mWorker == self) {
+            if (!mJobs.update()) {
+                LockSupport.park(this);
+                continue;
+            }
+            Geometry g = mGeometry.getWriteBuffer();
+            tessellate(mJobs.getReadBuffer(), g);
+            float[] b = g.mBounds;
+            float l = Math.min(mLeft, b[0]), t = Math.min(mTop, b[1]);
+            float r = Math.max(mRight, b[2]), bottom = Math.max(mBottom, b[3]);
+            mLeft = b[0];
+            mTop = b[1];
+            mRight = b[2];
+            mBottom = b[3];
+            mGeometry.publish();
+            Listener listener = mListener;
+            if (listener != null && l <= r && t <= bottom) {
+                listener.onGeometryReady(l, t, r, bottom);
+            }
+        }
+    }
+
+    /* worker thread only */
+    private void tessellate(Job job, Geometry g) {
+        mFlattener.setTolerance(job.mTolerance);
+        mFlattener.setMaxSegments(job.mMaxSegments);
+        mFlattener.setMode(job.mMode);
+        mFlattened += mCache.update(mFlattener, job.mDegree, job.mCoords, job.mSegments, job.mStamps);
+        float l = Float.POSITIVE_INFINITY, t = Float.POSITIVE_INFINITY;
+        float r = Float.NEGATIVE_INFINITY, b = Float.NEGATIVE_INFINITY;
+        int lines = 0;
+        for (int s = 0; s < job.mSegments; s++) {
+            int count = mCache.getLineCount(s);
+            ensureLines(g, (lines + count) * 4);
+            System.arraycopy(mCache.getLines(s), 0, g.mLines, lines * 4, count * 4);
+            lines += count;
+            mCache.getBounds(s, mBox);
+            l = Math.min(l, mBox[0]);
+            t = Math.min(t, mBox[1]);
+            r = Math.max(r, mBox[2]);
+            b = Math.max(b, mBox[3]);
+        }
+        g.mLineCount = lines;
+        g.mVersion = job.mVersion;
+        g.mFlattened = mFlattened;
+        g.mBounds[0] = l;
+        g.mBounds[1] = t;
+        g.mBounds[2] = r;
+        g.mBounds[3] = b;
+    }
+
+    private static void ensureLines(Geometry g, int floats) {
+        if (g.mLines.length < floats) {
+            float[] lines = new float[Math.max(floats, g.mLines.length * 2)];
+            System.arraycopy(g.mLines, 0, lines, 0, g.mLines.length);
+            g.mLines = lines;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.rajasharan.bezier;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A CSS {@code cubic-bezier(x1, y1, x2, y2)} timing function: the cubic from (0, 0)
+ * to (1, 1) with control points (x1, y1) and (x2, y2), read as y over x.
+ *
+ * Finding the y for an x means solving x(t) = x for t. The constructor samples the
+ * curve into a table of t at {@link #TABLE_SIZE} evenly spaced x values, so
+ * {@link #getValue} goes straight to the two entries that bracket the answer,
+ * interpolates between them and refines with at most {@link #NEWTON_ITERATIONS} Newton
+ * steps, falling back to at most {@link #BISECTION_ITERATIONS} bisection steps inside
+ * the bracket where the curve is too flat for Newton. Every call does a bounded
+ * amount of work and allocates nothing.
+ *
+ * {@link #of} shares the tables of the {@link #MAX_CACHED} most recently used curves.
+ * Instances are immutable and safe to use from any thread.
+ */
+public final class TimingCurve {
+    public static final int TABLE_SIZE = 33;
+    public static final int NEWTON_ITERATIONS = 4;
+    public static final int BISECTION_ITERATIONS = 16;
+    public static final int MAX_CACHED = 16;
+
+    public static final TimingCurve EASE = new TimingCurve(0.25f, 0.1f, 0.25f, 1f);
+    public static final TimingCurve EASE_IN = new TimingCurve(0.42f, 0f, 1f, 1f);
+    public static final TimingCurve EASE_OUT = new TimingCurve(0f, 0f, 0.58f, 1f);
+    public static final TimingCurve EASE_IN_OUT = new TimingCurve(0.42f, 0f, 0.58f, 1f);
+
+    /* how close x(t) has to get to x, a fraction of a pixel over a full-screen move */
+    private static final float EPSILON = 1e-6f;
+    private static final float MIN_SLOPE = 1e-3f;
+
+    private static final Map<Key, TimingCurve> sCache = new LinkedHashMap<Key, TimingCurve>(MAX_CACHED, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, TimingCurve> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    /* reused for lookups under the cache lock, so a hit allocates nothing */
+    private static final Key sLookup = new Key();
+
+    private final float mX1, mY1, mX2, mY2;
+    /* power basis of x(t) and y(t): ((a * t + b) * t + c) * t */
+    private final float mAx, mBx, mCx;
+    private final float mAy, mBy, mCy;
+    /* t at x = i / (TABLE_SIZE - 1) */
+    private final float[] mTable;
+
+    /**
+     * Builds the table for a new curve. Prefer {@link #of}, which shares it.
+     *
+     * @throws IllegalArgumentException if x1 or x2 lies outside [0, 1], where x(t)
+     *         would stop being a function of time
+     */
+    public TimingCurve(float x1, float y1, float x2, float y2) {
+        if (!(x1 >= 0f && x1 <= 1f && x2 >= 0f && x2 <= 1f)) {
+            throw new IllegalArgumentException("x1 and x2 must be in [0, 1]: " + x1 + ", " + x2);
+        }
+        if (Float.isNaN(y1) || Float.isInfinite(y1) || Float.isNaN(y2) || Float.isInfinite(y2)) {
+            throw new IllegalArgumentException("y1 and y2 must be finite: " + y1 + ", " + y2);
+        }
+        mX1 = x1;
+        mY1 = y1;
+        mX2 = x2;
+        mY2 = y2;
+        mCx = 3f * x1;
+        mBx = 3f * (x2 - x1) - mCx;
+        mAx = 1f - mCx - mBx;
+        mCy = 3f * y1;
+        mBy = 3f * (y2 - y1) - mCy;
+        mAy = 1f - mCy - mBy;
+        mTable = new float[TABLE_SIZE];
+        buildTable(new float[] {0f, 0f, x1, y1, x2, y2, 1f, 1f});
+    }
+
+    /** The curve for these control points, from the cache when it was used recently. */
+    public static TimingCurve of(float x1, float y1, float x2, float y2) {
+        synchronized (sCache) {
+            sLookup.set(x1, y1, x2, y2);
+            TimingCurve curve = sCache.get(sLookup);
+            if (curve == null) {
+                curve = new TimingCurve(x1, y1, x2, y2);
+                Key key = new Key();
+                key.set(x1, y1, x2, y2);
+                sCache.put(key, curve);
+            }
+            return curve;
+        }
+    }
+
+    /**
+     * Progress of the animation at {@code x}, the fraction of its duration that has
+     * passed. x is clamped to [0, 1]; the result can leave [0, 1] when y1 or y2 does.
+     */
+    public float getValue(float x) {
+        if (!(x > 0f)) {
+            return 0f;
+        }
+        if (x >= 1f) {
+            return 1f;
+        }
+        float pos = x * (TABLE_SIZE - 1);
+        int i = (int) pos;
+        float lo = mTable[i], hi = mTable[i + 1];
+        float t = lo + (hi - lo) * (pos - i);
+        for (int k = 0; k < NEWTON_ITERATIONS; k++) {
+            float error = sampleX(t) - x;
+            if (Math.abs(error) < EPSILON) {
+                return sampleY(t);
+            }
+            float slope = slopeX(t);
+            if (slope < MIN_SLOPE) {
+                break;
+            }
+            float next = t - error / slope;
+            if (next < lo || next > hi) {
+                break;
+            }
+            t = next;
+        }
+        for (int k = 0; k < BISECTION_ITERATIONS; k++) {
+            t = (lo + hi) * 0.5f;
+            float error = sampleX(t) - x;
+            if (Math.abs(error) < EPSILON) {
+                break;
+            }
+            if (error < 0f) {
+                lo = t;
+            }
+            else {
+                hi = t;
+            }
+        }
+        return sampleY(t);
+    }
+
+    public float getX1() {
+        return mX1;
+    }
+
+    public float getY1() {
+        return mY1;
+    }
+
+    public float getX2() {
+        return mX2;
+    }
+
+    public float getY2() {
+        return mY2;
+    }
+
+    private float sampleX(float t) {
+        return ((mAx * t + mBx) * t + mCx) * t;
+    }
+
+    private float sampleY(float t) {
+        return ((mAy * t + mBy) * t + mCy) * t;
+    }
+
+    private float slopeX(float t) {
+        return (3f * mAx * t + 2f * mBx) * t + mCx;
+    }
+
+    /* x(t) never decreases with x1 and x2 in [0, 1], so each entry is found by bisecting past the last one */
+    private void buildTable(float[] pts) {
+        float[] point = new float[2];
+        mTable[0] = 0f;
+        mTable[TABLE_SIZE - 1] = 1f;
+        float lo = 0f;
+        for (int i = 1; i < TABLE_SIZE - 1; i++) {
+            float x = i / (float) (TABLE_SIZE - 1);
+            float hi = 1f;
+            for (int k = 0; k < 32; k++) {
+                float mid = (lo + hi) * 0.5f;
+                Bezier.point(Bezier.CUBIC, pts, 0, mid, point, 0);
+                if (point[0] < x) {
+                    lo = mid;
+                }
+                else {
+                    hi = mid;
+                }
+            }
+            mTable[i] = hi;
+        }
+    }
+
+    private static final class Key {
+        private float mX1, mY1, mX2, mY2;
+
+        void set(float x1, float y1, float x2, float y2) {
+            mX1 = x1;
+            mY1 = y1;
+            mX2 = x2;
+            mY2 = y2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return Float.floatToIntBits(mX1) == Float.floatToIntBits(k.mX1)
+                    && Float.floatToIntBits(mY1) == Float.floatToIntBits(k.mY1)
+                    && Float.floatToIntBits(mX2) == Float.floatToIntBits(k.mX2)
+                    && Float.floatToIntBits(mY2) == Float.floatToIntBits(k.mY2);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = Float.floatToIntBits(mX1);
+            h = 31 * h + Float.floatToIntBits(mY1);
+            h = 31 * h + Float.floatToIntBits(mX2);
+            return 31 * h + Float.floatToIntBits(mY2);
+        }
+    }
+}
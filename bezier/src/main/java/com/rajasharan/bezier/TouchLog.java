@@ -0,0 +1,47 @@
+package com.rajasharan.bezier;
+
+/**
+ * Binary log of a touch session, written by {@link TouchRecorder} and read back by
+ * {@link TouchLogReader}.
+ *
+ * All values are little endian. A {@link #HEADER_SIZE} byte header holds the magic
+ * number, the format version, the flags ({@link #FLAG_MULTI_TOUCH} if the view was in
+ * multi-touch mode when recording started), the view width and height and the event
+ * time of the start in milliseconds. Then one record per event: the masked action
+ * (one byte, with the values of {@code MotionEvent}), the id of the pointer the action
+ * is about (one byte) and the sample count (a short), followed by
+ * {@link #SAMPLE_SIZE} bytes per sample: pointer id (a byte), event time in
+ * milliseconds since the start (an int), x and y (floats). A move event has every
+ * historical and current sample of every pointer, oldest first; the other actions
+ * have the sample of their pointer only.
+ *
+ * {@link #ACTION_MULTI_TOUCH} records a switch of the touch mode, with the new mode
+ * in place of the pointer id and no samples.
+ */
+public final class TouchLog {
+    /* "TLOG" */
+    public static final int MAGIC = 0x474F4C54;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 24;
+    public static final int RECORD_HEADER_SIZE = 4;
+    public static final int SAMPLE_SIZE = 13;
+    public static final int FLAG_MULTI_TOUCH = 1;
+
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_MULTI_TOUCH = 100;
+
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_FLAGS = 6;
+    static final int OFFSET_WIDTH = 8;
+    static final int OFFSET_HEIGHT = 12;
+    static final int OFFSET_START_TIME = 16;
+
+    private TouchLog() {
+    }
+}
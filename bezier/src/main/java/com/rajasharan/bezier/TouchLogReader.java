@@ -0,0 +1,152 @@
+package com.rajasharan.bezier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Steps through the events of a {@link TouchLog} in place.
+ *
+ * {@link #next} moves to the next record and checks that it is whole; its action and
+ * samples are then read straight out of the buffer, so reading allocates nothing.
+ */
+public class TouchLogReader {
+    private final ByteBuffer mBuffer;
+    private final int mVersion;
+    private final boolean mMultiTouch;
+    private final int mWidth;
+    private final int mHeight;
+    private final long mStartTime;
+    private int mRecord;
+    private int mNext;
+    private int mSamples;
+
+    /** Reads from {@code buffer}, which must hold a whole log from position 0. */
+    public TouchLogReader(ByteBuffer buffer) throws IOException {
+        mBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (mBuffer.limit() < TouchLog.HEADER_SIZE || mBuffer.getInt(TouchLog.OFFSET_MAGIC) != TouchLog.MAGIC) {
+            throw new IOException("Not a touch log");
+        }
+        mVersion = mBuffer.getShort(TouchLog.OFFSET_VERSION);
+        if (mVersion > TouchLog.VERSION) {
+            throw new IOException("Unsupported touch log version: " + mVersion);
+        }
+        mMultiTouch = (mBuffer.getShort(TouchLog.OFFSET_FLAGS) & TouchLog.FLAG_MULTI_TOUCH) != 0;
+        mWidth = mBuffer.getInt(TouchLog.OFFSET_WIDTH);
+        mHeight = mBuffer.getInt(TouchLog.OFFSET_HEIGHT);
+        mStartTime = mBuffer.getLong(TouchLog.OFFSET_START_TIME);
+        rewind();
+    }
+
+    /** Maps {@code file} read-only; the mapping lives as long as this reader. */
+    public static TouchLogReader open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return new TouchLogReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally {
+            /* the mapping stays valid after the channel is closed */
+            raf.close();
+        }
+    }
+
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /** Touch mode of the view when recording started. */
+    public boolean isMultiTouchMode() {
+        return mMultiTouch;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    /** Goes back to before the first event. */
+    public void rewind() {
+        mRecord = -1;
+        mNext = TouchLog.HEADER_SIZE;
+        mSamples = 0;
+    }
+
+    /**
+     * Moves to the next event.
+     *
+     * @return false at the end of the log
+     * @throws IOException if the log ends in the middle of a record
+     */
+    public boolean next() throws IOException {
+        if (mNext == mBuffer.limit()) {
+            return false;
+        }
+        if (mBuffer.limit() - mNext < TouchLog.RECORD_HEADER_SIZE) {
+            throw new IOException("Truncated touch log at " + mNext);
+        }
+        int samples = mBuffer.getShort(mNext + 2) & 0xffff;
+        int end = mNext + TouchLog.RECORD_HEADER_SIZE + samples * TouchLog.SAMPLE_SIZE;
+        if (end > mBuffer.limit()) {
+            throw new IOException("Truncated touch log at " + mNext);
+        }
+        mRecord = mNext;
+        mSamples = samples;
+        mNext = end;
+        return true;
+    }
+
+    public int getAction() {
+        return mBuffer.get(checkRecord());
+    }
+
+    /** Pointer the action is about, or the new mode for {@link TouchLog#ACTION_MULTI_TOUCH}. */
+    public int getActionPointerId() {
+        return mBuffer.get(checkRecord() + 1);
+    }
+
+    public int getSampleCount() {
+        return mSamples;
+    }
+
+    public int getPointerId(int sample) {
+        return mBuffer.get(sampleOffset(sample));
+    }
+
+    /** Event time of a sample in milliseconds, on the clock of {@link #getStartTime}. */
+    public long getEventTime(int sample) {
+        return mStartTime + mBuffer.getInt(sampleOffset(sample) + 1);
+    }
+
+    public float getX(int sample) {
+        return mBuffer.getFloat(sampleOffset(sample) + 5);
+    }
+
+    public float getY(int sample) {
+        return mBuffer.getFloat(sampleOffset(sample) + 9);
+    }
+
+    private int checkRecord() {
+        if (mRecord == -1) {
+            throw new IllegalStateException("next() has not been called");
+        }
+        return mRecord;
+    }
+
+    private int sampleOffset(int sample) {
+        if (sample < 0 || sample >= mSamples) {
+            throw new IndexOutOfBoundsException("sample " + sample + ", samples " + mSamples);
+        }
+        return checkRecord() + TouchLog.RECORD_HEADER_SIZE + sample * TouchLog.SAMPLE_SIZE;
+    }
+}
@@ -0,0 +1,137 @@
+package com.rajasharan.bezier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Records a touch session as a {@link TouchLog}.
+ *
+ * The input handler calls {@link #beginEvent} with each event's action, then
+ * {@link #addSample} for each of its samples. Records go into one growing buffer,
+ * which doubles when full, so recording costs a few puts per sample and
+ * allocates only while the log is growing. Not thread safe.
+ */
+public class TouchRecorder {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private ByteBuffer mBuffer;
+    private long mStartTime;
+    private int mCountPosition;
+    private int mEvents;
+    private boolean mRecording;
+
+    public TouchRecorder() {
+        mBuffer = ByteBuffer.allocate(INITIAL_CAPACITY).order(ByteOrder.LITTLE_ENDIAN);
+        mCountPosition = -1;
+    }
+
+    /**
+     * Drops anything recorded so far and starts a new log. Sample times are stored
+     * relative to {@code startTime}, in the milliseconds of {@code MotionEvent.getEventTime}.
+     */
+    public void start(long startTime, int width, int height, boolean multiTouch) {
+        mBuffer.clear();
+        mBuffer.putInt(TouchLog.MAGIC);
+        mBuffer.putShort((short) TouchLog.VERSION);
+        mBuffer.putShort((short) (multiTouch ? TouchLog.FLAG_MULTI_TOUCH : 0));
+        mBuffer.putInt(width);
+        mBuffer.putInt(height);
+        mBuffer.putLong(startTime);
+        mStartTime = startTime;
+        mCountPosition = -1;
+        mEvents = 0;
+        mRecording = true;
+    }
+
+    /** Stops recording; the log stays readable until the next {@link #start}. */
+    public void stop() {
+        mRecording = false;
+        mCountPosition = -1;
+    }
+
+    public boolean isRecording() {
+        return mRecording;
+    }
+
+    public int getEventCount() {
+        return mEvents;
+    }
+
+    public void setMultiTouchMode(boolean enable) {
+        beginEvent(TouchLog.ACTION_MULTI_TOUCH, enable ? 1 : 0);
+        mCountPosition = -1;
+    }
+
+    /** Starts the record of one event; its samples follow with {@link #addSample}. */
+    public void beginEvent(int action, int actionPointerId) {
+        if (!mRecording) {
+            return;
+        }
+        ensureRemaining(TouchLog.RECORD_HEADER_SIZE);
+        mBuffer.put((byte) action);
+        mBuffer.put(checkPointerId(actionPointerId));
+        mCountPosition = mBuffer.position();
+        mBuffer.putShort((short) 0);
+        mEvents++;
+    }
+
+    public void addSample(int pointerId, float x, float y, long eventTime) {
+        if (mCountPosition == -1) {
+            return;
+        }
+        int count = mBuffer.getShort(mCountPosition) & 0xffff;
+        if (count == 0xffff) {
+            throw new IllegalStateException("Too many samples in one event");
+        }
+        ensureRemaining(TouchLog.SAMPLE_SIZE);
+        mBuffer.put(checkPointerId(pointerId));
+        mBuffer.putInt((int) (eventTime - mStartTime));
+        mBuffer.putFloat(x);
+        mBuffer.putFloat(y);
+        mBuffer.putShort(mCountPosition, (short) (count + 1));
+    }
+
+    /** The log so far, as a read-only view from position 0, valid until the next {@link #start}. */
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer log = mBuffer.duplicate();
+        log.flip();
+        return log.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public void write(File file) throws IOException {
+        ByteBuffer buf = toByteBuffer();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.truncate(0);
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (mBuffer.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(mBuffer.capacity() * 2, mBuffer.position() + bytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        mBuffer.flip();
+        grown.put(mBuffer);
+        mBuffer = grown;
+    }
+
+    private static byte checkPointerId(int pointerId) {
+        if (pointerId < 0 || pointerId > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("pointer id out of range: " + pointerId);
+        }
+        return (byte) pointerId;
+    }
+}
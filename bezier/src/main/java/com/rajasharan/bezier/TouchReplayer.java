@@ -0,0 +1,240 @@
+package com.rajasharan.bezier;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Replays a {@link TouchLog} through the touch {@link Model} of a view, such as
+ * {@link SpringTouchModel} or {@link CubicTouchModel}, as fast as it can, timing each
+ * event, so input handling can be measured without a device.
+ *
+ * Each event goes through the same calls the view's {@code onTouchEvent} makes: a
+ * down registers the touch, a move queues its samples in a {@link TouchSampleBuffer}
+ * and applies them in one batch, an up or cancel lets go. Between events a
+ * running animation, such as a spring, is stepped in frames of {@link #FRAME_SECONDS}
+ * for as long as the log says passed, timed apart from the events. The costs of the
+ * last replay are kept per event, in order.
+ *
+ * Before replaying, the sample buffer grows to hold the largest move in the log, so
+ * no recorded sample is dropped and no allocation is timed.
+ */
+public class TouchReplayer {
+    public static final float FRAME_SECONDS = 1f / 60f;
+
+    /** Touch state machine of a view, driven by the events of a log. */
+    public interface Model {
+        void setSize(int width, int height);
+
+        void setMultiTouchMode(boolean enable);
+
+        void registerTouch(float x, float y, int pointerId);
+
+        void applySamples(TouchSampleBuffer samples);
+
+        void release(int pointerId);
+
+        void cancel();
+
+        /** True while the model moves on its own between events. */
+        boolean isAnimating();
+
+        /**
+         * Moves the animation on by {@code seconds}.
+         *
+         * @return true while it is still moving
+         */
+        boolean step(float seconds);
+    }
+
+    private TouchSampleBuffer mSamples;
+    private int[] mActions;
+    private long[] mCosts;
+    private int mEvents;
+    private int mFrames;
+    private long mFrameNanos;
+    private long[] mSorted;
+
+    /** {@code sampleCapacity} is the initial size of the sample buffer, which grows to fit the log. */
+    public TouchReplayer(int sampleCapacity) {
+        mSamples = new TouchSampleBuffer(sampleCapacity);
+        mActions = new int[64];
+        mCosts = new long[64];
+        mSorted = new long[0];
+    }
+
+    /**
+     * Replays the whole log from its first event into {@code model}, which is first
+     * set to the log's view size and starting touch mode.
+     *
+     * @return the number of events replayed
+     */
+    public int replay(TouchLogReader log, Model model) throws IOException {
+        mEvents = 0;
+        mFrames = 0;
+        mFrameNanos = 0;
+        fitSamples(log);
+        mSamples.clear();
+        log.rewind();
+        model.setSize(log.getWidth(), log.getHeight());
+        model.setMultiTouchMode(log.isMultiTouchMode());
+        long lastTime = log.getStartTime();
+        float pending = 0f;
+        while (log.next()) {
+            int samples = log.getSampleCount();
+            if (samples > 0) {
+                long time = log.getEventTime(0);
+                pending += (time - lastTime) / 1000f;
+                lastTime = time;
+            }
+            while (pending >= FRAME_SECONDS && model.isAnimating()) {
+                long start = System.nanoTime();
+                model.step(FRAME_SECONDS);
+                mFrameNanos += System.nanoTime() - start;
+                mFrames++;
+                pending -= FRAME_SECONDS;
+            }
+            if (!model.isAnimating()) {
+                pending = 0f;
+            }
+            long start = System.nanoTime();
+            dispatch(log, model);
+            record(log.getAction(), System.nanoTime() - start);
+        }
+        return mEvents;
+    }
+
+    /* grows the sample buffer to the largest event in the log */
+    private void fitSamples(TouchLogReader log) throws IOException {
+        int largest = 0;
+        log.rewind();
+        while (log.next()) {
+            largest = Math.max(largest, log.getSampleCount());
+        }
+        if (largest > mSamples.capacity()) {
+            mSamples = new TouchSampleBuffer(largest);
+        }
+    }
+
+    private void dispatch(TouchLogReader log, Model model) {
+        int action = log.getAction();
+        switch (action) {
+            case TouchLog.ACTION_DOWN:
+            case TouchLog.ACTION_POINTER_DOWN: {
+                model.registerTouch(log.getX(0), log.getY(0), log.getPointerId(0));
+                break;
+            }
+            case TouchLog.ACTION_MOVE: {
+                int samples = log.getSampleCount();
+                for (int i = 0; i < samples; i++) {
+                    mSamples.add(log.getPointerId(i), log.getX(i), log.getY(i), log.getEventTime(i));
+                }
+                model.applySamples(mSamples);
+                mSamples.clear();
+                break;
+            }
+            case TouchLog.ACTION_UP:
+            case TouchLog.ACTION_POINTER_UP: {
+                model.release(log.getActionPointerId());
+                break;
+            }
+            case TouchLog.ACTION_CANCEL: {
+                model.cancel();
+                break;
+            }
+            case TouchLog.ACTION_MULTI_TOUCH: {
+                model.setMultiTouchMode(log.getActionPointerId() != 0);
+                break;
+            }
+        }
+    }
+
+    private void record(int action, long nanos) {
+        if (mEvents == mCosts.length) {
+            mCosts = Arrays.copyOf(mCosts, mEvents * 2);
+            mActions = Arrays.copyOf(mActions, mEvents * 2);
+        }
+        mActions[mEvents] = action;
+        mCosts[mEvents] = nanos;
+        mEvents++;
+    }
+
+    public int getSampleCapacity() {
+        return mSamples.capacity();
+    }
+
+    public int getEventCount() {
+        return mEvents;
+    }
+
+    public int getAction(int event) {
+        checkIndex(event);
+        return mActions[event];
+    }
+
+    /** Time spent handling one event, in nanoseconds. */
+    public long getEventNanos(int event) {
+        checkIndex(event);
+        return mCosts[event];
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (int i = 0; i < mEvents; i++) {
+            total += mCosts[i];
+        }
+        return total;
+    }
+
+    /** Event cost at quantile {@code q} in [0, 1], e.g. 0.99f for the 99th percentile. */
+    public long getCostNanos(float q) {
+        if (mEvents == 0) {
+            return 0;
+        }
+        if (mSorted.length < mEvents) {
+            mSorted = new long[mCosts.length];
+        }
+        System.arraycopy(mCosts, 0, mSorted, 0, mEvents);
+        Arrays.sort(mSorted, 0, mEvents);
+        int k = (int) Math.ceil(Math.max(0f, Math.min(1f, q)) * mEvents) - 1;
+        return mSorted[Math.max(k, 0)];
+    }
+
+    /** Animation frames stepped between events during the last replay. */
+    public int getFrameCount() {
+        return mFrames;
+    }
+
+    public long getFrameNanos() {
+        return mFrameNanos;
+    }
+
+    /**
+     * The last replay as a single line of JSON: totals, quantiles of the event costs
+     * and every event as an {@code [action, costNs]} pair, for comparing runs in CI.
+     */
+    public String export() {
+        StringBuilder sb = new StringBuilder(64 + mEvents * 16);
+        sb.append("{\"events\":").append(mEvents)
+                .append(",\"totalNs\":").append(getTotalNanos())
+                .append(",\"p50Ns\":").append(getCostNanos(0.5f))
+                .append(",\"p90Ns\":").append(getCostNanos(0.9f))
+                .append(",\"p99Ns\":").append(getCostNanos(0.99f))
+                .append(",\"maxNs\":").append(getCostNanos(1f))
+                .append(",\"frames\":").append(mFrames)
+                .append(",\"frameNs\":").append(mFrameNanos)
+                .append(",\"costs\":[");
+        for (int i = 0; i < mEvents; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('[').append(mActions[i]).append(',').append(mCosts[i]).append(']');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private void checkIndex(int event) {
+        if (event < 0 || event >= mEvents) {
+            throw new IndexOutOfBoundsException("event " + event + ", events " + mEvents);
+        }
+    }
+}
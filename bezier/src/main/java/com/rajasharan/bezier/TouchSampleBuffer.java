@@ -0,0 +1,94 @@
+package com.rajasharan.bezier;
+
+/**
+ * Ring buffer of pointer samples (pointer id, x, y, event time) in parallel primitive
+ * arrays. Input handlers append every historical and current sample of a batched
+ * move event, then apply the whole batch to the model in one pass.
+ *
+ * When full, the oldest sample is overwritten. Samples are read by position, where
+ * 0 is the oldest sample still held.
+ */
+public class TouchSampleBuffer {
+    private final int[] mPointerIds;
+    private final float[] mXs;
+    private final float[] mYs;
+    private final long[] mTimes;
+    private final int mCapacity;
+    private int mHead;
+    private int mSize;
+    private int mDropped;
+
+    public TouchSampleBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        mCapacity = capacity;
+        mPointerIds = new int[capacity];
+        mXs = new float[capacity];
+        mYs = new float[capacity];
+        mTimes = new long[capacity];
+    }
+
+    public void add(int pointerId, float x, float y, long eventTime) {
+        int slot;
+        if (mSize == mCapacity) {
+            slot = mHead;
+            mHead = (mHead + 1) % mCapacity;
+            mDropped++;
+        }
+        else {
+            slot = (mHead + mSize) % mCapacity;
+            mSize++;
+        }
+        mPointerIds[slot] = pointerId;
+        mXs[slot] = x;
+        mYs[slot] = y;
+        mTimes[slot] = eventTime;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public int capacity() {
+        return mCapacity;
+    }
+
+    public int getPointerId(int position) {
+        return mPointerIds[slot(position)];
+    }
+
+    public float getX(int position) {
+        return mXs[slot(position)];
+    }
+
+    public float getY(int position) {
+        return mYs[slot(position)];
+    }
+
+    public long getEventTime(int position) {
+        return mTimes[slot(position)];
+    }
+
+    /** Samples overwritten before they were read since the last {@link #clear}. */
+    public int getDroppedCount() {
+        return mDropped;
+    }
+
+    public void clear() {
+        mHead = 0;
+        mSize = 0;
+        mDropped = 0;
+    }
+
+    private int slot(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + mSize);
+        }
+        return (mHead + position) % mCapacity;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rajasharan.bezier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free hand-off of the latest value from one writer thread to one reader thread.
+ *
+ * The writer fills {@link #getWriteBuffer()} and calls {@link #publish()}; the reader
+ * calls {@link #update()} and reads {@link #getReadBuffer()}. Each side owns one of
+ * the three buffers and the third sits in the middle, swapped in and out with a
+ * single atomic exchange, so neither side ever waits for the other and the reader
+ * always sees a complete buffer. Values the reader never picked up are overwritten.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] mBuffers;
+    private final AtomicInteger mMiddle;
+    private int mWrite;
+    private int mRead;
+
+    public TripleBuffer(T first, T second, T third) {
+        mBuffers = new Object[] {first, second, third};
+        mWrite = 0;
+        mRead = 1;
+        mMiddle = new AtomicInteger(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) mBuffers[mWrite];
+    }
+
+    /** Writer side: makes the write buffer the latest value and takes a free one. */
+    public void publish() {
+        mWrite = mMiddle.getAndSet(mWrite | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Reader side: switches to the latest published value.
+     *
+     * @return false if nothing was published since the last update
+     */
+    public boolean update() {
+        if ((mMiddle.get() & FRESH) == 0) {
+            return false;
+        }
+        mRead = mMiddle.getAndSet(mRead) & INDEX_MASK;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        return (T) mBuffers[mRead];
+    }
+}
@@ -0,0 +1,110 @@
+package com.rajasharan.bezier;
+
+/**
+ * Runs a value from 0 to 1 over a fixed duration on an {@link AnimationScheduler},
+ * eased out like {@code DecelerateInterpolator}: {@code 1 - (1 - t)^(2 * factor)}, or
+ * along a designer's {@link TimingCurve}.
+ *
+ * The clock starts at the first frame after {@link #start}, so a frame that arrives
+ * late does not skip the beginning of the animation.
+ */
+public class Tween implements AnimationScheduler.Animation {
+
+    public interface Listener {
+        void onTweenUpdate(Tween tween, float value);
+
+        /**
+         * Called after the last update, and when the tween is cancelled or restarted.
+         * Starting the tween again from here runs it once more.
+         */
+        void onTweenEnd(Tween tween);
+    }
+
+    private final long mDurationNanos;
+    private final float mDeceleration;
+    /* 2 * deceleration when it is a small whole number, so ease can multiply instead of Math.pow */
+    private final int mPower;
+    private final TimingCurve mCurve;
+    private final Listener mListener;
+    private AnimationScheduler mScheduler;
+    private long mStartNanos;
+
+    public Tween(long durationMillis, float deceleration, Listener listener) {
+        this(durationMillis, deceleration, null, listener);
+    }
+
+    public Tween(long durationMillis, TimingCurve curve, Listener listener) {
+        this(durationMillis, 0f, checkCurve(curve), listener);
+    }
+
+    private Tween(long durationMillis, float deceleration, TimingCurve curve, Listener listener) {
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("duration must be positive: " + durationMillis);
+        }
+        mDurationNanos = durationMillis * 1000000L;
+        mDeceleration = deceleration;
+        float power = 2f * deceleration;
+        mPower = power == (int) power && power >= 1f && power <= 8f ? (int) power : 0;
+        mCurve = curve;
+        mListener = listener;
+    }
+
+    private static TimingCurve checkCurve(TimingCurve curve) {
+        if (curve == null) {
+            throw new IllegalArgumentException("curve must not be null");
+        }
+        return curve;
+    }
+
+    /** Starts from 0 on {@code scheduler}, ending the run in progress first. */
+    public void start(AnimationScheduler scheduler) {
+        cancel();
+        mScheduler = scheduler;
+        mStartNanos = -1;
+        scheduler.start(this);
+    }
+
+    public void cancel() {
+        if (mScheduler == null) {
+            return;
+        }
+        mScheduler.cancel(this);
+        mScheduler = null;
+        mListener.onTweenEnd(this);
+    }
+
+    public boolean isRunning() {
+        return mScheduler != null;
+    }
+
+    @Override
+    public boolean doAnimationFrame(long frameTimeNanos) {
+        if (mStartNanos < 0) {
+            mStartNanos = frameTimeNanos;
+        }
+        float t = Math.min(1f, (frameTimeNanos - mStartNanos) / (float) mDurationNanos);
+        mListener.onTweenUpdate(this, ease(t));
+        if (t < 1f) {
+            return true;
+        }
+        AnimationScheduler scheduler = mScheduler;
+        mScheduler = null;
+        mListener.onTweenEnd(this);
+        /* restarted from onTweenEnd, the scheduler still holds it */
+        return mScheduler == scheduler;
+    }
+
+    float ease(float t) {
+        if (mCurve != null) {
+            return mCurve.getValue(t);
+        }
+        if (mPower > 0) {
+            float u = 1f - t, p = u;
+            for (int i = 1; i < mPower; i++) {
+                p *= u;
+            }
+            return 1f - p;
+        }
+        return 1f - (float) Math.pow(1f - t, 2f * mDeceleration);
+    }
+}
@@ -0,0 +1,259 @@
+package com.rajasharan.bezier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AnimationSchedulerTest {
+    private static final long FRAME_NANOS = 16000000L;
+
+    private FakeFrames mFrames;
+    private AnimationScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mFrames = new FakeFrames();
+        mScheduler = new AnimationScheduler(mFrames);
+        mFrames.mScheduler = mScheduler;
+    }
+
+    @Test
+    public void everyRunningAnimationIsTickedOncePerFrame() {
+        Counter[] counters = new Counter[20];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counter(i + 1);
+            mScheduler.start(counters[i]);
+        }
+        /* twenty starts, one frame asked for */
+        assertEquals(1, mFrames.mRequests);
+        for (int frame = 1; frame <= counters.length; frame++) {
+            assertTrue(mFrames.runFrame());
+            for (int i = 0; i < counters.length; i++) {
+                assertEquals("animation " + i, Math.min(frame, i + 1), counters[i].mTicks);
+                if (i + 1 >= frame) {
+                    assertEquals(mFrames.mTime, counters[i].mLastTime);
+                }
+            }
+            assertEquals(counters.length - frame, mScheduler.getRunningCount());
+        }
+    }
+
+    @Test
+    public void startingARunningAnimationAgainDoesNotTickItTwice() {
+        Counter counter = new Counter(3);
+        mScheduler.start(counter);
+        mScheduler.start(counter);
+        mFrames.runFrame();
+        assertEquals(1, counter.mTicks);
+        assertEquals(1, mScheduler.getRunningCount());
+    }
+
+    @Test
+    public void animationCancelledDuringATickIsNotTickedAgain() {
+        final Counter before = new Counter(10);
+        final Counter after = new Counter(10);
+        Counter canceller = new Counter(10) {
+            @Override
+            public boolean doAnimationFrame(long frameTimeNanos) {
+                if (mTicks == 1) {
+                    mScheduler.cancel(before);
+                    mScheduler.cancel(after);
+                    mScheduler.cancel(this);
+                }
+                return super.doAnimationFrame(frameTimeNanos);
+            }
+        };
+        Counter bystander = new Counter(10);
+        mScheduler.start(before);
+        mScheduler.start(canceller);
+        mScheduler.start(after);
+        mScheduler.start(bystander);
+
+        mFrames.runFrame();
+        mFrames.runFrame();
+        assertEquals(2, before.mTicks);
+        assertEquals(2, canceller.mTicks);
+        /* cancelled before its turn came in the second frame */
+        assertEquals(1, after.mTicks);
+        assertEquals(2, bystander.mTicks);
+        assertFalse(mScheduler.isRunning(before));
+        assertFalse(mScheduler.isRunning(canceller));
+        assertFalse(mScheduler.isRunning(after));
+        assertEquals(1, mScheduler.getRunningCount());
+
+        mFrames.runFrame();
+        assertEquals(2, before.mTicks);
+        assertEquals(3, bystander.mTicks);
+    }
+
+    @Test
+    public void animationStartedDuringAFrameIsFirstTickedOnTheNext() {
+        final Counter late = new Counter(1);
+        Counter starter = new Counter(1) {
+            @Override
+            public boolean doAnimationFrame(long frameTimeNanos) {
+                mScheduler.start(late);
+                return super.doAnimationFrame(frameTimeNanos);
+            }
+        };
+        mScheduler.start(starter);
+        mFrames.runFrame();
+        assertEquals(0, late.mTicks);
+        assertTrue(mScheduler.isRunning(late));
+        assertTrue(mFrames.runFrame());
+        assertEquals(1, late.mTicks);
+        assertEquals(2 * FRAME_NANOS, late.mLastTime);
+    }
+
+    @Test
+    public void framesStopOnceNothingIsRunning() {
+        mScheduler.start(new Counter(3));
+        int frames = 0;
+        while (mFrames.runFrame()) {
+            frames++;
+        }
+        assertEquals(3, frames);
+        assertEquals(3, mFrames.mRequests);
+        assertEquals(0, mScheduler.getRunningCount());
+
+        /* cancelling the last one between frames still lets the pending frame go idle */
+        Counter counter = new Counter(3);
+        mScheduler.start(counter);
+        mScheduler.cancel(counter);
+        assertTrue(mFrames.runFrame());
+        assertEquals(0, counter.mTicks);
+        assertFalse(mFrames.runFrame());
+        assertEquals(4, mFrames.mRequests);
+    }
+
+    @Test
+    public void tweenRunsFromZeroToOneFromItsFirstFrame() {
+        Recorder recorder = new Recorder();
+        Tween tween = new Tween(64, 1f, recorder);
+        mFrames.mTime = 1000 * FRAME_NANOS;
+        tween.start(mScheduler);
+        assertTrue(tween.isRunning());
+        while (mFrames.runFrame()) {
+            continue;
+        }
+        /* 0, 16, 32, 48 and 64 ms, however long it waited for the first frame */
+        assertEquals(5, recorder.mValues.size());
+        assertEquals(0f, recorder.mValues.get(0), 0f);
+        assertEquals(tween.ease(0.5f), recorder.mValues.get(2), 1e-6f);
+        assertEquals(1f, recorder.mValues.get(4), 0f);
+        for (int i = 1; i < recorder.mValues.size(); i++) {
+            assertTrue(recorder.mValues.get(i) > recorder.mValues.get(i - 1));
+        }
+        assertEquals(1, recorder.mEnds);
+        assertFalse(tween.isRunning());
+        assertEquals(0, mScheduler.getRunningCount());
+    }
+
+    @Test
+    public void cancelledTweenEndsOnceAndIsNotTickedAgain() {
+        Recorder recorder = new Recorder();
+        Tween tween = new Tween(160, 1f, recorder);
+        tween.start(mScheduler);
+        mFrames.runFrame();
+        tween.cancel();
+        tween.cancel();
+        assertEquals(1, recorder.mEnds);
+        assertFalse(tween.isRunning());
+        mFrames.runFrame();
+        assertEquals(1, recorder.mValues.size());
+        assertFalse(mFrames.runFrame());
+    }
+
+    @Test
+    public void tweenRestartedFromItsEndRunsAgainFromZero() {
+        final int[] runs = {0};
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onTweenEnd(Tween tween) {
+                super.onTweenEnd(tween);
+                if (++runs[0] < 2) {
+                    tween.start(mScheduler);
+                }
+            }
+        };
+        Tween tween = new Tween(32, 1f, recorder);
+        tween.start(mScheduler);
+        while (mFrames.runFrame()) {
+            continue;
+        }
+        assertEquals(2, recorder.mEnds);
+        List<Float> expected = new ArrayList<Float>();
+        for (int run = 0; run < 2; run++) {
+            expected.add(0f);
+            expected.add(tween.ease(0.5f));
+            expected.add(1f);
+        }
+        assertEquals(expected, recorder.mValues);
+        assertEquals(0, mScheduler.getRunningCount());
+    }
+
+    /* a Choreographer stand-in: frames run only when the test asks, one per request */
+    private static class FakeFrames implements AnimationScheduler.FrameRequester {
+        AnimationScheduler mScheduler;
+        int mRequests;
+        boolean mPending;
+        long mTime;
+
+        @Override
+        public void requestFrame() {
+            assertFalse("frame requested twice", mPending);
+            mPending = true;
+            mRequests++;
+        }
+
+        /* runs the requested frame, or returns false if none was asked for */
+        boolean runFrame() {
+            if (!mPending) {
+                return false;
+            }
+            mPending = false;
+            mTime += FRAME_NANOS;
+            mScheduler.doFrame(mTime);
+            return true;
+        }
+    }
+
+    /* finishes after a fixed number of ticks */
+    private static class Counter implements AnimationScheduler.Animation {
+        final int mFrames;
+        int mTicks;
+        long mLastTime;
+
+        Counter(int frames) {
+            mFrames = frames;
+        }
+
+        @Override
+        public boolean doAnimationFrame(long frameTimeNanos) {
+            mTicks++;
+            mLastTime = frameTimeNanos;
+            return mTicks < mFrames;
+        }
+    }
+
+    private static class Recorder implements Tween.Listener {
+        final List<Float> mValues = new ArrayList<Float>();
+        int mEnds;
+
+        @Override
+        public void onTweenUpdate(Tween tween, float value) {
+            mValues.add(value);
+        }
+
+        @Override
+        public void onTweenEnd(Tween tween) {
+            mEnds++;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArcLengthTableTest {
+    private static final int SAMPLES = 20000;
+
+    @Test
+    public void lengthOfAStraightCubicIsItsChord() {
+        ArcLengthTable table = new ArcLengthTable();
+        float[] pts = {0f, 0f, 30f, 40f, 60f, 80f, 300f, 400f};
+        table.update(Bezier.CUBIC, pts, 1);
+        assertEquals(500f, table.getLength(), 0.01f);
+    }
+
+    @Test
+    public void lengthMatchesADensePolyline() {
+        Random random = new Random(41);
+        ArcLengthTable table = new ArcLengthTable();
+        float[] pts = chain(random, 5);
+        table.update(Bezier.CUBIC, pts, 5);
+        double total = 0;
+        for (int s = 0; s < 5; s++) {
+            double length = polylineLength(pts, s * 6);
+            assertEquals(length, table.getSegmentLength(s), length * 1e-3);
+            total += length;
+        }
+        assertEquals(total, table.getLength(), total * 1e-3);
+    }
+
+    @Test
+    public void pointAtDistanceWalksTheCurveEvenly() {
+        Random random = new Random(42);
+        ArcLengthTable table = new ArcLengthTable();
+        float[] pts = chain(random, 3);
+        table.update(Bezier.CUBIC, pts, 3);
+        float length = table.getLength();
+        float[] p = new float[2];
+        float[] q = new float[2];
+        table.pointAtDistance(0f, p);
+        assertEquals(pts[0], p[0], 1e-3f);
+        assertEquals(pts[1], p[1], 1e-3f);
+        int steps = 100;
+        float step = length / steps;
+        for (int i = 1; i <= steps; i++) {
+            table.pointAtDistance(i * step, q);
+            /* consecutive points are a step apart along the curve, never more across the chord */
+            float chord = (float) Math.hypot(q[0] - p[0], q[1] - p[1]);
+            assertTrue("chord " + chord + " step " + step, chord <= step * 1.01f);
+            assertTrue("chord " + chord + " step " + step, chord >= step * 0.5f);
+            p[0] = q[0];
+            p[1] = q[1];
+        }
+        assertEquals(pts[pts.length - 2], p[0], 0.01f);
+        assertEquals(pts[pts.length - 1], p[1], 0.01f);
+    }
+
+    @Test
+    public void updateOnlyReintegratesSegmentsThatMoved() {
+        Random random = new Random(43);
+        ArcLengthTable table = new ArcLengthTable();
+        float[] pts = chain(random, 10);
+        assertEquals(10, table.update(Bezier.CUBIC, pts, 10));
+        assertEquals(0, table.update(Bezier.CUBIC, pts, 10));
+        /* a handle belongs to one segment, a knot to the two it joins */
+        pts[4 * 6 + 2] += 10f;
+        assertEquals(1, table.update(Bezier.CUBIC, pts, 10));
+        pts[4 * 6] += 10f;
+        assertEquals(2, table.update(Bezier.CUBIC, pts, 10));
+        float[] longer = chain(random, 40);
+        assertEquals(40, table.update(Bezier.CUBIC, longer, 40));
+        assertEquals(40, table.getSegmentCount());
+    }
+
+    @Test
+    public void emptyTableHasNoPoints() {
+        ArcLengthTable table = new ArcLengthTable();
+        table.update(Bezier.CUBIC, new float[0], 0);
+        assertEquals(0f, table.getLength(), 0f);
+        assertEquals(-1, table.pointAtDistance(10f, new float[2]));
+    }
+
+    private static float[] chain(Random random, int segments) {
+        float[] pts = new float[(segments * 3 + 1) * 2];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = random.nextFloat() * 1000f;
+        }
+        return pts;
+    }
+
+    private static double polylineLength(float[] pts, int off) {
+        float[] p = new float[2];
+        double length = 0, x = pts[off], y = pts[off + 1];
+        for (int i = 1; i <= SAMPLES; i++) {
+            Bezier.point(Bezier.CUBIC, pts, off, i / (float) SAMPLES, p, 0);
+            length += Math.hypot(p[0] - x, p[1] - y);
+            x = p[0];
+            y = p[1];
+        }
+        return length;
+    }
+}
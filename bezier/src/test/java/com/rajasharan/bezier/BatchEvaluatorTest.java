@@ -0,0 +1,69 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchEvaluatorTest {
+    private static final int CURVES = 50;
+    private static final int PARAMS = 17;
+
+    @Test
+    public void evaluateMatchesBezierPoint() {
+        Random random = new Random(51);
+        float[] ts = new float[PARAMS];
+        for (int m = 0; m < PARAMS; m++) {
+            ts[m] = m / (float) (PARAMS - 1);
+        }
+        float[] p = new float[2];
+        for (int degree = Bezier.QUADRATIC; degree <= Bezier.CUBIC; degree++) {
+            int stride = Bezier.coordCount(degree);
+            float[] pts = randomPoints(random, CURVES * stride);
+            BatchEvaluator evaluator = new BatchEvaluator();
+            evaluator.setCurves(degree, pts, 0, CURVES, stride);
+            assertEquals(degree, evaluator.getDegree());
+            assertEquals(CURVES, evaluator.getCurveCount());
+            float[] xs = new float[CURVES * PARAMS];
+            float[] ys = new float[CURVES * PARAMS];
+            evaluator.evaluate(ts, PARAMS, xs, ys);
+            for (int c = 0; c < CURVES; c++) {
+                for (int m = 0; m < PARAMS; m++) {
+                    Bezier.point(degree, pts, c * stride, ts[m], p, 0);
+                    assertEquals(p[0], xs[c * PARAMS + m], 0f);
+                    assertEquals(p[1], ys[c * PARAMS + m], 0f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void evaluateEachReadsTheSegmentsOfAChain() {
+        Random random = new Random(52);
+        float[] pts = randomPoints(random, (CURVES * 3 + 1) * 2);
+        float[] ts = randomPoints(random, CURVES);
+        for (int c = 0; c < CURVES; c++) {
+            ts[c] /= 1000f;
+        }
+        BatchEvaluator evaluator = new BatchEvaluator();
+        evaluator.setCurves(Bezier.CUBIC, pts, 0, CURVES, 6);
+        float[] xs = new float[CURVES];
+        float[] ys = new float[CURVES];
+        evaluator.evaluateEach(ts, xs, ys);
+        float[] p = new float[2];
+        for (int c = 0; c < CURVES; c++) {
+            Bezier.point(Bezier.CUBIC, pts, c * 6, ts[c], p, 0);
+            assertEquals(p[0], xs[c], 0f);
+            assertEquals(p[1], ys[c], 0f);
+        }
+    }
+
+    private static float[] randomPoints(Random random, int count) {
+        float[] pts = new float[count];
+        for (int i = 0; i < count; i++) {
+            pts[i] = random.nextFloat() * 1000f;
+        }
+        return pts;
+    }
+}
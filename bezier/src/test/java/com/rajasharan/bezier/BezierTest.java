@@ -0,0 +1,138 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BezierTest {
+    private static final int SAMPLES = 2000;
+
+    @Test
+    public void pointMatchesDeCasteljau() {
+        Random random = new Random(1);
+        float[] out = new float[2];
+        double[] expected = new double[2];
+        for (int degree = Bezier.LINEAR; degree <= Bezier.CUBIC; degree++) {
+            for (int c = 0; c < 100; c++) {
+                float[] pts = randomPoints(random, degree, 1000f);
+                for (int i = 0; i <= 20; i++) {
+                    float t = i / 20f;
+                    Bezier.point(degree, pts, 0, t, out, 0);
+                    deCasteljau(degree, pts, t, expected);
+                    assertEquals(expected[0], out[0], 1e-3);
+                    assertEquals(expected[1], out[1], 1e-3);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pointHitsEndPointsExactly() {
+        float[] pts = {3.5f, -7f, 100f, 20f, -40f, 90f, 250.25f, 12f};
+        float[] out = new float[2];
+        Bezier.point(Bezier.CUBIC, pts, 0, 0f, out, 0);
+        assertEquals(3.5f, out[0], 0f);
+        assertEquals(-7f, out[1], 0f);
+        Bezier.point(Bezier.CUBIC, pts, 0, 1f, out, 0);
+        assertEquals(250.25f, out[0], 0f);
+        assertEquals(12f, out[1], 0f);
+    }
+
+    @Test
+    public void derivativeMatchesFiniteDifferences() {
+        Random random = new Random(2);
+        float[] d = new float[2];
+        double h = 1e-4;
+        double[] a = new double[2];
+        double[] b = new double[2];
+        for (int degree = Bezier.LINEAR; degree <= Bezier.CUBIC; degree++) {
+            float[] pts = randomPoints(random, degree, 1000f);
+            for (int i = 1; i < 10; i++) {
+                float t = i / 10f;
+                Bezier.derivative(degree, pts, 0, t, d, 0);
+                deCasteljau(degree, pts, t - h, a);
+                deCasteljau(degree, pts, t + h, b);
+                assertEquals((b[0] - a[0]) / (2 * h), d[0], 0.5);
+                assertEquals((b[1] - a[1]) / (2 * h), d[1], 0.5);
+            }
+        }
+    }
+
+    @Test
+    public void boundsContainTheCurveTightly() {
+        Random random = new Random(3);
+        float[] box = new float[4];
+        float[] p = new float[2];
+        for (int degree = Bezier.LINEAR; degree <= Bezier.CUBIC; degree++) {
+            for (int c = 0; c < 200; c++) {
+                float[] pts = randomPoints(random, degree, 1000f);
+                Bezier.bounds(degree, pts, 0, box, 0);
+                float left = Float.MAX_VALUE, top = Float.MAX_VALUE;
+                float right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+                for (int i = 0; i <= SAMPLES; i++) {
+                    Bezier.point(degree, pts, 0, i / (float) SAMPLES, p, 0);
+                    left = Math.min(left, p[0]);
+                    top = Math.min(top, p[1]);
+                    right = Math.max(right, p[0]);
+                    bottom = Math.max(bottom, p[1]);
+                }
+                /* brute force can only miss an extremum by the sag between two samples */
+                assertTrue(box[0] <= left + 1e-3f && box[0] >= left - 0.01f);
+                assertTrue(box[1] <= top + 1e-3f && box[1] >= top - 0.01f);
+                assertTrue(box[2] >= right - 1e-3f && box[2] <= right + 0.01f);
+                assertTrue(box[3] >= bottom - 1e-3f && box[3] <= bottom + 0.01f);
+            }
+        }
+    }
+
+    @Test
+    public void subSegmentTracesThePartOfTheCurve() {
+        Random random = new Random(4);
+        float[] part = new float[8];
+        float[] p = new float[2];
+        float[] q = new float[2];
+        for (int degree = Bezier.QUADRATIC; degree <= Bezier.CUBIC; degree++) {
+            float[] pts = randomPoints(random, degree, 1000f);
+            Bezier.subSegment(degree, pts, 0, 0.2f, 0.7f, part, 0);
+            for (int i = 0; i <= 10; i++) {
+                float u = i / 10f;
+                Bezier.point(degree, part, 0, u, p, 0);
+                Bezier.point(degree, pts, 0, 0.2f + 0.5f * u, q, 0);
+                assertEquals(q[0], p[0], 1e-2f);
+                assertEquals(q[1], p[1], 1e-2f);
+            }
+        }
+    }
+
+    @Test
+    public void curvatureOfAStraightCubicIsZero() {
+        float[] pts = {0f, 0f, 10f, 10f, 20f, 20f, 30f, 30f};
+        assertEquals(0f, Bezier.curvature(Bezier.CUBIC, pts, 0, 0.3f), 1e-6f);
+    }
+
+    private static float[] randomPoints(Random random, int degree, float size) {
+        float[] pts = new float[Bezier.coordCount(degree)];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = random.nextFloat() * size;
+        }
+        return pts;
+    }
+
+    private static void deCasteljau(int degree, float[] pts, double t, double[] out) {
+        double[] w = new double[pts.length];
+        for (int i = 0; i < w.length; i++) {
+            w[i] = pts[i];
+        }
+        for (int level = degree; level > 0; level--) {
+            for (int i = 0; i < level; i++) {
+                w[i * 2] += (w[i * 2 + 2] - w[i * 2]) * t;
+                w[i * 2 + 1] += (w[i * 2 + 3] - w[i * 2 + 1]) * t;
+            }
+        }
+        out[0] = w[0];
+        out[1] = w[1];
+    }
+}
@@ -0,0 +1,152 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CubicTouchModelTest {
+    private static final float HIT_RADIUS = 40f;
+
+    @Test
+    public void tapsPlaceTheControlPointsInOrderAndStartOver() {
+        CubicTouchModel model = new CubicTouchModel(HIT_RADIUS);
+        tap(model, 100f, 100f);
+        tap(model, 900f, 100f);
+        tap(model, 300f, 600f);
+        tap(model, 700f, 600f);
+        ControlPointStore touches = model.getTouches();
+        assertEquals(4, touches.size());
+        assertEquals(700f, touches.getX(3), 0f);
+        model.buildSpline();
+        assertEquals(1, model.getSpline().getSegmentCount());
+        /* the fifth tap wraps around to a new curve */
+        tap(model, 500f, 1500f);
+        assertEquals(1, touches.size());
+        assertEquals(0, model.getCurrentTouchIndex());
+    }
+
+    @Test
+    public void dragMovesTheGrabbedPoint() {
+        CubicTouchModel model = new CubicTouchModel(HIT_RADIUS);
+        tap(model, 100f, 100f);
+        tap(model, 900f, 100f);
+        model.registerTouch(110f, 95f, 0);
+        assertEquals(0, model.getCurrentTouchIndex());
+        TouchSampleBuffer samples = new TouchSampleBuffer(8);
+        samples.add(0, 150f, 120f, 0);
+        samples.add(0, 200f, 140f, 16);
+        model.applySamples(samples);
+        model.release(0);
+        assertEquals(200f, model.getTouches().getX(0), 0f);
+        assertEquals(140f, model.getTouches().getY(0), 0f);
+        assertEquals(2, model.getTouches().size());
+    }
+
+    @Test
+    public void c1DragMirrorsTheOppositeHandle() {
+        CubicTouchModel model = new CubicTouchModel(HIT_RADIUS);
+        model.setMaxCount(7);
+        model.getSpline().setContinuity(BezierSpline.C1);
+        float[][] taps = {{100f, 500f}, {500f, 500f}, {200f, 300f}, {400f, 300f}, {900f, 500f}, {600f, 700f}, {800f, 700f}};
+        for (float[] p : taps) {
+            tap(model, p[0], p[1]);
+        }
+        final int[] followed = {0};
+        model.setListener(new CubicTouchModel.Listener() {
+            @Override
+            public void onTouchRegistered(int index) {
+            }
+
+            @Override
+            public void onTouchFollowed(int index) {
+                followed[0]++;
+            }
+
+            @Override
+            public void onStrokeFinished() {
+            }
+        });
+        /* touch 5 is the first handle of the second cubic, touch 3 the last of the first */
+        model.registerTouch(600f, 700f, 0);
+        TouchSampleBuffer samples = new TouchSampleBuffer(8);
+        samples.add(0, 650f, 800f, 0);
+        model.applySamples(samples);
+        ControlPointStore t = model.getTouches();
+        assertEquals(650f, t.getX(5), 1e-3f);
+        assertEquals(t.getX(1) - t.getX(3), t.getX(5) - t.getX(1), 1e-3f);
+        assertEquals(t.getY(1) - t.getY(3), t.getY(5) - t.getY(1), 1e-3f);
+        assertTrue(followed[0] > 0);
+    }
+
+    @Test
+    public void multiTouchGivesEachPointerItsOwnPoint() {
+        CubicTouchModel model = new CubicTouchModel(HIT_RADIUS);
+        model.setMultiTouchMode(true);
+        model.registerTouch(100f, 100f, 0);
+        model.registerTouch(900f, 100f, 1);
+        assertEquals(0, model.touchIndex(0));
+        assertEquals(1, model.touchIndex(1));
+        TouchSampleBuffer samples = new TouchSampleBuffer(8);
+        samples.add(0, 120f, 130f, 0);
+        samples.add(1, 880f, 130f, 0);
+        model.applySamples(samples);
+        assertEquals(130f, model.getTouches().getY(0), 0f);
+        assertEquals(880f, model.getTouches().getX(1), 0f);
+        model.release(0);
+        assertEquals(-1, model.touchIndex(0));
+        model.cancel();
+        assertEquals(-1, model.touchIndex(1));
+    }
+
+    @Test
+    public void freehandStrokeIsFittedUntilItsPointerLifts() {
+        CubicTouchModel model = new CubicTouchModel(HIT_RADIUS);
+        model.setFreehandMode(true);
+        final int[] finished = {0};
+        model.setListener(new CubicTouchModel.Listener() {
+            @Override
+            public void onTouchRegistered(int index) {
+            }
+
+            @Override
+            public void onTouchFollowed(int index) {
+            }
+
+            @Override
+            public void onStrokeFinished() {
+                finished[0]++;
+            }
+        });
+        model.registerTouch(0f, 500f, 0);
+        assertTrue(model.isStroking());
+        /* a second finger neither starts a stroke nor ends this one */
+        model.registerTouch(40f, 40f, 1);
+        TouchSampleBuffer samples = new TouchSampleBuffer(256);
+        for (int i = 1; i <= 200; i++) {
+            samples.add(0, i * 4f, 500f + 200f * (float) Math.sin(i * 0.05), i);
+            samples.add(1, 40f, 40f + i, i);
+        }
+        model.applySamples(samples);
+        model.release(1);
+        assertTrue(model.isStroking());
+        assertEquals(0, finished[0]);
+        model.release(0);
+        assertFalse(model.isStroking());
+        assertEquals(1, finished[0]);
+        model.buildSpline();
+        assertTrue(model.getSpline().getSegmentCount() > 1);
+        assertEquals(0, model.getTouches().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFewerThanTwoControlPoints() {
+        new CubicTouchModel(HIT_RADIUS).setMaxCount(1);
+    }
+
+    private static void tap(CubicTouchModel model, float x, float y) {
+        model.registerTouch(x, y, 0);
+        model.release(0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class CurveDocumentTest {
+
+    @Test
+    public void floatEncodingRoundTripsExactly() throws IOException {
+        CurveScene scene = randomScene(new Random(21), 1000f);
+        CurveDocumentReader reader = new CurveDocumentReader(
+                CurveDocument.encode(scene, CurveDocument.ENCODING_FLOAT, CurveDocument.DEFAULT_QUANTUM));
+        assertEquals(CurveDocument.ENCODING_FLOAT, reader.getEncoding());
+        assertSameScene(scene, reader, 0f);
+    }
+
+    @Test
+    public void quantizedEncodingIsWithinHalfAQuantum() throws IOException {
+        CurveScene scene = randomScene(new Random(22), 1000f);
+        float quantum = CurveDocument.DEFAULT_QUANTUM;
+        CurveDocumentReader reader = new CurveDocumentReader(
+                CurveDocument.encode(scene, CurveDocument.ENCODING_QUANTIZED, quantum));
+        assertEquals(CurveDocument.ENCODING_QUANTIZED, reader.getEncoding());
+        assertSameScene(scene, reader, quantum * 0.5f + 1e-4f);
+    }
+
+    @Test
+    public void quantizedFallsBackToFloatsWhenADifferenceIsTooLarge() throws IOException {
+        CurveScene scene = new CurveScene();
+        scene.addCubic(0f, 0f, 5000f, 0f, 0f, 5000f, 5000f, 5000f, 0);
+        ByteBuffer buffer = CurveDocument.encode(scene, CurveDocument.ENCODING_QUANTIZED, CurveDocument.DEFAULT_QUANTUM);
+        CurveDocumentReader reader = new CurveDocumentReader(buffer);
+        assertEquals(CurveDocument.ENCODING_FLOAT, reader.getEncoding());
+        assertSameScene(scene, reader, 0f);
+    }
+
+    @Test
+    public void loadIntoRebuildsTheScene() throws IOException {
+        CurveScene scene = randomScene(new Random(23), 1000f);
+        CurveDocumentReader reader = new CurveDocumentReader(
+                CurveDocument.encode(scene, CurveDocument.ENCODING_FLOAT, CurveDocument.DEFAULT_QUANTUM));
+        CurveScene loaded = new CurveScene();
+        reader.loadInto(loaded);
+        assertEquals(scene.size(), loaded.size());
+        for (int c = 0; c < scene.size(); c++) {
+            assertEquals(scene.getSegmentCount(c), loaded.getSegmentCount(c));
+            assertEquals(scene.getStyle(c), loaded.getStyle(c));
+            int floats = (scene.getSegmentCount(c) * 3 + 1) * 2;
+            for (int i = 0; i < floats; i++) {
+                assertEquals(scene.getPoints()[scene.getOffset(c) + i], loaded.getPoints()[loaded.getOffset(c) + i], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void queryMatchesTheSceneQuery() throws IOException {
+        CurveScene scene = randomScene(new Random(24), 4000f);
+        CurveDocumentReader reader = new CurveDocumentReader(
+                CurveDocument.encode(scene, CurveDocument.ENCODING_QUANTIZED, CurveDocument.DEFAULT_QUANTUM));
+        int[] expected = new int[scene.size()];
+        int[] actual = new int[scene.size()];
+        int n = scene.query(1000f, 1000f, 1500f, 1500f, expected);
+        assertEquals(n, reader.query(1000f, 1000f, 1500f, 1500f, actual));
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected[i], actual[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownEncoding() {
+        CurveDocument.encode(new CurveScene(), 7, CurveDocument.DEFAULT_QUANTUM);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsABufferThatIsNotADocument() throws IOException {
+        new CurveDocumentReader(ByteBuffer.allocate(CurveDocument.HEADER_SIZE));
+    }
+
+    private static CurveScene randomScene(Random random, float size) {
+        CurveScene scene = new CurveScene();
+        for (int c = 0; c < 50; c++) {
+            int segments = 1 + random.nextInt(4);
+            float[] pts = new float[(segments * 3 + 1) * 2];
+            pts[0] = random.nextFloat() * size;
+            pts[1] = random.nextFloat() * size;
+            for (int i = 2; i < pts.length; i++) {
+                pts[i] = pts[i - 2] + (random.nextFloat() - 0.5f) * 200f;
+            }
+            scene.add(pts, 0, segments, random.nextInt(4));
+        }
+        return scene;
+    }
+
+    private static void assertSameScene(CurveScene scene, CurveDocumentReader reader, float delta) {
+        assertEquals(scene.size(), reader.getCurveCount());
+        float[] expected = new float[4];
+        float[] actual = new float[4];
+        float[] pts = new float[64];
+        for (int c = 0; c < scene.size(); c++) {
+            assertEquals(scene.getSegmentCount(c), reader.getSegmentCount(c));
+            assertEquals(scene.getStyle(c), reader.getStyle(c));
+            scene.getBounds(c, expected);
+            reader.getBounds(c, actual);
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expected[i], actual[i], 0f);
+            }
+            int floats = reader.readCurve(c, pts, 0);
+            assertEquals((scene.getSegmentCount(c) * 3 + 1) * 2, floats);
+            for (int i = 0; i < floats; i++) {
+                assertEquals(scene.getPoints()[scene.getOffset(c) + i], pts[i], delta);
+            }
+        }
+    }
+}
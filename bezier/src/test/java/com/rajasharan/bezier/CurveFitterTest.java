@@ -0,0 +1,100 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CurveFitterTest {
+    private static final int COUNT = 400;
+
+    @Test
+    public void fittedChainStaysWithinToleranceOfTheSamples() {
+        float[] samples = wave(COUNT);
+        CurveFitter fitter = new CurveFitter();
+        fitter.begin(samples[0], samples[1]);
+        for (int i = 1; i < COUNT; i++) {
+            fitter.add(samples[i * 2], samples[i * 2 + 1]);
+        }
+        fitter.finish();
+        int segments = fitter.getSegmentCount();
+        assertTrue(segments > 1);
+        assertEquals(segments, fitter.getCommittedCount());
+        float[] c = fitter.getCoords();
+        assertEquals(samples[0], c[0], 0f);
+        assertEquals(samples[1], c[1], 0f);
+        int last = BezierSpline.segmentOffset(segments);
+        assertEquals(samples[COUNT * 2 - 2], c[last], 1e-3f);
+        assertEquals(samples[COUNT * 2 - 1], c[last + 1], 1e-3f);
+        /* a little slack for the distance to a dense sampling of the chain */
+        float tolerance = fitter.getTolerance() * 1.05f;
+        for (int i = 0; i < COUNT; i++) {
+            float d = distanceToChain(c, segments, samples[i * 2], samples[i * 2 + 1]);
+            assertTrue("sample " + i + " off by " + d, d <= tolerance);
+        }
+    }
+
+    @Test
+    public void restoringATailGoesOnLikeTheOriginal() {
+        float[] samples = wave(COUNT);
+        CurveFitter original = new CurveFitter();
+        original.begin(samples[0], samples[1]);
+        int cut = COUNT / 3;
+        for (int i = 1; i < cut; i++) {
+            original.add(samples[i * 2], samples[i * 2 + 1]);
+        }
+        int committed = original.getCommittedCount();
+        float[] pts = new float[(committed * 3 + 1) * 2];
+        System.arraycopy(original.getCoords(), 0, pts, 0, committed > 0 ? pts.length : 0);
+        float[] tail = new float[original.getTailCount() * 2];
+        System.arraycopy(original.getTail(), 0, tail, 0, tail.length);
+
+        CurveFitter restored = new CurveFitter();
+        restored.restore(pts, committed, tail, tail.length / 2);
+        for (int i = cut; i < COUNT; i++) {
+            original.add(samples[i * 2], samples[i * 2 + 1]);
+            restored.add(samples[i * 2], samples[i * 2 + 1]);
+        }
+        original.finish();
+        restored.finish();
+        assertEquals(original.getSegmentCount(), restored.getSegmentCount());
+        int floats = (original.getSegmentCount() * 3 + 1) * 2;
+        assertArrayEquals(Arrays.copyOf(original.getCoords(), floats),
+                Arrays.copyOf(restored.getCoords(), floats), 0f);
+    }
+
+    @Test
+    public void samplesTooCloseToTheLastAreDropped() {
+        CurveFitter fitter = new CurveFitter();
+        fitter.begin(10f, 10f);
+        assertFalse(fitter.add(10.01f, 10f));
+        assertTrue(fitter.add(40f, 10f));
+    }
+
+    /* a stroke along a sine, a sample every few pixels as a fast drag reports them */
+    private static float[] wave(int count) {
+        float[] samples = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            samples[i * 2] = 50f + i * 3f;
+            samples[i * 2 + 1] = 500f + 200f * (float) Math.sin(i * 0.04);
+        }
+        return samples;
+    }
+
+    private static float distanceToChain(float[] c, int segments, float x, float y) {
+        float[] p = new float[2];
+        double best = Double.MAX_VALUE;
+        for (int s = 0; s < segments; s++) {
+            int off = BezierSpline.segmentOffset(s);
+            for (int i = 0; i <= 400; i++) {
+                Bezier.point(Bezier.CUBIC, c, off, i / 400f, p, 0);
+                best = Math.min(best, Math.hypot(p[0] - x, p[1] - y));
+            }
+        }
+        return (float) best;
+    }
+}
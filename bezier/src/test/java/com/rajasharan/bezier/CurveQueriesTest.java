@@ -0,0 +1,296 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CurveQueriesTest {
+    private static final int SAMPLES = 20000;
+    private static final int PIECES = 2000;
+
+    @Test
+    public void projectFindsTheClosestOfADenseSampling() {
+        Random random = new Random(81);
+        CurveQueries queries = new CurveQueries();
+        float[] out = new float[2];
+        float[] p = new float[2];
+        for (int degree = Bezier.LINEAR; degree <= Bezier.CUBIC; degree++) {
+            for (int c = 0; c < 100; c++) {
+                float[] pts = FlattenerTest.randomPoints(random, degree, 1000f);
+                float x = random.nextFloat() * 1400f - 200f;
+                float y = random.nextFloat() * 1400f - 200f;
+                double closest = Double.MAX_VALUE;
+                for (int i = 0; i <= SAMPLES; i++) {
+                    Bezier.point(degree, pts, 0, i / (float) SAMPLES, p, 0);
+                    closest = Math.min(closest, Math.hypot(p[0] - x, p[1] - y));
+                }
+                float d = queries.project(degree, pts, 0, x, y, out);
+                String what = "degree " + degree + " curve " + c + ": " + d + " for " + closest;
+                /* dense sampling can only overshoot the true distance, by a fraction of a pixel */
+                assertTrue(what, d <= closest + 1e-2);
+                assertTrue(what, d >= closest - 0.1);
+                /* the point returned is on the curve at the reported t, at the reported distance */
+                Bezier.point(degree, pts, 0, queries.getLastT(), p, 0);
+                assertEquals(p[0], out[0], 1e-3f);
+                assertEquals(p[1], out[1], 1e-3f);
+                assertEquals(d, Math.hypot(out[0] - x, out[1] - y), 1e-2);
+                assertEquals(d, queries.distance(degree, pts, 0, x, y), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void projectChainPicksTheClosestSegment() {
+        Random random = new Random(82);
+        CurveQueries queries = new CurveQueries();
+        int segments = 20;
+        float[] pts = new float[(segments * 3 + 1) * 2];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = random.nextFloat() * 1000f;
+        }
+        float[] out = new float[2];
+        float[] scratch = new float[2];
+        for (int q = 0; q < 200; q++) {
+            float x = random.nextFloat() * 1000f, y = random.nextFloat() * 1000f;
+            float best = Float.POSITIVE_INFINITY;
+            for (int s = 0; s < segments; s++) {
+                best = Math.min(best, queries.project(Bezier.CUBIC, pts, s * 6, x, y, scratch));
+            }
+            float d = queries.projectChain(Bezier.CUBIC, pts, segments, x, y, out);
+            assertEquals(best, d, 0f);
+            int s = queries.getLastSegment();
+            assertEquals(d, queries.distance(Bezier.CUBIC, pts, s * 6, x, y), 0f);
+        }
+        assertEquals(Float.POSITIVE_INFINITY, queries.projectChain(Bezier.CUBIC, pts, 0, 0f, 0f, out), 0f);
+        assertEquals(-1, queries.getLastSegment());
+    }
+
+    @Test
+    public void crossingLinesMeetOnce() {
+        CurveQueries queries = new CurveQueries();
+        float[] a = {0f, 0f, 100f, 100f};
+        float[] b = {0f, 100f, 100f, 0f};
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        assertEquals(1, queries.intersect(Bezier.LINEAR, a, 0, Bezier.LINEAR, b, 0, out));
+        assertEquals(0.5f, out[0], 1e-4f);
+        assertEquals(0.5f, out[1], 1e-4f);
+        float[] c = {200f, 0f, 300f, 100f};
+        assertEquals(0, queries.intersect(Bezier.LINEAR, a, 0, Bezier.LINEAR, c, 0, out));
+    }
+
+    @Test
+    public void lineThroughAnSCurveMeetsItThreeTimes() {
+        CurveQueries queries = new CurveQueries();
+        float[] s = {0f, 0f, 400f, 600f, 600f, -400f, 1000f, 200f};
+        float[] line = {-100f, 100f, 1100f, 100f};
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        int n = queries.intersect(Bezier.CUBIC, s, 0, Bezier.LINEAR, line, 0, out);
+        List<double[]> expected = crossings(Bezier.CUBIC, s, Bezier.LINEAR, line);
+        assertEquals(3, expected.size());
+        assertMatches(queries, expected, Bezier.CUBIC, s, Bezier.LINEAR, line, out, n);
+    }
+
+    @Test
+    public void randomCubicsMatchCrossingsOfTheirPolylines() {
+        Random random = new Random(83);
+        CurveQueries queries = new CurveQueries();
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        int total = 0;
+        for (int c = 0; c < 30; c++) {
+            float[] a = FlattenerTest.randomPoints(random, Bezier.CUBIC, 1000f);
+            float[] b = FlattenerTest.randomPoints(random, Bezier.CUBIC, 1000f);
+            int n = queries.intersect(Bezier.CUBIC, a, 0, Bezier.CUBIC, b, 0, out);
+            List<double[]> expected = crossings(Bezier.CUBIC, a, Bezier.CUBIC, b);
+            assertMatches(queries, expected, Bezier.CUBIC, a, Bezier.CUBIC, b, out, n);
+            total += n;
+        }
+        /* the seed gives curves that cross, not just ones that miss */
+        assertTrue(total > 10);
+    }
+
+    @Test
+    public void tangentLineTouchesTheTopOfAnArch() {
+        CurveQueries queries = new CurveQueries();
+        /* peaks at (50, 50) when t = 0.5 */
+        float[] arch = {0f, 0f, 50f, 100f, 100f, 0f};
+        float[] line = {0f, 50f, 100f, 50f};
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        float[] p = new float[2];
+        int n = queries.intersect(Bezier.QUADRATIC, arch, 0, Bezier.LINEAR, line, 0, out);
+        assertTrue(n >= 1);
+        assertTrue(queries.getLastNodeCount() <= CurveQueries.MAX_NODES);
+        for (int i = 0; i < n; i++) {
+            Bezier.point(Bezier.QUADRATIC, arch, 0, out[i * 2], p, 0);
+            /* along the tangent the curve stays within the tolerance over a wide stretch */
+            assertEquals(50f, p[0], 2f);
+            assertEquals(50f, p[1], queries.getTolerance() * 2);
+            Bezier.point(Bezier.LINEAR, line, 0, out[i * 2 + 1], p, 0);
+            assertEquals(50f, p[0], 2f);
+        }
+        /* lifted clear of the peak, the line misses */
+        float[] above = {0f, 51f, 100f, 51f};
+        assertEquals(0, queries.intersect(Bezier.QUADRATIC, arch, 0, Bezier.LINEAR, above, 0, out));
+    }
+
+    @Test
+    public void loopIsCrossedTwiceAtItsKnot() {
+        CurveQueries queries = new CurveQueries();
+        /* crosses itself; the line runs through the crossing and then the loop once more */
+        float[] loop = {0f, 0f, 600f, 400f, -200f, 400f, 400f, 0f};
+        float[] p = new float[2];
+        float[] knot = selfCrossing(loop);
+        float[] line = {knot[0] - 500f, knot[1], knot[0] + 500f, knot[1]};
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        int n = queries.intersect(Bezier.CUBIC, loop, 0, Bezier.LINEAR, line, 0, out);
+        List<double[]> expected = crossings(Bezier.CUBIC, loop, Bezier.LINEAR, line);
+        assertMatches(queries, expected, Bezier.CUBIC, loop, Bezier.LINEAR, line, out, n);
+        /* two of them are the knot, at different parameters of the loop */
+        int atKnot = 0;
+        for (int i = 0; i < n; i++) {
+            Bezier.point(Bezier.CUBIC, loop, 0, out[i * 2], p, 0);
+            if (Math.hypot(p[0] - knot[0], p[1] - knot[1]) < 0.5) {
+                atKnot++;
+            }
+        }
+        assertEquals(2, atKnot);
+    }
+
+    @Test
+    public void coincidentCurvesStopAtTheDocumentedBounds() {
+        Random random = new Random(84);
+        CurveQueries queries = new CurveQueries();
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        float[] part = new float[8];
+        for (int c = 0; c < 20; c++) {
+            float[] a = FlattenerTest.randomPoints(random, Bezier.CUBIC, 1000f);
+            /* the whole curve against itself, then against a piece of itself */
+            int n = queries.intersect(Bezier.CUBIC, a, 0, Bezier.CUBIC, a, 0, out);
+            assertTrue(n >= 1 && n <= CurveQueries.MAX_INTERSECTIONS);
+            assertTrue(queries.getLastNodeCount() <= CurveQueries.MAX_NODES);
+            assertOnBoth(queries, Bezier.CUBIC, a, Bezier.CUBIC, a, out, n);
+
+            Bezier.subSegment(Bezier.CUBIC, a, 0, 0.25f, 0.75f, part, 0);
+            n = queries.intersect(Bezier.CUBIC, a, 0, Bezier.CUBIC, part, 0, out);
+            assertTrue(n >= 1 && n <= CurveQueries.MAX_INTERSECTIONS);
+            assertTrue(queries.getLastNodeCount() <= CurveQueries.MAX_NODES);
+            assertOnBoth(queries, Bezier.CUBIC, a, Bezier.CUBIC, part, out, n);
+        }
+    }
+
+    @Test
+    public void nodeCountStaysWithinTheBoundForRandomPairs() {
+        Random random = new Random(85);
+        CurveQueries queries = new CurveQueries();
+        queries.setTolerance(0.001f);
+        float[] out = new float[CurveQueries.MAX_INTERSECTIONS * 2];
+        int most = 0;
+        for (int c = 0; c < 200; c++) {
+            float[] a = FlattenerTest.randomPoints(random, Bezier.CUBIC, 4000f);
+            float[] b = FlattenerTest.randomPoints(random, Bezier.CUBIC, 4000f);
+            queries.intersect(Bezier.CUBIC, a, 0, Bezier.CUBIC, b, 0, out);
+            most = Math.max(most, queries.getLastNodeCount());
+        }
+        assertTrue(most + " nodes", most <= CurveQueries.MAX_NODES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveTolerance() {
+        new CurveQueries().setTolerance(0f);
+    }
+
+    /* every expected crossing is found near its place, and nothing else is */
+    private static void assertMatches(CurveQueries queries, List<double[]> expected, int degreeA, float[] a,
+                                      int degreeB, float[] b, float[] out, int n) {
+        assertEquals(expected.size(), n);
+        assertOnBoth(queries, degreeA, a, degreeB, b, out, n);
+        float[] p = new float[2];
+        for (double[] e : expected) {
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                Bezier.point(degreeA, a, 0, out[i * 2], p, 0);
+                best = Math.min(best, Math.hypot(p[0] - e[0], p[1] - e[1]));
+            }
+            assertTrue("crossing at " + e[0] + ", " + e[1] + " off by " + best, best < 0.5);
+        }
+    }
+
+    /* A(s) and B(t) of every pair are the same point, to within the tolerance */
+    private static void assertOnBoth(CurveQueries queries, int degreeA, float[] a, int degreeB, float[] b,
+                                     float[] out, int n) {
+        float[] p = new float[2];
+        float[] q = new float[2];
+        for (int i = 0; i < n; i++) {
+            Bezier.point(degreeA, a, 0, out[i * 2], p, 0);
+            Bezier.point(degreeB, b, 0, out[i * 2 + 1], q, 0);
+            double gap = Math.hypot(p[0] - q[0], p[1] - q[1]);
+            assertTrue("gap " + gap, gap <= queries.getTolerance() * 4);
+        }
+    }
+
+    /* crossings of two dense polylines, in doubles */
+    private static List<double[]> crossings(int degreeA, float[] a, int degreeB, float[] b) {
+        double[] pa = polyline(degreeA, a);
+        double[] pb = polyline(degreeB, b);
+        List<double[]> found = new ArrayList<double[]>();
+        for (int i = 0; i < PIECES; i++) {
+            double ax = pa[i * 2], ay = pa[i * 2 + 1];
+            double adx = pa[i * 2 + 2] - ax, ady = pa[i * 2 + 3] - ay;
+            for (int j = 0; j < PIECES; j++) {
+                double bx = pb[j * 2], by = pb[j * 2 + 1];
+                double bdx = pb[j * 2 + 2] - bx, bdy = pb[j * 2 + 3] - by;
+                double det = adx * bdy - ady * bdx;
+                if (det == 0) {
+                    continue;
+                }
+                double ex = bx - ax, ey = by - ay;
+                double u = (ex * bdy - ey * bdx) / det;
+                double v = (ex * ady - ey * adx) / det;
+                /* half-open, so a crossing on a shared vertex counts once */
+                if (u >= 0 && u < 1 && v >= 0 && v < 1) {
+                    found.add(new double[] {ax + u * adx, ay + u * ady});
+                }
+            }
+        }
+        return found;
+    }
+
+    private static double[] polyline(int degree, float[] pts) {
+        double[] out = new double[(PIECES + 1) * 2];
+        float[] p = new float[2];
+        for (int i = 0; i <= PIECES; i++) {
+            Bezier.point(degree, pts, 0, i / (float) PIECES, p, 0);
+            out[i * 2] = p[0];
+            out[i * 2 + 1] = p[1];
+        }
+        return out;
+    }
+
+    /* where a looped cubic crosses itself, from its own polyline */
+    private static float[] selfCrossing(float[] pts) {
+        double[] pl = polyline(Bezier.CUBIC, pts);
+        for (int i = 0; i < PIECES; i++) {
+            for (int j = i + 2; j < PIECES; j++) {
+                double ax = pl[i * 2], ay = pl[i * 2 + 1];
+                double adx = pl[i * 2 + 2] - ax, ady = pl[i * 2 + 3] - ay;
+                double bx = pl[j * 2], by = pl[j * 2 + 1];
+                double bdx = pl[j * 2 + 2] - bx, bdy = pl[j * 2 + 3] - by;
+                double det = adx * bdy - ady * bdx;
+                if (det == 0) {
+                    continue;
+                }
+                double ex = bx - ax, ey = by - ay;
+                double u = (ex * bdy - ey * bdx) / det;
+                double v = (ex * ady - ey * adx) / det;
+                if (u >= 0 && u < 1 && v >= 0 && v < 1) {
+                    return new float[] {(float) (ax + u * adx), (float) (ay + u * ady)};
+                }
+            }
+        }
+        throw new AssertionError("no loop");
+    }
+}
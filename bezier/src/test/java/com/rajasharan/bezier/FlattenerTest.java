@@ -0,0 +1,116 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlattenerTest {
+    private static final int SAMPLES = 1000;
+
+    @Test
+    public void everyModeStaysWithinTolerance() {
+        float[] sizes = {200f, 1000f, 4000f};
+        float[] tolerances = {0.1f, 0.25f, 1f};
+        for (Flattener.Mode mode : Flattener.Mode.values()) {
+            for (float size : sizes) {
+                for (float tolerance : tolerances) {
+                    float error = worstError(mode, size, tolerance);
+                    /* the error of each mode is an estimate, allow it a few percent */
+                    assertTrue(mode + " " + size + " px at " + tolerance + ": " + error,
+                            error <= tolerance * 1.05f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void polylineStartsAndEndsOnTheCurve() {
+        Flattener flattener = new Flattener();
+        float[] pts = {10f, 20f, 400f, -300f, 800f, 900f, 1000f, 50f};
+        float[] out = new float[flattener.requiredCapacity()];
+        int n = flattener.flatten(Bezier.CUBIC, pts, 0, out, 0);
+        assertEquals(10f, out[0], 0f);
+        assertEquals(20f, out[1], 0f);
+        assertEquals(1000f, out[n * 2 - 2], 0f);
+        assertEquals(50f, out[n * 2 - 1], 0f);
+    }
+
+    @Test
+    public void segmentCountMatchesFlatten() {
+        Random random = new Random(5);
+        for (Flattener.Mode mode : Flattener.Mode.values()) {
+            Flattener flattener = new Flattener(0.25f, mode);
+            float[] out = new float[flattener.requiredCapacity()];
+            for (int c = 0; c < 50; c++) {
+                float[] pts = randomPoints(random, Bezier.CUBIC, 2000f);
+                int n = flattener.flatten(Bezier.CUBIC, pts, 0, out, 0);
+                assertEquals(n - 1, flattener.getLastSegmentCount());
+                assertEquals(n - 1, flattener.segmentCount(Bezier.CUBIC, pts, 0));
+            }
+        }
+    }
+
+    @Test
+    public void maxSegmentsCapsTheOutput() {
+        Random random = new Random(6);
+        for (Flattener.Mode mode : Flattener.Mode.values()) {
+            Flattener flattener = new Flattener(0.01f, mode);
+            flattener.setMaxSegments(8);
+            float[] out = new float[flattener.requiredCapacity()];
+            for (int c = 0; c < 20; c++) {
+                float[] pts = randomPoints(random, Bezier.CUBIC, 4000f);
+                int n = flattener.flatten(Bezier.CUBIC, pts, 0, out, 0);
+                assertTrue(mode + ": " + (n - 1), n - 1 <= 8);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveTolerance() {
+        new Flattener().setTolerance(0f);
+    }
+
+    /* largest distance from a dense sampling of random curves to their polylines */
+    private static float worstError(Flattener.Mode mode, float size, float tolerance) {
+        Random random = new Random(7);
+        Flattener flattener = new Flattener(tolerance, mode);
+        flattener.setMaxSegments(4096);
+        float[] out = new float[flattener.requiredCapacity()];
+        float[] p = new float[2];
+        double worst = 0;
+        for (int c = 0; c < 20; c++) {
+            int degree = c % 4 == 0 ? Bezier.QUADRATIC : Bezier.CUBIC;
+            float[] pts = randomPoints(random, degree, size);
+            int n = flattener.flatten(degree, pts, 0, out, 0);
+            for (int i = 0; i <= SAMPLES; i++) {
+                Bezier.point(degree, pts, 0, i / (float) SAMPLES, p, 0);
+                double best = Double.MAX_VALUE;
+                for (int k = 0; k < n - 1; k++) {
+                    best = Math.min(best, segmentDistance(p[0], p[1], out, k * 2));
+                }
+                worst = Math.max(worst, best);
+            }
+        }
+        return (float) worst;
+    }
+
+    static double segmentDistance(double px, double py, float[] line, int off) {
+        double ax = line[off], ay = line[off + 1];
+        double dx = line[off + 2] - ax, dy = line[off + 3] - ay;
+        double length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / length;
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(ax + t * dx - px, ay + t * dy - py);
+    }
+
+    static float[] randomPoints(Random random, int degree, float size) {
+        float[] pts = new float[Bezier.coordCount(degree)];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = random.nextFloat() * size;
+        }
+        return pts;
+    }
+}
@@ -0,0 +1,107 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FrameMetricsTest {
+    private static final int FRAMES = 5000;
+
+    @Test
+    public void drawQuantilesAreWithinABucketOfTheExactOnes() {
+        long[] draws = randomDraws(new Random(61));
+        FrameMetrics metrics = new FrameMetrics();
+        for (long draw : draws) {
+            metrics.recordDraw(draw);
+        }
+        FrameMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(FRAMES, snapshot.getFrameCount());
+        long[] sorted = draws.clone();
+        Arrays.sort(sorted);
+        float[] quantiles = {0.01f, 0.5f, 0.9f, 0.99f, 1f};
+        for (float q : quantiles) {
+            long exact = sorted[(int) Math.ceil(q * FRAMES) - 1];
+            long estimate = snapshot.getDrawNanos(q);
+            assertTrue(q + ": " + estimate + " for " + exact, Math.abs(estimate - exact) <= exact * 0.125);
+        }
+        /* the middle of the last bucket is capped at the slowest draw */
+        assertTrue(snapshot.getDrawNanos(1f) <= sorted[FRAMES - 1]);
+    }
+
+    @Test
+    public void framesOverNeverMissesASlowFrame() {
+        long[] draws = randomDraws(new Random(62));
+        FrameMetrics metrics = new FrameMetrics();
+        for (long draw : draws) {
+            metrics.recordDraw(draw);
+        }
+        FrameMetrics.Snapshot snapshot = metrics.snapshot();
+        long[] budgets = {1000000L, 8333333L, 16666667L, 33333333L, 100000000L};
+        for (long budget : budgets) {
+            long over = 0, nearly = 0;
+            for (long draw : draws) {
+                if (draw > budget) {
+                    over++;
+                }
+                /* the bucket holding the budget may also count draws up to 12.5% under it */
+                if (draw > budget - budget / 8) {
+                    nearly++;
+                }
+            }
+            long counted = snapshot.getFramesOver(budget);
+            assertTrue(budget + ": " + counted + " < " + over, counted >= over);
+            assertTrue(budget + ": " + counted + " > " + nearly, counted <= nearly);
+        }
+    }
+
+    @Test
+    public void resetForgetsEverything() {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.recordDraw(5000000L);
+        metrics.recordInvalidation();
+        metrics.recordSegments(12);
+        metrics.recordDroppedSamples(3);
+        metrics.reset();
+        FrameMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.getFrameCount());
+        assertEquals(0, snapshot.getInvalidationCount());
+        assertEquals(0, snapshot.getSegmentCount());
+        assertEquals(0, snapshot.getDroppedSampleCount());
+        assertEquals(0, snapshot.getFramesOver(0));
+    }
+
+    @Test
+    public void droppedSamplesAddUpAndAreExported() {
+        FrameMetrics metrics = new FrameMetrics();
+        metrics.recordDroppedSamples(3);
+        metrics.recordDroppedSamples(4);
+        FrameMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(7, snapshot.getDroppedSampleCount());
+        assertTrue(snapshot.export().contains("\"droppedSamples\":7,"));
+    }
+
+    @Test
+    public void bucketsCoverEveryValueWithinAnEighth() {
+        for (long micros = 1; micros < 1L << 30; micros = micros * 3 / 2 + 1) {
+            int bucket = FrameMetrics.bucketOf(micros);
+            long floor = FrameMetrics.bucketFloor(bucket);
+            assertTrue(floor <= micros);
+            assertTrue(micros < FrameMetrics.bucketFloor(bucket + 1));
+            assertTrue(micros - floor <= floor / 8 + 1);
+        }
+    }
+
+    /* mostly smooth frames around 4 ms with a tail of slow ones up to 60 ms */
+    private static long[] randomDraws(Random random) {
+        long[] draws = new long[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            double ms = random.nextInt(10) == 0 ? 4 + random.nextDouble() * 56 : 2 + random.nextGaussian() * 0.5 + 2;
+            draws[i] = (long) (Math.max(0.1, ms) * 1000000);
+        }
+        return draws;
+    }
+}
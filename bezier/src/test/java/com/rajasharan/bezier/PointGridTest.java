@@ -0,0 +1,91 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PointGridTest {
+    private static final int CAPACITY = 200;
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        Random random = new Random(31);
+        PointGrid grid = new PointGrid(CAPACITY, 40f);
+        float[] xs = new float[CAPACITY];
+        float[] ys = new float[CAPACITY];
+        boolean[] present = new boolean[CAPACITY];
+        int size = 0;
+        for (int op = 0; op < 50000; op++) {
+            int id = random.nextInt(CAPACITY);
+            int kind = random.nextInt(4);
+            if (kind == 0 && present[id]) {
+                grid.remove(id);
+                present[id] = false;
+                size--;
+            }
+            else if (kind == 1) {
+                /* a short drag, which mostly stays in its cell */
+                float x = present[id] ? xs[id] + random.nextFloat() * 20f - 10f : random.nextFloat() * 2000f - 1000f;
+                float y = present[id] ? ys[id] + random.nextFloat() * 20f - 10f : random.nextFloat() * 2000f - 1000f;
+                if (!present[id]) {
+                    size++;
+                }
+                grid.put(id, x, y);
+                xs[id] = x;
+                ys[id] = y;
+                present[id] = true;
+            }
+            else {
+                float x = random.nextFloat() * 2000f - 1000f;
+                float y = random.nextFloat() * 2000f - 1000f;
+                float radius = random.nextFloat() * 120f;
+                assertEquals(nearest(xs, ys, present, x, y, radius), grid.nearest(x, y, radius));
+            }
+            assertEquals(size, grid.size());
+        }
+    }
+
+    @Test
+    public void clearForgetsEveryPoint() {
+        PointGrid grid = new PointGrid(4, 10f);
+        grid.put(0, 1f, 1f);
+        grid.put(1, 100f, 100f);
+        grid.clear();
+        assertEquals(0, grid.size());
+        assertEquals(-1, grid.nearest(1f, 1f, 50f));
+        grid.put(1, 2f, 2f);
+        assertEquals(1, grid.nearest(1f, 1f, 50f));
+    }
+
+    @Test
+    public void tiesGoToTheLowerId() {
+        PointGrid grid = new PointGrid(4, 10f);
+        grid.put(3, 5f, 0f);
+        grid.put(1, -5f, 0f);
+        assertEquals(1, grid.nearest(0f, 0f, 10f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveCellSize() {
+        new PointGrid(4, 0f);
+    }
+
+    private static int nearest(float[] xs, float[] ys, boolean[] present, float x, float y, float radius) {
+        float best = radius * radius;
+        int hit = -1;
+        for (int id = 0; id < xs.length; id++) {
+            if (!present[id]) {
+                continue;
+            }
+            float dx = xs[id] - x, dy = ys[id] - y;
+            float d = dx * dx + dy * dy;
+            if (d < best || (d == best && hit == -1)) {
+                best = d;
+                hit = id;
+            }
+        }
+        return hit;
+    }
+}
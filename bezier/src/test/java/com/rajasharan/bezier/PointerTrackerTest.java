@@ -0,0 +1,74 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PointerTrackerTest {
+
+    @Test
+    public void aPointIsHeldByOnePointerAtATime() {
+        PointerTracker tracker = new PointerTracker(4);
+        assertTrue(tracker.assign(0, 2));
+        assertFalse(tracker.assign(1, 2));
+        assertEquals(2, tracker.pointFor(0));
+        assertEquals(-1, tracker.pointFor(1));
+        assertEquals(0, tracker.pointerFor(2));
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void reassigningAPointerLetsGoOfItsOldPoint() {
+        PointerTracker tracker = new PointerTracker(4);
+        tracker.assign(0, 1);
+        tracker.assign(0, 3);
+        assertFalse(tracker.isHeld(1));
+        assertEquals(3, tracker.pointFor(0));
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void releaseKeepsTheOtherPairsPacked() {
+        PointerTracker tracker = new PointerTracker(4);
+        tracker.assign(5, 0);
+        tracker.assign(6, 1);
+        tracker.assign(7, 2);
+        assertEquals(0, tracker.release(5));
+        assertEquals(-1, tracker.release(5));
+        assertEquals(2, tracker.size());
+        for (int i = 0; i < tracker.size(); i++) {
+            assertEquals(tracker.getPoint(i), tracker.pointFor(tracker.getPointerId(i)));
+        }
+        tracker.clear();
+        assertEquals(0, tracker.size());
+        assertEquals(-1, tracker.pointFor(6));
+    }
+
+    @Test
+    public void idsAboveTheInitialRangeAreTracked() {
+        PointerTracker tracker = new PointerTracker(2);
+        int id = PointerTracker.INITIAL_POINTER_IDS * 3;
+        assertTrue(tracker.assign(id, 1));
+        assertEquals(1, tracker.pointFor(id));
+    }
+
+    @Test
+    public void choosePointPrefersTheFreePointUnderTheFinger() {
+        ControlPointStore points = new ControlPointStore(3);
+        points.enableHitTesting(20f);
+        points.set(0, 0f, 0f);
+        points.set(1, 100f, 0f);
+        PointerTracker tracker = new PointerTracker(3);
+        assertEquals(1, tracker.choosePoint(points, 105f, 0f, 20f));
+        tracker.assign(0, 1);
+        /* the point under the finger is taken, so the first empty slot */
+        assertEquals(2, tracker.choosePoint(points, 105f, 0f, 20f));
+        points.set(2, 50f, 50f);
+        tracker.assign(1, 2);
+        assertEquals(0, tracker.choosePoint(points, 105f, 0f, 20f));
+        tracker.assign(2, 0);
+        assertEquals(-1, tracker.choosePoint(points, 105f, 0f, 20f));
+    }
+}
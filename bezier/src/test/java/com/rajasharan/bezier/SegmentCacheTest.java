@@ -0,0 +1,167 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class SegmentCacheTest {
+    private static final int SEGMENTS = 500;
+
+    @Test
+    public void movingAKnotRedoesOnlyTheTwoSegmentsSharingIt() {
+        BezierSpline spline = randomChain(new Random(71), SEGMENTS);
+        Flattener flattener = new Flattener();
+        SegmentCache cache = new SegmentCache();
+        assertEquals(SEGMENTS, update(cache, flattener, spline));
+        Snapshot before = new Snapshot(cache, spline);
+
+        int knot = 3 * 250;
+        spline.setPoint(knot, spline.getX(knot) + 40f, spline.getY(knot) - 25f);
+        assertEquals(2, update(cache, flattener, spline));
+        before.assertOnlyChanged(cache, spline, 249, 250);
+    }
+
+    @Test
+    public void movingAHandleRedoesOnlyItsSegment() {
+        BezierSpline spline = randomChain(new Random(72), SEGMENTS);
+        Flattener flattener = new Flattener();
+        SegmentCache cache = new SegmentCache();
+        update(cache, flattener, spline);
+        Snapshot before = new Snapshot(cache, spline);
+
+        int handle = 3 * 100 + 2;
+        spline.setPoint(handle, spline.getX(handle) - 30f, spline.getY(handle) + 60f);
+        assertEquals(1, update(cache, flattener, spline));
+        before.assertOnlyChanged(cache, spline, 100);
+    }
+
+    @Test
+    public void c1HandleDragAlsoRedoesTheSegmentOfTheMirroredHandle() {
+        BezierSpline spline = randomChain(new Random(73), SEGMENTS);
+        spline.setContinuity(BezierSpline.C1);
+        spline.enforceContinuity();
+        Flattener flattener = new Flattener();
+        SegmentCache cache = new SegmentCache();
+        update(cache, flattener, spline);
+        Snapshot before = new Snapshot(cache, spline);
+
+        /* the first handle of segment 300 mirrors the last handle of segment 299 */
+        int handle = 3 * 300 + 1;
+        spline.setPoint(handle, spline.getX(handle) + 15f, spline.getY(handle) + 15f);
+        assertEquals(2, update(cache, flattener, spline));
+        before.assertOnlyChanged(cache, spline, 299, 300);
+    }
+
+    @Test
+    public void rebuildingFromTheSameInputRedoesOnlyWhatMoved() {
+        float[] pts = randomPoints(new Random(74), SEGMENTS);
+        BezierSpline spline = new BezierSpline();
+        build(spline, pts);
+        Flattener flattener = new Flattener();
+        SegmentCache cache = new SegmentCache();
+        update(cache, flattener, spline);
+        Snapshot before = new Snapshot(cache, spline);
+
+        build(spline, pts);
+        assertEquals(0, update(cache, flattener, spline));
+        before.assertOnlyChanged(cache, spline);
+
+        /* the view rebuilds the whole chain on every touch event, with one point moved */
+        pts[(3 * 42 + 1) * 2] += 50f;
+        build(spline, pts);
+        assertEquals(1, update(cache, flattener, spline));
+        before.assertOnlyChanged(cache, spline, 42);
+    }
+
+    @Test
+    public void changingTheFlattenerRedoesEverything() {
+        BezierSpline spline = randomChain(new Random(75), SEGMENTS);
+        Flattener flattener = new Flattener();
+        SegmentCache cache = new SegmentCache();
+        update(cache, flattener, spline);
+        flattener.setTolerance(1f);
+        assertEquals(SEGMENTS, update(cache, flattener, spline));
+        assertEquals(0, update(cache, flattener, spline));
+    }
+
+    /* lines and bounds of every segment, from the cache and from the spline */
+    private static class Snapshot {
+        final float[][] mLineArrays;
+        final float[][] mLines;
+        final float[][] mCacheBounds;
+        final float[][] mSplineBounds;
+
+        Snapshot(SegmentCache cache, BezierSpline spline) {
+            int segments = cache.getSegmentCount();
+            mLineArrays = new float[segments][];
+            mLines = new float[segments][];
+            mCacheBounds = new float[segments][4];
+            mSplineBounds = new float[segments][4];
+            for (int s = 0; s < segments; s++) {
+                mLineArrays[s] = cache.getLines(s);
+                mLines[s] = Arrays.copyOf(cache.getLines(s), cache.getLineCount(s) * 4);
+                cache.getBounds(s, mCacheBounds[s]);
+                spline.segmentBounds(s, mSplineBounds[s]);
+            }
+        }
+
+        void assertOnlyChanged(SegmentCache cache, BezierSpline spline, int... changed) {
+            float[] box = new float[4];
+            float[] expected = new float[4];
+            for (int s = 0; s < mLines.length; s++) {
+                float[] lines = Arrays.copyOf(cache.getLines(s), cache.getLineCount(s) * 4);
+                if (Arrays.binarySearch(changed, s) >= 0) {
+                    assertFalse("segment " + s, Arrays.equals(mLines[s], lines));
+                    Bezier.bounds(Bezier.CUBIC, spline.getCoords(), BezierSpline.segmentOffset(s), expected, 0);
+                    spline.segmentBounds(s, box);
+                    assertArrayEquals(expected, box, 0f);
+                    continue;
+                }
+                /* untouched segments come back as the very same arrays and values */
+                assertSame("segment " + s, mLineArrays[s], cache.getLines(s));
+                assertArrayEquals("segment " + s, mLines[s], lines, 0f);
+                cache.getBounds(s, box);
+                assertArrayEquals("segment " + s, mCacheBounds[s], box, 0f);
+                spline.segmentBounds(s, box);
+                assertArrayEquals("segment " + s, mSplineBounds[s], box, 0f);
+            }
+        }
+    }
+
+    private static int update(SegmentCache cache, Flattener flattener, BezierSpline spline) {
+        int segments = spline.getSegmentCount();
+        long[] stamps = new long[segments];
+        for (int s = 0; s < segments; s++) {
+            stamps[s] = spline.getSegmentStamp(s);
+        }
+        return cache.update(flattener, Bezier.CUBIC, spline.getCoords(), segments, stamps);
+    }
+
+    private static BezierSpline randomChain(Random random, int segments) {
+        BezierSpline spline = new BezierSpline();
+        build(spline, randomPoints(random, segments));
+        return spline;
+    }
+
+    private static void build(BezierSpline spline, float[] pts) {
+        spline.reset();
+        spline.moveTo(pts[0], pts[1]);
+        for (int k = 2; k < pts.length; k += 6) {
+            spline.cubicTo(pts[k], pts[k + 1], pts[k + 2], pts[k + 3], pts[k + 4], pts[k + 5]);
+        }
+    }
+
+    private static float[] randomPoints(Random random, int segments) {
+        float[] pts = new float[(segments * 3 + 1) * 2];
+        for (int i = 0; i < pts.length; i++) {
+            pts[i] = random.nextFloat() * 2000f;
+        }
+        return pts;
+    }
+}
@@ -0,0 +1,172 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringSystemTest {
+    /* powers of two, so frame times add up to whole steps exactly */
+    private static final float STEP = 1f / 256f;
+
+    @Test
+    public void springSettlesExactlyOnItsTarget() {
+        SpringSystem springs = new SpringSystem(1);
+        springs.setPosition(0, 500f, -300f);
+        springs.setTarget(0, 100f, 200f);
+        int frames = 0;
+        while (springs.advance(1f / 60f)) {
+            frames++;
+            assertTrue("still moving after " + frames + " frames", frames < 180);
+        }
+        assertTrue(springs.isAtRest());
+        assertFalse(springs.isActive(0));
+        assertEquals(100f, springs.getX(0), 0f);
+        assertEquals(200f, springs.getY(0), 0f);
+        assertEquals(0f, springs.getVelocityX(0), 0f);
+        assertEquals(0f, springs.getVelocityY(0), 0f);
+        assertFalse(springs.advance(1f / 60f));
+        assertEquals(100f, springs.getX(0), 0f);
+    }
+
+    @Test
+    public void followsTheDampedOscillatorItModels() {
+        /* first order: within 5% of the swing, and a quarter of the step errs about a quarter as much */
+        double coarse = oscillatorError(STEP);
+        double fine = oscillatorError(STEP / 4);
+        assertTrue("error " + coarse, coarse < 5.0);
+        assertTrue("error " + fine + " vs " + coarse, fine < coarse / 3);
+    }
+
+    @Test
+    public void oneLongFrameMovesLikeManyShortOnes() {
+        SpringSystem once = moving();
+        SpringSystem often = moving();
+        SpringSystem uneven = moving();
+        once.advance(24 * STEP);
+        for (int i = 0; i < 24; i++) {
+            often.advance(STEP);
+        }
+        /* half steps: every other call carries its remainder over */
+        for (int i = 0; i < 48; i++) {
+            uneven.advance(STEP / 2);
+        }
+        for (int p = 0; p < once.size(); p++) {
+            assertEquals(once.getX(p), often.getX(p), 0f);
+            assertEquals(once.getY(p), often.getY(p), 0f);
+            assertEquals(once.getVelocityX(p), often.getVelocityX(p), 0f);
+            assertEquals(once.getX(p), uneven.getX(p), 0f);
+            assertEquals(once.getVelocityY(p), uneven.getVelocityY(p), 0f);
+        }
+    }
+
+    @Test
+    public void pausesLongerThanAFrameAreClamped() {
+        SpringSystem paused = moving();
+        SpringSystem clamped = moving();
+        paused.advance(5f);
+        clamped.advance(0.1f);
+        assertEquals(clamped.getX(0), paused.getX(0), 0f);
+        assertEquals(clamped.getVelocityY(1), paused.getVelocityY(1), 0f);
+    }
+
+    @Test
+    public void pointOnItsTargetIsAtRestAfterOneFrame() {
+        SpringSystem springs = new SpringSystem(1);
+        springs.setPosition(0, 40f, 50f);
+        springs.setTarget(0, 40f, 50f);
+        assertFalse(springs.isAtRest());
+        assertFalse(springs.advance(1f / 60f));
+        assertTrue(springs.isAtRest());
+        assertEquals(40f, springs.getX(0), 0f);
+    }
+
+    @Test
+    public void systemRestsOnlyOnceEveryPointDoes() {
+        SpringSystem springs = new SpringSystem(2);
+        springs.configure(1, 1f, 100f, 2f);
+        springs.setPosition(0, 10f, 0f);
+        springs.setTarget(0, 0f, 0f);
+        springs.setPosition(1, 10f, 0f);
+        springs.setTarget(1, 0f, 0f);
+        boolean firstSettledFirst = false;
+        while (springs.advance(1f / 60f)) {
+            if (!springs.isActive(0) && springs.isActive(1)) {
+                firstSettledFirst = true;
+                assertFalse(springs.isAtRest());
+            }
+        }
+        assertTrue(firstSettledFirst);
+        assertTrue(springs.isAtRest());
+
+        /* a new target wakes the point up again */
+        springs.setTarget(1, 5f, 5f);
+        assertTrue(springs.isActive(1));
+        assertTrue(springs.advance(1f / 60f));
+    }
+
+    @Test
+    public void retargetingKeepsTheVelocity() {
+        SpringSystem springs = new SpringSystem(1);
+        springs.setPosition(0, 0f, 0f);
+        springs.setTarget(0, 100f, 0f);
+        springs.advance(0.05f);
+        float vx = springs.getVelocityX(0);
+        assertTrue(vx > 0f);
+        springs.setTarget(0, -100f, 0f);
+        assertEquals(vx, springs.getVelocityX(0), 0f);
+    }
+
+    @Test
+    public void stopHoldsThePointWhereItIs() {
+        SpringSystem springs = new SpringSystem(1);
+        springs.setPosition(0, 0f, 0f);
+        springs.setTarget(0, 100f, 0f);
+        springs.advance(0.05f);
+        float x = springs.getX(0);
+        springs.stop(0);
+        assertTrue(springs.isAtRest());
+        assertFalse(springs.advance(0.05f));
+        assertEquals(x, springs.getX(0), 0f);
+        assertEquals(0f, springs.getVelocityX(0), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroMass() {
+        new SpringSystem(1).configure(0, 0f, 1f, 1f);
+    }
+
+    /* largest distance over the first second from the exact solution, released 100 px from its target */
+    private static double oscillatorError(float step) {
+        double k = SpringSystem.DEFAULT_STIFFNESS, c = SpringSystem.DEFAULT_DAMPING, m = SpringSystem.DEFAULT_MASS;
+        double decay = c / (2 * m);
+        double omega = Math.sqrt(k / m - decay * decay);
+        SpringSystem springs = new SpringSystem(1);
+        springs.setTimestep(step);
+        springs.setPosition(0, 100f, 0f);
+        springs.setTarget(0, 0f, 0f);
+        double error = 0;
+        for (int frame = 1; frame <= 64; frame++) {
+            springs.advance(4 * STEP);
+            double t = frame * 4.0 * STEP;
+            double x = 100 * Math.exp(-decay * t) * (Math.cos(omega * t) + decay / omega * Math.sin(omega * t));
+            error = Math.max(error, Math.abs(x - springs.getX(0)));
+            assertEquals(0f, springs.getY(0), 0f);
+        }
+        return error;
+    }
+
+    /* two points with different springs, moving and far from rest */
+    private static SpringSystem moving() {
+        SpringSystem springs = new SpringSystem(2);
+        springs.setTimestep(STEP);
+        springs.configure(1, 2f, 900f, 5f);
+        springs.setPosition(0, 300f, -200f);
+        springs.setTarget(0, 0f, 0f);
+        springs.setVelocity(0, -50f, 80f);
+        springs.setPosition(1, -400f, 100f);
+        springs.setTarget(1, 20f, 30f);
+        return springs;
+    }
+}
@@ -0,0 +1,90 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StrokeOutlinerTest {
+    private static final int SAMPLES = 200;
+    private static final int OUTLINE_SAMPLES = 100;
+
+    @Test
+    public void sidesStayWithinToleranceOfTheTrueOffset() {
+        Random random = new Random(11);
+        StrokeOutliner outliner = new StrokeOutliner();
+        float[] p = new float[2];
+        float[] d = new float[2];
+        double worst = 0;
+        for (int c = 0; c < 10; c++) {
+            float[] pts = FlattenerTest.randomPoints(random, Bezier.CUBIC, 1000f);
+            float[] widths = {10f + random.nextFloat() * 50f, 10f + random.nextFloat() * 50f};
+            int cubics = outliner.outline(Bezier.CUBIC, pts, 1, widths, 0);
+            float[] polyline = sampleOutline(outliner.getCoords(), cubics);
+            for (int i = 1; i < SAMPLES; i++) {
+                float t = i / (float) SAMPLES;
+                float half = (widths[0] + (widths[1] - widths[0]) * t) * 0.5f;
+                /* near a cusp of the offset the outline is allowed to cut the corner */
+                if (Math.abs(Bezier.curvature(Bezier.CUBIC, pts, 0, t)) * half >= 0.05f) {
+                    continue;
+                }
+                Bezier.point(Bezier.CUBIC, pts, 0, t, p, 0);
+                Bezier.derivative(Bezier.CUBIC, pts, 0, t, d, 0);
+                double speed = Math.hypot(d[0], d[1]);
+                if (speed < 1e-3) {
+                    continue;
+                }
+                for (int side = -1; side <= 1; side += 2) {
+                    double ox = p[0] - d[1] / speed * half * side;
+                    double oy = p[1] + d[0] / speed * half * side;
+                    worst = Math.max(worst, distanceToPolyline(ox, oy, polyline));
+                }
+            }
+        }
+        /* the outline is measured through a polyline of its own, which sags a little */
+        assertTrue("worst " + worst, worst <= StrokeOutliner.DEFAULT_TOLERANCE * 1.1);
+    }
+
+    @Test
+    public void outlineIsAClosedChain() {
+        StrokeOutliner outliner = new StrokeOutliner();
+        float[] pts = {0f, 0f, 100f, 200f, 300f, -50f, 400f, 100f, 500f, 250f, 600f, 0f, 700f, 100f};
+        float[] widths = {4f, 20f, 8f};
+        int cubics = outliner.outline(Bezier.CUBIC, pts, 2, widths, 0);
+        assertTrue(cubics > 0);
+        assertEquals(cubics, outliner.getCubicCount());
+        float[] c = outliner.getCoords();
+        assertEquals(c[0], c[cubics * 6], 1e-3f);
+        assertEquals(c[1], c[cubics * 6 + 1], 1e-3f);
+    }
+
+    @Test
+    public void noSegmentsGiveNoOutline() {
+        StrokeOutliner outliner = new StrokeOutliner();
+        assertEquals(0, outliner.outline(Bezier.CUBIC, new float[2], 0, new float[1], 0));
+    }
+
+    private static float[] sampleOutline(float[] coords, int cubics) {
+        float[] polyline = new float[(cubics * OUTLINE_SAMPLES + 1) * 2];
+        float[] q = new float[2];
+        int k = 0;
+        for (int j = 0; j < cubics; j++) {
+            for (int s = j == 0 ? 0 : 1; s <= OUTLINE_SAMPLES; s++) {
+                Bezier.point(Bezier.CUBIC, coords, j * 6, s / (float) OUTLINE_SAMPLES, q, 0);
+                polyline[k++] = q[0];
+                polyline[k++] = q[1];
+            }
+        }
+        return polyline;
+    }
+
+    private static double distanceToPolyline(double x, double y, float[] polyline) {
+        double best = Double.MAX_VALUE;
+        for (int k = 0; k + 3 < polyline.length; k += 2) {
+            best = Math.min(best, FlattenerTest.segmentDistance(x, y, polyline, k));
+        }
+        return best;
+    }
+}
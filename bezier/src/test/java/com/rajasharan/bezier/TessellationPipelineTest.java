@@ -0,0 +1,107 @@
+package com.rajasharan.bezier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TessellationPipelineTest {
+    /* straight cubics, so the flattened lines span exactly their end points */
+    private static final float[] FIRST = {10f, 20f, 20f, 40f, 30f, 50f, 40f, 60f};
+    private static final float[] SECOND = {100f, 200f, 110f, 220f, 120f, 240f, 130f, 260f};
+
+    private TessellationPipeline mPipeline;
+    private BlockingQueue<float[]> mDirty;
+
+    @Before
+    public void setUp() {
+        mPipeline = new TessellationPipeline();
+        mDirty = new ArrayBlockingQueue<float[]>(16);
+        mPipeline.setListener(new TessellationPipeline.Listener() {
+            @Override
+            public void onGeometryReady(float left, float top, float right, float bottom) {
+                mDirty.add(new float[] {left, top, right, bottom});
+            }
+        });
+        mPipeline.start();
+    }
+
+    @After
+    public void tearDown() {
+        mPipeline.stop();
+    }
+
+    @Test
+    public void updateIsFalseUntilNewGeometryIsReady() throws InterruptedException {
+        assertFalse(mPipeline.update());
+        long version = mPipeline.submit(Bezier.CUBIC, FIRST, 1);
+        awaitDirty();
+        assertTrue(mPipeline.update());
+        assertEquals(version, mPipeline.getGeometry().getVersion());
+        assertTrue(mPipeline.getGeometry().getLineCount() > 0);
+        assertFalse(mPipeline.update());
+    }
+
+    @Test
+    public void dirtyBoundsAreTheUnionOfOldAndNewGeometry() throws InterruptedException {
+        mPipeline.submit(Bezier.CUBIC, FIRST, 1);
+        assertArrayEquals(new float[] {10f, 20f, 40f, 60f}, awaitDirty(), 1e-4f);
+        mPipeline.submit(Bezier.CUBIC, SECOND, 1);
+        assertArrayEquals(new float[] {10f, 20f, 130f, 260f}, awaitDirty(), 1e-4f);
+        assertTrue(mPipeline.update());
+        assertArrayEquals(new float[] {100f, 200f, 130f, 260f}, mPipeline.getGeometry().getBounds(), 1e-4f);
+        /* the same curve again only dirties where it already is */
+        mPipeline.submit(Bezier.CUBIC, SECOND, 1);
+        assertArrayEquals(new float[] {100f, 200f, 130f, 260f}, awaitDirty(), 1e-4f);
+    }
+
+    @Test
+    public void emptySubmitDirtiesWhatWasDrawn() throws InterruptedException {
+        mPipeline.submit(Bezier.CUBIC, FIRST, 1);
+        awaitDirty();
+        mPipeline.submit(Bezier.CUBIC, FIRST, 0);
+        assertArrayEquals(new float[] {10f, 20f, 40f, 60f}, awaitDirty(), 1e-4f);
+        assertTrue(mPipeline.update());
+        assertEquals(0, mPipeline.getGeometry().getLineCount());
+    }
+
+    @Test
+    public void flattenedCountGrowsOnlyByTheSegmentsRedone() throws InterruptedException {
+        BezierSpline spline = new BezierSpline();
+        spline.moveTo(0f, 0f);
+        spline.cubicTo(10f, 30f, 20f, 30f, 30f, 0f);
+        spline.cubicTo(40f, -30f, 50f, -30f, 60f, 0f);
+        spline.cubicTo(70f, 30f, 80f, 30f, 90f, 0f);
+        assertEquals(3, flattenedAfter(spline));
+        assertEquals(3, flattenedAfter(spline));
+        spline.setPoint(3 * 2 + 1, 75f, 60f);
+        assertEquals(4, flattenedAfter(spline));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMaxSegmentsBelowOne() {
+        mPipeline.setCurveQuality(0.25f, 0);
+    }
+
+    private long flattenedAfter(BezierSpline spline) throws InterruptedException {
+        mPipeline.submit(spline);
+        awaitDirty();
+        assertTrue(mPipeline.update());
+        return mPipeline.getGeometry().getFlattenedCount();
+    }
+
+    private float[] awaitDirty() throws InterruptedException {
+        float[] dirty = mDirty.poll(5, TimeUnit.SECONDS);
+        assertNotNull(dirty);
+        return dirty;
+    }
+}
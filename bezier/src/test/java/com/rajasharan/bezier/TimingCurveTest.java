@@ -0,0 +1,95 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TimingCurveTest {
+    private static final int SAMPLES = 1000;
+
+    @Test
+    public void linearCurveIsTheIdentity() {
+        TimingCurve curve = new TimingCurve(0f, 0f, 1f, 1f);
+        for (int i = 0; i <= SAMPLES; i++) {
+            float x = i / (float) SAMPLES;
+            assertEquals(x, curve.getValue(x), 1e-5f);
+        }
+    }
+
+    @Test
+    public void valueMatchesBisectionOfTheCurve() {
+        TimingCurve[] curves = {
+                TimingCurve.EASE, TimingCurve.EASE_IN, TimingCurve.EASE_OUT, TimingCurve.EASE_IN_OUT,
+                new TimingCurve(0.34f, 1.56f, 0.64f, 1f), new TimingCurve(0.9f, -0.5f, 0.1f, 1.5f)
+        };
+        for (TimingCurve curve : curves) {
+            for (int i = 0; i <= SAMPLES; i++) {
+                float x = i / (float) SAMPLES;
+                assertEquals(bisect(curve, x), curve.getValue(x), 1e-4);
+            }
+        }
+    }
+
+    @Test
+    public void verticalTangentIsFollowedClosely() {
+        /* x'(t) is 0 at x = 0.5, where an x within EPSILON leaves y off by its cube root */
+        TimingCurve curve = new TimingCurve(1f, 0f, 0f, 1f);
+        for (int i = 0; i <= SAMPLES; i++) {
+            float x = i / (float) SAMPLES;
+            assertEquals(bisect(curve, x), curve.getValue(x), 0.01);
+        }
+    }
+
+    @Test
+    public void inputIsClampedToTheUnitInterval() {
+        TimingCurve curve = new TimingCurve(0.34f, 1.56f, 0.64f, 1f);
+        assertEquals(0f, curve.getValue(-1f), 0f);
+        assertEquals(0f, curve.getValue(Float.NaN), 0f);
+        assertEquals(1f, curve.getValue(2f), 0f);
+    }
+
+    @Test
+    public void ofSharesRecentCurves() {
+        TimingCurve a = TimingCurve.of(0.1f, 0.2f, 0.3f, 0.4f);
+        assertSame(a, TimingCurve.of(0.1f, 0.2f, 0.3f, 0.4f));
+        assertEquals(0.3f, a.getX2(), 0f);
+        for (int i = 0; i < TimingCurve.MAX_CACHED; i++) {
+            TimingCurve.of(i / (float) TimingCurve.MAX_CACHED, 0.5f, 0.5f, 0.5f);
+        }
+        TimingCurve b = TimingCurve.of(0.1f, 0.2f, 0.3f, 0.4f);
+        assertTrue(a != b);
+        assertEquals(a.getValue(0.5f), b.getValue(0.5f), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsXOutsideTheUnitInterval() {
+        new TimingCurve(1.5f, 0f, 0.5f, 1f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInfiniteY() {
+        new TimingCurve(0.5f, Float.POSITIVE_INFINITY, 0.5f, 1f);
+    }
+
+    /* y at x, from bisecting x(t) in doubles */
+    private static double bisect(TimingCurve curve, double x) {
+        double lo = 0, hi = 1;
+        for (int k = 0; k < 60; k++) {
+            double mid = (lo + hi) * 0.5;
+            if (cubic(curve.getX1(), curve.getX2(), mid) < x) {
+                lo = mid;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return cubic(curve.getY1(), curve.getY2(), (lo + hi) * 0.5);
+    }
+
+    private static double cubic(double p1, double p2, double t) {
+        double mt = 1 - t;
+        return 3 * mt * mt * t * p1 + 3 * mt * t * t * p2 + t * t * t;
+    }
+}
@@ -0,0 +1,164 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchReplayerTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private long mTime;
+
+    @Test
+    public void logReadsBackWhatWasRecorded() throws IOException {
+        TouchRecorder recorder = new TouchRecorder();
+        recorder.start(1000L, WIDTH, HEIGHT, true);
+        mTime = 1000L;
+        event(recorder, TouchLog.ACTION_DOWN, 3, 10f, 20f);
+        recorder.beginEvent(TouchLog.ACTION_MOVE, 3);
+        recorder.addSample(3, 11f, 21f, 1008L);
+        recorder.addSample(3, 12f, 22f, 1016L);
+        recorder.stop();
+        TouchLogReader log = new TouchLogReader(recorder.toByteBuffer());
+        assertTrue(log.isMultiTouchMode());
+        assertEquals(WIDTH, log.getWidth());
+        assertEquals(HEIGHT, log.getHeight());
+        assertEquals(1000L, log.getStartTime());
+        assertTrue(log.next());
+        assertEquals(TouchLog.ACTION_DOWN, log.getAction());
+        assertEquals(3, log.getActionPointerId());
+        assertEquals(10f, log.getX(0), 0f);
+        assertTrue(log.next());
+        assertEquals(TouchLog.ACTION_MOVE, log.getAction());
+        assertEquals(2, log.getSampleCount());
+        assertEquals(22f, log.getY(1), 0f);
+        assertEquals(1016L, log.getEventTime(1));
+        assertFalse(log.next());
+    }
+
+    @Test
+    public void replayDrivesACubicModelLikeTheView() throws IOException {
+        TouchRecorder recorder = new TouchRecorder();
+        recorder.start(0L, WIDTH, HEIGHT, false);
+        mTime = 0L;
+        float[][] taps = {{100f, 100f}, {900f, 100f}, {300f, 600f}, {700f, 600f}};
+        for (float[] p : taps) {
+            event(recorder, TouchLog.ACTION_DOWN, 0, p[0], p[1]);
+            event(recorder, TouchLog.ACTION_UP, 0, p[0], p[1]);
+        }
+        event(recorder, TouchLog.ACTION_DOWN, 0, 300f, 600f);
+        for (int i = 1; i <= 10; i++) {
+            event(recorder, TouchLog.ACTION_MOVE, 0, 300f + i * 10f, 600f - i * 20f);
+        }
+        event(recorder, TouchLog.ACTION_UP, 0, 400f, 400f);
+        recorder.stop();
+
+        TouchReplayer replayer = new TouchReplayer(64);
+        CubicTouchModel model = new CubicTouchModel(40f);
+        int events = replayer.replay(new TouchLogReader(recorder.toByteBuffer()), model);
+        assertEquals(20, events);
+        assertEquals(events, replayer.getEventCount());
+        assertEquals(0, replayer.getFrameCount());
+        ControlPointStore touches = model.getTouches();
+        assertEquals(4, touches.size());
+        assertEquals(400f, touches.getX(2), 0f);
+        assertEquals(400f, touches.getY(2), 0f);
+        assertTrue(replayer.getCostNanos(0.5f) <= replayer.getCostNanos(1f));
+    }
+
+    @Test
+    public void replayStepsTheSpringBetweenEvents() throws IOException {
+        TouchRecorder recorder = new TouchRecorder();
+        recorder.start(0L, WIDTH, HEIGHT, false);
+        mTime = 0L;
+        float[][] taps = {{300f, 500f}, {800f, 500f}, {550f, 400f}};
+        for (float[] p : taps) {
+            event(recorder, TouchLog.ACTION_DOWN, 0, p[0], p[1]);
+            event(recorder, TouchLog.ACTION_UP, 0, p[0], p[1]);
+        }
+        /* a second of quiet after the control point was let go, then a stray up */
+        mTime += 1000L;
+        event(recorder, TouchLog.ACTION_UP, 0, 550f, 400f);
+        recorder.stop();
+
+        TouchReplayer replayer = new TouchReplayer(64);
+        SpringTouchModel model = new SpringTouchModel(40f);
+        replayer.replay(new TouchLogReader(recorder.toByteBuffer()), model);
+        assertTrue(replayer.getFrameCount() > 0);
+        /* the spring pulled the control point back to the middle of the chord */
+        float y = model.getTouches().getY(SpringTouchModel.SPRING_INDEX);
+        assertTrue(model.getTouches().containsRange(0, SpringTouchModel.MAX_COUNT));
+        assertEquals(500f, y, 1f);
+        String json = replayer.export();
+        assertTrue(json.startsWith("{\"events\":7,"));
+    }
+
+    @Test
+    public void sampleBufferGrowsToTheLargestMoveInTheLog() throws IOException {
+        TouchRecorder recorder = new TouchRecorder();
+        recorder.start(0L, WIDTH, HEIGHT, true);
+        mTime = 0L;
+        event(recorder, TouchLog.ACTION_DOWN, 0, 100f, 100f);
+        recorder.beginEvent(TouchLog.ACTION_MOVE, 0);
+        for (int i = 1; i <= 10; i++) {
+            recorder.addSample(0, 100f + i, 100f + i, mTime + i);
+        }
+        recorder.stop();
+
+        TouchReplayer replayer = new TouchReplayer(4);
+        final int[] applied = {0, 0};
+        TouchReplayer.Model model = new TouchReplayer.Model() {
+            @Override
+            public void setSize(int width, int height) {
+            }
+
+            @Override
+            public void setMultiTouchMode(boolean enable) {
+            }
+
+            @Override
+            public void registerTouch(float x, float y, int pointerId) {
+            }
+
+            @Override
+            public void applySamples(TouchSampleBuffer samples) {
+                applied[0] += samples.size();
+                applied[1] += samples.getDroppedCount();
+                assertEquals(101f, samples.getX(0), 0f);
+            }
+
+            @Override
+            public void release(int pointerId) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+
+            @Override
+            public boolean isAnimating() {
+                return false;
+            }
+
+            @Override
+            public boolean step(float seconds) {
+                return false;
+            }
+        };
+        assertEquals(2, replayer.replay(new TouchLogReader(recorder.toByteBuffer()), model));
+        assertEquals(10, replayer.getSampleCapacity());
+        assertEquals(10, applied[0]);
+        assertEquals(0, applied[1]);
+    }
+
+    private void event(TouchRecorder recorder, int action, int pointerId, float x, float y) {
+        mTime += 16;
+        recorder.beginEvent(action, pointerId);
+        recorder.addSample(pointerId, x, y, mTime);
+    }
+}
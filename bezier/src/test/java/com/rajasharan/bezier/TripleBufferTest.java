@@ -0,0 +1,101 @@
+package com.rajasharan.bezier;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TripleBufferTest {
+    private static final int FRAMES = 200000;
+    private static final int FRAME_SIZE = 64;
+
+    @Test
+    public void updateIsFalseUntilSomethingIsPublished() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<int[]>(new int[1], new int[1], new int[1]);
+        int[] read = buffer.getReadBuffer();
+        assertFalse(buffer.update());
+        assertSame(read, buffer.getReadBuffer());
+
+        buffer.getWriteBuffer()[0] = 7;
+        buffer.publish();
+        assertTrue(buffer.update());
+        assertEquals(7, buffer.getReadBuffer()[0]);
+        /* the same value is not handed over twice */
+        assertFalse(buffer.update());
+        assertEquals(7, buffer.getReadBuffer()[0]);
+    }
+
+    @Test
+    public void onlyTheLatestOfSeveralPublishesIsRead() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<int[]>(new int[1], new int[1], new int[1]);
+        for (int i = 1; i <= 5; i++) {
+            buffer.getWriteBuffer()[0] = i;
+            buffer.publish();
+        }
+        assertTrue(buffer.update());
+        assertEquals(5, buffer.getReadBuffer()[0]);
+        assertFalse(buffer.update());
+    }
+
+    @Test
+    public void readerNeverSeesATornOrOlderFrame() throws InterruptedException {
+        final TripleBuffer<int[]> buffer = new TripleBuffer<int[]>(
+                new int[FRAME_SIZE], new int[FRAME_SIZE], new int[FRAME_SIZE]);
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int frame = 1; frame <= FRAMES; frame++) {
+                    int[] w = buffer.getWriteBuffer();
+                    for (int i = 0; i < FRAME_SIZE; i++) {
+                        w[i] = frame;
+                    }
+                    buffer.publish();
+                }
+            }
+        });
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int last = 0;
+                while (last < FRAMES) {
+                    /* checked before update, so a finished writer's last frame must be waiting */
+                    boolean finished = !writer.isAlive();
+                    if (!buffer.update()) {
+                        if (finished) {
+                            failure.compareAndSet(null, "last frame lost after " + last);
+                            return;
+                        }
+                        continue;
+                    }
+                    int[] r = buffer.getReadBuffer();
+                    int frame = r[0];
+                    for (int i = 1; i < FRAME_SIZE; i++) {
+                        if (r[i] != frame) {
+                            failure.compareAndSet(null, "frame " + frame + " torn at " + i + ": " + r[i]);
+                            return;
+                        }
+                    }
+                    if (frame <= last) {
+                        failure.compareAndSet(null, "frame " + frame + " after " + last);
+                        return;
+                    }
+                    last = frame;
+                }
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join(10000);
+        assertFalse(reader.isAlive());
+        assertNull(failure.get());
+        assertEquals(FRAMES, buffer.getReadBuffer()[0]);
+        assertFalse(buffer.update());
+    }
+}